@@ -0,0 +1,88 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Customer name searches over a million orders: the CustomerNameIndex hash
+ * lookup and prefix search against scanning every order's name.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CustomerNameIndexBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+    // about five orders per customer
+    private static final int CUSTOMERS = 200_000;
+
+    private CustomerNameIndex customerNameIndex;
+    private List<Order> orders;
+
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        customerNameIndex = new CustomerNameIndex();
+        orders = new ArrayList<>(ORDERS);
+
+        LocalDate firstDate = LocalDate.of(2020, 1, 1);
+        for (int orderNumber = 1; orderNumber <= ORDERS; orderNumber++) {
+            Order order = new Order(firstDate.plusDays(orderNumber % 1000),
+                    orderNumber);
+            order.setCustomerName("Customer " + random.nextInt(CUSTOMERS));
+            orders.add(order);
+            customerNameIndex.put(order);
+        }
+    }
+
+
+    @Benchmark
+    public Object findWholeName() {
+        return customerNameIndex.findOrders("customer 123456");
+    }
+
+    @Benchmark
+    public Object findPrefix() {
+        // customer 12345 and customer 123450 through 123459
+        return customerNameIndex.findOrders("CUSTOMER 12345");
+    }
+
+    @Benchmark
+    public Object findCustomerNames() {
+        return customerNameIndex.findCustomerNames("customer 1", 10);
+    }
+
+    @Benchmark
+    public Object scanPrefix() {
+        List<Order> foundOrders = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getCustomerName().toLowerCase(Locale.ROOT)
+                    .startsWith("customer 12345")) {
+                foundOrders.add(order);
+            }
+        }
+        return foundOrders;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The marshallOrder and unmarshallOrder methods OrderDaoFileImpl used before
+ * OrderCodec, kept unchanged as the baseline for OrderCodecBenchmark.
+ *
+ * @author sarablinn
+ */
+class LegacyOrderText {
+
+    private static final String DELIMITER = ",";
+
+
+    /**
+     * Returns the String representation of an Order. 
+     * 
+     * @param order Order
+     * @return orderAsText String
+     */
+    static String marshallOrder(Order order) {
+        String orderAsText = Integer.toString(order.getOrderNumber()) + DELIMITER;
+        orderAsText += "'" + order.getCustomerName() + "'" + DELIMITER;
+        orderAsText += order.getTaxInfo().getStateAbbr() + DELIMITER;
+        orderAsText += order.getTaxInfo().getTaxRate() + DELIMITER;
+        orderAsText += order.getProduct().getProductType() + DELIMITER;
+        orderAsText += order.getArea() + DELIMITER;
+        orderAsText += order.getProduct().getCostPerSqFoot() + DELIMITER;
+        orderAsText += order.getProduct().getLaborCostPerSqFoot() + DELIMITER;
+        orderAsText += order.getMaterialCost() + DELIMITER;
+        orderAsText += order.getLaborCost() + DELIMITER;
+        orderAsText += order.getTax() + DELIMITER;
+        orderAsText += order.getTotal() + DELIMITER;
+        // include orderDate, it will be needed for creating order file name
+        // and is included in exportBackupDataToFile method.
+        orderAsText += order.getOrderDate()
+                .format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));      
+        
+        return orderAsText;
+    }
+    
+    /**
+     * Returns an Order from its String representation.
+     * 
+     * @param orderAsText String
+     * @return order Order
+     * @throws PersistenceException
+     */
+    static Order unmarshallOrder(String orderAsText) throws 
+            PersistenceException {
+        /*
+        orderDate (MMddyyyy) is last delimited item 
+        -- needed for creating the Order object.
+        */
+
+        /*
+        REMINDER: 
+        the if/else statements can be removed in the future, but for now we will
+        keep them since the sample files do not separate customerName.
+        */
+        
+        // cut out and save 'customerName' from orderAsText
+        String customerName = "";
+        boolean hasQuotes = orderAsText.contains("'");
+        if (hasQuotes == true) {
+            int start = orderAsText.indexOf("'") + 1; // excludes the '' 
+            int end = orderAsText.lastIndexOf("'");
+            customerName = orderAsText.substring(start, end);
+            // replace customerName with void, so commas from name won't 
+            // interfere and array indices will stay the same when text is split
+            orderAsText = orderAsText.replaceFirst(customerName, "");
+        }
+        
+        String[] orderData = orderAsText.split(DELIMITER);
+        Order orderFromFile;
+        
+        // MMddyyyy -> MM-dd-yyyy
+        LocalDate orderDate = LocalDate.parse(orderData[12], 
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        
+        int orderNumber = Integer.parseInt(orderData[0]);
+        orderFromFile = new Order(orderDate, orderNumber);
+        
+        if (hasQuotes == true) {
+            orderFromFile.setCustomerName(customerName);
+        } else {
+            orderFromFile.setCustomerName(orderData[1]);
+        }
+
+        // this constructor will set the state name
+        TaxInfo taxInfo = new TaxInfo(orderData[2]);
+        taxInfo.setTaxRate(new BigDecimal(orderData[3]));
+        orderFromFile.setTaxInfo(taxInfo);
+        
+        Product product = new Product();
+        product.setProductType(orderData[4]);
+        product.setCostPerSqFoot(new BigDecimal(orderData[6]));
+        product.setLaborCostPerSqFoot(new BigDecimal(orderData[7]));
+        orderFromFile.setProduct(product);
+        
+        orderFromFile.setArea(new BigDecimal(orderData[5]));
+        orderFromFile.setMaterialCost(new BigDecimal(orderData[8]));
+        orderFromFile.setLaborCost(new BigDecimal(orderData[9]));
+        orderFromFile.setTax(new BigDecimal(orderData[10]));
+        orderFromFile.setTotal(new BigDecimal(orderData[11]));
+        
+        return orderFromFile; 
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic Orders directories (and the Products and StateTaxes data
+ * files they refer to) for the benchmarks.
+ *
+ * Usage: OrderArchiveGenerator outputDir dates ordersPerDate [firstDate]
+ *
+ * @author sarablinn
+ */
+public class OrderArchiveGenerator {
+
+    public static final String ORDER_FILE_HEADER =
+            "OrderNumber,CustomerName,State,TaxRate,ProductType,Area,"
+            + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,"
+            + "LaborCost,Tax,Total";
+
+    public static final List<Product> PRODUCTS = List.of(
+            new Product("Carpet", new BigDecimal("2.25"), new BigDecimal("2.10")),
+            new Product("Laminate", new BigDecimal("1.75"), new BigDecimal("2.10")),
+            new Product("Tile", new BigDecimal("3.50"), new BigDecimal("4.15")),
+            new Product("Wood", new BigDecimal("5.15"), new BigDecimal("4.75")));
+
+    public static final List<TaxInfo> TAX_INFOS = List.of(
+            new TaxInfo("CA", "California", new BigDecimal("25.00")),
+            new TaxInfo("KY", "Kentucky", new BigDecimal("6.00")),
+            new TaxInfo("MN", "Minnesota", new BigDecimal("6.5")),
+            new TaxInfo("TX", "Texas", new BigDecimal("4.45")),
+            new TaxInfo("WA", "Washington", new BigDecimal("9.25")),
+            new TaxInfo("WI", "Wisconsin", new BigDecimal("4.5")));
+
+    private static final String[] CUSTOMER_NAMES = {"Joe, Inc.", "Target",
+        "Ada Lovelace", "Acme Flooring Co.", "Doctor Who", "Albert Einstein",
+        "Smith and Sons, LLC", "Grace Hopper"};
+
+
+    /**
+     * Writes dates order files, starting on firstDate, each holding
+     * ordersPerDate orders. Order numbers run from 1 to dates * ordersPerDate
+     * but are shuffled across the dates, as they would be in a real archive.
+     *
+     * @param ordersDir directory to create the order files in
+     * @param firstDate LocalDate of the first order file
+     * @param dates number of order files
+     * @param ordersPerDate orders in each order file
+     * @param seed for the random order data
+     * @throws IOException
+     */
+    public static void generate(Path ordersDir, LocalDate firstDate, int dates,
+            int ordersPerDate, long seed) throws IOException {
+
+        Files.createDirectories(ordersDir);
+        Random random = new Random(seed);
+
+        List<Integer> orderNumbers = new ArrayList<>(dates * ordersPerDate);
+        for (int i = 1; i <= dates * ordersPerDate; i++) {
+            orderNumbers.add(i);
+        }
+        Collections.shuffle(orderNumbers, random);
+
+        OrderCodec orderCodec = new OrderCodec();
+        int next = 0;
+        for (int day = 0; day < dates; day++) {
+            LocalDate orderDate = firstDate.plusDays(day);
+
+            List<Order> ordersOnDate = new ArrayList<>(ordersPerDate);
+            for (int i = 0; i < ordersPerDate; i++) {
+                ordersOnDate.add(randomOrder(random, orderDate,
+                        orderNumbers.get(next++)));
+            }
+            ordersOnDate.sort(Comparator.comparing((o) -> o.getOrderNumber()));
+
+            Path orderFile = ordersDir.resolve("Orders_"
+                    + orderDate.format(DateTimeFormatter.ofPattern("MMddyyyy"))
+                    + ".txt");
+            try (BufferedWriter out = Files.newBufferedWriter(orderFile)) {
+                out.write(ORDER_FILE_HEADER);
+                out.newLine();
+                for (Order order : ordersOnDate) {
+                    orderCodec.write(order, false, out);
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes Products.txt and StateTaxes.txt with the standard catalog to the
+     * data directory.
+     *
+     * @param dataDir Path
+     * @throws IOException
+     */
+    public static void writeReferenceData(Path dataDir) throws IOException {
+        Files.createDirectories(dataDir);
+
+        try (BufferedWriter out = Files.newBufferedWriter(
+                dataDir.resolve("Products.txt"))) {
+            out.write("ProductType,CostPerSquareFoot,LaborCostPerSquareFoot");
+            for (Product product : PRODUCTS) {
+                out.newLine();
+                out.write(product.getProductType() + ","
+                        + product.getCostPerSqFoot() + ","
+                        + product.getLaborCostPerSqFoot());
+            }
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(
+                dataDir.resolve("StateTaxes.txt"))) {
+            out.write("State,StateName,TaxRate");
+            for (TaxInfo taxInfo : TAX_INFOS) {
+                out.newLine();
+                out.write(taxInfo.getStateAbbr() + ","
+                        + taxInfo.getStateName() + ","
+                        + taxInfo.getTaxRate());
+            }
+        }
+    }
+
+    /**
+     * Returns a priced Order with random customer, state, product and area.
+     */
+    public static Order randomOrder(Random random, LocalDate orderDate,
+            int orderNumber) {
+
+        Order order = new Order(orderDate, orderNumber);
+        order.setCustomerName(
+                CUSTOMER_NAMES[random.nextInt(CUSTOMER_NAMES.length)]);
+
+        TaxInfo stateTax = TAX_INFOS.get(random.nextInt(TAX_INFOS.size()));
+        // orders loaded from file get their TaxInfo from the state abbreviation
+        TaxInfo taxInfo = new TaxInfo(stateTax.getStateAbbr());
+        taxInfo.setTaxRate(stateTax.getTaxRate());
+        order.setTaxInfo(taxInfo);
+
+        Product product = PRODUCTS.get(random.nextInt(PRODUCTS.size()));
+        order.setProduct(new Product(product.getProductType(),
+                product.getCostPerSqFoot(), product.getLaborCostPerSqFoot()));
+
+        BigDecimal area = BigDecimal.valueOf(10_000 + random.nextInt(90_000), 2);
+        order.setArea(area);
+
+        BigDecimal materialCost = area.multiply(product.getCostPerSqFoot())
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal laborCost = area.multiply(product.getLaborCostPerSqFoot())
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal subtotal = materialCost.add(laborCost);
+        BigDecimal tax = subtotal.multiply(stateTax.getTaxRate()
+                .divide(new BigDecimal("100.00"), 2, RoundingMode.HALF_UP))
+                .setScale(2, RoundingMode.HALF_UP);
+        order.setMaterialCost(materialCost);
+        order.setLaborCost(laborCost);
+        order.setTax(tax);
+        order.setTotal(subtotal.add(tax));
+
+        return order;
+    }
+
+    /**
+     * Deletes a directory and everything in it.
+     *
+     * @param dir Path
+     * @throws IOException
+     */
+    public static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: OrderArchiveGenerator outputDir dates "
+                    + "ordersPerDate [firstDate MM-dd-yyyy]");
+            return;
+        }
+
+        Path ordersDir = Paths.get(args[0]);
+        int dates = Integer.parseInt(args[1]);
+        int ordersPerDate = Integer.parseInt(args[2]);
+        LocalDate firstDate = args.length > 3
+                ? LocalDate.parse(args[3],
+                        DateTimeFormatter.ofPattern("MM-dd-yyyy"))
+                : LocalDate.now().plusDays(1).minusDays(dates);
+
+        generate(ordersDir, firstDate, dates, ordersPerDate, 42L);
+        System.out.println("Generated " + dates * ordersPerDate + " orders on "
+                + dates + " dates in " + ordersDir.toAbsolutePath());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Order text decoding and encoding throughput, OrderCodec against the
+ * marshall/unmarshall methods it replaced.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCodecBenchmark {
+
+    private static final int LINES = 1000;
+
+    private Order[] orders;
+    private String[] lines;
+    private OrderCodec orderCodec;
+    private StringBuilder lineBuilder;
+
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        orders = new Order[LINES];
+        lines = new String[LINES];
+        orderCodec = new OrderCodec();
+        lineBuilder = new StringBuilder();
+
+        for (int i = 0; i < LINES; i++) {
+            orders[i] = OrderArchiveGenerator.randomOrder(random,
+                    LocalDate.of(2022, 1, 1).plusDays(i % 365), i + 1);
+            lines[i] = orderCodec.encode(orders[i], true);
+        }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void decodeOrderCodec(Blackhole blackhole) throws Exception {
+        for (String line : lines) {
+            blackhole.consume(orderCodec.decode(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void decodeLegacy(Blackhole blackhole) throws Exception {
+        for (String line : lines) {
+            blackhole.consume(LegacyOrderText.unmarshallOrder(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void encodeOrderCodec(Blackhole blackhole) {
+        for (Order order : orders) {
+            lineBuilder.setLength(0);
+            orderCodec.encode(order, true, lineBuilder);
+            blackhole.consume(lineBuilder);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void encodeLegacy(Blackhole blackhole) {
+        for (Order order : orders) {
+            blackhole.consume(LegacyOrderText.marshallOrder(order));
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * OrderDaoFileImpl operations over synthetic Orders directories of different 
+ * sizes, to catch costs that grow with the size of the archive.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderDaoBenchmark {
+
+    @Param({"30", "365", "1825"})
+    int dates;
+
+    @Param({"20", "200"})
+    int ordersPerDate;
+
+    // 0 loads the whole Orders directory, else max dates kept in memory
+    @Param({"0"})
+    int partitionCacheSize;
+
+    // threads parsing order files on a full load
+    @Param({"1"})
+    int loadParallelism;
+
+    private Path workDir;
+    private Path ordersDir;
+    private LocalDate firstDate;
+    private OrderDaoFileImpl orderDao;
+    private Random random;
+
+    // date and number of every generated order, for lookups
+    private LocalDate[] orderDates;
+    private int[] orderNumbers;
+
+    // orders created during an iteration, deleted after it
+    private List<Order> createdOrders = new ArrayList<>();
+    private int nextOrderNumber;
+
+
+    @Setup(Level.Trial)
+    public void setUpArchive() throws Exception {
+        workDir = Files.createTempDirectory("orderDaoBenchmark");
+        ordersDir = workDir.resolve("Orders");
+        firstDate = LocalDate.of(2020, 1, 1);
+        OrderArchiveGenerator.generate(ordersDir, firstDate, dates,
+                ordersPerDate, 42L);
+
+        orderDao = newOrderDao();
+        List<Order> allOrders = orderDao.getAllOrders();
+        orderDates = new LocalDate[allOrders.size()];
+        orderNumbers = new int[allOrders.size()];
+        for (int i = 0; i < allOrders.size(); i++) {
+            orderDates[i] = allOrders.get(i).getOrderDate();
+            orderNumbers[i] = allOrders.get(i).getOrderNumber();
+        }
+
+        random = new Random(7L);
+        nextOrderNumber = dates * ordersPerDate + 1;
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreatedOrders() throws Exception {
+        for (Order order : createdOrders) {
+            orderDao.deleteOrder(order.getOrderDate(), order.getOrderNumber());
+        }
+        createdOrders.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws Exception {
+        OrderArchiveGenerator.deleteRecursively(workDir);
+    }
+
+
+    @Benchmark
+    public Order getOrder() throws Exception {
+        int i = random.nextInt(orderNumbers.length);
+        return orderDao.getOrder(orderDates[i], orderNumbers[i]);
+    }
+
+    @Benchmark
+    public List<Order> getAllOrdersOnDate() throws Exception {
+        return orderDao.getAllOrdersOnDate(
+                firstDate.plusDays(random.nextInt(dates)));
+    }
+
+    @Benchmark
+    public Order createOrder() throws Exception {
+        Order order = OrderArchiveGenerator.randomOrder(random,
+                firstDate.plusDays(random.nextInt(dates)), nextOrderNumber++);
+        orderDao.createOrder(order);
+        createdOrders.add(order);
+        return order;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void exportBackupDataToFile() throws Exception {
+        orderDao.exportBackupDataToFile(
+                workDir.resolve("backup.txt").toString());
+    }
+
+    /**
+     * First lookup through a new DAO, as at application startup.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Order coldStartGetOrder() throws Exception {
+        int i = random.nextInt(orderNumbers.length);
+        return newOrderDao().getOrder(orderDates[i], orderNumbers[i]);
+    }
+
+
+    private OrderDaoFileImpl newOrderDao() {
+        OrderDaoFileImpl newOrderDao = new OrderDaoFileImpl(ordersDir.toString());
+        newOrderDao.setPartitionCacheSize(partitionCacheSize);
+        newOrderDao.setLoadParallelism(loadParallelism);
+        return newOrderDao;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a single order file, text through a BufferedReader or a memory
+ * mapping of the file, or binary (OrderDaoBinaryFileImpl) through a heap 
+ * buffer or a mapping. The setup prints the size of the file in each format.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderFileReadBenchmark {
+
+    @Param({"1000", "50000"})
+    int ordersPerDate;
+
+    @Param({"false", "true"})
+    boolean memoryMappedReads;
+
+    @Param({"false", "true"})
+    boolean binaryOrderFiles;
+
+    private Path workDir;
+    private Path ordersDir;
+    private LocalDate orderDate;
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("orderFileReadBenchmark");
+        ordersDir = workDir.resolve("Orders");
+        orderDate = LocalDate.of(2022, 6, 22);
+        OrderArchiveGenerator.generate(ordersDir, orderDate, 1, ordersPerDate,
+                42L);
+
+        Path binaryOrdersDir = workDir.resolve("OrdersBinary");
+        Files.createDirectories(binaryOrdersDir);
+        OrderFileConverter.textToBinary(ordersDir.toString(),
+                binaryOrdersDir.toString());
+        System.out.println("Order file size, text: "
+                + Files.size(ordersDir.resolve("Orders_06222022.txt"))
+                + " bytes, binary: "
+                + Files.size(binaryOrdersDir.resolve("Orders_06222022.ord"))
+                + " bytes");
+        if (binaryOrderFiles) {
+            ordersDir = binaryOrdersDir;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        OrderArchiveGenerator.deleteRecursively(workDir);
+    }
+
+
+    /**
+     * Reads the order file through a new DAO, so it is always parsed.
+     */
+    @Benchmark
+    public List<Order> readOrderFile() throws Exception {
+        OrderDaoFileImpl orderDao = binaryOrderFiles
+                ? new OrderDaoBinaryFileImpl(ordersDir.toString())
+                : new OrderDaoFileImpl(ordersDir.toString());
+        orderDao.setPartitionCacheSize(1);
+        orderDao.setMemoryMappedReads(memoryMappedReads);
+        return orderDao.getAllOrdersOnDate(orderDate);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.io.BufferedReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures the heap held by the orders of a generated archive once they are
+ * read, with and without a shared CatalogInterner, and counts the distinct
+ * Product and TaxInfo instances they refer to. The heap is measured as the
+ * used heap after a full GC, before and after the orders are read, so run
+ * it with a fixed heap and a single threaded collector for stable numbers:
+ *
+ * java -Xms2g -Xmx2g -XX:+UseSerialGC -cp target/classes:target/test-classes
+ *     com.sblinn.flooringmastery.dao.OrderHeapFootprint [dates] [ordersPerDate]
+ *
+ * @author sarablinn
+ */
+public class OrderHeapFootprint {
+
+    public static void main(String[] args) throws Exception {
+        int dates = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int ordersPerDate = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        Path workDir = Files.createTempDirectory("orderHeapFootprint");
+        try {
+            Path ordersDir = workDir.resolve("Orders");
+            OrderArchiveGenerator.generate(ordersDir, LocalDate.of(2022, 1, 1),
+                    dates, ordersPerDate, 42L);
+
+            // once to warm up, then measured
+            for (int run = 0; run < 2; run++) {
+                measure(ordersDir, "copied", new CatalogInterner(0), run == 1);
+                measure(ordersDir, "interned", new CatalogInterner(), run == 1);
+            }
+        } finally {
+            OrderArchiveGenerator.deleteRecursively(workDir);
+        }
+    }
+
+
+    private static void measure(Path ordersDir, String label,
+            CatalogInterner catalogInterner, boolean print) throws Exception {
+
+        long usedBefore = usedHeapAfterGc();
+        List<Order> orders = readOrders(ordersDir, catalogInterner);
+        long usedAfter = usedHeapAfterGc();
+
+        IdentityHashMap<Object, Boolean> products = new IdentityHashMap<>();
+        IdentityHashMap<Object, Boolean> taxInfos = new IdentityHashMap<>();
+        for (Order order : orders) {
+            products.put(order.getProduct(), Boolean.TRUE);
+            taxInfos.put(order.getTaxInfo(), Boolean.TRUE);
+        }
+        if (print) {
+            System.out.printf("%-9s %,d orders: %,d bytes retained "
+                    + "(%,d an order), %,d Products, %,d TaxInfos%n", label,
+                    orders.size(), usedAfter - usedBefore,
+                    (usedAfter - usedBefore) / orders.size(),
+                    products.size(), taxInfos.size());
+        }
+    }
+
+    private static List<Order> readOrders(Path ordersDir,
+            CatalogInterner catalogInterner) throws Exception {
+
+        OrderCodec orderCodec = new OrderCodec(catalogInterner);
+        List<Order> orders = new ArrayList<>();
+        List<Path> orderFiles;
+        try (Stream<Path> files = Files.list(ordersDir)) {
+            orderFiles = files.filter((f) -> f.getFileName().toString()
+                    .startsWith("Orders_")).sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path orderFile : orderFiles) {
+            LocalDate orderDate = LocalDate.parse(
+                    orderFile.getFileName().toString().substring(7, 15),
+                    DateTimeFormatter.ofPattern("MMddyyyy"));
+            try (BufferedReader in = Files.newBufferedReader(orderFile)) {
+                in.readLine(); // header
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        orders.add(orderCodec.decode(line, orderDate));
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+}
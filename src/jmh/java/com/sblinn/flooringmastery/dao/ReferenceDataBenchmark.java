@@ -0,0 +1,64 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Product and TaxInfo lookups, done once for every order priced.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceDataBenchmark {
+
+    private Path dataDir;
+    private ProductDao productDao;
+    private TaxInfoDao taxInfoDao;
+
+
+    @Setup
+    public void setUp() throws Exception {
+        dataDir = Files.createTempDirectory("referenceDataBenchmark");
+        OrderArchiveGenerator.writeReferenceData(dataDir);
+        productDao = new ProductDaoFileImpl(
+                dataDir.resolve("Products.txt").toString());
+        taxInfoDao = new TaxInfoDaoFileImpl(
+                dataDir.resolve("StateTaxes.txt").toString());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        OrderArchiveGenerator.deleteRecursively(dataDir);
+    }
+
+
+    @Benchmark
+    public Product getProduct() throws Exception {
+        return productDao.getProduct("Tile");
+    }
+
+    @Benchmark
+    public TaxInfo getTaxInfo() throws Exception {
+        return taxInfoDao.getTaxInfo("CA");
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import com.sblinn.flooringmastery.dto.UsState;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * State name lookup throughput, as done for every order line read: the
+ * arrays the TaxInfo(String) constructor used to build on each call, against
+ * the constructor and the UsState registry it now uses. The decode path as a
+ * whole is measured by OrderCodecBenchmark.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateLookupBenchmark {
+
+    private static final int LOOKUPS = 1000;
+
+    private String[] stateAbbrs;
+
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        UsState[] states = UsState.values();
+        stateAbbrs = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            // copies, as a line read from a file would give
+            stateAbbrs[i] = new String(
+                    states[random.nextInt(states.length)].getStateAbbr());
+        }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void legacyArrays(Blackhole blackhole) {
+        for (String stateAbbr : stateAbbrs) {
+            blackhole.consume(legacyStateName(stateAbbr));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void taxInfoConstructor(Blackhole blackhole) {
+        for (String stateAbbr : stateAbbrs) {
+            blackhole.consume(new TaxInfo(stateAbbr));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void usStateRegistry(Blackhole blackhole) {
+        for (String stateAbbr : stateAbbrs) {
+            blackhole.consume(UsState.of(stateAbbr).getStateName());
+        }
+    }
+
+
+    /**
+     * The lookup the TaxInfo(String) constructor did before UsState, kept
+     * unchanged as the baseline.
+     */
+    private static String legacyStateName(String stateAbbreviation) {
+        String[] stateNames = {"Alabama", "Alaska", "Arizona", "Arkansas", 
+            "California", "Colorado", "Connecticut", "Delaware", "Florida", 
+            "Georgia", "Hawaii", "Idaho", "Illinois", "Indiana", "Iowa", 
+            "Kansas", "Kentucky", "Louisiana", "Maine", "Maryland", 
+            "Massachusetts", "Michigan", "Minnesota", "Mississippi", 
+            "Missouri", "Montana", "Nebraska", "Nevada", "New Hampshire", 
+            "New Jersey", "New Mexico", "New York", "North Carolina", 
+            "North Dakota", "Ohio", "Oklahoma", "Oregon", "Pennsylvania", 
+            "Rhode Island", "South Carolina", "South Dakota", "Tennessee", 
+            "Texas", "Utah", "Vermont", "Virginia", "Washington", 
+            "West Virginia", "Wisconsin", "Wyoming"};
+        
+        String[] stateAbbrs = {"AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", 
+            "FL", "GA", "HI", "ID", "IL", "IN", "IA", "KS", "KY", "LA", "ME", 
+            "MD", "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ", 
+            "NM", "NY", "NC", "ND", "OH", "OK", "OR", "PA", "RI", "SC", "SD", 
+            "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"};
+        
+        List<String> stateAbbrsList = Arrays.asList(stateAbbrs);
+        if (stateAbbrsList.contains(stateAbbreviation)) {
+            return stateNames[stateAbbrsList.indexOf(stateAbbreviation)];
+        }
+        return null;
+    }
+
+}
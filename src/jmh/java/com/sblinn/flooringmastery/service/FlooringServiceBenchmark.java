@@ -0,0 +1,122 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dao.OrderArchiveGenerator;
+import com.sblinn.flooringmastery.dao.OrderDao;
+import com.sblinn.flooringmastery.dao.OrderDaoFileImpl;
+import com.sblinn.flooringmastery.dao.OrderNumberSequenceFileImpl;
+import com.sblinn.flooringmastery.dao.ProductDaoFileImpl;
+import com.sblinn.flooringmastery.dao.TaxInfoDaoFileImpl;
+import com.sblinn.flooringmastery.dto.Order;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FlooringServiceImpl pricing and order creation over the file DAOs and a
+ * synthetic archive of future orders.
+ *
+ * @author sarablinn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlooringServiceBenchmark {
+
+    @Param({"30", "365"})
+    int dates;
+
+    @Param({"20", "200"})
+    int ordersPerDate;
+
+    private Path workDir;
+    private LocalDate firstDate;
+    private OrderDao orderDao;
+    private FlooringService service;
+    private Random random;
+
+    // orders created during an iteration, deleted after it
+    private List<Order> createdOrders = new ArrayList<>();
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("flooringServiceBenchmark");
+        Path ordersDir = workDir.resolve("Orders");
+        firstDate = LocalDate.now().plusDays(1);
+        OrderArchiveGenerator.generate(ordersDir, firstDate, dates,
+                ordersPerDate, 42L);
+        OrderArchiveGenerator.writeReferenceData(workDir);
+
+        orderDao = new OrderDaoFileImpl(ordersDir.toString());
+        service = new FlooringServiceImpl(workDir.toString(), orderDao,
+                new ProductDaoFileImpl(
+                        workDir.resolve("Products.txt").toString()),
+                new TaxInfoDaoFileImpl(
+                        workDir.resolve("StateTaxes.txt").toString()),
+                new OrderNumberSequenceFileImpl(
+                        workDir.resolve("OrderNumber.txt").toString(),
+                        orderDao));
+        random = new Random(7L);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreatedOrders() throws Exception {
+        for (Order order : createdOrders) {
+            orderDao.deleteOrder(order.getOrderDate(), order.getOrderNumber());
+        }
+        createdOrders.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        OrderArchiveGenerator.deleteRecursively(workDir);
+    }
+
+
+    @Benchmark
+    public Order calculateOrder() throws Exception {
+        return service.calculateOrder(newOrder());
+    }
+
+    @Benchmark
+    public Order createOrder() throws Exception {
+        Order order = service.createOrder(newOrder());
+        createdOrders.add(order);
+        return order;
+    }
+
+
+    /**
+     * Returns an unpriced new order, as entered in the console.
+     */
+    private Order newOrder() {
+        Order order = OrderArchiveGenerator.randomOrder(random,
+                firstDate.plusDays(random.nextInt(dates)), 0);
+        order.setMaterialCost(null);
+        order.setLaborCost(null);
+        order.setTax(null);
+        order.setTotal(null);
+        return order;
+    }
+
+}
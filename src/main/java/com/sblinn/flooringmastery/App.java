@@ -1,7 +1,7 @@
 package com.sblinn.flooringmastery;
 
 import com.sblinn.flooringmastery.controller.FlooringController;
-import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
 /**
@@ -27,8 +27,11 @@ public class App {
 //        controller.run();
 
 
-        ApplicationContext appContext = new ClassPathXmlApplicationContext(
-                "classpath:applicationContext.xml");
+        ConfigurableApplicationContext appContext = 
+                new ClassPathXmlApplicationContext(
+                        "classpath:applicationContext.xml");
+        // closing the context compacts the order journal on exit
+        appContext.registerShutdownHook();
 
         FlooringController controller
                 = appContext.getBean("controller", FlooringController.class);
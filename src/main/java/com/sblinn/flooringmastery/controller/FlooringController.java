@@ -50,7 +50,10 @@ public class FlooringController {
                     case 5:
                         exportAllData();
                         break;
-                    case 6: // QUIT
+                    case 6:
+                        displayOrdersByCustomer();
+                        break;
+                    case 7: // QUIT
                         keepGoing = false;
                         break;
                     default:
@@ -85,6 +88,22 @@ public class FlooringController {
         
     }
     
+    private void displayOrdersByCustomer() throws 
+            PersistenceException,
+            InvalidDataException {
+        try {
+            String customerNameQuery = view.getInputCustomerNameQuery();
+            List<Order> ordersList = 
+                    service.findOrdersByCustomer(customerNameQuery);
+            view.displayCustomerOrdersBanner(customerNameQuery);
+            view.displayOrdersList(ordersList);
+            view.displayContinuePrompt();
+        } catch (DataNotFoundException e) {
+            view.displayErrorMessage(e.getMessage());
+            view.displayContinuePrompt();
+        }
+    }
+    
     private void createOrder() throws 
             PersistenceException, 
             DataNotFoundException,
@@ -104,9 +123,9 @@ public class FlooringController {
                                 "Are you sure you would like to "
                                         + "create this order?");
                 if (response == true) {
-                    service.createOrder(calculatedOrder);
+                    Order newOrder = service.createOrder(calculatedOrder);
                     view.displayActionMessageBanner("ORDER #"
-                            + calculatedOrder.getOrderNumber() + " SUCCESSFULLY CREATED");
+                            + newOrder.getOrderNumber() + " SUCCESSFULLY CREATED");
                 } else {
                     view.displayActionMessageBanner("NO NEW ORDER CREATED");
                 }
@@ -123,10 +142,10 @@ public class FlooringController {
             DataNotFoundException,
             InvalidDataException {
         
-        LocalDate orderDate = view.getInputOrderDate();
+        // order numbers are unique, so no order date is needed
         int orderNumber = view.getInputOrderNumber();
 
-        Order oldOrder = service.getOrder(orderDate, orderNumber);
+        Order oldOrder = service.getOrder(orderNumber);
         view.displayActionMessageBanner("ORDER FOUND");
 
         Order updatedOrder = view.getUpdatedOrderInfo(oldOrder,
@@ -153,10 +172,10 @@ public class FlooringController {
             PersistenceException,
             DataNotFoundException {
         
-        LocalDate orderDate = view.getInputOrderDate();
         int orderNumber = view.getInputOrderNumber();
         
-        Order orderToDelete = service.getOrder(orderDate, orderNumber);
+        Order orderToDelete = service.getOrder(orderNumber);
+        LocalDate orderDate = orderToDelete.getOrderDate();
 
         boolean response = view.displayOrderSummaryAndGetYesNoResponse(
                 orderToDelete, "Are you sure you want to delete order #"
@@ -0,0 +1,375 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes the binary order files of OrderDaoBinaryFileImpl, one per
+ * orderDate, Orders_MMddyyyy.ord:
+ *
+ * "ORDB" version
+ * stateCount (StateAbbr TaxRate)*
+ * productCount (ProductType CostPerSquareFoot LaborCostPerSquareFoot)*
+ * orderCount (OrderNumberDelta CustomerName StateIndex ProductIndex Area
+ *             MaterialCost LaborCost Tax Total)*
+ *
+ * Each state and product is written once, in a dictionary at the head of the
+ * file, and orders refer to them by index. Orders are in order number order
+ * and each number is written as its difference from the one before. Counts,
+ * indexes and numbers are unsigned varints (7 bits a byte, low bits first);
+ * strings are a varint length then their UTF-8 bytes. A decimal is a varint
+ * of its unscaled value, zigzag encoded, shifted left 3 bits above its
+ * scale, so an amount of money is stored as a long count of cents; a
+ * decimal with a scale outside 0 to 6, or too large for a long, has the
+ * scale bits 7 and is written as a string.
+ *
+ * A file is read whole into a ByteBuffer, or mapped, and decoded in one pass
+ * without parsing any text but names.
+ *
+ * Not thread safe, use one codec per thread.
+ *
+ * @author sarablinn
+ */
+final class BinaryOrderFileCodec {
+
+    private static final byte[] MAGIC = {'O', 'R', 'D', 'B'};
+    private static final byte VERSION = 1;
+
+    private static final int SCALE_BITS = 3;
+    private static final int MAX_SCALE = 6;
+    private static final int STRING_DECIMAL = 7;
+
+    private final CatalogInterner catalogInterner;
+    private byte[] stringBytes = new byte[64];
+
+
+    BinaryOrderFileCodec() {
+        this(new CatalogInterner());
+    }
+
+    /**
+     * @param catalogInterner shares the states and products of the orders
+     * read with those of other files read through it
+     */
+    BinaryOrderFileCodec(CatalogInterner catalogInterner) {
+        this.catalogInterner = catalogInterner;
+    }
+
+
+    /**
+     * Returns the orders in a binary order file by order number, or null if
+     * the file is empty.
+     *
+     * @param orderFile Path
+     * @param orderDate LocalDate of the order file
+     * @param memoryMapped whether to map the file instead of reading it
+     * @return ConcurrentHashMap of Orders or null
+     * @throws IOException
+     * @throws PersistenceException if the file is not a valid order file
+     */
+    ConcurrentHashMap<Integer, Order> read(Path orderFile, LocalDate orderDate,
+            boolean memoryMapped) throws IOException, PersistenceException {
+
+        ByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(orderFile,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return null;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Order file too large to read: "
+                        + orderFile);
+            }
+            if (memoryMapped) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining()
+                        && channel.read(bytes) >= 0) {
+                    // read until full
+                }
+                bytes.flip();
+            }
+        }
+
+        try {
+            return decode(bytes, orderDate);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new PersistenceException(
+                    "Invalid order file: " + orderFile, e);
+        }
+    }
+
+    /**
+     * Returns the orders encoded in bytes, from its position to its limit,
+     * by order number.
+     *
+     * @param bytes ByteBuffer
+     * @param orderDate LocalDate of the orders
+     * @return ConcurrentHashMap of Orders
+     * @throws PersistenceException if the bytes are not a valid order file
+     */
+    ConcurrentHashMap<Integer, Order> decode(ByteBuffer bytes,
+            LocalDate orderDate) throws PersistenceException {
+
+        byte[] magic = new byte[MAGIC.length];
+        bytes.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || bytes.get() != VERSION) {
+            throw new PersistenceException("Not a binary order file.");
+        }
+
+        TaxInfo[] taxInfos = new TaxInfo[readCount(bytes)];
+        for (int i = 0; i < taxInfos.length; i++) {
+            // the state name is looked up once per state, not per order
+            TaxInfo taxInfo = new TaxInfo(readString(bytes));
+            taxInfo.setTaxRate(readDecimal(bytes));
+            taxInfos[i] = catalogInterner.intern(taxInfo);
+        }
+        Product[] products = new Product[readCount(bytes)];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = catalogInterner.intern(new Product(readString(bytes),
+                    readDecimal(bytes), readDecimal(bytes)));
+        }
+
+        int orderCount = readCount(bytes);
+        ConcurrentHashMap<Integer, Order> ordersOnDate =
+                new ConcurrentHashMap<>(Math.max(16, orderCount * 4 / 3 + 1));
+        int orderNumber = 0;
+        for (int i = 0; i < orderCount; i++) {
+            orderNumber += (int) readVarLong(bytes);
+            Order order = new Order(orderDate, orderNumber);
+            order.setCustomerName(readString(bytes));
+
+            // orders of the same state and product share the interned ones
+            order.setTaxInfo(taxInfos[readIndex(bytes, taxInfos.length)]);
+            order.setProduct(products[readIndex(bytes, products.length)]);
+
+            order.setArea(readDecimal(bytes));
+            order.setMaterialCost(readDecimal(bytes));
+            order.setLaborCost(readDecimal(bytes));
+            order.setTax(readDecimal(bytes));
+            order.setTotal(readDecimal(bytes));
+            ordersOnDate.put(orderNumber, order);
+        }
+        if (bytes.hasRemaining()) {
+            throw new PersistenceException(
+                    "Unexpected data after the last order.");
+        }
+
+        return ordersOnDate;
+    }
+
+    /**
+     * Writes the orders, all on one date, in the binary format.
+     *
+     * @param orders Collection of Orders, in order number order
+     * @param out OutputStream
+     * @throws IOException
+     */
+    void write(Collection<Order> orders, OutputStream out) throws IOException {
+        ByteSink sink = new ByteSink();
+        sink.write(MAGIC);
+        sink.write(VERSION);
+
+        List<TaxInfo> taxInfos = new ArrayList<>();
+        Map<List<Object>, Integer> taxInfoIndexes = new HashMap<>();
+        List<Product> products = new ArrayList<>();
+        Map<List<Object>, Integer> productIndexes = new HashMap<>();
+        int[] taxInfoOfOrder = new int[orders.size()];
+        int[] productOfOrder = new int[orders.size()];
+        int i = 0;
+        for (Order order : orders) {
+            TaxInfo taxInfo = order.getTaxInfo();
+            taxInfoOfOrder[i] = taxInfoIndexes.computeIfAbsent(
+                    Arrays.asList(taxInfo.getStateAbbr(), taxInfo.getTaxRate()),
+                    (key) -> {
+                        taxInfos.add(taxInfo);
+                        return taxInfos.size() - 1;
+                    });
+            Product product = order.getProduct();
+            productOfOrder[i] = productIndexes.computeIfAbsent(
+                    Arrays.asList(product.getProductType(),
+                            product.getCostPerSqFoot(),
+                            product.getLaborCostPerSqFoot()),
+                    (key) -> {
+                        products.add(product);
+                        return products.size() - 1;
+                    });
+            i++;
+        }
+
+        sink.writeVarLong(taxInfos.size());
+        for (TaxInfo taxInfo : taxInfos) {
+            sink.writeString(taxInfo.getStateAbbr());
+            sink.writeDecimal(taxInfo.getTaxRate());
+        }
+        sink.writeVarLong(products.size());
+        for (Product product : products) {
+            sink.writeString(product.getProductType());
+            sink.writeDecimal(product.getCostPerSqFoot());
+            sink.writeDecimal(product.getLaborCostPerSqFoot());
+        }
+
+        sink.writeVarLong(orders.size());
+        int previousOrderNumber = 0;
+        i = 0;
+        for (Order order : orders) {
+            if (order.getOrderNumber() < previousOrderNumber) {
+                throw new IllegalArgumentException(
+                        "Orders must be in order number order.");
+            }
+            sink.writeVarLong(order.getOrderNumber() - previousOrderNumber);
+            previousOrderNumber = order.getOrderNumber();
+            sink.writeString(order.getCustomerName());
+            sink.writeVarLong(taxInfoOfOrder[i]);
+            sink.writeVarLong(productOfOrder[i]);
+            sink.writeDecimal(order.getArea());
+            sink.writeDecimal(order.getMaterialCost());
+            sink.writeDecimal(order.getLaborCost());
+            sink.writeDecimal(order.getTax());
+            sink.writeDecimal(order.getTotal());
+            i++;
+        }
+
+        out.write(sink.bytes, 0, sink.size);
+    }
+
+
+    private int readCount(ByteBuffer bytes) {
+        long count = readVarLong(bytes);
+        // no count can be more than the bytes left, every entry takes one
+        if (count > bytes.remaining()) {
+            throw new IllegalArgumentException("Invalid count: " + count);
+        }
+        return (int) count;
+    }
+
+    private static int readIndex(ByteBuffer bytes, int size) {
+        long index = readVarLong(bytes);
+        if (index >= size) {
+            throw new IllegalArgumentException("Invalid index: " + index);
+        }
+        return (int) index;
+    }
+
+    private static long readVarLong(ByteBuffer bytes) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint.");
+    }
+
+    private String readString(ByteBuffer bytes) {
+        int length = readCount(bytes);
+        if (bytes.hasArray()) {
+            String string = new String(bytes.array(),
+                    bytes.arrayOffset() + bytes.position(), length,
+                    StandardCharsets.UTF_8);
+            bytes.position(bytes.position() + length);
+            return string;
+        }
+        if (stringBytes.length < length) {
+            stringBytes = new byte[Math.max(length, 2 * stringBytes.length)];
+        }
+        bytes.get(stringBytes, 0, length);
+        return new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private BigDecimal readDecimal(ByteBuffer bytes) {
+        long encoded = readVarLong(bytes);
+        int scale = (int) (encoded & ((1 << SCALE_BITS) - 1));
+        if (scale == STRING_DECIMAL) {
+            return new BigDecimal(readString(bytes));
+        }
+        long zigzag = encoded >>> SCALE_BITS;
+        long unscaled = (zigzag >>> 1) ^ -(zigzag & 1);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+
+    /**
+     * A growable byte array the file is encoded into before it is written
+     * in one call.
+     */
+    private static final class ByteSink {
+
+        private byte[] bytes = new byte[1 << 12];
+        private int size = 0;
+
+        void write(byte b) {
+            ensureCapacity(1);
+            bytes[size++] = b;
+        }
+
+        void write(byte[] b) {
+            ensureCapacity(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String string) {
+            byte[] utf8 = Objects.requireNonNull(string)
+                    .getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            write(utf8);
+        }
+
+        void writeDecimal(BigDecimal decimal) {
+            BigInteger unscaled = decimal.unscaledValue();
+            int scale = decimal.scale();
+            // one bit is lost to the zigzag and three to the scale
+            if (scale < 0 || scale > MAX_SCALE || unscaled.bitLength() > 59) {
+                writeVarLong(STRING_DECIMAL);
+                writeString(decimal.toString());
+                return;
+            }
+            long value = unscaled.longValue();
+            long zigzag = (value << 1) ^ (value >> 63);
+            writeVarLong((zigzag << SCALE_BITS) | scale);
+        }
+
+        private void ensureCapacity(int needed) {
+            if (size + needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes,
+                        Math.max(size + needed, 2 * bytes.length));
+            }
+        }
+
+    }
+
+}
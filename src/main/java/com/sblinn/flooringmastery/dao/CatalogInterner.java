@@ -0,0 +1,178 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical Product and TaxInfo instances for the orders a DAO reads, so the
+ * orders of the same product at the same costs, or in the same state at the
+ * same rate, share one instance instead of each holding its own copy. An
+ * order archive refers to a handful of products and states, so this leaves
+ * a few dozen instances where there would be one per order.
+ *
+ * Instances are matched on every field, with BigDecimals compared by equals,
+ * scale included, so an interned order is written back exactly as it was
+ * read. Once maxEntries instances of either kind are held, new ones are no
+ * longer interned, which bounds the tables for archives with unusually many
+ * distinct costs or rates.
+ *
+ * Interned instances are shared by many orders and must not be changed in
+ * place; an order is given a new Product or TaxInfo instead. The tables are
+ * concurrent, so one interner serves every thread reading order files.
+ *
+ * @author sarablinn
+ */
+final class CatalogInterner {
+
+    static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final ConcurrentHashMap<ProductKey, Product> products =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TaxInfoKey, TaxInfo> taxInfos =
+            new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+
+    CatalogInterner() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries max instances of each kind held; 0 interns nothing
+     */
+    CatalogInterner(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+
+    /**
+     * Returns the canonical instance equal to product, which is product
+     * itself the first time it is seen.
+     *
+     * @param product Product
+     * @return Product
+     */
+    Product intern(Product product) {
+        ProductKey key = new ProductKey(product.getProductType(),
+                product.getCostPerSqFoot(), product.getLaborCostPerSqFoot());
+        Product internedProduct = products.get(key);
+        if (internedProduct != null) {
+            return internedProduct;
+        }
+        if (products.size() >= maxEntries) {
+            return product;
+        }
+        internedProduct = products.putIfAbsent(key, product);
+        return internedProduct == null ? product : internedProduct;
+    }
+
+    /**
+     * Returns the canonical instance equal to taxInfo, which is taxInfo
+     * itself the first time it is seen.
+     *
+     * @param taxInfo TaxInfo
+     * @return TaxInfo
+     */
+    TaxInfo intern(TaxInfo taxInfo) {
+        TaxInfoKey key = new TaxInfoKey(taxInfo.getStateAbbr(),
+                taxInfo.getStateName(), taxInfo.getTaxRate());
+        TaxInfo internedTaxInfo = taxInfos.get(key);
+        if (internedTaxInfo != null) {
+            return internedTaxInfo;
+        }
+        if (taxInfos.size() >= maxEntries) {
+            return taxInfo;
+        }
+        internedTaxInfo = taxInfos.putIfAbsent(key, taxInfo);
+        return internedTaxInfo == null ? taxInfo : internedTaxInfo;
+    }
+
+    /**
+     * Returns the number of canonical Products and TaxInfos held.
+     *
+     * @return int
+     */
+    int size() {
+        return products.size() + taxInfos.size();
+    }
+
+
+    /**
+     * The fields of a Product, copied so a key cannot change while it is in
+     * the table.
+     */
+    private static final class ProductKey {
+
+        private final String productType;
+        private final BigDecimal costPerSqFoot;
+        private final BigDecimal laborCostPerSqFoot;
+
+
+        private ProductKey(String productType, BigDecimal costPerSqFoot,
+                BigDecimal laborCostPerSqFoot) {
+            this.productType = productType;
+            this.costPerSqFoot = costPerSqFoot;
+            this.laborCostPerSqFoot = laborCostPerSqFoot;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productType, costPerSqFoot, laborCostPerSqFoot);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ProductKey)) {
+                return false;
+            }
+            ProductKey other = (ProductKey) obj;
+            return Objects.equals(productType, other.productType)
+                    && Objects.equals(costPerSqFoot, other.costPerSqFoot)
+                    && Objects.equals(laborCostPerSqFoot,
+                            other.laborCostPerSqFoot);
+        }
+
+    }
+
+    /**
+     * The fields of a TaxInfo, copied so a key cannot change while it is in
+     * the table.
+     */
+    private static final class TaxInfoKey {
+
+        private final String stateAbbr;
+        private final String stateName;
+        private final BigDecimal taxRate;
+
+
+        private TaxInfoKey(String stateAbbr, String stateName,
+                BigDecimal taxRate) {
+            this.stateAbbr = stateAbbr;
+            this.stateName = stateName;
+            this.taxRate = taxRate;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stateAbbr, stateName, taxRate);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TaxInfoKey)) {
+                return false;
+            }
+            TaxInfoKey other = (TaxInfoKey) obj;
+            return Objects.equals(stateAbbr, other.stateAbbr)
+                    && Objects.equals(stateName, other.stateName)
+                    && Objects.equals(taxRate, other.taxRate);
+        }
+
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index of orders by customer name, kept by OrderDaoFileImpl alongside
+ * the orders. Names are normalized (trimmed, lower case, runs of spaces made
+ * one) and mapped to the order number and order date of each of their
+ * orders; a prefix trie over the same names answers "starts with" searches
+ * without looking at any other name.
+ *
+ * Lookups take a read lock and may run in parallel, updates take the write
+ * lock.
+ *
+ * @author sarablinn
+ */
+final class CustomerNameIndex {
+
+    // normalized name -> (orderNumber -> orderDate)
+    private final HashMap<String, HashMap<Integer, LocalDate>> ordersByName =
+            new HashMap<>();
+    // orderDate -> (orderNumber -> normalized name), to replace or drop the
+    // entries of one date when its order file is reread or removed
+    private final HashMap<LocalDate, HashMap<Integer, String>> namesByDate =
+            new HashMap<>();
+    private final TrieNode trieRoot = new TrieNode();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    /**
+     * Returns the customer name trimmed, in lower case, with every run of
+     * whitespace made a single space.
+     *
+     * @param customerName String
+     * @return normalized name
+     */
+    static String normalize(String customerName) {
+        StringBuilder normalizedName = new StringBuilder(customerName.length());
+        boolean isAfterSpace = false;
+        for (int i = 0; i < customerName.length(); i++) {
+            char c = customerName.charAt(i);
+            if (Character.isWhitespace(c)) {
+                isAfterSpace = normalizedName.length() > 0;
+            } else {
+                if (isAfterSpace) {
+                    normalizedName.append(' ');
+                    isAfterSpace = false;
+                }
+                normalizedName.append(c);
+            }
+        }
+        return normalizedName.toString().toLowerCase(Locale.ROOT);
+    }
+
+
+    /**
+     * Adds an order, replacing the entry of an order with the same number on
+     * the same date.
+     *
+     * @param order Order
+     */
+    void put(Order order) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(order.getOrderDate(), order.getOrderNumber());
+            addEntry(order);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an order, if it is in the index.
+     *
+     * @param orderDate LocalDate
+     * @param orderNumber int
+     */
+    void remove(LocalDate orderDate, int orderNumber) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(orderDate, orderNumber);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces every entry of orderDate with the given orders; null or none
+     * leaves the date out of the index.
+     *
+     * @param orderDate LocalDate
+     * @param ordersOnDate Collection of Orders or null
+     */
+    void replaceOrdersOnDate(LocalDate orderDate,
+            Collection<Order> ordersOnDate) {
+
+        lock.writeLock().lock();
+        try {
+            HashMap<Integer, String> namesOnDate = namesByDate.get(orderDate);
+            if (namesOnDate != null) {
+                for (Integer orderNumber : new ArrayList<>(namesOnDate.keySet())) {
+                    removeEntry(orderDate, orderNumber);
+                }
+            }
+            if (ordersOnDate != null) {
+                for (Order order : ordersOnDate) {
+                    addEntry(order);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether any order on orderDate is in the index.
+     *
+     * @param orderDate LocalDate
+     * @return boolean
+     */
+    boolean containsDate(LocalDate orderDate) {
+        lock.readLock().lock();
+        try {
+            return namesByDate.containsKey(orderDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the orders of every customer whose normalized name starts with
+     * the normalized prefix, as orderNumber -> orderDate. A prefix which is a
+     * whole name is answered from the hash index alone.
+     *
+     * @param customerNamePrefix String
+     * @return Map of order numbers to order dates
+     */
+    Map<Integer, LocalDate> findOrders(String customerNamePrefix) {
+        String prefix = normalize(customerNamePrefix);
+
+        lock.readLock().lock();
+        try {
+            TrieNode prefixNode = findNode(prefix);
+            if (prefixNode == null) {
+                return new HashMap<>();
+            }
+            if (prefixNode.children == null) {
+                // only the name itself starts with it, if it is a name at 
+                // all: the root of an empty index is not
+                HashMap<Integer, LocalDate> ordersOfName = 
+                        ordersByName.get(prefix);
+                return ordersOfName == null 
+                        ? new HashMap<>() : new HashMap<>(ordersOfName);
+            }
+
+            Map<Integer, LocalDate> foundOrders = new HashMap<>();
+            for (String name : collectNames(prefixNode, Integer.MAX_VALUE)) {
+                foundOrders.putAll(ordersByName.get(name));
+            }
+            return foundOrders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit normalized customer names starting with the
+     * normalized prefix, in alphabetical order, for type-ahead.
+     *
+     * @param customerNamePrefix String
+     * @param limit max names returned
+     * @return List of normalized names
+     */
+    List<String> findCustomerNames(String customerNamePrefix, int limit) {
+        String prefix = normalize(customerNamePrefix);
+
+        lock.readLock().lock();
+        try {
+            TrieNode prefixNode = findNode(prefix);
+            if (prefixNode == null) {
+                return new ArrayList<>();
+            }
+            return collectNames(prefixNode, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of orders in the index.
+     *
+     * @return int
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (HashMap<Integer, String> namesOnDate : namesByDate.values()) {
+                size += namesOnDate.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private void addEntry(Order order) {
+        String name = normalize(order.getCustomerName());
+
+        HashMap<Integer, LocalDate> ordersOfName = ordersByName.get(name);
+        if (ordersOfName == null) {
+            ordersOfName = new HashMap<>();
+            ordersByName.put(name, ordersOfName);
+            addToTrie(name);
+        }
+        ordersOfName.put(order.getOrderNumber(), order.getOrderDate());
+
+        namesByDate.computeIfAbsent(order.getOrderDate(),
+                (date) -> new HashMap<>())
+                .put(order.getOrderNumber(), name);
+    }
+
+    private void removeEntry(LocalDate orderDate, int orderNumber) {
+        HashMap<Integer, String> namesOnDate = namesByDate.get(orderDate);
+        if (namesOnDate == null) {
+            return;
+        }
+        String name = namesOnDate.remove(orderNumber);
+        if (name == null) {
+            return;
+        }
+        if (namesOnDate.isEmpty()) {
+            namesByDate.remove(orderDate);
+        }
+
+        HashMap<Integer, LocalDate> ordersOfName = ordersByName.get(name);
+        ordersOfName.remove(orderNumber);
+        if (ordersOfName.isEmpty()) {
+            ordersByName.remove(name);
+            removeFromTrie(name);
+        }
+    }
+
+    private void addToTrie(String name) {
+        TrieNode node = trieRoot;
+        for (int i = 0; i < name.length(); i++) {
+            if (node.children == null) {
+                node.children = new TreeMap<>();
+            }
+            node = node.children.computeIfAbsent(name.charAt(i),
+                    (c) -> new TrieNode());
+        }
+        node.name = name;
+    }
+
+    /**
+     * Unmarks the name's node and prunes the nodes no other name goes
+     * through.
+     */
+    private void removeFromTrie(String name) {
+        Deque<TrieNode> path = new ArrayDeque<>(name.length() + 1);
+        TrieNode node = trieRoot;
+        path.push(node);
+        for (int i = 0; i < name.length(); i++) {
+            node = node.children.get(name.charAt(i));
+            path.push(node);
+        }
+        node.name = null;
+
+        for (int i = name.length() - 1; i >= 0; i--) {
+            TrieNode child = path.pop();
+            if (child.name != null || child.children != null) {
+                return;
+            }
+            TrieNode parent = path.peek();
+            parent.children.remove(name.charAt(i));
+            if (parent.children.isEmpty()) {
+                parent.children = null;
+            }
+        }
+    }
+
+    private TrieNode findNode(String prefix) {
+        TrieNode node = trieRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children == null
+                    ? null : node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Returns up to limit names at or below node, in alphabetical order.
+     */
+    private List<String> collectNames(TrieNode node, int limit) {
+        List<String> names = new ArrayList<>();
+        Deque<TrieNode> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty() && names.size() < limit) {
+            TrieNode current = pending.pop();
+            if (current.name != null) {
+                names.add(current.name);
+            }
+            if (current.children != null) {
+                // pushed in reverse, so the smallest child is visited next
+                for (TrieNode child
+                        : current.children.descendingMap().values()) {
+                    pending.push(child);
+                }
+            }
+        }
+        return names;
+    }
+
+
+    private static class TrieNode {
+
+        // null until a name continues past this node
+        private TreeMap<Character, TrieNode> children;
+        // the normalized name ending at this node, if there is one
+        private String name;
+
+    }
+
+}
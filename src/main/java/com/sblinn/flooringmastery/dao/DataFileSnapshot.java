@@ -0,0 +1,110 @@
+package com.sblinn.flooringmastery.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable copy of the records in a reference data file, keyed by id, 
+ * with the stamp the file had when it was read. A DAO publishes a new 
+ * snapshot in a volatile field whenever the file is read or written, so 
+ * lookups are plain map reads without locking.
+ * 
+ * The records are DTOs, which callers may change, so a snapshot holds its 
+ * own copies of the records it is built from and hands out copies, made by
+ * the copier it is given. The instances it holds never leave the DAO.
+ * 
+ * Each snapshot has a version, unique and increasing across all snapshots, 
+ * so callers caching something built from the records can tell whether the 
+ * records have changed since.
+ *
+ * @author sarablinn
+ */
+final class DataFileSnapshot<V> {
+    
+    private static final AtomicLong LAST_VERSION = new AtomicLong();
+    
+    private final Map<String, V> records;
+    private final UnaryOperator<V> copier;
+    private final FileStamp fileStamp;
+    private final long version;
+    
+    
+    /**
+     * @param records Map of the records by id, which are copied
+     * @param fileStamp FileStamp or null
+     * @param copier returns a copy of a record
+     */
+    DataFileSnapshot(Map<String, V> records, FileStamp fileStamp, 
+            UnaryOperator<V> copier) {
+        
+        HashMap<String, V> copiedRecords = new HashMap<>();
+        for (Map.Entry<String, V> record : records.entrySet()) {
+            copiedRecords.put(record.getKey(), copier.apply(record.getValue()));
+        }
+        this.records = Collections.unmodifiableMap(copiedRecords);
+        this.copier = copier;
+        this.fileStamp = fileStamp;
+        this.version = LAST_VERSION.incrementAndGet();
+    }
+    
+    
+    /**
+     * Returns a copy of the record with the given id, or null.
+     * 
+     * @param id String
+     * @return V or null
+     */
+    V get(String id) {
+        V record = records.get(id);
+        return record == null ? null : copier.apply(record);
+    }
+    
+    /**
+     * Returns a copy of every record, in no particular order.
+     * 
+     * @return List
+     */
+    List<V> copyRecords() {
+        List<V> copiedRecords = new ArrayList<>(records.size());
+        for (V record : records.values()) {
+            copiedRecords.add(copier.apply(record));
+        }
+        return copiedRecords;
+    }
+    
+    /**
+     * Returns the records the snapshot holds, as an unmodifiable Map, for 
+     * the DAO to build its next snapshot from. They are not to be handed to
+     * callers.
+     * 
+     * @return Map
+     */
+    Map<String, V> getRecords() {
+        return records;
+    }
+    
+    /**
+     * Returns the file stamp this snapshot was read from or written with.
+     * 
+     * @return FileStamp or null
+     */
+    FileStamp getFileStamp() {
+        return fileStamp;
+    }
+    
+    /**
+     * Returns the version of this snapshot, greater than that of any 
+     * snapshot created before it.
+     * 
+     * @return long
+     */
+    long getVersion() {
+        return version;
+    }
+    
+}
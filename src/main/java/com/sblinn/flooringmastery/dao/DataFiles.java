@@ -0,0 +1,54 @@
+package com.sblinn.flooringmastery.dao;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * File helpers shared by the file DAOs.
+ *
+ * @author sarablinn
+ */
+final class DataFiles {
+    
+    static final String TEMP_FILE_SUFFIX = ".tmp";
+    
+    
+    private DataFiles() {
+        
+    }
+    
+    
+    /**
+     * Returns the temp file a new version of dataFile is written to before it
+     * replaces dataFile.
+     * 
+     * @param dataFile Path
+     * @return Path
+     */
+    static Path getTempFile(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + TEMP_FILE_SUFFIX);
+    }
+    
+    /**
+     * Renames tempFile over dataFile, atomically where the file system 
+     * supports it, so readers only ever see the old or the new dataFile.
+     * 
+     * @param tempFile Path
+     * @param dataFile Path
+     * @throws IOException 
+     */
+    static void replace(Path tempFile, Path dataFile) throws IOException {
+        try {
+            Files.move(tempFile, dataFile, 
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, dataFile, 
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+}
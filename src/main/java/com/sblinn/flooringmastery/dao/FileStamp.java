@@ -0,0 +1,114 @@
+package com.sblinn.flooringmastery.dao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * The last modified time and size of a data file, taken when the file was
+ * last read or written. A DAO compares a file's stored stamp with its current
+ * one to know whether the file changed on disk and must be read again.
+ *
+ * @author sarablinn
+ */
+final class FileStamp {
+
+    private final FileTime lastModified;
+    private final long size;
+
+
+    private FileStamp(FileTime lastModified, long size) {
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+
+    /**
+     * Returns the current stamp of the file, or null if the file does not
+     * exist.
+     *
+     * @param file Path
+     * @return FileStamp or null
+     * @throws IOException
+     */
+    static FileStamp of(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes =
+                    Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime(),
+                    attributes.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the stamp as text, lastModified;size, to be stored with data
+     * derived from the file.
+     *
+     * @return String
+     */
+    String encode() {
+        return lastModified.toInstant() + ";" + size;
+    }
+
+    /**
+     * Returns the stamp encoded by encode().
+     *
+     * @param encodedStamp String
+     * @return FileStamp
+     * @throws IllegalArgumentException if the text is not an encoded stamp
+     */
+    static FileStamp decode(String encodedStamp) {
+        int separator = encodedStamp.indexOf(';');
+        if (separator < 0) {
+            throw new IllegalArgumentException(
+                    "Not a file stamp: " + encodedStamp);
+        }
+        try {
+            return new FileStamp(
+                    FileTime.from(Instant.parse(
+                            encodedStamp.substring(0, separator))),
+                    Long.parseLong(encodedStamp.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(
+                    "Not a file stamp: " + encodedStamp, e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 67 * hash + Objects.hashCode(this.lastModified);
+        hash = 67 * hash + (int) (this.size ^ (this.size >>> 32));
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final FileStamp other = (FileStamp) obj;
+        if (this.size != other.size) {
+            return false;
+        }
+        if (!Objects.equals(this.lastModified, other.lastModified)) {
+            return false;
+        }
+        return true;
+    }
+
+}
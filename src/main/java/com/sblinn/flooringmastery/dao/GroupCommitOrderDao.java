@@ -0,0 +1,403 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.OrderSummary;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * An OrderDao in front of an OrderDaoFileImpl which group commits the creates,
+ * updates and deletes of concurrent callers. Mutations are queued and a single
+ * committer thread takes them off the queue in batches: everything queued
+ * while the previous batch was being written, plus whatever arrives within
+ * maxBatchDelay of the first mutation, up to maxBatchSize mutations. Each
+ * batch is committed with one journal append (or one rewrite of each changed
+ * order file) and each caller's future completes once its batch is durable.
+ *
+ * Reads, and createOrders, updateOrders and updateOrdersIfUnchanged, which
+ * are already batches, go straight to the OrderDaoFileImpl. updateOrder and
+ * deleteOrder return null without queueing anything when there is no such 
+ * order; an update or delete that is queued and finds its order gone by the
+ * time its batch is committed is skipped the same way, and is neither 
+ * journaled nor written.
+ *
+ * With one committer, mutations of unrelated dates are committed one batch
+ * after another rather than in parallel under their own date locks, as they
+ * are when callers use the OrderDaoFileImpl directly. That is the trade: one
+ * journal append per batch instead of one per mutation, which is worth it
+ * when the append (its write and force) costs more than applying the batch.
+ *
+ * @author sarablinn
+ */
+public class GroupCommitOrderDao implements OrderDao {
+
+    private final OrderDaoFileImpl orderDao;
+    private final int maxBatchSize;
+    // how long, in ms, a batch waits for more mutations after its first
+    private final long maxBatchDelay;
+
+    // queued by close() to stop the committer; not interrupting it keeps
+    // the journal's FileChannel from being closed mid-write
+    private static final PendingMutation CLOSE = new PendingMutation(null);
+    private final BlockingQueue<PendingMutation> pendingMutations =
+            new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean isClosed = false;
+
+    private final AtomicLong committedBatchCount = new AtomicLong();
+    private final AtomicLong committedMutationCount = new AtomicLong();
+
+
+    public GroupCommitOrderDao(OrderDaoFileImpl orderDao) {
+        this(orderDao, 256, 0);
+    }
+
+    public GroupCommitOrderDao(OrderDaoFileImpl orderDao, int maxBatchSize,
+            long maxBatchDelay) {
+
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException(
+                    "Batches must hold at least one mutation.");
+        }
+        if (maxBatchDelay < 0) {
+            throw new IllegalArgumentException(
+                    "Batch delay cannot be negative.");
+        }
+        this.orderDao = orderDao;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+
+        committer = new Thread(this::commitBatches, "OrderGroupCommitter");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+
+    /**
+     * Queues the creation of an order. The future completes with the order
+     * once it is durable, or with null if it replaced an existing order.
+     *
+     * @param order Order
+     * @return CompletableFuture of the Order or null
+     */
+    public CompletableFuture<Order> submitCreateOrder(Order order) {
+        return submit(OrderMutation.create(order)).thenApply(
+                (replacedOrder) -> replacedOrder == null ? order : null);
+    }
+
+    /**
+     * Queues an update of an order. The future completes with the order it
+     * replaced once the update is durable, or with null if there was no such
+     * order to update.
+     *
+     * @param updatedOrder Order
+     * @return CompletableFuture of the replaced Order or null
+     */
+    public CompletableFuture<Order> submitUpdateOrder(Order updatedOrder) {
+        return submit(OrderMutation.update(updatedOrder));
+    }
+
+    /**
+     * Queues the deletion of an order. The future completes with the deleted
+     * order, or null if there was none, once the delete is durable.
+     *
+     * @param orderDate LocalDate
+     * @param orderNumber int
+     * @return CompletableFuture of the deleted Order or null
+     */
+    public CompletableFuture<Order> submitDeleteOrder(LocalDate orderDate,
+            int orderNumber) {
+        return submit(OrderMutation.delete(orderDate, orderNumber));
+    }
+
+    @Override
+    public Order createOrder(Order order) throws PersistenceException {
+        return await(submitCreateOrder(order));
+    }
+
+    @Override
+    public int createOrders(Collection<Order> newOrders)
+            throws PersistenceException {
+        return orderDao.createOrders(newOrders);
+    }
+
+    @Override
+    public Order getOrder(LocalDate orderDate, int orderNumber)
+            throws PersistenceException {
+        return orderDao.getOrder(orderDate, orderNumber);
+    }
+
+    @Override
+    public Order getOrder(int orderNumber) throws PersistenceException {
+        return orderDao.getOrder(orderNumber);
+    }
+
+    @Override
+    public List<Order> getAllOrdersOnDate(LocalDate orderDate)
+            throws PersistenceException {
+        return orderDao.getAllOrdersOnDate(orderDate);
+    }
+
+    @Override
+    public Stream<Order> getOrdersBetween(LocalDate fromDate,
+            LocalDate toDate) throws PersistenceException {
+        return orderDao.getOrdersBetween(fromDate, toDate);
+    }
+
+    @Override
+    public List<Order> getAllOrders() throws PersistenceException {
+        return orderDao.getAllOrders();
+    }
+
+    @Override
+    public int getMaxOrderNumber() throws PersistenceException {
+        return orderDao.getMaxOrderNumber();
+    }
+
+    @Override
+    public OrderSummary getOrderSummary(LocalDate orderDate)
+            throws PersistenceException {
+        return orderDao.getOrderSummary(orderDate);
+    }
+
+    @Override
+    public List<OrderSummary> getOrderSummariesBetween(LocalDate fromDate,
+            LocalDate toDate) throws PersistenceException {
+        return orderDao.getOrderSummariesBetween(fromDate, toDate);
+    }
+
+    @Override
+    public List<Order> findOrdersByCustomer(String customerNamePrefix)
+            throws PersistenceException {
+        return orderDao.findOrdersByCustomer(customerNamePrefix);
+    }
+
+    @Override
+    public List<Order> findOrdersByState(String stateAbbr, LocalDate fromDate)
+            throws PersistenceException {
+        return orderDao.findOrdersByState(stateAbbr, fromDate);
+    }
+
+    @Override
+    public List<Order> findOrdersByProduct(String productType,
+            LocalDate fromDate) throws PersistenceException {
+        return orderDao.findOrdersByProduct(productType, fromDate);
+    }
+
+    @Override
+    public Order updateOrder(Order updatedOrder) throws PersistenceException {
+        // if orderDate is not in memory, NullPointerException is thrown
+        if (orderDao.getOrder(updatedOrder.getOrderDate(),
+                updatedOrder.getOrderNumber()) == null) {
+            return null;
+        }
+        return await(submitUpdateOrder(updatedOrder));
+    }
+
+    @Override
+    public List<Order> updateOrders(Collection<Order> updatedOrders)
+            throws PersistenceException {
+        return orderDao.updateOrders(updatedOrders);
+    }
+
+    @Override
+    public List<Order> updateOrdersIfUnchanged(List<Order> readOrders, 
+            List<Order> updatedOrders) throws PersistenceException {
+        return orderDao.updateOrdersIfUnchanged(readOrders, updatedOrders);
+    }
+
+    @Override
+    public Order deleteOrder(LocalDate orderDate, int orderNumber)
+            throws PersistenceException {
+        // if orderDate is not in memory, NullPointerException is thrown
+        if (orderDao.getOrder(orderDate, orderNumber) == null) {
+            return null;
+        }
+        return await(submitDeleteOrder(orderDate, orderNumber));
+    }
+
+    @Override
+    public void exportBackupDataToFile(String filepath)
+            throws PersistenceException {
+        orderDao.exportBackupDataToFile(filepath);
+    }
+
+    @Override
+    public void addOrderChangeListener(OrderChangeListener listener) {
+        orderDao.addOrderChangeListener(listener);
+    }
+
+    /**
+     * Returns the number of batches committed so far.
+     *
+     * @return long
+     */
+    public long getCommittedBatchCount() {
+        return committedBatchCount.get();
+    }
+
+    /**
+     * Returns the number of mutations committed so far.
+     *
+     * @return long
+     */
+    public long getCommittedMutationCount() {
+        return committedMutationCount.get();
+    }
+
+    /**
+     * Stops taking mutations, commits those already queued and stops the
+     * committer thread.
+     *
+     * @throws InterruptedException
+     */
+    public void close() throws InterruptedException {
+        if (!isClosed) {
+            isClosed = true;
+            pendingMutations.add(CLOSE);
+        }
+        committer.join();
+    }
+
+
+    private CompletableFuture<Order> submit(OrderMutation mutation) {
+        PendingMutation pendingMutation = new PendingMutation(mutation);
+        if (isClosed) {
+            pendingMutation.result.completeExceptionally(
+                    new PersistenceException("Order DAO is closed."));
+        } else {
+            pendingMutations.add(pendingMutation);
+            // the committer may have stopped before the add
+            if (isClosed && pendingMutations.remove(pendingMutation)) {
+                pendingMutation.result.completeExceptionally(
+                        new PersistenceException("Order DAO is closed."));
+            }
+        }
+        return pendingMutation.result;
+    }
+
+    /**
+     * Waits for a queued mutation to be committed.
+     *
+     * @param result CompletableFuture
+     * @return Order result of the mutation
+     * @throws PersistenceException if the batch could not be committed
+     */
+    private Order await(CompletableFuture<Order> result)
+            throws PersistenceException {
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(
+                    "Interrupted waiting for the order to be saved.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PersistenceException) {
+                throw (PersistenceException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PersistenceException("Unable to save order.", cause);
+        }
+    }
+
+    /**
+     * The committer thread: takes batches off the queue and commits them
+     * until closed, then commits whatever is left.
+     */
+    private void commitBatches() {
+        List<PendingMutation> batch = new ArrayList<>(maxBatchSize);
+        boolean isClosing = false;
+        while (!isClosing) {
+            try {
+                batch.add(pendingMutations.take());
+                pendingMutations.drainTo(batch, maxBatchSize - batch.size());
+
+                long deadline = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(maxBatchDelay);
+                while (batch.size() < maxBatchSize && !batch.contains(CLOSE)) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingMutation next = remaining > 0
+                            ? pendingMutations.poll(remaining,
+                                    TimeUnit.NANOSECONDS)
+                            : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    pendingMutations.drainTo(batch,
+                            maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                isClosing = true;
+            }
+            isClosing |= batch.remove(CLOSE);
+            commit(batch);
+        }
+
+        // mutations queued just before close() are still committed
+        while (!pendingMutations.isEmpty()) {
+            pendingMutations.drainTo(batch, maxBatchSize);
+            batch.remove(CLOSE);
+            commit(batch);
+        }
+    }
+
+    /**
+     * Commits a batch, completes each of its futures and empties it.
+     *
+     * @param batch List of PendingMutations
+     */
+    private void commit(List<PendingMutation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<OrderMutation> mutations = new ArrayList<>(batch.size());
+        for (PendingMutation pendingMutation : batch) {
+            mutations.add(pendingMutation.mutation);
+        }
+
+        try {
+            List<Order> results = orderDao.commitMutations(mutations);
+            committedBatchCount.incrementAndGet();
+            committedMutationCount.addAndGet(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (PersistenceException | RuntimeException e) {
+            for (PendingMutation pendingMutation : batch) {
+                pendingMutation.result.completeExceptionally(e);
+            }
+        }
+        batch.clear();
+    }
+
+
+    /**
+     * A queued mutation and the future of its caller.
+     */
+    private static class PendingMutation {
+
+        private final OrderMutation mutation;
+        private final CompletableFuture<Order> result =
+                new CompletableFuture<>();
+
+        private PendingMutation(OrderMutation mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads an order file through a memory mapping of the whole file instead of
+ * a Reader. The mapped bytes are scanned in one pass (bulk copied a chunk at
+ * a time) for line boundaries, and each line's bytes are copied straight 
+ * into a reused char buffer for the OrderCodec, so no String is made for a 
+ * line or a number field. Lines which
+ * are all ASCII (every line the DAO writes, unless a customer name has 
+ * accents) are copied byte for byte; other lines are decoded as UTF-8.
+ * 
+ * A mapping is released when its buffer is garbage collected, not when the 
+ * read ends. On Windows the file cannot be replaced until then.
+ * 
+ * Not thread safe, use one reader per thread.
+ *
+ * @author sarablinn
+ */
+final class MappedOrderFileReader {
+    
+    private static final byte LINE_FEED = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+    
+    private static final int CHUNK_SIZE = 1 << 14;
+    
+    private final OrderCodec orderCodec;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final CharsetDecoder utf8Decoder = StandardCharsets.UTF_8
+            .newDecoder();
+    private char[] lineChars = new char[256];
+    
+    
+    MappedOrderFileReader() {
+        this(new CatalogInterner());
+    }
+    
+    /**
+     * @param catalogInterner shares the states and products of the orders
+     * read with those of other files read through it
+     */
+    MappedOrderFileReader(CatalogInterner catalogInterner) {
+        this.orderCodec = new OrderCodec(catalogInterner);
+    }
+    
+    
+    /**
+     * Returns the orders in the order file, by order number, or null if the
+     * file is empty.
+     * 
+     * @param orderFile Path
+     * @param orderDate LocalDate of the order file
+     * @return ConcurrentHashMap of Orders or null
+     * @throws IOException
+     * @throws PersistenceException if a line is not a valid order
+     */
+    ConcurrentHashMap<Integer, Order> read(Path orderFile, 
+            LocalDate orderDate) throws IOException, PersistenceException {
+        
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(orderFile, 
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return null;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Order file too large to map: " 
+                        + orderFile);
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        
+        ConcurrentHashMap<Integer, Order> ordersOnDate = 
+                new ConcurrentHashMap<>();
+        boolean isHeader = true;
+        int lineLength = 0;
+        // whether the current line has a byte which is not ASCII
+        boolean isAscii = true;
+        int lineStart = 0;
+        
+        // scan the mapping a chunk at a time through a bulk copy, which is 
+        // much faster than reading it byte by byte
+        int limit = bytes.limit();
+        for (int chunkStart = 0; chunkStart < limit; chunkStart += CHUNK_SIZE) {
+            int chunkLength = Math.min(CHUNK_SIZE, limit - chunkStart);
+            bytes.get(chunk, 0, chunkLength);
+            
+            for (int i = 0; i < chunkLength; i++) {
+                byte b = chunk[i];
+                if (b != LINE_FEED) {
+                    if (lineLength == lineChars.length) {
+                        lineChars = Arrays.copyOf(lineChars, 2 * lineLength);
+                    }
+                    lineChars[lineLength++] = (char) b;
+                    isAscii &= b >= 0;
+                    continue;
+                }
+                
+                if (!isHeader) {
+                    decodeLine(bytes, lineStart, lineLength, isAscii, 
+                            orderDate, ordersOnDate);
+                }
+                isHeader = false;
+                lineLength = 0;
+                isAscii = true;
+                lineStart = chunkStart + i + 1;
+            }
+        }
+        if (!isHeader) {
+            // last line without a line separator
+            decodeLine(bytes, lineStart, lineLength, isAscii, orderDate, 
+                    ordersOnDate);
+        }
+        
+        return ordersOnDate;
+    }
+    
+    /**
+     * Decodes the line held in lineChars, if it is not blank, and adds its
+     * order to ordersOnDate. A line which is not ASCII is decoded again from
+     * its bytes as UTF-8.
+     */
+    private void decodeLine(MappedByteBuffer bytes, int lineStart, 
+            int lineLength, boolean isAscii, LocalDate orderDate,
+            ConcurrentHashMap<Integer, Order> ordersOnDate) 
+            throws CharacterCodingException, PersistenceException {
+        
+        if (!isAscii) {
+            lineLength = decodeUtf8Line(bytes, lineStart, lineLength);
+        }
+        if (lineLength > 0 && lineChars[lineLength - 1] == CARRIAGE_RETURN) {
+            lineLength--;
+        }
+        if (lineLength == 0) {
+            return;
+        }
+        
+        Order currentOrder = 
+                orderCodec.decode(lineChars, 0, lineLength, orderDate);
+        ordersOnDate.put(currentOrder.getOrderNumber(), currentOrder);
+    }
+    
+    /**
+     * Decodes the line's bytes, byteLength of them from lineStart, as UTF-8
+     * into lineChars and returns the number of chars.
+     */
+    private int decodeUtf8Line(ByteBuffer bytes, int lineStart, 
+            int byteLength) throws CharacterCodingException {
+        
+        ByteBuffer line = bytes.duplicate();
+        line.position(lineStart).limit(lineStart + byteLength);
+        CharBuffer chars = utf8Decoder.decode(line);
+        
+        int length = chars.remaining();
+        if (lineChars.length < length) {
+            lineChars = new char[length];
+        }
+        chars.get(lineChars, 0, length);
+        return length;
+    }
+    
+}
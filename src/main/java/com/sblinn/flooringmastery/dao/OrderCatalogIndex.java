@@ -0,0 +1,234 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index of the dates with orders in each state and of each product type,
+ * kept by OrderDaoFileImpl alongside the orders, so the orders affected by a
+ * change to a tax rate or a product are found without reading the other
+ * dates. State abbreviations are indexed in upper case.
+ *
+ * Lookups take a read lock and may run in parallel, updates take the write
+ * lock.
+ *
+ * @author sarablinn
+ */
+final class OrderCatalogIndex {
+
+    // stateAbbr -> (orderDate -> number of orders in the state on the date)
+    private final HashMap<String, TreeMap<LocalDate, Integer>> datesByState =
+            new HashMap<>();
+    // productType -> (orderDate -> number of orders of it on the date)
+    private final HashMap<String, TreeMap<LocalDate, Integer>> datesByProduct =
+            new HashMap<>();
+    // orderDate -> (orderNumber -> its entry), to remove or replace orders
+    private final HashMap<LocalDate, HashMap<Integer, Entry>> entriesByDate =
+            new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    /**
+     * Adds an order, replacing the entry of an order with the same number on
+     * the same date.
+     *
+     * @param order Order
+     */
+    void put(Order order) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(order.getOrderDate(), order.getOrderNumber());
+            addEntry(order);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an order, if it is in the index.
+     *
+     * @param orderDate LocalDate
+     * @param orderNumber int
+     */
+    void remove(LocalDate orderDate, int orderNumber) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(orderDate, orderNumber);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces every entry of orderDate with the given orders; null or none
+     * leaves the date out of the index.
+     *
+     * @param orderDate LocalDate
+     * @param ordersOnDate Collection of Orders or null
+     */
+    void replaceOrdersOnDate(LocalDate orderDate,
+            Collection<Order> ordersOnDate) {
+
+        lock.writeLock().lock();
+        try {
+            HashMap<Integer, Entry> entriesOnDate = entriesByDate.get(orderDate);
+            if (entriesOnDate != null) {
+                for (Integer orderNumber
+                        : new ArrayList<>(entriesOnDate.keySet())) {
+                    removeEntry(orderDate, orderNumber);
+                }
+            }
+            if (ordersOnDate != null) {
+                for (Order order : ordersOnDate) {
+                    addEntry(order);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the dates from fromDate on with orders in the state, in date
+     * order.
+     *
+     * @param stateAbbr String, in any case
+     * @param fromDate first LocalDate, inclusive
+     * @return NavigableSet of LocalDates, empty if there are none
+     */
+    NavigableSet<LocalDate> findDatesWithState(String stateAbbr,
+            LocalDate fromDate) {
+
+        return findDates(datesByState, normalizeState(stateAbbr), fromDate);
+    }
+
+    /**
+     * Returns the dates from fromDate on with orders of the product type, in
+     * date order.
+     *
+     * @param productType String
+     * @param fromDate first LocalDate, inclusive
+     * @return NavigableSet of LocalDates, empty if there are none
+     */
+    NavigableSet<LocalDate> findDatesWithProduct(String productType,
+            LocalDate fromDate) {
+
+        return findDates(datesByProduct, productType, fromDate);
+    }
+
+    /**
+     * Returns the number of orders in the index.
+     *
+     * @return int
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (HashMap<Integer, Entry> entriesOnDate
+                    : entriesByDate.values()) {
+                size += entriesOnDate.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the state abbreviation in upper case, or null.
+     *
+     * @param stateAbbr String or null
+     * @return String or null
+     */
+    static String normalizeState(String stateAbbr) {
+        return stateAbbr == null ? null : stateAbbr.toUpperCase(Locale.ROOT);
+    }
+
+
+    private NavigableSet<LocalDate> findDates(
+            HashMap<String, TreeMap<LocalDate, Integer>> datesByKey,
+            String key, LocalDate fromDate) {
+
+        lock.readLock().lock();
+        try {
+            TreeMap<LocalDate, Integer> dates = datesByKey.get(key);
+            return dates == null ? new TreeSet<>()
+                    : new TreeSet<>(dates.tailMap(fromDate, true).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addEntry(Order order) {
+        Entry entry = new Entry(
+                order.getTaxInfo() == null ? null
+                        : normalizeState(order.getTaxInfo().getStateAbbr()),
+                order.getProduct() == null
+                        ? null : order.getProduct().getProductType());
+        entriesByDate.computeIfAbsent(order.getOrderDate(),
+                (date) -> new HashMap<>())
+                .put(order.getOrderNumber(), entry);
+        count(datesByState, entry.stateAbbr, order.getOrderDate(), 1);
+        count(datesByProduct, entry.productType, order.getOrderDate(), 1);
+    }
+
+    private void removeEntry(LocalDate orderDate, int orderNumber) {
+        HashMap<Integer, Entry> entriesOnDate = entriesByDate.get(orderDate);
+        if (entriesOnDate == null) {
+            return;
+        }
+        Entry entry = entriesOnDate.remove(orderNumber);
+        if (entry == null) {
+            return;
+        }
+        if (entriesOnDate.isEmpty()) {
+            entriesByDate.remove(orderDate);
+        }
+        count(datesByState, entry.stateAbbr, orderDate, -1);
+        count(datesByProduct, entry.productType, orderDate, -1);
+    }
+
+    /**
+     * Adds delta to the number of orders with the key on orderDate, dropping
+     * dates and keys left with none.
+     */
+    private static void count(
+            HashMap<String, TreeMap<LocalDate, Integer>> datesByKey,
+            String key, LocalDate orderDate, int delta) {
+
+        if (key == null) {
+            return;
+        }
+        TreeMap<LocalDate, Integer> dates =
+                datesByKey.computeIfAbsent(key, (k) -> new TreeMap<>());
+        dates.merge(orderDate, delta,
+                (count, added) -> count + added == 0 ? null : count + added);
+        if (dates.isEmpty()) {
+            datesByKey.remove(key);
+        }
+    }
+
+
+    private static class Entry {
+
+        private final String stateAbbr;
+        private final String productType;
+
+
+        private Entry(String stateAbbr, String productType) {
+            this.stateAbbr = stateAbbr;
+            this.productType = productType;
+        }
+
+    }
+
+}
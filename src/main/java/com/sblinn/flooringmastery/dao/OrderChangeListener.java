@@ -0,0 +1,27 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Told by an OrderDao each time the orders of a date change: written through
+ * the DAO, replayed from its journal, or reread after the order file was
+ * changed by someone else.
+ *
+ * @author sarablinn
+ */
+@FunctionalInterface
+public interface OrderChangeListener {
+
+    /**
+     * Called with the date's lock held, so the calls for one date come one
+     * at a time and in order. The listener must not call back into the DAO.
+     *
+     * @param orderDate LocalDate whose orders changed
+     * @param ordersOnDate every order now on the date, empty if there are
+     *        none; only valid during the call
+     */
+    void ordersChanged(LocalDate orderDate, Collection<Order> ordersOnDate);
+
+}
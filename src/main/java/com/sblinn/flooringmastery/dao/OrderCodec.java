@@ -0,0 +1,352 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import com.sblinn.flooringmastery.dto.UsState;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Converts Orders to and from their comma delimited text form:
+ *
+ * OrderNumber,'CustomerName',State,TaxRate,ProductType,Area,CostPerSquareFoot,
+ * LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total[,MM-dd-yyyy]
+ *
+ * The customer name is written between single quotes so it may contain commas.
+ * A quoted name ends at the first quote followed by a comma, and names without
+ * quotes (as in older order files) are read up to the next comma. The order
+ * date is only part of the text in the backup file, order files get it from
+ * their file name.
+ *
+ * Lines are read and written in a single pass over their chars, without
+ * regular expressions or substrings, through buffers the codec reuses between
+ * calls. A codec is therefore not thread safe, use one per thread.
+ *
+ * Decoded orders of the same state and rate, or product and costs, share one
+ * TaxInfo or Product through the codec's CatalogInterner; they must not be
+ * changed in place.
+ *
+ * @author sarablinn
+ */
+public final class OrderCodec {
+
+    public static final char DELIMITER = ',';
+    public static final char QUOTE = '\'';
+    private static final int FIELD_COUNT = 12;
+
+    private final CatalogInterner catalogInterner;
+    private final StringBuilder lineBuilder = new StringBuilder(128);
+    private char[] chars = new char[128];
+    // start and end of each field of the line being decoded, in pairs
+    private final int[] fieldBounds = new int[2 * (FIELD_COUNT + 1)];
+
+
+    public OrderCodec() {
+        this(new CatalogInterner());
+    }
+
+    /**
+     * @param catalogInterner shares the states and products of decoded 
+     * orders with those of other orders decoded through it
+     */
+    OrderCodec(CatalogInterner catalogInterner) {
+        this.catalogInterner = catalogInterner;
+    }
+
+
+    /**
+     * Returns the text form of an Order.
+     *
+     * @param order Order
+     * @param includeOrderDate whether to end the line with the order date
+     * @return orderAsText String
+     */
+    public String encode(Order order, boolean includeOrderDate) {
+        lineBuilder.setLength(0);
+        encode(order, includeOrderDate, lineBuilder);
+        return lineBuilder.toString();
+    }
+
+    /**
+     * Writes the text form of an Order to out, without a line separator.
+     *
+     * @param order Order
+     * @param includeOrderDate whether to end the line with the order date
+     * @param out Writer
+     * @throws IOException
+     */
+    public void write(Order order, boolean includeOrderDate, Writer out)
+            throws IOException {
+
+        lineBuilder.setLength(0);
+        encode(order, includeOrderDate, lineBuilder);
+
+        int length = lineBuilder.length();
+        char[] lineChars = getChars(length);
+        lineBuilder.getChars(0, length, lineChars, 0);
+        out.write(lineChars, 0, length);
+    }
+
+    /**
+     * Appends the text form of an Order to out.
+     *
+     * @param order Order
+     * @param includeOrderDate whether to end the line with the order date
+     * @param out StringBuilder
+     */
+    public void encode(Order order, boolean includeOrderDate,
+            StringBuilder out) {
+
+        TaxInfo taxInfo = order.getTaxInfo();
+        Product product = order.getProduct();
+
+        out.append(order.getOrderNumber()).append(DELIMITER);
+        out.append(QUOTE).append(order.getCustomerName()).append(QUOTE)
+                .append(DELIMITER);
+        out.append(taxInfo.getStateAbbr()).append(DELIMITER);
+        out.append(taxInfo.getTaxRate()).append(DELIMITER);
+        out.append(product.getProductType()).append(DELIMITER);
+        out.append(order.getArea()).append(DELIMITER);
+        out.append(product.getCostPerSqFoot()).append(DELIMITER);
+        out.append(product.getLaborCostPerSqFoot()).append(DELIMITER);
+        out.append(order.getMaterialCost()).append(DELIMITER);
+        out.append(order.getLaborCost()).append(DELIMITER);
+        out.append(order.getTax()).append(DELIMITER);
+        out.append(order.getTotal());
+
+        if (includeOrderDate) {
+            // MM-dd-yyyy
+            LocalDate orderDate = order.getOrderDate();
+            out.append(DELIMITER);
+            appendTwoDigits(out, orderDate.getMonthValue()).append('-');
+            appendTwoDigits(out, orderDate.getDayOfMonth()).append('-');
+            out.append(orderDate.getYear());
+        }
+    }
+
+    /**
+     * Returns an Order from a line of text which ends with its order date.
+     *
+     * @param orderAsText CharSequence
+     * @return Order
+     * @throws PersistenceException if the text is not a valid order
+     */
+    public Order decode(CharSequence orderAsText) throws PersistenceException {
+        return decode(orderAsText, null);
+    }
+
+    /**
+     * Returns an Order from a line of text. If orderDate is null the order
+     * date is read from the end of the line, otherwise the line has no order
+     * date and orderDate is used.
+     *
+     * @param orderAsText CharSequence
+     * @param orderDate LocalDate or null
+     * @return Order
+     * @throws PersistenceException if the text is not a valid order
+     */
+    public Order decode(CharSequence orderAsText, LocalDate orderDate)
+            throws PersistenceException {
+
+        int length = orderAsText.length();
+        char[] lineChars = getChars(length);
+        if (orderAsText instanceof String) {
+            ((String) orderAsText).getChars(0, length, lineChars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                lineChars[i] = orderAsText.charAt(i);
+            }
+        }
+
+        return decode(lineChars, 0, length, orderDate);
+    }
+
+    /**
+     * Returns an Order from the chars in [start, end). If orderDate is null
+     * the order date is read from the end of the line.
+     *
+     * @param line char[]
+     * @param start int
+     * @param end int
+     * @param orderDate LocalDate or null
+     * @return Order
+     * @throws PersistenceException if the text is not a valid order
+     */
+    Order decode(char[] line, int start, int end, LocalDate orderDate)
+            throws PersistenceException {
+
+        try {
+            findFieldBounds(line, start, end, orderDate == null);
+
+            if (orderDate == null) {
+                orderDate = parseDate(line, fieldBounds[2 * FIELD_COUNT],
+                        fieldBounds[2 * FIELD_COUNT + 1]);
+            }
+
+            Order orderFromText = new Order(orderDate,
+                    parseInt(line, fieldBounds[0], fieldBounds[1]));
+            orderFromText.setCustomerName(
+                    parseString(line, fieldBounds[2], fieldBounds[3]));
+
+            TaxInfo taxInfo = parseTaxInfo(line, fieldBounds[4], fieldBounds[5]);
+            taxInfo.setTaxRate(parseDecimal(line, fieldBounds[6], fieldBounds[7]));
+            orderFromText.setTaxInfo(catalogInterner.intern(taxInfo));
+
+            Product product = new Product(
+                    parseString(line, fieldBounds[8], fieldBounds[9]),
+                    parseDecimal(line, fieldBounds[12], fieldBounds[13]),
+                    parseDecimal(line, fieldBounds[14], fieldBounds[15]));
+            orderFromText.setProduct(catalogInterner.intern(product));
+
+            orderFromText.setArea(parseDecimal(line, fieldBounds[10], fieldBounds[11]));
+            orderFromText.setMaterialCost(parseDecimal(line, fieldBounds[16], fieldBounds[17]));
+            orderFromText.setLaborCost(parseDecimal(line, fieldBounds[18], fieldBounds[19]));
+            orderFromText.setTax(parseDecimal(line, fieldBounds[20], fieldBounds[21]));
+            orderFromText.setTotal(parseDecimal(line, fieldBounds[22], fieldBounds[23]));
+
+            return orderFromText;
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new PersistenceException("Invalid order data: "
+                    + new String(line, start, end - start), e);
+        }
+    }
+
+    /**
+     * Fills fieldBounds with the [start, end) of every field in the line, 
+     * quotes excluded.
+     *
+     * @param line char[]
+     * @param start int
+     * @param end int
+     * @param hasOrderDate whether the line ends with an order date field
+     * @throws PersistenceException if the line has the wrong number of fields
+     */
+    private void findFieldBounds(char[] line, int start, int end,
+            boolean hasOrderDate) throws PersistenceException {
+
+        int fieldCount = hasOrderDate ? FIELD_COUNT + 1 : FIELD_COUNT;
+
+        int position = start;
+        for (int field = 0; field < fieldCount; field++) {
+            if (position > end) {
+                throw new PersistenceException("Invalid order data, expected "
+                        + fieldCount + " fields: "
+                        + new String(line, start, end - start));
+            }
+
+            int fieldStart = position;
+            int fieldEnd;
+            if (position < end && line[position] == QUOTE) {
+                // quoted field ends at a quote followed by a delimiter or EOL
+                fieldStart++;
+                fieldEnd = fieldStart;
+                while (fieldEnd < end && !(line[fieldEnd] == QUOTE
+                        && (fieldEnd + 1 == end
+                            || line[fieldEnd + 1] == DELIMITER))) {
+                    fieldEnd++;
+                }
+                if (fieldEnd == end) {
+                    throw new PersistenceException("Invalid order data, "
+                            + "unterminated quote: "
+                            + new String(line, start, end - start));
+                }
+                position = fieldEnd + 2; // skip the quote and the delimiter
+            } else {
+                fieldEnd = position;
+                while (fieldEnd < end && line[fieldEnd] != DELIMITER) {
+                    fieldEnd++;
+                }
+                position = fieldEnd + 1; // skip the delimiter
+            }
+
+            fieldBounds[2 * field] = fieldStart;
+            fieldBounds[2 * field + 1] = fieldEnd;
+        }
+
+        if (position <= end) {
+            throw new PersistenceException("Invalid order data, expected "
+                    + fieldCount + " fields: "
+                    + new String(line, start, end - start));
+        }
+    }
+
+    /**
+     * Returns a TaxInfo of the state, with no tax rate yet. A U.S. state is
+     * resolved from the chars themselves and given the registry's strings,
+     * so no String is created for it.
+     */
+    private static TaxInfo parseTaxInfo(char[] line, int start, int end) {
+        UsState state = UsState.of(line, start, end);
+        if (state != null) {
+            return new TaxInfo(state.getStateAbbr(), state.getStateName(), null);
+        }
+        // this constructor will set the state name
+        return new TaxInfo(parseString(line, start, end));
+    }
+
+    private static String parseString(char[] line, int start, int end) {
+        return new String(line, start, end - start);
+    }
+
+    private static BigDecimal parseDecimal(char[] line, int start, int end) {
+        return new BigDecimal(line, start, end - start);
+    }
+
+    private static int parseInt(char[] line, int start, int end) {
+        if (start == end || end - start > 10) {
+            throw new NumberFormatException(
+                    "Invalid number: " + parseString(line, start, end));
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(
+                        "Invalid number: " + parseString(line, start, end));
+            }
+            value = value * 10 + digit;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(
+                    "Invalid number: " + parseString(line, start, end));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a MM-dd-yyyy date.
+     */
+    private static LocalDate parseDate(char[] line, int start, int end) {
+        if (end - start != 10 || line[start + 2] != '-'
+                || line[start + 5] != '-') {
+            throw new NumberFormatException(
+                    "Invalid order date: " + parseString(line, start, end));
+        }
+        int month = parseInt(line, start, start + 2);
+        int day = parseInt(line, start + 3, start + 5);
+        int year = parseInt(line, start + 6, start + 10);
+        return LocalDate.of(year, month, day);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        if (value < 10) {
+            out.append('0');
+        }
+        return out.append(value);
+    }
+
+    /**
+     * Returns the codec's reusable char buffer, grown to at least length.
+     */
+    private char[] getChars(int length) {
+        if (chars.length < length) {
+            chars = new char[Math.max(length, 2 * chars.length)];
+        }
+        return chars;
+    }
+
+}
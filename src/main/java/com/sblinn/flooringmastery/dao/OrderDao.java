@@ -2,8 +2,11 @@
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.OrderSummary;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -14,19 +17,76 @@ public interface OrderDao {
     // createOrder does not need orderdate or ordernumber, order is immutable.
     Order createOrder(Order order) throws PersistenceException;
     
+    // saves all orders, writing each affected date once. returns the number
+    // of orders which did not replace an existing order.
+    int createOrders(Collection<Order> newOrders) throws PersistenceException;
+    
     Order getOrder(LocalDate orderDate, int orderNumber) throws 
             PersistenceException;
     
+    // order numbers are unique across dates. returns null if there is no
+    // order with the number.
+    Order getOrder(int orderNumber) throws PersistenceException;
+    
     List<Order> getAllOrdersOnDate(LocalDate orderDate) throws 
             PersistenceException;
     
+    // orders dated fromDate through toDate, by date then order number. the
+    // stream reads each date as it reaches it.
+    Stream<Order> getOrdersBetween(LocalDate fromDate, LocalDate toDate) 
+            throws PersistenceException;
+    
     List<Order> getAllOrders() throws PersistenceException;
     
+    // returns 0 if there are no orders
+    int getMaxOrderNumber() throws PersistenceException;
+    
+    // count, sums and order number range of the orders on the date, or null
+    OrderSummary getOrderSummary(LocalDate orderDate) throws 
+            PersistenceException;
+    
+    // summaries of the dates in the range with orders, in date order
+    List<OrderSummary> getOrderSummariesBetween(LocalDate fromDate, 
+            LocalDate toDate) throws PersistenceException;
+    
+    // orders of customers whose name starts with the prefix, ignoring case,
+    // sorted by order number
+    List<Order> findOrdersByCustomer(String customerNamePrefix) throws 
+            PersistenceException;
+    
+    // orders dated fromDate or later in the state, sorted by date and number
+    List<Order> findOrdersByState(String stateAbbr, LocalDate fromDate) throws 
+            PersistenceException;
+    
+    // orders dated fromDate or later of the product type, sorted by date and
+    // number
+    List<Order> findOrdersByProduct(String productType, LocalDate fromDate) 
+            throws PersistenceException;
+    
+    // returns the order replaced, or null without saving anything if there
+    // is no such order to update
     Order updateOrder(Order updatedOrder) throws PersistenceException;
     
+    // updates all the orders which still exist, writing each affected date 
+    // once. returns the order each one replaced, in the same order, or null
+    // for an order which no longer exists and was not saved.
+    List<Order> updateOrders(Collection<Order> updatedOrders) throws 
+            PersistenceException;
+    
+    // like updateOrders, but each order is only replaced while the stored 
+    // order still equals the read order at the same index, the one it was
+    // made from. returns null for an order which has changed or no longer 
+    // exists and was not saved.
+    List<Order> updateOrdersIfUnchanged(List<Order> readOrders, 
+            List<Order> updatedOrders) throws PersistenceException;
+    
     Order deleteOrder(LocalDate orderDate, int orderNumber) throws 
             PersistenceException;
     
     void exportBackupDataToFile(String filepath) throws PersistenceException;
     
+    // the listener is told of every date whose orders change from then on,
+    // including changes made by others once the DAO rereads the date
+    void addOrderChangeListener(OrderChangeListener listener);
+    
 }
@@ -0,0 +1,25 @@
+package com.sblinn.flooringmastery.dao;
+
+/**
+ * An OrderDaoFileImpl whose order files, Orders_MMddyyyy.ord, are in the 
+ * compact binary format of BinaryOrderFileCodec instead of text: each state 
+ * and product is written once per file, money as a count of cents and 
+ * names with their length, so a file is smaller and is loaded without 
+ * parsing numbers. Caching, journaling, the indexes and summaries work as 
+ * they do for text order files.
+ * 
+ * OrderFileConverter converts an Orders directory between the two formats.
+ *
+ * @author sarablinn
+ */
+public class OrderDaoBinaryFileImpl extends OrderDaoFileImpl {
+    
+    public OrderDaoBinaryFileImpl() {
+        this("../FlooringMastery/OrdersBinary");
+    }
+    
+    public OrderDaoBinaryFileImpl(String ordersDirFilepath) {
+        super(ordersDirFilepath, true);
+    }
+    
+}
@@ -2,44 +2,368 @@
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.Order;
-import com.sblinn.flooringmastery.dto.Product;
-import com.sblinn.flooringmastery.dto.TaxInfo;
+import com.sblinn.flooringmastery.dto.OrderSummary;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.math.BigDecimal;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
+ * Keeps the orders of each orderDate in a ConcurrentHashMap partition, backed
+ * by that date's order file in the Orders directory. The partitions are held
+ * in date order, so a range of dates can be read without the others.
+ * 
+ * Reads do not lock: they check the order file's stamp and read the 
+ * partition directly. Writes to a date hold that date's lock, one of 
+ * LOCK_STRIPES striped locks, so writes on different dates (almost always) 
+ * go ahead in parallel while writes on the same date are serialized. A batch
+ * spanning several dates takes their locks in stripe order. Loading the whole
+ * Orders directory, replaying and compacting the journal take every lock.
+ * 
+ * Order files are text, one line per order (see OrderCodec); 
+ * OrderDaoBinaryFileImpl keeps them in a binary format instead. Orders read
+ * from the files share their Product and TaxInfo with every other order of 
+ * the same product costs or state rate (see CatalogInterner), so callers 
+ * give an order a new Product or TaxInfo rather than changing its own.
  *
  * @author sarablinn
  */
 public class OrderDaoFileImpl implements OrderDao {
 
-    // HashMap<orderDate, HashMap<orderNumber, Order>>
-    private HashMap<LocalDate, HashMap<Integer, Order>> orders = 
-            new HashMap<LocalDate, HashMap<Integer,Order>>();
+    // orderDate -> (orderNumber -> Order), in date order
+    private final ConcurrentSkipListMap<LocalDate, 
+            ConcurrentHashMap<Integer, Order>> orders = 
+                    new ConcurrentSkipListMap<>();
+    // when each orderDate in memory was last used, by partitionClock, so the
+    // least recently used dates can be evicted when the cache is bounded
+    private final ConcurrentHashMap<LocalDate, Long> partitionLastUsed = 
+            new ConcurrentHashMap<>();
+    private final AtomicLong partitionClock = new AtomicLong();
+    // orderDates changed in memory since the last write
+    private final Set<LocalDate> dirtyDates = ConcurrentHashMap.newKeySet();
+    // stamps of the order files as they were last read or written
+    private final ConcurrentHashMap<LocalDate, FileStamp> orderFileStamps = 
+            new ConcurrentHashMap<>();
+    // customer names of every order read so far, evicted dates included
+    private final CustomerNameIndex customerNameIndex = new CustomerNameIndex();
+    // shared Products and TaxInfos of the orders read from order files
+    private final CatalogInterner catalogInterner = new CatalogInterner();
+    // dates with orders in each state and of each product, likewise
+    private final OrderCatalogIndex catalogIndex = new OrderCatalogIndex();
+    // orderDate of every order number read so far, evicted dates included
+    private final OrderNumberIndex orderNumberIndex = new OrderNumberIndex();
+    // stamps of the order files the index entries of each date came from
+    private final ConcurrentHashMap<LocalDate, FileStamp> indexedFileStamps = 
+            new ConcurrentHashMap<>();
+    // summary of each orderDate with the stamp of the order file it sums up,
+    // or a null stamp while the date has unwritten changes; evicted dates 
+    // keep theirs
+    private final ConcurrentHashMap<LocalDate, StampedSummary> summaries = 
+            new ConcurrentHashMap<>();
+    // told of every date whose orders change, see addOrderChangeListener
+    private final List<OrderChangeListener> orderChangeListeners = 
+            new CopyOnWriteArrayList<>();
+    private volatile boolean isLoaded = false;
+    // whether every order file has been indexed, see indexOrderFilesOnce
+    private volatile boolean isIndexed = false;
+    // max number of orderDates kept in memory, 0 loads the whole directory
+    private volatile int partitionCacheSize = 0;
+    // number of threads parsing order files when the whole directory loads
+    private volatile int loadParallelism = 1;
+    // read order files through a memory mapping instead of a Reader
+    private volatile boolean memoryMappedReads = false;
+    private volatile Duration lastLoadDuration = Duration.ZERO;
+    private volatile int lastLoadFileCount = 0;
+    private volatile int lastExportMaxOpenDates = 0;
+    
+    // a write to an orderDate holds dateLocks[stripe of the date]
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] dateLocks = new ReentrantLock[LOCK_STRIPES];
+    // one scan of the Orders directory at a time
+    private final ReentrantLock directoryLock = new ReentrantLock();
+    
+    // write-ahead log of mutations, null when mutations rewrite order files
+    private volatile OrderJournal journal;
+    // appends, truncates and size checks of the journal hold this
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private volatile boolean isJournalReplayed = false;
+    // compact once the journal grows past this many bytes
+    private volatile long journalCompactionThreshold = 1 << 20;
+    // compact every journalCompactionInterval ms, 0 only on the threshold
+    private long journalCompactionInterval = 60_000;
+    private ScheduledExecutorService journalCompactor;
     private final String ORDERS_DIR;
-    private static final String DELIMITER = ",";
+    // order files are in the binary format of BinaryOrderFileCodec, not text
+    private final boolean binaryOrderFiles;
+    private final String ORDER_FILE_SUFFIX;
+    private final Pattern ORDER_FILE_NAME;
+    // backup files ending with this are gzip compressed
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int EXPORT_BUFFER_SIZE = 1 << 16;
+    private static final String JOURNAL_FILE = "OrderJournal.log";
+    private static final String SUMMARY_FILE_SUFFIX = ".sum";
+    static final String TEXT_ORDER_FILE_SUFFIX = ".txt";
+    static final String BINARY_ORDER_FILE_SUFFIX = ".ord";
     
     
     public OrderDaoFileImpl() {
-        this.ORDERS_DIR = "../FlooringMastery/Orders";  
+        this("../FlooringMastery/Orders");
     }
     
     public OrderDaoFileImpl(String ordersDirFilepath) {
+        this(ordersDirFilepath, false);
+    }
+    
+    /**
+     * Creates a DAO over the order files in ordersDirFilepath, which are in 
+     * the binary format if binaryOrderFiles is true, else in the text format.
+     * A directory should only hold order files of one format.
+     * 
+     * @param ordersDirFilepath String
+     * @param binaryOrderFiles boolean
+     */
+    OrderDaoFileImpl(String ordersDirFilepath, boolean binaryOrderFiles) {
         this.ORDERS_DIR = ordersDirFilepath;
+        this.binaryOrderFiles = binaryOrderFiles;
+        this.ORDER_FILE_SUFFIX = binaryOrderFiles 
+                ? BINARY_ORDER_FILE_SUFFIX : TEXT_ORDER_FILE_SUFFIX;
+        this.ORDER_FILE_NAME = Pattern.compile(
+                "Orders_\\d{8}" + Pattern.quote(ORDER_FILE_SUFFIX));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            dateLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    
+    /**
+     * Sets the max number of orderDates kept in memory. When greater than 0,
+     * the Orders directory is no longer loaded as a whole: an orderDate's 
+     * order file is only parsed when that date is asked for, and the least 
+     * recently used orderDates are dropped from memory once there are more 
+     * than partitionCacheSize of them. When 0 (the default), every order file 
+     * is loaded and kept in memory.
+     * 
+     * @param partitionCacheSize max orderDates in memory, or 0 for no limit
+     */
+    public void setPartitionCacheSize(int partitionCacheSize) {
+        if (partitionCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    "Partition cache size cannot be negative.");
+        }
+        this.partitionCacheSize = partitionCacheSize;
+    }
+    
+    /**
+     * Sets how many order files are parsed at once when the whole Orders 
+     * directory is loaded. 1, the default, parses them one after another on
+     * the calling thread.
+     * 
+     * @param loadParallelism int, at least 1
+     */
+    public void setLoadParallelism(int loadParallelism) {
+        if (loadParallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Load parallelism must be at least 1.");
+        }
+        this.loadParallelism = loadParallelism;
+    }
+    
+    /**
+     * Sets whether order files are read through a memory mapping of the file
+     * (see MappedOrderFileReader) instead of a BufferedReader, or for binary
+     * order files instead of into a heap buffer. Both read the same orders; 
+     * mapping is faster for large order files.
+     * 
+     * @param memoryMappedReads boolean
+     */
+    public void setMemoryMappedReads(boolean memoryMappedReads) {
+        this.memoryMappedReads = memoryMappedReads;
+    }
+    
+    /**
+     * Returns how long the last load of the whole Orders directory took, 
+     * including the check of every order file's stamp. The first load is the
+     * startup cost.
+     * 
+     * @return Duration
+     */
+    public Duration getLastLoadDuration() {
+        return lastLoadDuration;
+    }
+    
+    /**
+     * Returns how many order files were parsed by the last load of the whole
+     * Orders directory; unchanged files are not parsed again.
+     * 
+     * @return int
+     */
+    public int getLastLoadFileCount() {
+        return lastLoadFileCount;
+    }
+    
+    /**
+     * Returns the most dates whose orders the last backup export held in 
+     * memory at once. It is 1 when no two dates' order number ranges overlap.
+     * 
+     * @return int
+     */
+    int getLastExportMaxOpenDates() {
+        return lastExportMaxOpenDates;
+    }
+    
+    /**
+     * Sets whether order mutations are written ahead to a journal, 
+     * OrderJournal.log in the Orders directory, instead of rewriting the 
+     * changed order files each time. With the journal on, a create, update 
+     * or delete (or a whole createOrders batch) is one sequential append and
+     * one fsync. The journal is compacted into the order files by a 
+     * background thread, every journalCompactionInterval or once it grows
+     * past journalCompactionThreshold, and on close(). Journaled mutations 
+     * not yet compacted when the application stopped are replayed the next 
+     * time the orders are loaded. Set this before the DAO is first used.
+     * 
+     * @param journaling boolean
+     */
+    public synchronized void setJournaling(boolean journaling) {
+        lockAllDates();
+        try {
+            if (journaling && journal == null) {
+                isJournalReplayed = false;
+                journal = new OrderJournal(Paths.get(ORDERS_DIR, JOURNAL_FILE));
+                startJournalCompactor();
+            } else if (!journaling && journal != null) {
+                throw new IllegalStateException(
+                        "Close the DAO to stop journaling.");
+            }
+        } finally {
+            unlockAllDates();
+        }
+    }
+    
+    /**
+     * Sets the journal size, in bytes, past which the journal is compacted.
+     * 
+     * @param journalCompactionThreshold long, at least 1
+     */
+    public void setJournalCompactionThreshold(
+            long journalCompactionThreshold) {
+        
+        if (journalCompactionThreshold < 1) {
+            throw new IllegalArgumentException(
+                    "Journal compaction threshold must be at least 1 byte.");
+        }
+        this.journalCompactionThreshold = journalCompactionThreshold;
+    }
+    
+    /**
+     * Sets how often, in milliseconds, the journal is compacted. 0 compacts
+     * only when the journal grows past its threshold.
+     * 
+     * @param journalCompactionInterval long
+     */
+    public synchronized void setJournalCompactionInterval(
+            long journalCompactionInterval) {
+        
+        if (journalCompactionInterval < 0) {
+            throw new IllegalArgumentException(
+                    "Journal compaction interval cannot be negative.");
+        }
+        this.journalCompactionInterval = journalCompactionInterval;
+        if (journal != null) {
+            stopJournalCompactor();
+            startJournalCompactor();
+        }
+    }
+    
+    /**
+     * Writes every journaled mutation to the order files and empties the 
+     * journal. Does nothing when journaling is off.
+     * 
+     * @throws PersistenceException 
+     */
+    public void compactJournal() throws PersistenceException {
+        lockAllDates();
+        try {
+            OrderJournal currentJournal = journal;
+            if (currentJournal == null) {
+                return;
+            }
+            if (!isJournalReplayed) {
+                replayJournal();
+            }
+            writeOrders(new ArrayList<>(dirtyDates));
+            
+            journalLock.lock();
+            try {
+                currentJournal.truncate();
+            } finally {
+                journalLock.unlock();
+            }
+        } finally {
+            unlockAllDates();
+        }
+    }
+    
+    /**
+     * Stops the journal compactor, compacts the journal and closes it. The
+     * DAO can still be used afterwards, with journaling off.
+     * 
+     * @throws PersistenceException 
+     */
+    public synchronized void close() throws PersistenceException {
+        if (journal == null) {
+            return;
+        }
+        stopJournalCompactor();
+        lockAllDates();
+        try {
+            compactJournal();
+        } finally {
+            journal.close();
+            journal = null;
+            unlockAllDates();
+        }
     }
     
     
@@ -50,18 +374,11 @@ public class OrderDaoFileImpl implements OrderDao {
      * @throws PersistenceException 
      */
     @Override
-    public Order createOrder(Order order) throws PersistenceException {
-        loadOrders();
-        LocalDate orderDate = order.getOrderDate();
-        int orderNumber = order.getOrderNumber();
-        
-        // add orderDate key if it doesn't yet exist
-        if(!orders.containsKey(orderDate)) {
-            orders.put(orderDate, new HashMap<>());
-        }
+    public Order createOrder(Order order) 
+            throws PersistenceException {
         
-        Order createResult = orders.get(orderDate).put(orderNumber, order);
-        writeOrders();
+        Order createResult = 
+                commit(List.of(OrderMutation.create(order))).get(0);
         
         if (createResult == null) {
             return order;
@@ -70,13 +387,71 @@ public class OrderDaoFileImpl implements OrderDao {
         }
     }
 
+    /**
+     * Adds all the orders, loading and then rewriting each date they fall on
+     * only once, however many of the orders share that date.
+     * 
+     * @param newOrders Collection of Orders
+     * @return number of orders which did not replace an existing order
+     * @throws PersistenceException 
+     */
+    @Override
+    public int createOrders(Collection<Order> newOrders) 
+            throws PersistenceException {
+        
+        List<OrderMutation> mutations = new ArrayList<>(newOrders.size());
+        for (Order order : newOrders) {
+            mutations.add(OrderMutation.create(order));
+        }
+        
+        int createdCount = 0;
+        for (Order replacedOrder : commit(mutations)) {
+            if (replacedOrder == null) {
+                createdCount++;
+            }
+        }
+        
+        return createdCount;
+    }
+
     @Override
-    public Order getOrder(LocalDate orderDate, int orderNumber) throws 
-            PersistenceException {
+    public Order getOrder(LocalDate orderDate, int orderNumber) 
+            throws PersistenceException {
         
-        loadOrders();
         // if orderDate is not in memory, NullPointerException is thrown
-        Order retrievedOrder = orders.get(orderDate).get(orderNumber);
+        Order retrievedOrder = getOrdersOnDate(orderDate).get(orderNumber);
+        
+        return retrievedOrder;
+    }
+
+    /**
+     * Returns the Order with the given order number, whatever its date, or 
+     * null if there is none. Its date comes from the order number index, so
+     * only that date's order file is checked. A number no longer on its 
+     * indexed date, moved by another process, is looked for again once the
+     * changed order files have been indexed; a number never indexed is only
+     * looked for in the order files before they have all been indexed.
+     * 
+     * @param orderNumber int
+     * @return Order or null
+     * @throws PersistenceException 
+     */
+    @Override
+    public Order getOrder(int orderNumber) throws PersistenceException {
+        replayJournalOnce();
+        if (!isLoaded && partitionCacheSize <= 0) {
+            loadOrders();
+        }
+        
+        boolean wasIndexed = orderNumberIndex.get(orderNumber) != null;
+        Order retrievedOrder = getIndexedOrder(orderNumber);
+        // an entry gone stale means the order files were changed by someone
+        // else, so only then is the directory indexed again
+        if (retrievedOrder == null && (!isIndexed || wasIndexed)) {
+            indexOrderFiles(loadOrders());
+            isIndexed = true;
+            retrievedOrder = getIndexedOrder(orderNumber);
+        }
         
         return retrievedOrder;
     }
@@ -89,18 +464,69 @@ public class OrderDaoFileImpl implements OrderDao {
      * @throws PersistenceException 
      */
     @Override
-    public List<Order> getAllOrdersOnDate(LocalDate orderDate) throws 
-            PersistenceException {
+    public List<Order> getAllOrdersOnDate(LocalDate orderDate) 
+            throws PersistenceException {
         
-        loadOrders();
         // if orderDate is not in memory, NullPointerException is thrown
-        HashMap<Integer, Order> ordersOnDate = orders.get(orderDate);
-        List<Order> sortedOrdersOnDate = new ArrayList(ordersOnDate.values());
+        Map<Integer, Order> ordersOnDate = getOrdersOnDate(orderDate);
+        List<Order> sortedOrdersOnDate = new ArrayList<>(ordersOnDate.values());
         sortedOrdersOnDate.sort(Comparator.comparing((i) -> i.getOrderNumber()));
         
         return sortedOrdersOnDate;
     }
 
+    /**
+     * Returns the Orders dated fromDate through toDate, inclusive, in date 
+     * order and by order number within each date. The stream is lazy: each
+     * date's partition is refreshed (or, if not held in a bounded partition
+     * cache, read without being cached) only when the stream reaches it, and
+     * dates outside the range are never touched. Orders written while the
+     * stream is consumed may or may not be included.
+     * 
+     * A PersistenceException while the stream is consumed is thrown as an
+     * UncheckedPersistenceException.
+     * 
+     * @param fromDate first LocalDate, inclusive
+     * @param toDate last LocalDate, inclusive
+     * @return Stream of Orders
+     * @throws PersistenceException 
+     */
+    @Override
+    public Stream<Order> getOrdersBetween(LocalDate fromDate, LocalDate toDate)
+            throws PersistenceException {
+        
+        replayJournalOnce();
+        if (!isLoaded && partitionCacheSize <= 0) {
+            loadOrders();
+        }
+        if (fromDate.isAfter(toDate)) {
+            return Stream.empty();
+        }
+        
+        // only the directory listing, no order file is read until needed;
+        // dates in memory are checked too, in case their order file is gone
+        NavigableSet<LocalDate> datesInRange = 
+                listOrderDates().subSet(fromDate, true, toDate, true);
+        datesInRange.addAll(
+                orders.subMap(fromDate, true, toDate, true).keySet());
+        
+        return datesInRange.stream().flatMap((orderDate) -> {
+            Collection<Order> ordersOnDate;
+            try {
+                ordersOnDate = getOrdersOnDateWithoutCaching(orderDate);
+            } catch (PersistenceException e) {
+                throw new UncheckedPersistenceException(e);
+            }
+            if (ordersOnDate == null) {
+                return Stream.empty();
+            }
+            List<Order> sortedOrdersOnDate = new ArrayList<>(ordersOnDate);
+            sortedOrdersOnDate.sort(
+                    Comparator.comparing((i) -> i.getOrderNumber()));
+            return sortedOrdersOnDate.stream();
+        });
+    }
+
     /**
      * Returns a List of Orders sorted by Order number.
      * 
@@ -109,27 +535,92 @@ public class OrderDaoFileImpl implements OrderDao {
      */
     @Override
     public List<Order> getAllOrders() throws PersistenceException {
-        
-        loadOrders();
-        List<Order> sortedOrders = new ArrayList();
-        try {
-            for (HashMap<Integer, Order> ordersInnerMap : orders.values()) {
-                for (Order order : ordersInnerMap.values()) {
-                    sortedOrders.add(order);
-                }
+        List<Order> sortedOrders = new ArrayList<>();
+        // go date by date, since a bounded cache may not hold every date
+        for (LocalDate orderDate : loadOrders()) {
+            Map<Integer, Order> ordersOnDate = partitionCacheSize > 0
+                    ? refreshOrdersOnDate(orderDate) : orders.get(orderDate);
+            if (ordersOnDate != null) {
+                sortedOrders.addAll(ordersOnDate.values());
             }
-            // sort the ArrayList by orderNumber
-            sortedOrders.sort(Comparator.comparing((i) -> i.getOrderNumber()));
-        } catch (NullPointerException e) {
-            return sortedOrders;
         }
+        // sort the ArrayList by orderNumber
+        sortedOrders.sort(Comparator.comparing((i) -> i.getOrderNumber()));
 
         return sortedOrders;
     }
 
     /**
-     * Returns null if the updatedOrder was added to memory without replacing 
-     * anything, else returns the order that updatedOrder replaced in memory.
+     * Returns the highest order number of all the Orders, or 0 if there are
+     * no orders.
+     * 
+     * @return maxOrderNumber int
+     * @throws PersistenceException 
+     */
+    @Override
+    public int getMaxOrderNumber() throws PersistenceException {
+        int maxOrderNumber = 0;
+        for (LocalDate orderDate : loadOrders()) {
+            // from the date's summary, so no order file need be parsed
+            OrderSummary summary = getSummaryOnDate(orderDate);
+            if (summary != null) {
+                maxOrderNumber = Math.max(maxOrderNumber, 
+                        summary.getMaxOrderNumber());
+            }
+        }
+        
+        return maxOrderNumber;
+    }
+    
+    /**
+     * Returns the summary of the orders on orderDate, or null if there are 
+     * none. It is kept up to date by every write and stored in a summary 
+     * file next to the order file, so the order file is only parsed when it
+     * was changed by another process or has no current summary file.
+     * 
+     * @param orderDate LocalDate
+     * @return OrderSummary or null
+     * @throws PersistenceException 
+     */
+    @Override
+    public OrderSummary getOrderSummary(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        replayJournalOnce();
+        return getSummaryOnDate(orderDate);
+    }
+    
+    /**
+     * Returns the summaries of the dates fromDate through toDate which have 
+     * orders, in date order.
+     * 
+     * @param fromDate first LocalDate, inclusive
+     * @param toDate last LocalDate, inclusive
+     * @return List of OrderSummaries
+     * @throws PersistenceException 
+     */
+    @Override
+    public List<OrderSummary> getOrderSummariesBetween(LocalDate fromDate, 
+            LocalDate toDate) throws PersistenceException {
+        
+        replayJournalOnce();
+        List<OrderSummary> summariesInRange = new ArrayList<>();
+        if (fromDate.isAfter(toDate)) {
+            return summariesInRange;
+        }
+        for (LocalDate orderDate 
+                : listOrderDates().subSet(fromDate, true, toDate, true)) {
+            OrderSummary summary = getSummaryOnDate(orderDate);
+            if (summary != null) {
+                summariesInRange.add(summary);
+            }
+        }
+        return summariesInRange;
+    }
+
+    /**
+     * Returns the order that updatedOrder replaced, or null, without writing
+     * anything, if there is no such order to update.
      * 
      * @param updatedOrder
      * @return original Order that was updated or null 
@@ -137,302 +628,1786 @@ public class OrderDaoFileImpl implements OrderDao {
      */
     @Override
     public Order updateOrder(Order updatedOrder) throws PersistenceException {
+        // if orderDate is not in memory, NullPointerException is thrown
+        Objects.requireNonNull(getOrdersOnDate(updatedOrder.getOrderDate()));
         
-        loadOrders();
-        LocalDate orderDate = updatedOrder.getOrderDate();
-        int orderNumber = updatedOrder.getOrderNumber();      
-        Order result = orders.get(orderDate).put(orderNumber, updatedOrder);
-
-        writeOrders();
+        Order result = 
+                commit(List.of(OrderMutation.update(updatedOrder))).get(0);
         
         return result;
     }
 
     /**
-     * Deletes and returns the Order if it exists, else returns null.
+     * Replaces each of the orders which still exists, with one commit: one
+     * journal append, or one rewrite of each date they fall on. An order no
+     * longer there, such as one deleted since it was read, is skipped 
+     * rather than saved again.
      * 
-     * @param orderDate
-     * @param orderNumber
-     * @return deletedOrderResult
+     * @param updatedOrders Collection of Orders
+     * @return the Order each one replaced, in the same order, or null where
+     *         it was skipped
      * @throws PersistenceException 
      */
     @Override
-    public Order deleteOrder(LocalDate orderDate, int orderNumber) throws 
-            PersistenceException {
+    public List<Order> updateOrders(Collection<Order> updatedOrders) 
+            throws PersistenceException {
         
-        loadOrders();
-        // throws NullPointerException is there is no order to delete
-        HashMap<Integer, Order> ordersOnDate = orders.get(orderDate);
-        Order deletedOrderResult = ordersOnDate.remove(orderNumber);       
-        // if only one order on date, delete date so theres no null value.
-        int numOrders = orders.get(orderDate).size();
-        if (numOrders == 0) {
-            orders.remove(orderDate);
-        } else {
-            orders.put(orderDate, ordersOnDate);
+        List<OrderMutation> mutations = new ArrayList<>(updatedOrders.size());
+        for (Order order : updatedOrders) {
+            mutations.add(OrderMutation.update(order));
         }
-        writeOrders();
         
-        return deletedOrderResult;
+        return commit(mutations);
     }
 
     /**
-     * Exports/writes all the Orders to a single backup file. 
+     * Replaces each of the orders whose stored order still equals the read
+     * order at the same index, with one commit as updateOrders does. The 
+     * check is made under the date locks the commit holds, so an order 
+     * changed or deleted by someone else since it was read is skipped 
+     * rather than overwritten.
      * 
-     * @param filepath String
+     * @param readOrders List of the Orders the updates were made from
+     * @param updatedOrders List of Orders
+     * @return the Order each one replaced, in the same order, or null where
+     *         it was skipped
      * @throws PersistenceException 
      */
     @Override
-    public void exportBackupDataToFile(String filepath) 
-            throws PersistenceException {
+    public List<Order> updateOrdersIfUnchanged(List<Order> readOrders, 
+            List<Order> updatedOrders) throws PersistenceException {
         
-        PrintWriter out = null;
-        String fileHeaderText = 
-                "OrderNumber,CustomerName,State,TaxRate,ProductType,Area,"
-                + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,"
-                + "LaborCost,Tax,Total,OrderDate";
-
-        List<Order> ordersList = this.getAllOrders();
-        // if no file exists at this valid file path, PrintWriter creates new
-        try {
-            File exportFile = new File(filepath);
-            out = new PrintWriter(new FileWriter(exportFile));
-            out.println(fileHeaderText);
-            out.flush();
-        } catch (IOException e) {
-            throw new PersistenceException(
-                    "Unable to export data to " + filepath + ". "
-                            + "Check file name and path.");
+        if (readOrders.size() != updatedOrders.size()) {
+            throw new IllegalArgumentException(
+                    "Each updated order needs the order it was read as.");
         }
-        
-        for (Order currentOrder : ordersList) {
-            String currentOrderAsText = marshallOrder(currentOrder);
-            out.println(currentOrderAsText);
-            out.flush();
+        List<OrderMutation> mutations = new ArrayList<>(updatedOrders.size());
+        for (int i = 0; i < updatedOrders.size(); i++) {
+            mutations.add(OrderMutation.updateIfUnchanged(
+                    updatedOrders.get(i), readOrders.get(i)));
         }
         
-        ZonedDateTime today = ZonedDateTime.now();
-        out.println("\nData backed up on: " 
-                + today.format(DateTimeFormatter.ISO_OFFSET_DATE));
-        out.close();
+        return commit(mutations);
     }
-    
+
     /**
-     * Returns the String representation of an Order. 
+     * Deletes and returns the Order if it exists, else returns null.
      * 
-     * @param order Order
-     * @return orderAsText String
+     * @param orderDate
+     * @param orderNumber
+     * @return deletedOrderResult
+     * @throws PersistenceException 
      */
-    private String marshallOrder(Order order) {
-        String orderAsText = Integer.toString(order.getOrderNumber()) + DELIMITER;
-        orderAsText += "'" + order.getCustomerName() + "'" + DELIMITER;
-        orderAsText += order.getTaxInfo().getStateAbbr() + DELIMITER;
-        orderAsText += order.getTaxInfo().getTaxRate() + DELIMITER;
-        orderAsText += order.getProduct().getProductType() + DELIMITER;
-        orderAsText += order.getArea() + DELIMITER;
-        orderAsText += order.getProduct().getCostPerSqFoot() + DELIMITER;
-        orderAsText += order.getProduct().getLaborCostPerSqFoot() + DELIMITER;
-        orderAsText += order.getMaterialCost() + DELIMITER;
-        orderAsText += order.getLaborCost() + DELIMITER;
-        orderAsText += order.getTax() + DELIMITER;
-        orderAsText += order.getTotal() + DELIMITER;
-        // include orderDate, it will be needed for creating order file name
-        // and is included in exportBackupDataToFile method.
-        orderAsText += order.getOrderDate()
-                .format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));      
+    @Override
+    public Order deleteOrder(LocalDate orderDate, int orderNumber) 
+            throws PersistenceException {
         
-        return orderAsText;
+        // throws NullPointerException is there is no order to delete
+        Map<Integer, Order> ordersOnDate = getOrdersOnDate(orderDate);
+        if (!ordersOnDate.containsKey(orderNumber)) {
+            return null;
+        }
+        
+        Order deletedOrderResult = commit(List.of(
+                OrderMutation.delete(orderDate, orderNumber))).get(0);
+        
+        return deletedOrderResult;
     }
     
     /**
-     * Returns an Order from its String representation.
+     * Returns the Orders of every customer whose name starts with the given
+     * prefix, ignoring case and extra whitespace, sorted by order number.
+     * Names are looked up in the customer name index rather than by scanning
+     * the orders. The first search indexes every order file (with a bounded
+     * partition cache, without caching their orders); later searches only 
+     * check the order files of the dates they find, so an order another 
+     * process adds to a date not found is not found either until its order
+     * file is read for some other reason.
      * 
-     * @param orderAsText String
-     * @return order Order
-     * @throws PersistenceException
+     * @param customerNamePrefix String
+     * @return List of Orders, empty if none match
+     * @throws PersistenceException 
      */
-    private Order unmarshallOrder(String orderAsText) throws 
-            PersistenceException {
-        /*
-        orderDate (MMddyyyy) is last delimited item 
-        -- needed for creating the Order object.
-        */
-
-        /*
-        REMINDER: 
-        the if/else statements can be removed in the future, but for now we will
-        keep them since the sample files do not separate customerName.
-        */
-        
-        // cut out and save 'customerName' from orderAsText
-        String customerName = "";
-        boolean hasQuotes = orderAsText.contains("'");
-        if (hasQuotes == true) {
-            int start = orderAsText.indexOf("'") + 1; // excludes the '' 
-            int end = orderAsText.lastIndexOf("'");
-            customerName = orderAsText.substring(start, end);
-            // replace customerName with void, so commas from name won't 
-            // interfere and array indices will stay the same when text is split
-            orderAsText = orderAsText.replaceFirst(customerName, "");
-        }
-        
-        String[] orderData = orderAsText.split(DELIMITER);
-        Order orderFromFile;
-        
-        // MMddyyyy -> MM-dd-yyyy
-        LocalDate orderDate = LocalDate.parse(orderData[12], 
-                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
-        
-        int orderNumber = Integer.parseInt(orderData[0]);
-        orderFromFile = new Order(orderDate, orderNumber);
-        
-        if (hasQuotes == true) {
-            orderFromFile.setCustomerName(customerName);
-        } else {
-            orderFromFile.setCustomerName(orderData[1]);
-        }
-
-        // this constructor will set the state name
-        TaxInfo taxInfo = new TaxInfo(orderData[2]);
-        taxInfo.setTaxRate(new BigDecimal(orderData[3]));
-        orderFromFile.setTaxInfo(taxInfo);
+    @Override
+    public List<Order> findOrdersByCustomer(String customerNamePrefix) 
+            throws PersistenceException {
         
-        Product product = new Product();
-        product.setProductType(orderData[4]);
-        product.setCostPerSqFoot(new BigDecimal(orderData[6]));
-        product.setLaborCostPerSqFoot(new BigDecimal(orderData[7]));
-        orderFromFile.setProduct(product);
+        indexOrderFilesOnce();
         
-        orderFromFile.setArea(new BigDecimal(orderData[5]));
-        orderFromFile.setMaterialCost(new BigDecimal(orderData[8]));
-        orderFromFile.setLaborCost(new BigDecimal(orderData[9]));
-        orderFromFile.setTax(new BigDecimal(orderData[10]));
-        orderFromFile.setTotal(new BigDecimal(orderData[11]));
+        String prefix = CustomerNameIndex.normalize(customerNamePrefix);
+        List<Order> foundOrders = new ArrayList<>();
+        // each date found is checked against its order file once
+        Map<LocalDate, Map<Integer, Order>> foundDates = new HashMap<>();
+        for (Map.Entry<Integer, LocalDate> indexEntry 
+                : customerNameIndex.findOrders(prefix).entrySet()) {
+            LocalDate orderDate = indexEntry.getValue();
+            Map<Integer, Order> ordersOnDate = foundDates.containsKey(orderDate)
+                    ? foundDates.get(orderDate) 
+                    : refreshOrdersOnDate(orderDate);
+            foundDates.put(orderDate, ordersOnDate);
+            Order order = ordersOnDate == null 
+                    ? null : ordersOnDate.get(indexEntry.getKey());
+            // the index may be a step behind a write still in progress
+            if (order != null && CustomerNameIndex.normalize(
+                    order.getCustomerName()).startsWith(prefix)) {
+                foundOrders.add(order);
+            }
+        }
+        foundOrders.sort(Comparator.comparing((i) -> i.getOrderNumber()));
         
-        return orderFromFile; 
+        return foundOrders;
     }
     
     /**
-     * Loads the HashMap with Order objects from their files stored in the 
-     * Orders directory.
+     * Returns the Orders dated fromDate or later in the given state, in any
+     * case, sorted by date and order number. Only the dates the catalog 
+     * index has orders in the state on are read.
      * 
+     * @param stateAbbr String
+     * @param fromDate first LocalDate, inclusive
+     * @return List of Orders, empty if there are none
      * @throws PersistenceException 
      */
-    private void loadOrders() throws PersistenceException {
-        Scanner scanner;
+    @Override
+    public List<Order> findOrdersByState(String stateAbbr, LocalDate fromDate) 
+            throws PersistenceException {
         
-        File ordersDir = new File(ORDERS_DIR);
-        File[] ordersDirFiles = ordersDir.listFiles(
-                (dir, name) -> name.matches("Orders_" + "\\d{8}.txt"));
+        indexOrderFilesOnce();
         
-        if (ordersDirFiles != null) {
-            for (File currentOrderFile : ordersDirFiles) {
-                String currentOrderFileName;
-                
-                try {
-                    // set up the current order file to load to memory
-                    currentOrderFileName = currentOrderFile.getName();
-                    scanner = new Scanner(new BufferedReader(
-                            new FileReader(currentOrderFile)));
-                } catch (FileNotFoundException e) {
-                    throw new PersistenceException(
-                            "Unable to load order data from file into memory.");
-                }
-       
-                if (scanner.hasNext()) {
-                    // read and ignore header on first line
-                    scanner.nextLine();
-
-                    // get orderDate from file name and format it for unmarshalling
-                    String orderDateStrFromFileName
-                            = currentOrderFileName.substring(7, 15);
-                    LocalDate orderDate = LocalDate.parse(orderDateStrFromFileName,
-                            DateTimeFormatter.ofPattern("MMddyyyy"));
-                    String orderDateStr = orderDate.format(
-                            DateTimeFormatter.ofPattern("MM-dd-yyyy"));
-
-                    String currentLine;
-                    Order currentOrder;
-
-                    // add orderDate key 
-                    orders.put(orderDate, new HashMap<>());
-
-                    while (scanner.hasNext()) {
-                        currentLine = scanner.nextLine();
-                        currentOrder = unmarshallOrder(currentLine
-                                + DELIMITER + orderDateStr);
-                        // add current order to memory
-                        orders.get(currentOrder.getOrderDate())
-                                .put(currentOrder.getOrderNumber(), currentOrder);
-                    }
-                }
-            }
-        } else {
-            throw new PersistenceException("Unable to find Orders directory.");
-        }
+        String state = OrderCatalogIndex.normalizeState(stateAbbr);
+        return findIndexedOrders(
+                catalogIndex.findDatesWithState(state, fromDate),
+                (order) -> order.getTaxInfo() != null && state.equals(
+                        OrderCatalogIndex.normalizeState(
+                                order.getTaxInfo().getStateAbbr())));
     }
     
     /**
-     * Writes all the Orders from the HashMap into individual order files stored
-     * in the Orders directory.
-     *
-     * @throws PersistenceException
+     * Returns the Orders dated fromDate or later of the given product type,
+     * sorted by date and order number. Only the dates the catalog index has
+     * orders of the product on are read.
+     * 
+     * @param productType String
+     * @param fromDate first LocalDate, inclusive
+     * @return List of Orders, empty if there are none
+     * @throws PersistenceException 
      */
-    private void writeOrders() throws PersistenceException {
-        PrintWriter out = null;
-        String fileHeaderText =
-                 "OrderNumber,CustomerName,State,TaxRate,ProductType,Area,"
-                + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,"
-                + "LaborCost,Tax,Total";
-
-        resetOrdersDir();
+    @Override
+    public List<Order> findOrdersByProduct(String productType, 
+            LocalDate fromDate) throws PersistenceException {
         
-        if (!orders.isEmpty()) {
-            
-            for (LocalDate date : orders.keySet()) {
-                String orderDateStr = date.format(
-                        DateTimeFormatter.ofPattern("MMddyyyy"));
-                //Create a file for that orderDate
-                String orderFileName = "Orders_" + orderDateStr + ".txt";
-                try {
-                    File currentOrderFile = new File(ORDERS_DIR, orderFileName);
-                    out = new PrintWriter(
-                            new FileWriter(currentOrderFile, true), true);
-                } catch (IOException e) {
-                    throw new PersistenceException(
-                            "Unable to save data to order file.");
-                }
-                //Write header
-                out.println(fileHeaderText);
-
-                for (Order order : orders.get(date).values()) {
-                    //Write Order to file
-                    // get order as text String & remove orderDate data at end of String
-                    String orderAsText = marshallOrder(order);
-                    int lastDelimiterIndex = orderAsText.lastIndexOf(DELIMITER);
-                    orderAsText = orderAsText.substring(0, lastDelimiterIndex);
-                    out.println(orderAsText);
-                    out.flush();
-                }
-            }
-
-            out.close();
-        }
+        indexOrderFilesOnce();
+        
+        return findIndexedOrders(
+                catalogIndex.findDatesWithProduct(productType, fromDate),
+                (order) -> order.getProduct() != null && productType.equals(
+                        order.getProduct().getProductType()));
     }
     
     /**
-     * Deletes all the files in the ORDERS_DIR directory, then deletes and 
-     * recreates the empty ORDERS_DIR.
+     * Commits a batch of mutations together: one journal append, or one 
+     * rewrite of each changed order file, for the whole batch. Used by
+     * GroupCommitOrderDao to coalesce the writes of concurrent callers.
+     * 
+     * @param mutations List of OrderMutations
+     * @return the Order each mutation replaced or deleted, or null
+     * @throws PersistenceException 
      */
-    private void resetOrdersDir() {
-        File ordersDir = new File(ORDERS_DIR);
-        File[] ordersFromDir = ordersDir.listFiles();
-
-        for (File orderFile : ordersFromDir) {
-            orderFile.delete();
+    List<Order> commitMutations(List<OrderMutation> mutations) 
+            throws PersistenceException {
+        
+        return commit(mutations);
+    }
+
+    /**
+     * Exports/writes all the Orders to a single backup file, with their order
+     * dates, in order number order. The dates are merged as they are written,
+     * each entering the merge at the lowest order number of its summary, so 
+     * a date's orders are only read and sorted once the merge reaches that 
+     * number, and dropped once they are all written. Only the dates whose 
+     * order number ranges overlap the number being written are in memory at
+     * once; usually that is one. Dates not held in memory (with a bounded 
+     * partition cache) are read for the export without being cached. Orders
+     * written while the export runs may or may not be included.
+     * 
+     * Output goes through one large buffer which is flushed when the file is
+     * closed, to a temp file which then replaces the backup file. If the file
+     * path ends with .gz the backup is gzip compressed.
+     * 
+     * @param filepath String
+     * @throws PersistenceException 
+     */
+    @Override
+    public void exportBackupDataToFile(String filepath) 
+            throws PersistenceException {
+        
+        String fileHeaderText = 
+                "OrderNumber,CustomerName,State,TaxRate,ProductType,Area,"
+                + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,"
+                + "LaborCost,Tax,Total,OrderDate";
+        
+        // one cursor per date, the cursor with the lowest next order number
+        // at the head; only the summaries are read here
+        PriorityQueue<OrderCursor> cursors = new PriorityQueue<>(
+                Comparator.comparingInt((c) -> c.peekOrderNumber()));
+        for (LocalDate orderDate : loadOrders()) {
+            OrderSummary summary = getSummaryOnDate(orderDate);
+            if (summary != null) {
+                cursors.add(new OrderCursor(orderDate, 
+                        summary.getMinOrderNumber()));
+            }
+        }
+        
+        Path exportFile;
+        Path tempFile;
+        try {
+            exportFile = Paths.get(filepath);
+            tempFile = DataFiles.getTempFile(exportFile);
+        } catch (InvalidPathException e) {
+            throw new PersistenceException(
+                    "Unable to export data to " + filepath + ". "
+                            + "Check file name and path.", e);
+        }
+        
+        try (Writer out = openExportWriter(tempFile, 
+                filepath.endsWith(GZIP_SUFFIX))) {
+            
+            String lineSeparator = System.lineSeparator();
+            out.write(fileHeaderText);
+            out.write(lineSeparator);
+            
+            OrderCodec orderCodec = new OrderCodec();
+            int openDates = 0;
+            int maxOpenDates = 0;
+            while (!cursors.isEmpty()) {
+                OrderCursor cursor = cursors.poll();
+                if (!cursor.isOpen()) {
+                    // requeued at its first order, in case the summary was 
+                    // a step behind a write
+                    cursor.open(getOrdersOnDateWithoutCaching(
+                            cursor.orderDate));
+                    openDates++;
+                    maxOpenDates = Math.max(maxOpenDates, openDates);
+                } else {
+                    orderCodec.write(cursor.next(), true, out);
+                    out.write(lineSeparator);
+                }
+                if (cursor.hasNext()) {
+                    cursors.add(cursor);
+                } else {
+                    openDates--;
+                }
+            }
+            lastExportMaxOpenDates = maxOpenDates;
+            
+            ZonedDateTime today = ZonedDateTime.now();
+            out.write("\nData backed up on: " 
+                    + today.format(DateTimeFormatter.ISO_OFFSET_DATE));
+            out.write(lineSeparator);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw new PersistenceException(
+                    "Unable to export data to " + filepath + ". "
+                            + "Check file name and path.", e);
+        }
+        
+        try {
+            DataFiles.replace(tempFile, exportFile);
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to export data to " + filepath + ".", e);
+        }
+    }
+    
+    /**
+     * Adds a listener told of each date whose orders change from now on: 
+     * with each commit, for every date it changed, when the journal is 
+     * replayed, and when a date is reread or dropped because its order file
+     * changed or went away on disk. A date is also reported the first time
+     * its order file is read. Changes made by others to an order file are 
+     * only seen once this DAO reads that date again.
+     * 
+     * @param listener OrderChangeListener
+     */
+    @Override
+    public void addOrderChangeListener(OrderChangeListener listener) {
+        orderChangeListeners.add(listener);
+    }
+    
+    /**
+     * Loads the orders map with Order objects from their files stored in the 
+     * Orders directory, and returns the orderDates which have an order file.
+     * The first call parses every order file; after that, only order files 
+     * whose stamp changed since they were last read or written are parsed 
+     * again, and orderDates whose order file was removed are dropped from 
+     * memory. With a bounded partition cache, no order file is parsed here.
+     * 
+     * @return Set of orderDates found in the Orders directory
+     * @throws PersistenceException 
+     */
+    private Set<LocalDate> loadOrders() throws PersistenceException {
+        replayJournalOnce();
+        
+        directoryLock.lock();
+        try {
+            NavigableSet<LocalDate> datesOnDisk = listOrderDates();
+
+            // drop any orderDates whose order file no longer exists
+            Set<LocalDate> droppedDates = new HashSet<>(orders.keySet());
+            droppedDates.addAll(orderFileStamps.keySet());
+            droppedDates.addAll(indexedFileStamps.keySet());
+            droppedDates.removeAll(datesOnDisk);
+            for (LocalDate droppedDate : droppedDates) {
+                dropOrdersOnDateIfNoFile(droppedDate);
+            }
+
+            // with a bounded cache, dates are parsed on demand by the caller
+            if (partitionCacheSize <= 0) {
+                refreshAllOrders(datesOnDisk);
+                isLoaded = true;
+            }
+
+            return datesOnDisk;
+        } finally {
+            directoryLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the orderDates of the order files in the Orders directory, in
+     * date order, along with the dates changed in memory but not yet 
+     * written, which have the orders that count whether or not their order
+     * file exists.
+     * 
+     * @return NavigableSet of LocalDates
+     * @throws PersistenceException if there is no Orders directory
+     */
+    private NavigableSet<LocalDate> listOrderDates() 
+            throws PersistenceException {
+        
+        File ordersDir = new File(ORDERS_DIR);
+        File[] ordersDirFiles = ordersDir.listFiles(
+                (dir, name) -> ORDER_FILE_NAME.matcher(name).matches());
+
+        if (ordersDirFiles == null) {
+            throw new PersistenceException(
+                    "Unable to find Orders directory.");
+        }
+
+        NavigableSet<LocalDate> orderDates = new TreeSet<>();
+        for (File currentOrderFile : ordersDirFiles) {
+            orderDates.add(
+                    getOrderDateFromFileName(currentOrderFile.getName()));
+        }
+        orderDates.addAll(dirtyDates);
+        
+        return orderDates;
+    }
+    
+    /**
+     * Removes an orderDate from memory, unless its order file was written
+     * since the directory was listed or it has unwritten changes.
+     * 
+     * @param orderDate LocalDate
+     */
+    private void dropOrdersOnDateIfNoFile(LocalDate orderDate) {
+        ReentrantLock dateLock = getDateLock(orderDate);
+        dateLock.lock();
+        try {
+            if (!dirtyDates.contains(orderDate) 
+                    && !Files.exists(getOrderFilePath(orderDate))) {
+                orders.remove(orderDate);
+                orderFileStamps.remove(orderDate);
+                partitionLastUsed.remove(orderDate);
+                customerNameIndex.replaceOrdersOnDate(orderDate, null);
+                catalogIndex.replaceOrdersOnDate(orderDate, null);
+                indexedFileStamps.remove(orderDate);
+                removeSummary(orderDate);
+                fireOrdersChanged(orderDate, null);
+            }
+        } finally {
+            dateLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the orders on the given orderDate, current with its order file,
+     * or null if there are none. The first call loads the whole Orders 
+     * directory, unless the partition cache is bounded; after that only the
+     * one order file is read or checked.
+     * 
+     * @param orderDate LocalDate
+     * @return Map of the orders on the date by order number, or null
+     * @throws PersistenceException 
+     */
+    private Map<Integer, Order> getOrdersOnDate(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        replayJournalOnce();
+        if (!isLoaded && partitionCacheSize <= 0) {
+            loadOrders();
+        }
+        return refreshOrdersOnDate(orderDate);
+    }
+    
+    /**
+     * Returns the orders on the given orderDate, after parsing its order file
+     * again if the file's stamp differs from the one recorded when it was 
+     * last read or written. When the stamp is unchanged, as it usually is,
+     * no lock is taken.
+     * 
+     * @param orderDate LocalDate
+     * @return Map of the orders on the date by order number, or null
+     * @throws PersistenceException 
+     */
+    private Map<Integer, Order> refreshOrdersOnDate(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        // without the lock these reads may straddle another thread's evict
+        // and reload of the date, so a missing partition is only trusted 
+        // when there is no order file either
+        FileStamp knownStamp = orderFileStamps.get(orderDate);
+        ConcurrentHashMap<Integer, Order> ordersOnDate = orders.get(orderDate);
+        if (ordersOnDate != null && dirtyDates.contains(orderDate)) {
+            markUsed(orderDate);
+            return ordersOnDate; // memory is ahead of the order file
+        }
+        // a stamp without orders is an evicted (or empty) date, reread it
+        if ((ordersOnDate != null || knownStamp == null) 
+                && !dirtyDates.contains(orderDate)
+                && Objects.equals(getFileStamp(orderDate), knownStamp)) {
+            markUsed(orderDate);
+            return ordersOnDate;
+        }
+        
+        ReentrantLock dateLock = getDateLock(orderDate);
+        dateLock.lock();
+        try {
+            if (!dirtyDates.contains(orderDate)) {
+                knownStamp = orders.containsKey(orderDate) 
+                        ? orderFileStamps.get(orderDate) : null;
+                OrderFileRead orderFileRead = 
+                        readOrderFileIfChanged(orderDate, knownStamp);
+                if (orderFileRead != null) {
+                    publishOrderFileRead(orderFileRead);
+                } else if (knownStamp == null) {
+                    orderFileStamps.remove(orderDate);
+                }
+            }
+            markUsed(orderDate);
+            ordersOnDate = orders.get(orderDate);
+        } finally {
+            dateLock.unlock();
+        }
+        
+        evictLeastRecentlyUsedDates();
+        return ordersOnDate;
+    }
+    
+    /**
+     * Refreshes every date, parsing changed order files on up to 
+     * loadParallelism threads. Each file is parsed into its own map, without
+     * a lock; the maps are then published into the orders map under their
+     * date's lock, unless the date was written or reread in the meantime.
+     * 
+     * @param orderDates Set of LocalDates
+     * @throws PersistenceException 
+     */
+    private void refreshAllOrders(Set<LocalDate> orderDates) 
+            throws PersistenceException {
+        
+        long startTime = System.nanoTime();
+        int filesRead = 0;
+        
+        if (loadParallelism <= 1 || orderDates.size() < 2) {
+            for (LocalDate orderDate : orderDates) {
+                if (dirtyDates.contains(orderDate)) {
+                    continue;
+                }
+                FileStamp knownStamp = orderFileStamps.get(orderDate);
+                OrderFileRead orderFileRead = readOrderFileIfChanged(orderDate,
+                        knownStamp);
+                if (orderFileRead != null 
+                        && publishOrderFileRead(orderFileRead, knownStamp)) {
+                    filesRead++;
+                }
+            }
+        } else {
+            ForkJoinPool loadPool = new ForkJoinPool(loadParallelism);
+            try {
+                List<FileStamp> knownStamps = new ArrayList<>();
+                List<Future<OrderFileRead>> orderFileReads = 
+                        new ArrayList<>(orderDates.size());
+                for (LocalDate orderDate : orderDates) {
+                    if (dirtyDates.contains(orderDate)) {
+                        continue;
+                    }
+                    // workers get the known stamp, they never touch the maps
+                    FileStamp knownStamp = orderFileStamps.get(orderDate);
+                    knownStamps.add(knownStamp);
+                    orderFileReads.add(loadPool.submit(
+                            () -> readOrderFileIfChanged(orderDate, knownStamp)));
+                }
+                
+                for (int i = 0; i < orderFileReads.size(); i++) {
+                    OrderFileRead orderFileRead = 
+                            getOrderFileRead(orderFileReads.get(i));
+                    if (orderFileRead != null && publishOrderFileRead(
+                            orderFileRead, knownStamps.get(i))) {
+                        filesRead++;
+                    }
+                }
+            } finally {
+                loadPool.shutdownNow();
+            }
+        }
+        
+        lastLoadDuration = Duration.ofNanos(System.nanoTime() - startTime);
+        lastLoadFileCount = filesRead;
+    }
+    
+    /**
+     * Waits for a parallel order file read, rethrowing its failure.
+     * 
+     * @param future Future of an OrderFileRead
+     * @return OrderFileRead or null
+     * @throws PersistenceException 
+     */
+    private OrderFileRead getOrderFileRead(Future<OrderFileRead> future) 
+            throws PersistenceException {
+        
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PersistenceException) {
+                throw (PersistenceException) e.getCause();
+            }
+            throw new PersistenceException(
+                    "Unable to load order data from file into memory.", 
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(
+                    "Interrupted while loading order data.", e);
+        }
+    }
+    
+    /**
+     * Reads the order file of orderDate if its stamp differs from knownStamp,
+     * the stamp it was last read or written with. Does not touch the DAO's 
+     * maps, so it is safe to call from several threads at once.
+     * 
+     * @param orderDate LocalDate
+     * @param knownStamp FileStamp or null
+     * @return OrderFileRead, or null if the file is unchanged
+     * @throws PersistenceException 
+     */
+    private OrderFileRead readOrderFileIfChanged(LocalDate orderDate, 
+            FileStamp knownStamp) throws PersistenceException {
+        
+        Path orderFile = getOrderFilePath(orderDate);
+        FileStamp currentStamp = getFileStamp(orderDate);
+        
+        if (Objects.equals(currentStamp, knownStamp)) {
+            return null; // unchanged since last read or write
+        }
+        
+        ConcurrentHashMap<Integer, Order> ordersOnDate = null;
+        if (currentStamp != null) {
+            ordersOnDate = readOrderFile(orderDate, orderFile.toFile());
+        }
+        
+        return new OrderFileRead(orderDate, currentStamp, ordersOnDate);
+    }
+    
+    /**
+     * Returns the current stamp of the order file of orderDate, or null if
+     * there is no order file.
+     * 
+     * @param orderDate LocalDate
+     * @return FileStamp or null
+     * @throws PersistenceException 
+     */
+    private FileStamp getFileStamp(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        try {
+            return FileStamp.of(getOrderFilePath(orderDate));
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to load order data from file into memory.", e);
+        }
+    }
+    
+    /**
+     * Puts the orders of a freshly read order file into memory, or removes
+     * its date if the file was missing or empty. The caller holds the date's
+     * lock.
+     * 
+     * @param orderFileRead OrderFileRead
+     */
+    private void publishOrderFileRead(OrderFileRead orderFileRead) {
+        LocalDate orderDate = orderFileRead.orderDate;
+        
+        if (orderFileRead.ordersOnDate == null) {
+            orders.remove(orderDate);
+            partitionLastUsed.remove(orderDate);
+        } else {
+            orders.put(orderDate, orderFileRead.ordersOnDate);
+        }
+        
+        if (orderFileRead.fileStamp == null) {
+            orderFileStamps.remove(orderDate);
+        } else {
+            orderFileStamps.put(orderDate, orderFileRead.fileStamp);
+        }
+        indexOrderFileRead(orderFileRead);
+    }
+    
+    /**
+     * Replaces the customer name index entries of a freshly read order 
+     * file's date. The caller holds the date's lock.
+     * 
+     * @param orderFileRead OrderFileRead
+     */
+    private void indexOrderFileRead(OrderFileRead orderFileRead) {
+        LocalDate orderDate = orderFileRead.orderDate;
+        
+        customerNameIndex.replaceOrdersOnDate(orderDate, 
+                orderFileRead.ordersOnDate == null 
+                        ? null : orderFileRead.ordersOnDate.values());
+        catalogIndex.replaceOrdersOnDate(orderDate, 
+                orderFileRead.ordersOnDate == null 
+                        ? null : orderFileRead.ordersOnDate.values());
+        // numbers no longer in the file are dropped when next looked up
+        if (orderFileRead.ordersOnDate != null) {
+            orderNumberIndex.putAll(orderFileRead.ordersOnDate.values());
+        }
+        if (orderFileRead.fileStamp == null) {
+            indexedFileStamps.remove(orderDate);
+        } else {
+            indexedFileStamps.put(orderDate, orderFileRead.fileStamp);
+        }
+        recordSummary(orderDate, OrderSummary.of(orderDate, 
+                orderFileRead.ordersOnDate == null 
+                        ? null : orderFileRead.ordersOnDate.values()), 
+                orderFileRead.fileStamp);
+        fireOrdersChanged(orderDate, orderFileRead.ordersOnDate == null 
+                ? null : orderFileRead.ordersOnDate.values());
+    }
+    
+    /**
+     * Tells the order change listeners that orderDate now has ordersOnDate.
+     * The caller holds the date's lock.
+     * 
+     * @param orderDate LocalDate
+     * @param ordersOnDate Collection of Orders, or null if there are none
+     */
+    private void fireOrdersChanged(LocalDate orderDate, 
+            Collection<Order> ordersOnDate) {
+        
+        if (orderChangeListeners.isEmpty()) {
+            return;
+        }
+        Collection<Order> currentOrders = ordersOnDate == null 
+                ? List.of() : ordersOnDate;
+        for (OrderChangeListener listener : orderChangeListeners) {
+            listener.ordersChanged(orderDate, currentOrders);
+        }
+    }
+    
+    /**
+     * Returns the summary of the orders on orderDate: with unwritten changes
+     * or in memory, that of the orders in memory; otherwise the recorded 
+     * summary or the summary file if either has the order file's current 
+     * stamp, and failing those the order file is parsed, without caching it,
+     * and its summary file rewritten.
+     * 
+     * @param orderDate LocalDate
+     * @return OrderSummary or null
+     * @throws PersistenceException 
+     */
+    private OrderSummary getSummaryOnDate(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        // without the lock, as in refreshOrdersOnDate
+        StampedSummary knownSummary = summaries.get(orderDate);
+        if (dirtyDates.contains(orderDate)) {
+            return knownSummary == null ? null : knownSummary.summary;
+        }
+        FileStamp currentStamp = getFileStamp(orderDate);
+        if (currentStamp == null && !orders.containsKey(orderDate)) {
+            return null;
+        }
+        if (knownSummary != null && currentStamp != null
+                && currentStamp.equals(knownSummary.orderFileStamp)) {
+            return knownSummary.summary;
+        }
+        
+        ReentrantLock dateLock = getDateLock(orderDate);
+        dateLock.lock();
+        try {
+            if (dirtyDates.contains(orderDate) 
+                    || orders.containsKey(orderDate)) {
+                refreshOrdersOnDate(orderDate);
+                return summarizeOrdersInMemory(orderDate);
+            }
+            
+            currentStamp = getFileStamp(orderDate);
+            if (currentStamp == null) {
+                summaries.remove(orderDate);
+                return null;
+            }
+            knownSummary = summaries.get(orderDate);
+            if (knownSummary == null 
+                    || !currentStamp.equals(knownSummary.orderFileStamp)) {
+                knownSummary = readSummaryFile(orderDate);
+            }
+            if (knownSummary != null 
+                    && currentStamp.equals(knownSummary.orderFileStamp)) {
+                summaries.put(orderDate, knownSummary);
+                return knownSummary.summary;
+            }
+            
+            OrderFileRead orderFileRead = 
+                    readOrderFileIfChanged(orderDate, null);
+            if (orderFileRead == null || orderFileRead.ordersOnDate == null) {
+                summaries.remove(orderDate);
+                return null;
+            }
+            OrderSummary summary = OrderSummary.of(orderDate, 
+                    orderFileRead.ordersOnDate.values());
+            writeSummaryFile(orderDate, 
+                    recordSummary(orderDate, summary, orderFileRead.fileStamp));
+            return summary;
+        } finally {
+            dateLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the summary of the orders on orderDate in memory: the recorded
+     * one if it is current with them, else a new one, which is recorded. The
+     * caller holds the date's lock.
+     * 
+     * @param orderDate LocalDate
+     * @return OrderSummary or null
+     */
+    private OrderSummary summarizeOrdersInMemory(LocalDate orderDate) {
+        FileStamp memoryStamp = dirtyDates.contains(orderDate) 
+                ? null : orderFileStamps.get(orderDate);
+        StampedSummary knownSummary = summaries.get(orderDate);
+        if (knownSummary != null 
+                && Objects.equals(knownSummary.orderFileStamp, memoryStamp)) {
+            return knownSummary.summary;
+        }
+        
+        Map<Integer, Order> ordersOnDate = orders.get(orderDate);
+        OrderSummary summary = OrderSummary.of(orderDate, 
+                ordersOnDate == null ? null : ordersOnDate.values());
+        recordSummary(orderDate, summary, memoryStamp);
+        return summary;
+    }
+    
+    /**
+     * Records the summary of orderDate with the stamp of the order file it 
+     * sums up, or null for unwritten changes; a null summary removes it.
+     * 
+     * @param orderDate LocalDate
+     * @param summary OrderSummary or null
+     * @param orderFileStamp FileStamp or null
+     * @return the recorded StampedSummary, or null
+     */
+    private StampedSummary recordSummary(LocalDate orderDate, 
+            OrderSummary summary, FileStamp orderFileStamp) {
+        
+        if (summary == null) {
+            summaries.remove(orderDate);
+            return null;
+        }
+        StampedSummary stampedSummary = 
+                new StampedSummary(summary, orderFileStamp);
+        summaries.put(orderDate, stampedSummary);
+        return stampedSummary;
+    }
+    
+    /**
+     * Forgets the summary of orderDate and deletes its summary file.
+     * 
+     * @param orderDate LocalDate
+     */
+    private void removeSummary(LocalDate orderDate) {
+        summaries.remove(orderDate);
+        try {
+            Files.deleteIfExists(getSummaryFilePath(orderDate));
+        } catch (IOException e) {
+            // a summary file left behind no longer matches any order file
+        }
+    }
+    
+    /**
+     * Returns the summary stored in the summary file of orderDate, or null if
+     * there is none or it cannot be read.
+     * 
+     * @param orderDate LocalDate
+     * @return StampedSummary or null
+     */
+    private StampedSummary readSummaryFile(LocalDate orderDate) {
+        try {
+            return StampedSummary.read(getSummaryFilePath(orderDate), 
+                    orderDate);
+        } catch (IOException e) {
+            return null; // the order file is parsed instead
+        }
+    }
+    
+    /**
+     * Writes the summary file of orderDate. Failing to is not an error: the 
+     * summary file is only a shortcut, and a stale one is never trusted.
+     * 
+     * @param orderDate LocalDate
+     * @param stampedSummary StampedSummary with an order file stamp, or null
+     */
+    private void writeSummaryFile(LocalDate orderDate, 
+            StampedSummary stampedSummary) {
+        
+        if (stampedSummary == null || stampedSummary.orderFileStamp == null) {
+            return;
+        }
+        try {
+            stampedSummary.write(getSummaryFilePath(orderDate));
+        } catch (IOException e) {
+            // the order file is parsed again next time
+        }
+    }
+    
+    /**
+     * Indexes the order files the first time the indexes are searched. From
+     * then on apply() keeps them current with every mutation, and a date's 
+     * entries are replaced whenever its changed order file is reread, so 
+     * searches do not list the Orders directory again.
+     * 
+     * @throws PersistenceException 
+     */
+    private void indexOrderFilesOnce() throws PersistenceException {
+        if (!isIndexed) {
+            indexOrderFiles(loadOrders());
+            isIndexed = true;
+        }
+    }
+    
+    /**
+     * Brings the index entries of every date on disk up to date with its 
+     * order file, after loadOrders. Only needed with a bounded partition 
+     * cache; otherwise loadOrders has already read every changed file.
+     * 
+     * @param orderDates Set of LocalDates from loadOrders
+     * @throws PersistenceException 
+     */
+    private void indexOrderFiles(Set<LocalDate> orderDates) 
+            throws PersistenceException {
+        
+        if (partitionCacheSize <= 0) {
+            return;
+        }
+        for (LocalDate orderDate : orderDates) {
+            if (!dirtyDates.contains(orderDate)) {
+                indexOrderFileIfChanged(orderDate);
+            }
+        }
+    }
+    
+    /**
+     * Returns the order with the given number from the date the order number
+     * index has for it, or null. If the order is no longer on that date, its
+     * stale index entry is removed.
+     * 
+     * @param orderNumber int
+     * @return Order or null
+     * @throws PersistenceException 
+     */
+    private Order getIndexedOrder(int orderNumber) 
+            throws PersistenceException {
+        
+        LocalDate orderDate = orderNumberIndex.get(orderNumber);
+        if (orderDate == null) {
+            return null;
+        }
+        Map<Integer, Order> ordersOnDate = refreshOrdersOnDate(orderDate);
+        Order indexedOrder = ordersOnDate == null 
+                ? null : ordersOnDate.get(orderNumber);
+        if (indexedOrder != null) {
+            return indexedOrder;
+        }
+        
+        // recheck under the lock, so a create in progress is not mistaken 
+        // for a stale entry
+        ReentrantLock dateLock = getDateLock(orderDate);
+        dateLock.lock();
+        try {
+            ordersOnDate = refreshOrdersOnDate(orderDate);
+            indexedOrder = ordersOnDate == null 
+                    ? null : ordersOnDate.get(orderNumber);
+            if (indexedOrder == null) {
+                orderNumberIndex.remove(orderNumber, orderDate);
+            }
+        } finally {
+            dateLock.unlock();
+        }
+        
+        return indexedOrder;
+    }
+    
+    /**
+     * Returns the orders on the indexed dates which match, in date order and
+     * then by order number. Each date's order file is checked, and reread if
+     * it changed, and the index may be a step behind a write still in 
+     * progress, so each order is checked again.
+     * 
+     * @param orderDates dates from the catalog index
+     * @param matches Predicate the orders must match
+     * @return List of Orders
+     * @throws PersistenceException 
+     */
+    private List<Order> findIndexedOrders(Set<LocalDate> orderDates, 
+            Predicate<Order> matches) throws PersistenceException {
+        
+        List<Order> foundOrders = new ArrayList<>();
+        for (LocalDate orderDate : orderDates) {
+            Map<Integer, Order> ordersOnDate = refreshOrdersOnDate(orderDate);
+            if (ordersOnDate == null) {
+                continue;
+            }
+            List<Order> foundOnDate = new ArrayList<>();
+            for (Order order : ordersOnDate.values()) {
+                if (matches.test(order)) {
+                    foundOnDate.add(order);
+                }
+            }
+            foundOnDate.sort(Comparator.comparing((o) -> o.getOrderNumber()));
+            foundOrders.addAll(foundOnDate);
+        }
+        
+        return foundOrders;
+    }
+    
+    /**
+     * Brings the index entries of a date not held in memory 
+     * up to date with its order file, reading the file without adding it to
+     * the partition cache. A date in memory is refreshed instead.
+     * 
+     * @param orderDate LocalDate
+     * @throws PersistenceException 
+     */
+    private void indexOrderFileIfChanged(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        if (orders.containsKey(orderDate)) {
+            refreshOrdersOnDate(orderDate);
+            return;
+        }
+        
+        FileStamp indexedStamp = indexedFileStamps.get(orderDate);
+        OrderFileRead orderFileRead = 
+                readOrderFileIfChanged(orderDate, indexedStamp);
+        if (orderFileRead == null) {
+            return;
+        }
+        
+        ReentrantLock dateLock = getDateLock(orderDate);
+        dateLock.lock();
+        try {
+            // a date loaded or written meanwhile was indexed by that
+            if (!dirtyDates.contains(orderDate) 
+                    && !orders.containsKey(orderDate)
+                    && Objects.equals(indexedStamp, 
+                            indexedFileStamps.get(orderDate))) {
+                indexOrderFileRead(orderFileRead);
+            }
+        } finally {
+            dateLock.unlock();
+        }
+    }
+    
+    /**
+     * Publishes an order file read made without the date's lock, if the date
+     * still has no unwritten changes and its recorded stamp is still the one
+     * the read started from.
+     * 
+     * @param orderFileRead OrderFileRead
+     * @param knownStamp FileStamp the read compared against, or null
+     * @return whether the read was published
+     */
+    private boolean publishOrderFileRead(OrderFileRead orderFileRead, 
+            FileStamp knownStamp) {
+        
+        ReentrantLock dateLock = getDateLock(orderFileRead.orderDate);
+        dateLock.lock();
+        try {
+            if (dirtyDates.contains(orderFileRead.orderDate) 
+                    || !Objects.equals(knownStamp, 
+                            orderFileStamps.get(orderFileRead.orderDate))) {
+                return false;
+            }
+            publishOrderFileRead(orderFileRead);
+            return true;
+        } finally {
+            dateLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the orders in the given order file keyed by order number, or 
+     * null if the file is empty.
+     * 
+     * @param orderDate LocalDate of the order file
+     * @param orderFile File
+     * @return ConcurrentHashMap of orders on the date or null
+     * @throws PersistenceException 
+     */
+    private ConcurrentHashMap<Integer, Order> readOrderFile(
+            LocalDate orderDate, File orderFile) throws PersistenceException {
+        
+        if (binaryOrderFiles) {
+            try {
+                return new BinaryOrderFileCodec(catalogInterner).read(
+                        orderFile.toPath(), orderDate, memoryMappedReads);
+            } catch (IOException e) {
+                throw new PersistenceException(
+                        "Unable to load order data from file into memory.", e);
+            }
+        }
+        if (memoryMappedReads) {
+            try {
+                return new MappedOrderFileReader(catalogInterner).read(
+                        orderFile.toPath(), orderDate);
+            } catch (IOException e) {
+                throw new PersistenceException(
+                        "Unable to load order data from file into memory.", e);
+            }
+        }
+        
+        OrderCodec orderCodec = new OrderCodec(catalogInterner);
+        try (BufferedReader in = Files.newBufferedReader(orderFile.toPath())) {
+            
+            // read and ignore header on first line
+            if (in.readLine() == null) {
+                return null;
+            }
+
+            ConcurrentHashMap<Integer, Order> ordersOnDate = 
+                    new ConcurrentHashMap<>();
+            String currentLine;
+            while ((currentLine = in.readLine()) != null) {
+                if (currentLine.isEmpty()) {
+                    continue;
+                }
+                Order currentOrder = orderCodec.decode(currentLine, orderDate);
+                ordersOnDate.put(currentOrder.getOrderNumber(), currentOrder);
+            }
+            
+            return ordersOnDate;
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to load order data from file into memory.", e);
+        }
+    }
+    
+    /**
+     * Applies the mutations to the orders in memory and makes them durable:
+     * appended to the journal as one batch before they are applied, or, with
+     * journaling off, by rewriting the changed order files afterwards. The 
+     * locks of all the mutations' dates are held throughout, taken in stripe
+     * order so two batches can never wait on each other, and while they are 
+     * held a bounded partition cache cannot evict those dates. Each date is
+     * read before anything is journaled, and an update or delete of an 
+     * order that no longer exists, or a conditional update of an order that
+     * no longer equals the one expected, is skipped: it returns null and 
+     * writes nothing. The order change listeners are told of each date 
+     * changed, once its mutations are applied.
+     * 
+     * @param mutations List of OrderMutations
+     * @return the Order each mutation replaced or deleted, or null
+     * @throws PersistenceException 
+     */
+    private List<Order> commit(List<OrderMutation> mutations) 
+            throws PersistenceException {
+        
+        // what the journal already holds goes first; the full load takes 
+        // the directory lock, so it is done before any date lock is held
+        replayJournalOnce();
+        if (!isLoaded && partitionCacheSize <= 0) {
+            loadOrders();
+        }
+        
+        Set<LocalDate> mutatedDates = new HashSet<>();
+        for (OrderMutation mutation : mutations) {
+            mutatedDates.add(mutation.getOrderDate());
+        }
+        
+        List<Order> replacedOrders = new ArrayList<>(mutations.size());
+        OrderJournal currentJournal;
+        List<ReentrantLock> heldLocks = lockDates(mutatedDates);
+        try {
+            for (LocalDate mutatedDate : mutatedDates) {
+                if (!dirtyDates.contains(mutatedDate)) {
+                    refreshOrdersOnDate(mutatedDate);
+                }
+            }
+            
+            // updates and deletes of orders that are gone, and conditional
+            // updates of changed orders, are neither journaled nor applied
+            boolean[] isEffective = findEffectiveMutations(mutations);
+            List<OrderMutation> effectiveMutations = 
+                    new ArrayList<>(mutations.size());
+            Set<LocalDate> changedDates = new HashSet<>();
+            for (int i = 0; i < mutations.size(); i++) {
+                if (isEffective[i]) {
+                    effectiveMutations.add(mutations.get(i));
+                    changedDates.add(mutations.get(i).getOrderDate());
+                }
+            }
+            
+            currentJournal = journal;
+            if (currentJournal != null && !effectiveMutations.isEmpty()) {
+                journalLock.lock();
+                try {
+                    currentJournal.append(effectiveMutations);
+                } finally {
+                    journalLock.unlock();
+                }
+            }
+            
+            for (int i = 0; i < mutations.size(); i++) {
+                replacedOrders.add(isEffective[i] 
+                        ? apply(mutations.get(i)) : null);
+            }
+            for (LocalDate changedDate : changedDates) {
+                Map<Integer, Order> ordersOnDate = orders.get(changedDate);
+                fireOrdersChanged(changedDate, 
+                        ordersOnDate == null ? null : ordersOnDate.values());
+            }
+            
+            if (currentJournal == null) {
+                writeOrders(changedDates);
+            }
+        } finally {
+            unlockDates(heldLocks);
+        }
+        
+        if (currentJournal != null 
+                && getJournalSize(currentJournal) > journalCompactionThreshold) {
+            ScheduledExecutorService compactor = journalCompactor;
+            if (compactor != null) {
+                compactor.execute(this::compactJournalInBackground);
+            }
+        }
+        evictLeastRecentlyUsedDates();
+        
+        return replacedOrders;
+    }
+    
+    /**
+     * Returns, for each mutation in turn, whether it changes anything: a 
+     * create always does, an update or delete only if its order exists by 
+     * then, and a conditional update only if its order by then equals the 
+     * one it expects, counting the earlier mutations of the batch. The 
+     * caller holds the locks of the mutations' dates and has read them into
+     * memory.
+     * 
+     * @param mutations List of OrderMutations
+     * @return boolean[] true for each mutation to apply
+     */
+    private boolean[] findEffectiveMutations(List<OrderMutation> mutations) {
+        boolean[] isEffective = new boolean[mutations.size()];
+        // each order mutated earlier in the batch, or null once deleted
+        Map<LocalDate, Map<Integer, Order>> ordersAfterBatch = 
+                new HashMap<>();
+        for (int i = 0; i < mutations.size(); i++) {
+            OrderMutation mutation = mutations.get(i);
+            Map<Integer, Order> mutatedOnDate = ordersAfterBatch
+                    .computeIfAbsent(mutation.getOrderDate(), 
+                            (date) -> new HashMap<>());
+            Order currentOrder;
+            if (mutatedOnDate.containsKey(mutation.getOrderNumber())) {
+                currentOrder = mutatedOnDate.get(mutation.getOrderNumber());
+            } else {
+                Map<Integer, Order> ordersOnDate = 
+                        orders.get(mutation.getOrderDate());
+                currentOrder = ordersOnDate == null 
+                        ? null : ordersOnDate.get(mutation.getOrderNumber());
+            }
+            if (mutation.getType() == OrderMutation.Type.CREATE) {
+                isEffective[i] = true;
+            } else if (mutation.getExpectedOrder() != null) {
+                isEffective[i] = 
+                        mutation.getExpectedOrder().equals(currentOrder);
+            } else {
+                isEffective[i] = currentOrder != null;
+            }
+            if (isEffective[i]) {
+                mutatedOnDate.put(mutation.getOrderNumber(), 
+                        mutation.getOrder());
+            }
+        }
+        return isEffective;
+    }
+    
+    /**
+     * Applies a mutation to the orders in memory and marks its date dirty. 
+     * The caller holds the date's lock.
+     * 
+     * @param mutation OrderMutation
+     * @return the Order replaced or deleted, or null
+     */
+    private Order apply(OrderMutation mutation) {
+        LocalDate orderDate = mutation.getOrderDate();
+        OrderSummary summary = summarizeOrdersInMemory(orderDate);
+        dirtyDates.add(orderDate);
+        markUsed(orderDate);
+        
+        if (mutation.getType() == OrderMutation.Type.DELETE) {
+            ConcurrentHashMap<Integer, Order> ordersOnDate = 
+                    orders.get(orderDate);
+            if (ordersOnDate == null) {
+                recordSummary(orderDate, null, null);
+                return null;
+            }
+            Order deletedOrder = ordersOnDate.remove(mutation.getOrderNumber());
+            if (deletedOrder != null) {
+                customerNameIndex.remove(orderDate, mutation.getOrderNumber());
+                catalogIndex.remove(orderDate, mutation.getOrderNumber());
+                orderNumberIndex.remove(mutation.getOrderNumber(), orderDate);
+                if (summary == null || ordersOnDate.isEmpty()) {
+                    summary = null;
+                } else if (deletedOrder.getOrderNumber() 
+                                == summary.getMinOrderNumber()
+                        || deletedOrder.getOrderNumber() 
+                                == summary.getMaxOrderNumber()) {
+                    // its lowest or highest order number is gone, so sum up
+                    // the orders left
+                    summary = OrderSummary.of(orderDate, ordersOnDate.values());
+                } else {
+                    summary = summary.minus(deletedOrder);
+                }
+            }
+            recordSummary(orderDate, summary, null);
+            // if that was the only order on the date, drop the date
+            if (ordersOnDate.isEmpty()) {
+                orders.remove(orderDate);
+                partitionLastUsed.remove(orderDate);
+            }
+            return deletedOrder;
+        }
+        
+        Order replacedOrder = orders.computeIfAbsent(orderDate, 
+                (date) -> new ConcurrentHashMap<>())
+                .put(mutation.getOrderNumber(), mutation.getOrder());
+        // indexed after the order is in place, so a lookup through the 
+        // index always finds it
+        customerNameIndex.put(mutation.getOrder());
+        catalogIndex.put(mutation.getOrder());
+        orderNumberIndex.put(mutation.getOrderNumber(), orderDate);
+        if (summary == null) {
+            summary = OrderSummary.of(mutation.getOrder());
+        } else {
+            if (replacedOrder != null) {
+                summary = summary.minus(replacedOrder);
+            }
+            summary = summary.plus(mutation.getOrder());
+        }
+        recordSummary(orderDate, summary, null);
+        return replacedOrder;
+    }
+    
+    /**
+     * Replays the journal the first time the orders are used.
+     * 
+     * @throws PersistenceException 
+     */
+    private void replayJournalOnce() throws PersistenceException {
+        if (journal == null || isJournalReplayed) {
+            return;
+        }
+        lockAllDates();
+        try {
+            if (journal != null && !isJournalReplayed) {
+                replayJournal();
+            }
+        } finally {
+            unlockAllDates();
+        }
+    }
+    
+    /**
+     * Applies the committed mutations left in the journal by the last run,
+     * on top of the order files, then compacts them into the order files.
+     * Mutations set an order to its final state, so replaying ones which had
+     * already reached the order files is harmless. The caller holds every 
+     * date lock.
+     * 
+     * @throws PersistenceException 
+     */
+    private void replayJournal() throws PersistenceException {
+        isJournalReplayed = true;
+        
+        Set<LocalDate> replayedDates = new HashSet<>();
+        for (OrderMutation mutation : journal.readCommitted()) {
+            refreshOrdersOnDate(mutation.getOrderDate());
+            apply(mutation);
+            replayedDates.add(mutation.getOrderDate());
+        }
+        for (LocalDate replayedDate : replayedDates) {
+            Map<Integer, Order> ordersOnDate = orders.get(replayedDate);
+            fireOrdersChanged(replayedDate, 
+                    ordersOnDate == null ? null : ordersOnDate.values());
+        }
+        // also drops a torn batch at the end of the journal
+        if (journal.size() > 0) {
+            compactJournal();
+        }
+    }
+    
+    private long getJournalSize(OrderJournal currentJournal) 
+            throws PersistenceException {
+        
+        journalLock.lock();
+        try {
+            return currentJournal.size();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+    
+    private void compactJournalInBackground() {
+        try {
+            OrderJournal currentJournal = journal;
+            if (currentJournal != null && getJournalSize(currentJournal) > 0) {
+                compactJournal();
+            }
+        } catch (PersistenceException e) {
+            // the mutations stay in the journal; the next compaction or 
+            // the next startup's replay writes them
+        }
+    }
+    
+    private void startJournalCompactor() {
+        journalCompactor = Executors.newSingleThreadScheduledExecutor(
+                (runnable) -> {
+                    Thread thread = new Thread(runnable, "OrderJournalCompactor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        if (journalCompactionInterval > 0) {
+            journalCompactor.scheduleWithFixedDelay(
+                    this::compactJournalInBackground, 
+                    journalCompactionInterval, journalCompactionInterval, 
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void stopJournalCompactor() {
+        if (journalCompactor != null) {
+            // let a running compaction finish; an interrupt would close the
+            // journal's FileChannel under it
+            journalCompactor.shutdown();
+            try {
+                journalCompactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            journalCompactor = null;
+        }
+    }
+    
+    /**
+     * Writes the order file of each of the given orderDates which is dirty. 
+     * Only the dates changed since the last write are rewritten, each through
+     * a temp file which is then renamed over the old order file, so a failed 
+     * write never leaves a partially written order file behind. An orderDate 
+     * with no orders left has its order file deleted. The caller holds the
+     * dates' locks.
+     *
+     * @param orderDates Collection of LocalDates
+     * @throws PersistenceException
+     */
+    private void writeOrders(Collection<LocalDate> orderDates) 
+            throws PersistenceException {
+        
+        for (LocalDate date : orderDates) {
+            if (!dirtyDates.contains(date)) {
+                continue;
+            }
+            Map<Integer, Order> ordersOnDate = orders.get(date);
+            if (ordersOnDate == null || ordersOnDate.isEmpty()) {
+                deleteOrderFile(date);
+            } else {
+                writeOrderFile(date, ordersOnDate);
+            }
+            dirtyDates.remove(date);
+        }
+    }
+    
+    /**
+     * Writes the orders of a single orderDate to a temp file, then atomically
+     * replaces that date's order file with it.
+     * 
+     * @param date LocalDate
+     * @param ordersOnDate orders to write, keyed by order number
+     * @throws PersistenceException 
+     */
+    private void writeOrderFile(LocalDate date, 
+            Map<Integer, Order> ordersOnDate) throws PersistenceException {
+        
+        Path orderFile = getOrderFilePath(date);
+        Path tempFile = DataFiles.getTempFile(orderFile);
+        
+        List<Order> sortedOrdersOnDate = new ArrayList<>(ordersOnDate.values());
+        sortedOrdersOnDate.sort(Comparator.comparing((i) -> i.getOrderNumber()));
+        
+        try {
+            if (binaryOrderFiles) {
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    new BinaryOrderFileCodec().write(sortedOrdersOnDate, out);
+                }
+            } else {
+                writeTextOrderFile(tempFile, sortedOrdersOnDate);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to save data to order file.", e);
+        }
+        
+        try {
+            DataFiles.replace(tempFile, orderFile);
+            FileStamp fileStamp = FileStamp.of(orderFile);
+            orderFileStamps.put(date, fileStamp);
+            indexedFileStamps.put(date, fileStamp);
+            
+            StampedSummary knownSummary = summaries.get(date);
+            OrderSummary summary = knownSummary != null 
+                    && knownSummary.orderFileStamp == null
+                    ? knownSummary.summary 
+                    : OrderSummary.of(date, sortedOrdersOnDate);
+            writeSummaryFile(date, recordSummary(date, summary, fileStamp));
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to save data to order file.", e);
+        }
+    }
+    
+    /**
+     * Writes orders to a text order file, a header line then one line each.
+     * 
+     * @param orderFile Path
+     * @param sortedOrdersOnDate orders to write, in order number order
+     * @throws IOException 
+     */
+    private void writeTextOrderFile(Path orderFile, 
+            List<Order> sortedOrdersOnDate) throws IOException {
+        
+        String fileHeaderText =
+                 "OrderNumber,CustomerName,State,TaxRate,ProductType,Area,"
+                + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,"
+                + "LaborCost,Tax,Total";
+        
+        try (PrintWriter out = new PrintWriter(
+                Files.newBufferedWriter(orderFile))) {
+            //Write header
+            out.println(fileHeaderText);
+
+            OrderCodec orderCodec = new OrderCodec();
+            for (Order order : sortedOrdersOnDate) {
+                //Write Order to file, the orderDate is in the file name
+                orderCodec.write(order, false, out);
+                out.println();
+            }
+            
+            if (out.checkError()) {
+                throw new IOException("Error writing " + orderFile);
+            }
+        }
+    }
+    
+    /**
+     * Deletes the order file of the given orderDate, if there is one.
+     * 
+     * @param date LocalDate
+     * @throws PersistenceException 
+     */
+    private void deleteOrderFile(LocalDate date) throws PersistenceException {
+        try {
+            Files.deleteIfExists(getOrderFilePath(date));
+            orderFileStamps.remove(date);
+            indexedFileStamps.remove(date);
+            removeSummary(date);
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to delete order file.", e);
+        }
+    }
+    
+    /**
+     * Returns the orders on a date for the backup or a range of dates, 
+     * current with the order file. A date held in memory is refreshed, any other date's order file 
+     * is read without adding it to the partition cache.
+     * 
+     * @param orderDate LocalDate
+     * @return Collection of Orders or null
+     * @throws PersistenceException 
+     */
+    private Collection<Order> getOrdersOnDateWithoutCaching(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        if (partitionCacheSize <= 0 || orders.containsKey(orderDate)
+                || dirtyDates.contains(orderDate)) {
+            Map<Integer, Order> ordersOnDate = refreshOrdersOnDate(orderDate);
+            return ordersOnDate == null ? null : ordersOnDate.values();
+        }
+        
+        Map<Integer, Order> ordersOnDate = readOrderFile(orderDate, 
+                getOrderFilePath(orderDate).toFile());
+        return ordersOnDate == null ? null : ordersOnDate.values();
+    }
+    
+    /**
+     * Opens a buffered writer to the export file, gzip compressed if gzip is
+     * true. Nothing is flushed until the writer is closed.
+     * 
+     * @param exportFile Path
+     * @param gzip boolean
+     * @return Writer
+     * @throws IOException 
+     */
+    private Writer openExportWriter(Path exportFile, boolean gzip) 
+            throws IOException {
+        
+        OutputStream out = Files.newOutputStream(exportFile);
+        try {
+            if (gzip) {
+                out = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, 
+                    StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Returns the lock of the stripe the given orderDate falls in.
+     * 
+     * @param orderDate LocalDate
+     * @return ReentrantLock
+     */
+    private ReentrantLock getDateLock(LocalDate orderDate) {
+        return dateLocks[Math.floorMod(orderDate.hashCode(), LOCK_STRIPES)];
+    }
+    
+    /**
+     * Locks the stripes of the given orderDates, in stripe order, and returns
+     * the locks taken.
+     * 
+     * @param orderDates Collection of LocalDates
+     * @return List of the ReentrantLocks held
+     */
+    private List<ReentrantLock> lockDates(Collection<LocalDate> orderDates) {
+        boolean[] isStripeNeeded = new boolean[LOCK_STRIPES];
+        for (LocalDate orderDate : orderDates) {
+            isStripeNeeded[Math.floorMod(orderDate.hashCode(), 
+                    LOCK_STRIPES)] = true;
+        }
+        
+        List<ReentrantLock> heldLocks = new ArrayList<>();
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            if (isStripeNeeded[stripe]) {
+                dateLocks[stripe].lock();
+                heldLocks.add(dateLocks[stripe]);
+            }
+        }
+        return heldLocks;
+    }
+    
+    private void unlockDates(List<ReentrantLock> heldLocks) {
+        for (int i = heldLocks.size() - 1; i >= 0; i--) {
+            heldLocks.get(i).unlock();
+        }
+    }
+    
+    private void lockAllDates() {
+        for (ReentrantLock dateLock : dateLocks) {
+            dateLock.lock();
+        }
+    }
+    
+    private void unlockAllDates() {
+        for (int stripe = LOCK_STRIPES - 1; stripe >= 0; stripe--) {
+            dateLocks[stripe].unlock();
+        }
+    }
+    
+    /**
+     * Records that an orderDate was just used, when the cache is bounded.
+     * 
+     * @param orderDate LocalDate
+     */
+    private void markUsed(LocalDate orderDate) {
+        if (partitionCacheSize > 0) {
+            partitionLastUsed.put(orderDate, partitionClock.incrementAndGet());
+        }
+    }
+    
+    /**
+     * Drops the least recently used orderDates from memory until no more 
+     * than partitionCacheSize remain. Dates with unwritten changes are never
+     * dropped, and neither are dates whose lock is held by another thread 
+     * or, mid-batch, by this one.
+     */
+    private void evictLeastRecentlyUsedDates() {
+        if (partitionCacheSize <= 0 || orders.size() <= partitionCacheSize) {
+            return;
+        }
+        
+        List<Map.Entry<LocalDate, Long>> datesByLastUse = 
+                new ArrayList<>(partitionLastUsed.entrySet());
+        datesByLastUse.sort(Map.Entry.comparingByValue());
+        
+        for (Map.Entry<LocalDate, Long> dateLastUsed : datesByLastUse) {
+            if (orders.size() <= partitionCacheSize) {
+                return;
+            }
+            LocalDate orderDate = dateLastUsed.getKey();
+            ReentrantLock dateLock = getDateLock(orderDate);
+            if (dateLock.isHeldByCurrentThread() || !dateLock.tryLock()) {
+                continue;
+            }
+            try {
+                if (!dirtyDates.contains(orderDate) && partitionLastUsed
+                        .remove(orderDate, dateLastUsed.getValue())) {
+                    orders.remove(orderDate);
+                    orderFileStamps.remove(orderDate);
+                }
+            } finally {
+                dateLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Returns the path of the order file for the given orderDate, 
+     * ORDERS_DIR/Orders_MMddyyyy.txt, or .ord for binary order files
+     * 
+     * @param date LocalDate
+     * @return Path
+     */
+    private Path getOrderFilePath(LocalDate date) {
+        String orderDateStr = date.format(
+                DateTimeFormatter.ofPattern("MMddyyyy"));
+        return Paths.get(ORDERS_DIR, 
+                "Orders_" + orderDateStr + ORDER_FILE_SUFFIX);
+    }
+    
+    /**
+     * Returns the path of the summary file for the given orderDate, 
+     * ORDERS_DIR/Orders_MMddyyyy.sum
+     * 
+     * @param date LocalDate
+     * @return Path
+     */
+    private Path getSummaryFilePath(LocalDate date) {
+        String orderDateStr = date.format(
+                DateTimeFormatter.ofPattern("MMddyyyy"));
+        return Paths.get(ORDERS_DIR, 
+                "Orders_" + orderDateStr + SUMMARY_FILE_SUFFIX);
+    }
+    
+    /**
+     * Returns the orderDate of an order file from its name, Orders_MMddyyyy
+     * 
+     * @param orderFileName String
+     * @return LocalDate
+     */
+    private LocalDate getOrderDateFromFileName(String orderFileName) {
+        String orderDateStrFromFileName = orderFileName.substring(7, 15);
+        return LocalDate.parse(orderDateStrFromFileName,
+                DateTimeFormatter.ofPattern("MMddyyyy"));
+    }
+    
+    /**
+     * The result of reading one order file: its stamp and its orders, either
+     * of which is null if the file was missing or empty.
+     */
+    private static class OrderFileRead {
+        
+        private final LocalDate orderDate;
+        private final FileStamp fileStamp;
+        private final ConcurrentHashMap<Integer, Order> ordersOnDate;
+        
+        
+        OrderFileRead(LocalDate orderDate, FileStamp fileStamp, 
+                ConcurrentHashMap<Integer, Order> ordersOnDate) {
+            this.orderDate = orderDate;
+            this.fileStamp = fileStamp;
+            this.ordersOnDate = ordersOnDate;
+        }
+        
+    }
+    
+    /**
+     * Iterates the orders of one date in order number order, for merging the
+     * dates in exportBackupDataToFile. A cursor starts out closed, holding 
+     * only the lowest order number of its date's summary, and is given the
+     * date's orders when the merge reaches that number.
+     */
+    private static class OrderCursor {
+        
+        private final LocalDate orderDate;
+        private final int firstOrderNumber;
+        private Order[] ordersOnDate;
+        private int position = 0;
+        
+        
+        OrderCursor(LocalDate orderDate, int firstOrderNumber) {
+            this.orderDate = orderDate;
+            this.firstOrderNumber = firstOrderNumber;
+        }
+        
+        
+        boolean isOpen() {
+            return ordersOnDate != null;
+        }
+        
+        /**
+         * Opens the cursor on the orders of its date, null for none.
+         * 
+         * @param ordersOnDate Collection of Orders or null
+         */
+        void open(Collection<Order> ordersOnDate) {
+            this.ordersOnDate = ordersOnDate == null 
+                    ? new Order[0] : ordersOnDate.toArray(new Order[0]);
+            Arrays.sort(this.ordersOnDate, 
+                    Comparator.comparingInt((o) -> o.getOrderNumber()));
+        }
+        
+        boolean hasNext() {
+            return !isOpen() || position < ordersOnDate.length;
+        }
+        
+        int peekOrderNumber() {
+            return isOpen() 
+                    ? ordersOnDate[position].getOrderNumber() 
+                    : firstOrderNumber;
+        }
+        
+        Order next() {
+            return ordersOnDate[position++];
         }
-        ordersDir.delete();
-        ordersDir.mkdir();
+        
     }
 
 }
@@ -0,0 +1,114 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Converts an Orders directory of text order files into one of binary order
+ * files, or back. The orders are read one date at a time and written 
+ * through a DAO of the other format, so only one date is held in memory.
+ * 
+ * Usage: OrderFileConverter toBinary|toText fromOrdersDir toOrdersDir
+ *
+ * @author sarablinn
+ */
+public final class OrderFileConverter {
+    
+    private OrderFileConverter() {
+    }
+    
+    
+    public static void main(String[] args) throws PersistenceException {
+        if (args.length != 3 || !(args[0].equals("toBinary") 
+                || args[0].equals("toText"))) {
+            System.err.println("Usage: OrderFileConverter toBinary|toText "
+                    + "fromOrdersDir toOrdersDir");
+            System.exit(1);
+        }
+        
+        int convertedOrders = args[0].equals("toBinary")
+                ? textToBinary(args[1], args[2])
+                : binaryToText(args[1], args[2]);
+        System.out.println("Converted " + convertedOrders + " orders.");
+    }
+    
+    /**
+     * Writes every order in the text order files of textOrdersDir to binary
+     * order files in binaryOrdersDir, which should have no order files for 
+     * the same dates.
+     * 
+     * @param textOrdersDir String
+     * @param binaryOrdersDir String, an existing directory
+     * @return number of orders converted
+     * @throws PersistenceException 
+     */
+    public static int textToBinary(String textOrdersDir, 
+            String binaryOrdersDir) throws PersistenceException {
+        
+        return convert(new OrderDaoFileImpl(textOrdersDir), 
+                new OrderDaoBinaryFileImpl(binaryOrdersDir));
+    }
+    
+    /**
+     * Writes every order in the binary order files of binaryOrdersDir to 
+     * text order files in textOrdersDir, which should have no order files 
+     * for the same dates.
+     * 
+     * @param binaryOrdersDir String
+     * @param textOrdersDir String, an existing directory
+     * @return number of orders converted
+     * @throws PersistenceException 
+     */
+    public static int binaryToText(String binaryOrdersDir, 
+            String textOrdersDir) throws PersistenceException {
+        
+        return convert(new OrderDaoBinaryFileImpl(binaryOrdersDir), 
+                new OrderDaoFileImpl(textOrdersDir));
+    }
+    
+    
+    private static int convert(OrderDaoFileImpl fromOrderDao, 
+            OrderDaoFileImpl toOrderDao) throws PersistenceException {
+        
+        // one date in memory on either side
+        fromOrderDao.setPartitionCacheSize(1);
+        toOrderDao.setPartitionCacheSize(1);
+        
+        int convertedOrders = 0;
+        List<Order> ordersOnDate = new ArrayList<>();
+        try (Stream<Order> orders = 
+                fromOrderDao.getOrdersBetween(LocalDate.MIN, LocalDate.MAX)) {
+            // orders come in date order, each date is written as it ends
+            Iterator<Order> ordersInDateOrder = orders.iterator();
+            while (ordersInDateOrder.hasNext()) {
+                Order order = ordersInDateOrder.next();
+                if (!ordersOnDate.isEmpty() && !order.getOrderDate()
+                        .equals(ordersOnDate.get(0).getOrderDate())) {
+                    convertedOrders += writeOrders(toOrderDao, ordersOnDate);
+                }
+                ordersOnDate.add(order);
+            }
+        } catch (UncheckedPersistenceException e) {
+            throw e.getCause();
+        }
+        convertedOrders += writeOrders(toOrderDao, ordersOnDate);
+        
+        return convertedOrders;
+    }
+    
+    private static int writeOrders(OrderDaoFileImpl toOrderDao, 
+            List<Order> ordersOnDate) throws PersistenceException {
+        
+        int writtenOrders = ordersOnDate.size();
+        if (writtenOrders > 0) {
+            toOrderDao.createOrders(ordersOnDate);
+            ordersOnDate.clear();
+        }
+        return writtenOrders;
+    }
+    
+}
@@ -0,0 +1,243 @@
+package com.sblinn.flooringmastery.dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only log of order mutations, written ahead of the order files.
+ * Each batch of mutations is appended as one line per mutation followed by a
+ * commit line, and forced to disk once:
+ * 
+ * CREATE,(order as in the backup file, with its order date)
+ * UPDATE,(order as in the backup file, with its order date)
+ * DELETE,OrderNumber,MM-dd-yyyy
+ * COMMIT,(number of mutations in the batch)
+ * 
+ * Only batches with a matching commit line are read back, so a batch torn by
+ * a crash is ignored. The order files remain the system of record: once the
+ * journaled mutations have been written to them the journal is truncated.
+ * 
+ * Not thread safe; OrderDaoFileImpl uses it under its own lock.
+ *
+ * @author sarablinn
+ */
+final class OrderJournal {
+    
+    private static final String CREATE = "CREATE";
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    private static final String COMMIT = "COMMIT";
+    private static final char DELIMITER = ',';
+    private static final DateTimeFormatter DATE_FORMAT = 
+            DateTimeFormatter.ofPattern("MM-dd-yyyy");
+    
+    private final Path journalFile;
+    private final OrderCodec orderCodec = new OrderCodec();
+    private final StringBuilder batchText = new StringBuilder();
+    private FileChannel channel;
+    
+    
+    OrderJournal(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+    
+    
+    /**
+     * Appends a batch of mutations and forces it to disk. If the append 
+     * fails the journal is cut back to where it was, so no part of the batch
+     * remains.
+     * 
+     * @param mutations List of OrderMutations
+     * @throws PersistenceException 
+     */
+    void append(List<OrderMutation> mutations) throws PersistenceException {
+        batchText.setLength(0);
+        for (OrderMutation mutation : mutations) {
+            encode(mutation, batchText);
+            batchText.append('\n');
+        }
+        batchText.append(COMMIT).append(DELIMITER).append(mutations.size())
+                .append('\n');
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(
+                CharBuffer.wrap(batchText));
+        
+        long sizeBefore = -1;
+        try {
+            FileChannel journalChannel = getChannel();
+            sizeBefore = journalChannel.size();
+            while (bytes.hasRemaining()) {
+                journalChannel.write(bytes);
+            }
+            journalChannel.force(false);
+        } catch (IOException e) {
+            if (sizeBefore >= 0) {
+                try {
+                    channel.truncate(sizeBefore);
+                } catch (IOException truncateException) {
+                    e.addSuppressed(truncateException);
+                }
+            }
+            throw new PersistenceException(
+                    "Unable to write to order journal.", e);
+        }
+    }
+    
+    /**
+     * Returns the mutations of every committed batch, in the order they were
+     * appended. Reading stops at the first line which cannot be read, as 
+     * after a torn write.
+     * 
+     * @return List of OrderMutations
+     * @throws PersistenceException 
+     */
+    List<OrderMutation> readCommitted() throws PersistenceException {
+        List<OrderMutation> committed = new ArrayList<>();
+        List<OrderMutation> pending = new ArrayList<>();
+        
+        try (BufferedReader in = Files.newBufferedReader(journalFile)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(COMMIT + DELIMITER)) {
+                    int count = Integer.parseInt(
+                            line.substring(COMMIT.length() + 1));
+                    if (count != pending.size()) {
+                        break;
+                    }
+                    committed.addAll(pending);
+                    pending.clear();
+                } else {
+                    pending.add(decode(line));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return committed;
+        } catch (PersistenceException | NumberFormatException 
+                | DateTimeParseException e) {
+            // torn tail -- everything before it is committed
+            return committed;
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to read order journal.", e);
+        }
+        
+        return committed;
+    }
+    
+    /**
+     * Returns the journal's size in bytes.
+     * 
+     * @return long
+     * @throws PersistenceException 
+     */
+    long size() throws PersistenceException {
+        try {
+            if (channel != null) {
+                return channel.size();
+            }
+            return Files.exists(journalFile) ? Files.size(journalFile) : 0;
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to read order journal.", e);
+        }
+    }
+    
+    /**
+     * Empties the journal, once its mutations are in the order files.
+     * 
+     * @throws PersistenceException 
+     */
+    void truncate() throws PersistenceException {
+        try {
+            FileChannel journalChannel = getChannel();
+            journalChannel.truncate(0);
+            journalChannel.force(true);
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to truncate order journal.", e);
+        }
+    }
+    
+    void close() throws PersistenceException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to close order journal.", e);
+        } finally {
+            channel = null;
+        }
+    }
+    
+    
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+    
+    private void encode(OrderMutation mutation, StringBuilder out) {
+        switch (mutation.getType()) {
+            case CREATE:
+                out.append(CREATE).append(DELIMITER);
+                orderCodec.encode(mutation.getOrder(), true, out);
+                break;
+            case UPDATE:
+                out.append(UPDATE).append(DELIMITER);
+                orderCodec.encode(mutation.getOrder(), true, out);
+                break;
+            default:
+                out.append(DELETE).append(DELIMITER)
+                        .append(mutation.getOrderNumber()).append(DELIMITER)
+                        .append(mutation.getOrderDate().format(DATE_FORMAT));
+        }
+    }
+    
+    private OrderMutation decode(String line) throws PersistenceException {
+        int typeEnd = line.indexOf(DELIMITER);
+        if (typeEnd < 0) {
+            throw new PersistenceException(
+                    "Invalid order journal entry: " + line);
+        }
+        
+        String type = line.substring(0, typeEnd);
+        String data = line.substring(typeEnd + 1);
+        switch (type) {
+            case CREATE:
+                return OrderMutation.create(orderCodec.decode(data));
+            case UPDATE:
+                return OrderMutation.update(orderCodec.decode(data));
+            case DELETE:
+                int dateStart = data.indexOf(DELIMITER);
+                if (dateStart < 0) {
+                    throw new PersistenceException(
+                            "Invalid order journal entry: " + line);
+                }
+                return OrderMutation.delete(
+                        LocalDate.parse(data.substring(dateStart + 1), 
+                                DATE_FORMAT),
+                        Integer.parseInt(data.substring(0, dateStart)));
+            default:
+                throw new PersistenceException(
+                        "Invalid order journal entry: " + line);
+        }
+    }
+    
+}
@@ -0,0 +1,81 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+
+/**
+ * A change to one order: a create or an update, which carry the whole new 
+ * Order, or a delete, which only names the order. Applying a mutation sets
+ * the order to its new state, so applying it again has no further effect.
+ * An update may also carry the order it expects to replace, and is then only
+ * applied while the stored order still equals it.
+ *
+ * @author sarablinn
+ */
+final class OrderMutation {
+    
+    enum Type {
+        CREATE, UPDATE, DELETE
+    }
+    
+    private final Type type;
+    private final LocalDate orderDate;
+    private final int orderNumber;
+    // null for a delete
+    private final Order order;
+    // null unless the update is conditional
+    private final Order expectedOrder;
+    
+    
+    private OrderMutation(Type type, LocalDate orderDate, int orderNumber, 
+            Order order, Order expectedOrder) {
+        this.type = type;
+        this.orderDate = orderDate;
+        this.orderNumber = orderNumber;
+        this.order = order;
+        this.expectedOrder = expectedOrder;
+    }
+    
+    
+    static OrderMutation create(Order order) {
+        return new OrderMutation(Type.CREATE, order.getOrderDate(), 
+                order.getOrderNumber(), order, null);
+    }
+    
+    static OrderMutation update(Order order) {
+        return new OrderMutation(Type.UPDATE, order.getOrderDate(), 
+                order.getOrderNumber(), order, null);
+    }
+    
+    static OrderMutation updateIfUnchanged(Order order, Order expectedOrder) {
+        return new OrderMutation(Type.UPDATE, order.getOrderDate(), 
+                order.getOrderNumber(), order, expectedOrder);
+    }
+    
+    static OrderMutation delete(LocalDate orderDate, int orderNumber) {
+        return new OrderMutation(Type.DELETE, orderDate, orderNumber, null, 
+                null);
+    }
+    
+    
+    Type getType() {
+        return type;
+    }
+
+    LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    int getOrderNumber() {
+        return orderNumber;
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    Order getExpectedOrder() {
+        return expectedOrder;
+    }
+    
+}
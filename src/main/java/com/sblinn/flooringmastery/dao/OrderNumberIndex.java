@@ -0,0 +1,200 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index of the orderDate of each order number, kept by OrderDaoFileImpl so
+ * an order can be found without knowing its date. Order numbers are unique
+ * across dates, so each maps to a single date.
+ *
+ * The order numbers are kept unboxed, in an open addressing hash table of
+ * int keys with linear probing, at most half full. 0 marks an empty slot, so
+ * order number 0 (an order not yet numbered) is kept in its own field.
+ *
+ * Lookups take a read lock and may run in parallel, updates take the write
+ * lock.
+ *
+ * @author sarablinn
+ */
+final class OrderNumberIndex {
+
+    private static final int EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] orderNumbers = new int[MIN_CAPACITY];
+    private LocalDate[] orderDates = new LocalDate[MIN_CAPACITY];
+    private int size = 0;
+    private LocalDate orderDateOfZero;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    /**
+     * Returns the orderDate of the order number, or null if it is not in the
+     * index.
+     *
+     * @param orderNumber int
+     * @return LocalDate or null
+     */
+    LocalDate get(int orderNumber) {
+        lock.readLock().lock();
+        try {
+            if (orderNumber == EMPTY) {
+                return orderDateOfZero;
+            }
+            int slot = findSlot(orderNumbers, orderNumber);
+            return orderNumbers[slot] == EMPTY ? null : orderDates[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the orderDate of an order number, replacing any it had.
+     *
+     * @param orderNumber int
+     * @param orderDate LocalDate
+     */
+    void put(int orderNumber, LocalDate orderDate) {
+        lock.writeLock().lock();
+        try {
+            putEntry(orderNumber, orderDate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records the orderDate of each of the orders.
+     *
+     * @param orders Collection of Orders
+     */
+    void putAll(Collection<Order> orders) {
+        lock.writeLock().lock();
+        try {
+            for (Order order : orders) {
+                putEntry(order.getOrderNumber(), order.getOrderDate());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an order number if it is recorded on the given orderDate, so a
+     * stale removal never drops an order which has since moved.
+     *
+     * @param orderNumber int
+     * @param orderDate LocalDate
+     */
+    void remove(int orderNumber, LocalDate orderDate) {
+        lock.writeLock().lock();
+        try {
+            if (orderNumber == EMPTY) {
+                if (orderDate.equals(orderDateOfZero)) {
+                    orderDateOfZero = null;
+                }
+                return;
+            }
+            int slot = findSlot(orderNumbers, orderNumber);
+            if (orderNumbers[slot] != EMPTY
+                    && orderDate.equals(orderDates[slot])) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of order numbers in the index.
+     *
+     * @return int
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size + (orderDateOfZero == null ? 0 : 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private void putEntry(int orderNumber, LocalDate orderDate) {
+        if (orderNumber == EMPTY) {
+            orderDateOfZero = orderDate;
+            return;
+        }
+        int slot = findSlot(orderNumbers, orderNumber);
+        if (orderNumbers[slot] == EMPTY) {
+            if ((size + 1) * 2 > orderNumbers.length) {
+                resize(orderNumbers.length * 2);
+                slot = findSlot(orderNumbers, orderNumber);
+            }
+            orderNumbers[slot] = orderNumber;
+            size++;
+        }
+        orderDates[slot] = orderDate;
+    }
+
+    /**
+     * Empties a slot, then moves back any entry further along the same run
+     * which could sit in it, so no lookup stops early at the gap.
+     */
+    private void removeSlot(int slot) {
+        int mask = orderNumbers.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (orderNumbers[next] != EMPTY) {
+            int home = hash(orderNumbers[next], mask);
+            // move it if its home slot is not between the gap and it
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                orderNumbers[gap] = orderNumbers[next];
+                orderDates[gap] = orderDates[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        orderNumbers[gap] = EMPTY;
+        orderDates[gap] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        int[] oldOrderNumbers = orderNumbers;
+        LocalDate[] oldOrderDates = orderDates;
+        orderNumbers = new int[capacity];
+        orderDates = new LocalDate[capacity];
+
+        for (int i = 0; i < oldOrderNumbers.length; i++) {
+            if (oldOrderNumbers[i] != EMPTY) {
+                int slot = findSlot(orderNumbers, oldOrderNumbers[i]);
+                orderNumbers[slot] = oldOrderNumbers[i];
+                orderDates[slot] = oldOrderDates[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding the order number, or the empty slot ending
+     * its run if it is not in the table.
+     */
+    private static int findSlot(int[] table, int orderNumber) {
+        int mask = table.length - 1;
+        int slot = hash(orderNumber, mask);
+        while (table[slot] != EMPTY && table[slot] != orderNumber) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(int orderNumber, int mask) {
+        // spread sequential order numbers across the table
+        int h = orderNumber * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+}
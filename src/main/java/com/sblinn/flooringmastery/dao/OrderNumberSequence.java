@@ -0,0 +1,19 @@
+package com.sblinn.flooringmastery.dao;
+
+/**
+ * Hands out unique order numbers.
+ *
+ * @author sarablinn
+ */
+public interface OrderNumberSequence {
+    
+    // returns the number the next call to nextOrderNumber will most likely 
+    // return, without using it up
+    int peekNextOrderNumber() throws PersistenceException;
+    
+    int nextOrderNumber() throws PersistenceException;
+    
+    // returns the first of count consecutive order numbers
+    int reserveOrderNumbers(int count) throws PersistenceException;
+    
+}
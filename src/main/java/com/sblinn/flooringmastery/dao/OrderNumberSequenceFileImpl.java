@@ -0,0 +1,163 @@
+package com.sblinn.flooringmastery.dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out order numbers from an AtomicInteger, reserving them from a
+ * high-water mark persisted in a file a block at a time. Numbers below the
+ * high-water mark are never handed out again, even after a restart or after
+ * the order with the highest number is deleted.
+ *
+ * On first use the next order number is recovered once from the greater of
+ * the saved high-water mark and the highest order number in the OrderDao.
+ *
+ * @author sarablinn
+ */
+public class OrderNumberSequenceFileImpl implements OrderNumberSequence {
+
+    private final OrderDao orderDao;
+    private final String HIGH_WATER_MARK_FILE;
+    // how many order numbers are reserved in the file at a time
+    private static final int BLOCK_SIZE = 100;
+
+    private final AtomicInteger nextOrderNumber = new AtomicInteger();
+    // order numbers below this have been reserved in the file
+    private volatile int reservedUpTo;
+    private volatile boolean isInitialized = false;
+
+
+    public OrderNumberSequenceFileImpl(OrderDao orderDao) {
+        this.orderDao = orderDao;
+        this.HIGH_WATER_MARK_FILE = "../FlooringMastery/Data/OrderNumber.txt";
+    }
+
+    public OrderNumberSequenceFileImpl(String highWaterMarkFilepath,
+            OrderDao orderDao) {
+
+        this.orderDao = orderDao;
+        this.HIGH_WATER_MARK_FILE = highWaterMarkFilepath;
+    }
+
+
+    @Override
+    public int peekNextOrderNumber() throws PersistenceException {
+        initialize();
+        return nextOrderNumber.get();
+    }
+
+    @Override
+    public int nextOrderNumber() throws PersistenceException {
+        return reserveOrderNumbers(1);
+    }
+
+    /**
+     * Returns the first of count consecutive order numbers. Only when the
+     * numbers run past the current reserved block is the high-water mark file
+     * written, otherwise no I/O or locking is done.
+     *
+     * @param count int
+     * @return first reserved order number
+     * @throws PersistenceException
+     */
+    @Override
+    public int reserveOrderNumbers(int count) throws PersistenceException {
+        if (count < 1) {
+            throw new IllegalArgumentException(
+                    "Must reserve at least one order number.");
+        }
+        initialize();
+
+        int firstOrderNumber = nextOrderNumber.getAndAdd(count);
+        int endOrderNumber = firstOrderNumber + count;
+        if (endOrderNumber > reservedUpTo) {
+            synchronized (this) {
+                if (endOrderNumber > reservedUpTo) {
+                    int newHighWaterMark = endOrderNumber + BLOCK_SIZE;
+                    writeHighWaterMark(newHighWaterMark);
+                    reservedUpTo = newHighWaterMark;
+                }
+            }
+        }
+
+        return firstOrderNumber;
+    }
+
+    /**
+     * Recovers the next order number the first time the sequence is used.
+     *
+     * @throws PersistenceException
+     */
+    private void initialize() throws PersistenceException {
+        if (isInitialized) {
+            return;
+        }
+        synchronized (this) {
+            if (!isInitialized) {
+                int highWaterMark = Math.max(readHighWaterMark(),
+                        orderDao.getMaxOrderNumber() + 1);
+                nextOrderNumber.set(highWaterMark);
+                reservedUpTo = highWaterMark;
+                isInitialized = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the high-water mark saved in the file, or 1 if there is none.
+     *
+     * @return int
+     * @throws PersistenceException
+     */
+    private int readHighWaterMark() throws PersistenceException {
+        try (BufferedReader in = Files.newBufferedReader(
+                Paths.get(HIGH_WATER_MARK_FILE))) {
+
+            in.readLine(); // header -- ignore
+            String highWaterMarkText = in.readLine();
+            if (highWaterMarkText == null) {
+                return 1;
+            }
+            return Integer.parseInt(highWaterMarkText.trim());
+        } catch (NoSuchFileException e) {
+            return 1;
+        } catch (IOException | NumberFormatException e) {
+            throw new PersistenceException(
+                    "Unable to load next order number.", e);
+        }
+    }
+
+    /**
+     * Saves the high-water mark, replacing the old file atomically.
+     *
+     * @param highWaterMark int
+     * @throws PersistenceException
+     */
+    private void writeHighWaterMark(int highWaterMark)
+            throws PersistenceException {
+
+        Path highWaterMarkFile = Paths.get(HIGH_WATER_MARK_FILE);
+        Path tempFile = DataFiles.getTempFile(highWaterMarkFile);
+        try {
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(tempFile))) {
+                out.println("NextOrderNumber");
+                out.println(highWaterMark);
+                if (out.checkError()) {
+                    throw new IOException("Error writing " + tempFile);
+                }
+            }
+            DataFiles.replace(tempFile, highWaterMarkFile);
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to save next order number.", e);
+        }
+    }
+
+}
@@ -1,30 +1,43 @@
-
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.Product;
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Products are held in an immutable snapshot of the products file, published 
+ * through a volatile field. Lookups read the current snapshot without locking
+ * or I/O, and the file's stamp is checked at most once per revalidation 
+ * interval; the file is only read again when its stamp has changed. Writes
+ * are serialized, copy the snapshot, replace the file atomically and then 
+ * publish the new snapshot. The snapshot keeps its own copies of the 
+ * products and callers are given copies of those, so a caller changing a 
+ * Product never changes the cached one.
  *
  * @author sarablinn
  */
 public class ProductDaoFileImpl implements ProductDao {
 
-    private HashMap<String, Product> products = new HashMap<>();;
+    private volatile DataFileSnapshot<Product> products;
     private final String PRODUCTS_FILE;
     private static final String DELIMITER = ",";
     
+    // how often lookups check whether the file changed on disk
+    private volatile long revalidationIntervalNanos = 
+            TimeUnit.SECONDS.toNanos(1);
+    private volatile long nextRevalidation;
+    
     
     public ProductDaoFileImpl() {
         this.PRODUCTS_FILE = "../FlooringMastery/Data/Products.txt";
@@ -35,56 +48,90 @@ public class ProductDaoFileImpl implements ProductDao {
     }
     
     
+    /**
+     * Sets how long lookups may use the products in memory before the 
+     * products file's stamp is checked again. 0 checks on every lookup.
+     * 
+     * @param revalidationIntervalMillis long
+     */
+    public void setRevalidationInterval(long revalidationIntervalMillis) {
+        if (revalidationIntervalMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Revalidation interval cannot be negative.");
+        }
+        this.revalidationIntervalNanos = 
+                TimeUnit.MILLISECONDS.toNanos(revalidationIntervalMillis);
+        this.nextRevalidation = System.nanoTime();
+    }
+    
     @Override
-    public Product createProduct(String productType, Product product) 
-            throws PersistenceException {
+    public synchronized Product createProduct(String productType, 
+            Product product) throws PersistenceException {
         
-        loadProducts();
-        Product newProduct = products.put(productType, product);
-        writeProducts();
+        HashMap<String, Product> updatedProducts = 
+                new HashMap<>(loadProducts(true).getRecords());
+        Product newProduct = updatedProducts.put(productType, product);
+        writeProducts(updatedProducts);
         
-        return newProduct;
+        return newProduct == null ? null : copyOf(newProduct);
     }
 
     @Override
     public Product getProduct(String productType) 
             throws PersistenceException {
         
-        loadProducts();
-        Product product = products.get(productType);
-        return product;
+        return loadProducts(false).get(productType);
     }
 
     @Override
     public List<Product> getAllProducts() throws PersistenceException {
-        loadProducts();
-        List<Product> sortedProducts = new ArrayList<>(products.values());
+        List<Product> sortedProducts = 
+                loadProducts(false).copyRecords();
         sortedProducts.sort(Comparator.comparing((p) -> p.getProductType()));
         
         return sortedProducts;
     }
 
     @Override
-    public Product updateProduct(String productType, Product updatedProduct) 
-        throws PersistenceException {
+    public synchronized Product updateProduct(String productType, 
+            Product updatedProduct) throws PersistenceException {
         
-        loadProducts();
-        products.remove(productType);
-        products.put(updatedProduct.getProductType(), updatedProduct);
-        writeProducts();
+        HashMap<String, Product> updatedProducts = 
+                new HashMap<>(loadProducts(true).getRecords());
+        updatedProducts.remove(productType);
+        updatedProducts.put(updatedProduct.getProductType(), updatedProduct);
+        writeProducts(updatedProducts);
         
         return updatedProduct;
     }
 
     @Override
-    public Product deleteProduct(String productType) 
+    public synchronized Product deleteProduct(String productType) 
             throws PersistenceException {
         
-        loadProducts();
-        Product deletedProduct = products.remove(productType);
-        writeProducts();
+        HashMap<String, Product> updatedProducts = 
+                new HashMap<>(loadProducts(true).getRecords());
+        Product deletedProduct = updatedProducts.remove(productType);
+        writeProducts(updatedProducts);
         
-        return deletedProduct;
+        return deletedProduct == null ? null : copyOf(deletedProduct);
+    }
+
+    @Override
+    public long getDataVersion() throws PersistenceException {
+        return loadProducts(false).getVersion();
+    }
+    
+    /**
+     * Returns a copy of the product, so callers never share an instance with
+     * the snapshot.
+     * 
+     * @param product Product
+     * @return Product
+     */
+    private static Product copyOf(Product product) {
+        return new Product(product.getProductType(), 
+                product.getCostPerSqFoot(), product.getLaborCostPerSqFoot());
     }
     
     private String marshallProduct(Product product) {
@@ -108,53 +155,113 @@ public class ProductDaoFileImpl implements ProductDao {
         return productFromFile;
     }
     
-    private void loadProducts() throws PersistenceException {
-        Scanner scanner;
+    /**
+     * Returns the current snapshot of the products file. The file is read 
+     * the first time and again only if its stamp has changed; unless 
+     * revalidate is true the stamp is checked at most once per revalidation 
+     * interval.
+     * 
+     * @param revalidate whether to check the file's stamp now
+     * @return DataFileSnapshot of the Products
+     * @throws PersistenceException 
+     */
+    private DataFileSnapshot<Product> loadProducts(boolean revalidate) 
+            throws PersistenceException {
+        
+        DataFileSnapshot<Product> currentProducts = products;
+        if (currentProducts != null && !revalidate
+                && System.nanoTime() - nextRevalidation < 0) {
+            return currentProducts;
+        }
         
+        Path productsFile = Paths.get(PRODUCTS_FILE);
         try {
-            scanner = new Scanner(new BufferedReader(new FileReader(PRODUCTS_FILE)));
-        } catch(FileNotFoundException e) {
-            throw new PersistenceException("Unable to load data into memory.");
+            FileStamp fileStamp = FileStamp.of(productsFile);
+            nextRevalidation = System.nanoTime() + revalidationIntervalNanos;
+            if (currentProducts != null && fileStamp != null
+                    && fileStamp.equals(currentProducts.getFileStamp())) {
+                return currentProducts;
+            }
+            
+            synchronized (this) {
+                // another thread may have read the file in the meantime
+                if (products != currentProducts) {
+                    return products;
+                }
+                products = readProducts(productsFile, fileStamp);
+                return products;
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to load data into memory.", e);
         }
+    }
+    
+    private DataFileSnapshot<Product> readProducts(Path productsFile, 
+            FileStamp fileStamp) throws IOException, PersistenceException {
+        
+        HashMap<String, Product> productsFromFile = new HashMap<>();
         
-        if (scanner.hasNext()) {
-            scanner.nextLine(); // header -- ignore
+        try (BufferedReader in = Files.newBufferedReader(productsFile)) {
+            in.readLine(); // header -- ignore
             
             String currentLine;
             Product currentProduct;
-
-            while (scanner.hasNextLine()) {
-                currentLine = scanner.nextLine();
+            
+            while ((currentLine = in.readLine()) != null) {
+                if (currentLine.isBlank()) {
+                    continue;
+                }
                 currentProduct = unmarshallProduct(currentLine);
-                products.put(currentProduct.getProductType(), currentProduct);
+                productsFromFile.put(currentProduct.getProductType(), 
+                        currentProduct);
             }
+        } catch (NoSuchFileException e) {
+            throw new PersistenceException("Unable to load data into memory.");
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new PersistenceException("Invalid data in products file.", e);
         }
         
-        scanner.close();
+        return new DataFileSnapshot<>(productsFromFile, fileStamp, 
+                ProductDaoFileImpl::copyOf);
     }
     
-    private void writeProducts() throws PersistenceException {
-        PrintWriter out;
+    /**
+     * Replaces the products file with updatedProducts and publishes them as 
+     * the new snapshot. Callers hold the DAO's lock.
+     * 
+     * @param updatedProducts HashMap of the Products to save
+     * @throws PersistenceException 
+     */
+    private void writeProducts(HashMap<String, Product> updatedProducts) 
+            throws PersistenceException {
+        
+        Path productsFile = Paths.get(PRODUCTS_FILE);
+        Path tempFile = DataFiles.getTempFile(productsFile);
         
         try {
-            out = new PrintWriter(new FileWriter(PRODUCTS_FILE));
-        } catch(IOException e) {
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(tempFile))) {
+                
+                String header = 
+                        "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot";
+                out.println(header);
+                
+                for (Product product : updatedProducts.values()) {
+                    out.println(marshallProduct(product));
+                }
+                
+                if (out.checkError()) {
+                    throw new IOException("Error writing " + tempFile);
+                }
+            }
+            DataFiles.replace(tempFile, productsFile);
+            
+            products = new DataFileSnapshot<>(updatedProducts, 
+                    FileStamp.of(productsFile), ProductDaoFileImpl::copyOf);
+        } catch (IOException e) {
             throw new PersistenceException("Unable to "
-                    + "save data to products data file.");
-        }
-        
-        String header = "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot";
-        out.println(header);
-        
-        String productAsText;       
-        
-        for(Product product : products.values()) {
-            productAsText = marshallProduct(product);
-            out.println(productAsText);
-            out.flush();
+                    + "save data to products data file.", e);
         }
-        
-        out.close();   
     }
     
 }
@@ -0,0 +1,99 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.OrderSummary;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * The OrderSummary of a date with the stamp of the order file it summarizes,
+ * or a null stamp while the date has changes not yet written. Stored in a
+ * summary file (Orders_MMddyyyy.sum) next to the order file, it is only 
+ * trusted while the order file still has that stamp.
+ *
+ * @author sarablinn
+ */
+final class StampedSummary {
+
+    static final String SUMMARY_FILE_HEADER = 
+            "OrderCount,Area,MaterialCost,LaborCost,Tax,Total,"
+            + "MinOrderNumber,MaxOrderNumber,OrderFileStamp";
+
+    final OrderSummary summary;
+    final FileStamp orderFileStamp;
+
+
+    StampedSummary(OrderSummary summary, FileStamp orderFileStamp) {
+        this.summary = summary;
+        this.orderFileStamp = orderFileStamp;
+    }
+
+
+    /**
+     * Reads a summary file, returning null if it is missing or cannot be 
+     * parsed, either way leaving the order file to be summarized again.
+     *
+     * @param summaryFile Path
+     * @param orderDate LocalDate of its order file
+     * @return StampedSummary or null
+     * @throws IOException if the file exists but cannot be read
+     */
+    static StampedSummary read(Path summaryFile, LocalDate orderDate) 
+            throws IOException {
+        
+        String line;
+        try (BufferedReader in = Files.newBufferedReader(summaryFile)) {
+            in.readLine(); // header
+            line = in.readLine();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (line == null) {
+            return null;
+        }
+        
+        String[] fields = line.split(",");
+        if (fields.length != 9) {
+            return null;
+        }
+        try {
+            OrderSummary summary = new OrderSummary(orderDate, 
+                    Integer.parseInt(fields[0]), new BigDecimal(fields[1]), 
+                    new BigDecimal(fields[2]), new BigDecimal(fields[3]), 
+                    new BigDecimal(fields[4]), new BigDecimal(fields[5]), 
+                    Integer.parseInt(fields[6]), Integer.parseInt(fields[7]));
+            return new StampedSummary(summary, FileStamp.decode(fields[8]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the summary file through a temp file which then replaces it.
+     *
+     * @param summaryFile Path
+     * @throws IOException
+     */
+    void write(Path summaryFile) throws IOException {
+        Path tempFile = DataFiles.getTempFile(summaryFile);
+        try (BufferedWriter out = Files.newBufferedWriter(tempFile)) {
+            out.write(SUMMARY_FILE_HEADER);
+            out.newLine();
+            out.write(summary.getOrderCount() + "," + summary.getArea() + "," 
+                    + summary.getMaterialCost() + "," 
+                    + summary.getLaborCost() + "," + summary.getTax() + "," 
+                    + summary.getTotal() + "," 
+                    + summary.getMinOrderNumber() + "," 
+                    + summary.getMaxOrderNumber() + "," 
+                    + orderFileStamp.encode());
+            out.newLine();
+        }
+        DataFiles.replace(tempFile, summaryFile);
+    }
+
+}
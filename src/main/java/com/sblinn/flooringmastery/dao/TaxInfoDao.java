@@ -22,4 +22,14 @@ public interface TaxInfoDao {
     
     TaxInfo deleteTaxInfo(String stateAbbr) throws PersistenceException;
     
+    /**
+     * Returns the version of the tax info currently read, which changes 
+     * whenever they are written or found changed on disk, so anything built 
+     * from them can tell when to rebuild.
+     * 
+     * @return long version
+     * @throws PersistenceException
+     */
+    long getDataVersion() throws PersistenceException;
+    
 }
@@ -1,30 +1,41 @@
-
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.TaxInfo;
+import com.sblinn.flooringmastery.dto.UsState;
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * State tax info is held in an immutable snapshot of the state taxes file, 
+ * published through a volatile field, the same way ProductDaoFileImpl holds
+ * products: lookups are lock-free map reads, and the file is only read again
+ * when its stamp has changed. Callers are given copies of the tax info, never
+ * the instances the snapshot holds.
  *
  * @author sarablinn
  */
 public class TaxInfoDaoFileImpl implements TaxInfoDao {
 
-    private HashMap<String, TaxInfo> taxInfos = new HashMap<>();
+    private volatile DataFileSnapshot<TaxInfo> taxInfos;
     private final String TAXES_FILE;
     private static final String DELIMITER = ",";
     
+    // how often lookups check whether the file changed on disk
+    private volatile long revalidationIntervalNanos = 
+            TimeUnit.SECONDS.toNanos(1);
+    private volatile long nextRevalidation;
+    
     
     public TaxInfoDaoFileImpl() {
         this.TAXES_FILE = "../FlooringMastery/Data/StateTaxes.txt";
@@ -35,64 +46,103 @@ public class TaxInfoDaoFileImpl implements TaxInfoDao {
     }
     
     
+    /**
+     * Sets how long lookups may use the tax info in memory before the state
+     * taxes file's stamp is checked again. 0 checks on every lookup.
+     * 
+     * @param revalidationIntervalMillis long
+     */
+    public void setRevalidationInterval(long revalidationIntervalMillis) {
+        if (revalidationIntervalMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Revalidation interval cannot be negative.");
+        }
+        this.revalidationIntervalNanos = 
+                TimeUnit.MILLISECONDS.toNanos(revalidationIntervalMillis);
+        this.nextRevalidation = System.nanoTime();
+    }
+    
     @Override
-    public TaxInfo createTaxInfo(String stateAbbr, TaxInfo taxInfo) 
-            throws PersistenceException {
-        
-        loadTaxInfos();
+    public synchronized TaxInfo createTaxInfo(String stateAbbr, 
+            TaxInfo taxInfo) throws PersistenceException {
         
-        TaxInfo newTaxInfo = taxInfos.put(stateAbbr, taxInfo);
-        writeTaxInfos();
+        HashMap<String, TaxInfo> updatedTaxInfos = 
+                new HashMap<>(loadTaxInfos(true).getRecords());
+        TaxInfo newTaxInfo = updatedTaxInfos.put(stateAbbr, taxInfo);
+        writeTaxInfos(updatedTaxInfos);
         
-        return newTaxInfo;
+        return newTaxInfo == null ? null : copyOf(newTaxInfo);
     }
 
     @Override
     public TaxInfo getTaxInfo(String stateAbbr) throws PersistenceException {
-        loadTaxInfos();
-        
         // make input uppercase-- TaxInfo stateAbbr is always uppercase
         stateAbbr = stateAbbr.toUpperCase();
-        TaxInfo taxInfo = taxInfos.get(stateAbbr);
+        TaxInfo taxInfo = loadTaxInfos(false).get(stateAbbr);
         
         return taxInfo;
     }
 
     @Override
     public List<TaxInfo> getAllTaxInfo() throws PersistenceException {
-        loadTaxInfos();
-        
         // sort the list of tax info in alphabetical order
-        List<TaxInfo> sortedTaxInfoList = new ArrayList(taxInfos.values());
+        List<TaxInfo> sortedTaxInfoList = 
+                loadTaxInfos(false).copyRecords();
         sortedTaxInfoList.sort(Comparator.comparing((t) -> t.getStateAbbr()));
         
         return sortedTaxInfoList;
     }
 
     @Override
-    public TaxInfo updateTaxInfo(String stateAbbr, TaxInfo updatedTaxInfo) 
-            throws PersistenceException {
+    public synchronized TaxInfo updateTaxInfo(String stateAbbr, 
+            TaxInfo updatedTaxInfo) throws PersistenceException {
         
-        loadTaxInfos();       
+        HashMap<String, TaxInfo> updatedTaxInfos = 
+                new HashMap<>(loadTaxInfos(true).getRecords());
         stateAbbr = stateAbbr.toUpperCase();
-        taxInfos.remove(stateAbbr);
-        TaxInfo retrievedTaxInfo = taxInfos.put(stateAbbr, updatedTaxInfo);
-        writeTaxInfos();
+        updatedTaxInfos.remove(stateAbbr);
+        TaxInfo retrievedTaxInfo = 
+                updatedTaxInfos.put(stateAbbr, updatedTaxInfo);
+        writeTaxInfos(updatedTaxInfos);
         
-        return retrievedTaxInfo;
+        return retrievedTaxInfo == null ? null : copyOf(retrievedTaxInfo);
     }
 
     @Override
-    public TaxInfo deleteTaxInfo(String stateAbbr) throws PersistenceException {
-        loadTaxInfos();
+    public synchronized TaxInfo deleteTaxInfo(String stateAbbr) 
+            throws PersistenceException {
         
+        HashMap<String, TaxInfo> updatedTaxInfos = 
+                new HashMap<>(loadTaxInfos(true).getRecords());
         stateAbbr = stateAbbr.toUpperCase();
-        TaxInfo deletedTaxInfo = taxInfos.remove(stateAbbr);
-        writeTaxInfos();
+        TaxInfo deletedTaxInfo = updatedTaxInfos.remove(stateAbbr);
+        writeTaxInfos(updatedTaxInfos);
         
-        return deletedTaxInfo;
+        return deletedTaxInfo == null ? null : copyOf(deletedTaxInfo);
     }
+
+    @Override
+    public long getDataVersion() throws PersistenceException {
+        return loadTaxInfos(false).getVersion();
+    }
+    
     
+    /**
+     * Returns a copy of the tax info, so callers never share an instance with
+     * the snapshot.
+     * 
+     * @param taxInfo TaxInfo
+     * @return TaxInfo
+     */
+    private static TaxInfo copyOf(TaxInfo taxInfo) {
+        TaxInfo copy = new TaxInfo();
+        if (taxInfo.getStateAbbr() != null) {
+            copy.setStateAbbr(taxInfo.getStateAbbr());
+        }
+        copy.setStateName(taxInfo.getStateName());
+        copy.setTaxRate(taxInfo.getTaxRate());
+        return copy;
+    }
     
     private String marshallTaxInfo(TaxInfo taxInfo) {
         String taxInfoAsText = taxInfo.getStateAbbr() + DELIMITER;
@@ -107,6 +157,12 @@ public class TaxInfoDaoFileImpl implements TaxInfoDao {
         
         String stateAbbr = taxInfoData[0];
         String stateName = taxInfoData[1];
+        // use the registry's strings for a state, rather than the line's copies
+        UsState state = UsState.of(stateAbbr);
+        if (state != null && state.getStateName().equals(stateName)) {
+            stateAbbr = state.getStateAbbr();
+            stateName = state.getStateName();
+        }
         BigDecimal taxRate = new BigDecimal(taxInfoData[2]);
         
         TaxInfo taxInfoFromFile = new TaxInfo(stateAbbr, stateName, taxRate);
@@ -114,55 +170,115 @@ public class TaxInfoDaoFileImpl implements TaxInfoDao {
         return taxInfoFromFile;
     }
     
-    private void loadTaxInfos() throws PersistenceException {
-        Scanner scanner;
+    /**
+     * Returns the current snapshot of the state taxes file. The file is read
+     * the first time and again only if its stamp has changed; unless 
+     * revalidate is true the stamp is checked at most once per revalidation
+     * interval.
+     * 
+     * @param revalidate whether to check the file's stamp now
+     * @return DataFileSnapshot of the TaxInfo
+     * @throws PersistenceException 
+     */
+    private DataFileSnapshot<TaxInfo> loadTaxInfos(boolean revalidate) 
+            throws PersistenceException {
         
+        DataFileSnapshot<TaxInfo> currentTaxInfos = taxInfos;
+        if (currentTaxInfos != null && !revalidate
+                && System.nanoTime() - nextRevalidation < 0) {
+            return currentTaxInfos;
+        }
+        
+        Path taxesFile = Paths.get(TAXES_FILE);
         try {
-            scanner = new Scanner(
-                    new BufferedReader(new FileReader(TAXES_FILE)));
-        } catch(FileNotFoundException e) {
+            FileStamp fileStamp = FileStamp.of(taxesFile);
+            nextRevalidation = System.nanoTime() + revalidationIntervalNanos;
+            if (currentTaxInfos != null && fileStamp != null
+                    && fileStamp.equals(currentTaxInfos.getFileStamp())) {
+                return currentTaxInfos;
+            }
+            
+            synchronized (this) {
+                // another thread may have read the file in the meantime
+                if (taxInfos != currentTaxInfos) {
+                    return taxInfos;
+                }
+                taxInfos = readTaxInfos(taxesFile, fileStamp);
+                return taxInfos;
+            }
+        } catch (IOException e) {
             throw new PersistenceException(
-                    "Unable to load state tax data into memory.");
+                    "Unable to load state tax data into memory.", e);
         }
+    }
+    
+    private DataFileSnapshot<TaxInfo> readTaxInfos(Path taxesFile, 
+            FileStamp fileStamp) throws IOException, PersistenceException {
         
-        // if the file isn't empty
-        if (scanner.hasNext()) {
-            scanner.nextLine(); // header - ignore
-
+        HashMap<String, TaxInfo> taxInfosFromFile = new HashMap<>();
+        
+        try (BufferedReader in = Files.newBufferedReader(taxesFile)) {
+            in.readLine(); // header - ignore
+            
             String currentLine;
             TaxInfo currentTaxInfo;
-
-            while (scanner.hasNextLine()) {
-                currentLine = scanner.nextLine();
+            
+            while ((currentLine = in.readLine()) != null) {
+                if (currentLine.isBlank()) {
+                    continue;
+                }
                 currentTaxInfo = unmarshallTaxInfo(currentLine);
-                taxInfos.put(currentTaxInfo.getStateAbbr(), currentTaxInfo);
+                taxInfosFromFile.put(currentTaxInfo.getStateAbbr(), 
+                        currentTaxInfo);
             }
+        } catch (NoSuchFileException e) {
+            throw new PersistenceException(
+                    "Unable to load state tax data into memory.");
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new PersistenceException(
+                    "Invalid data in state tax data file.", e);
         }
         
-        scanner.close();
+        return new DataFileSnapshot<>(taxInfosFromFile, fileStamp, 
+                TaxInfoDaoFileImpl::copyOf);
     }
     
-    private void writeTaxInfos() throws PersistenceException {
-        PrintWriter out;
+    /**
+     * Replaces the state taxes file with updatedTaxInfos and publishes them
+     * as the new snapshot. Callers hold the DAO's lock.
+     * 
+     * @param updatedTaxInfos HashMap of the TaxInfo to save
+     * @throws PersistenceException 
+     */
+    private void writeTaxInfos(HashMap<String, TaxInfo> updatedTaxInfos) 
+            throws PersistenceException {
+        
+        Path taxesFile = Paths.get(TAXES_FILE);
+        Path tempFile = DataFiles.getTempFile(taxesFile);
         
         try {
-            out = new PrintWriter(new FileWriter(TAXES_FILE));
-        } catch(IOException e) {
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(tempFile))) {
+                
+                String header = "State,StateName,TaxRate";
+                out.println(header);
+                
+                for (TaxInfo taxInfo : updatedTaxInfos.values()) {
+                    out.println(marshallTaxInfo(taxInfo));
+                }
+                
+                if (out.checkError()) {
+                    throw new IOException("Error writing " + tempFile);
+                }
+            }
+            DataFiles.replace(tempFile, taxesFile);
+            
+            taxInfos = new DataFileSnapshot<>(updatedTaxInfos, 
+                    FileStamp.of(taxesFile), TaxInfoDaoFileImpl::copyOf);
+        } catch (IOException e) {
             throw new PersistenceException("Unable to save data to "
-                    + "state tax data file.");
+                    + "state tax data file.", e);
         }
-        
-        String header = "State,StateName,TaxRate";
-        out.println(header);
-        
-        String taxInfoAsText;
-        for (TaxInfo taxInfo : taxInfos.values()) {
-            taxInfoAsText = marshallTaxInfo(taxInfo);
-            out.println(taxInfoAsText);
-            out.flush();
-        }
-        
-        out.close();
     }
     
 }
@@ -0,0 +1,20 @@
+package com.sblinn.flooringmastery.dao;
+
+/**
+ * Wraps a PersistenceException thrown while a lazily read Stream of orders is
+ * being consumed, where a checked exception cannot be thrown.
+ *
+ * @author sarablinn
+ */
+public class UncheckedPersistenceException extends RuntimeException {
+    
+    public UncheckedPersistenceException(PersistenceException cause) {
+        super(cause.getMessage(), cause);
+    }
+    
+    @Override
+    public synchronized PersistenceException getCause() {
+        return (PersistenceException) super.getCause();
+    }
+    
+}
@@ -0,0 +1,188 @@
+package com.sblinn.flooringmastery.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * The totals of the orders on one date: how many there are, the sums of 
+ * their area, material cost, labor cost, tax and total, and their lowest and
+ * highest order numbers. Summaries are immutable.
+ *
+ * @author sarablinn
+ */
+public final class OrderSummary {
+    
+    private final LocalDate orderDate;
+    private final int orderCount;
+    private final BigDecimal area;
+    private final BigDecimal materialCost;
+    private final BigDecimal laborCost;
+    private final BigDecimal tax;
+    private final BigDecimal total;
+    private final int minOrderNumber;
+    private final int maxOrderNumber;
+    
+    
+    public OrderSummary(LocalDate orderDate, int orderCount, BigDecimal area,
+            BigDecimal materialCost, BigDecimal laborCost, BigDecimal tax, 
+            BigDecimal total, int minOrderNumber, int maxOrderNumber) {
+        
+        this.orderDate = orderDate;
+        this.orderCount = orderCount;
+        this.area = area;
+        this.materialCost = materialCost;
+        this.laborCost = laborCost;
+        this.tax = tax;
+        this.total = total;
+        this.minOrderNumber = minOrderNumber;
+        this.maxOrderNumber = maxOrderNumber;
+    }
+    
+    /**
+     * Returns the summary of the orders, all on orderDate, or null if there
+     * are none.
+     * 
+     * @param orderDate LocalDate
+     * @param orders Collection of Orders or null
+     * @return OrderSummary or null
+     */
+    public static OrderSummary of(LocalDate orderDate, 
+            Collection<Order> orders) {
+        
+        OrderSummary summary = null;
+        if (orders != null) {
+            for (Order order : orders) {
+                summary = summary == null 
+                        ? of(order) : summary.plus(order);
+            }
+        }
+        return summary;
+    }
+    
+    /**
+     * Returns the summary of a single order.
+     * 
+     * @param order Order
+     * @return OrderSummary
+     */
+    public static OrderSummary of(Order order) {
+        return new OrderSummary(order.getOrderDate(), 1, order.getArea(), 
+                order.getMaterialCost(), order.getLaborCost(), order.getTax(),
+                order.getTotal(), order.getOrderNumber(), 
+                order.getOrderNumber());
+    }
+    
+    
+    /**
+     * Returns this summary with an order added.
+     * 
+     * @param order Order on the summary's date
+     * @return OrderSummary
+     */
+    public OrderSummary plus(Order order) {
+        return new OrderSummary(orderDate, orderCount + 1, 
+                area.add(order.getArea()), 
+                materialCost.add(order.getMaterialCost()), 
+                laborCost.add(order.getLaborCost()), 
+                tax.add(order.getTax()), 
+                total.add(order.getTotal()), 
+                Math.min(minOrderNumber, order.getOrderNumber()), 
+                Math.max(maxOrderNumber, order.getOrderNumber()));
+    }
+    
+    /**
+     * Returns this summary with an order taken away. The lowest and highest
+     * order numbers are kept as they are, so taking away the order with 
+     * either needs a new summary of the remaining orders instead.
+     * 
+     * @param order Order in the summary
+     * @return OrderSummary
+     */
+    public OrderSummary minus(Order order) {
+        return new OrderSummary(orderDate, orderCount - 1, 
+                area.subtract(order.getArea()), 
+                materialCost.subtract(order.getMaterialCost()), 
+                laborCost.subtract(order.getLaborCost()), 
+                tax.subtract(order.getTax()), 
+                total.subtract(order.getTotal()), 
+                minOrderNumber, maxOrderNumber);
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getArea() {
+        return area;
+    }
+
+    public BigDecimal getMaterialCost() {
+        return materialCost;
+    }
+
+    public BigDecimal getLaborCost() {
+        return laborCost;
+    }
+
+    public BigDecimal getTax() {
+        return tax;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public int getMinOrderNumber() {
+        return minOrderNumber;
+    }
+
+    public int getMaxOrderNumber() {
+        return maxOrderNumber;
+    }
+
+    /**
+     * Summaries are equal if their amounts are, whatever their scale.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OrderSummary)) {
+            return false;
+        }
+        final OrderSummary other = (OrderSummary) obj;
+        return orderDate.equals(other.orderDate)
+                && orderCount == other.orderCount
+                && minOrderNumber == other.minOrderNumber
+                && maxOrderNumber == other.maxOrderNumber
+                && area.compareTo(other.area) == 0
+                && materialCost.compareTo(other.materialCost) == 0
+                && laborCost.compareTo(other.laborCost) == 0
+                && tax.compareTo(other.tax) == 0
+                && total.compareTo(other.total) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderDate, orderCount, minOrderNumber, 
+                maxOrderNumber, total.stripTrailingZeros());
+    }
+
+    @Override
+    public String toString() {
+        return "OrderSummary{" + "orderDate=" + orderDate 
+                + ", orderCount=" + orderCount + ", area=" + area 
+                + ", materialCost=" + materialCost 
+                + ", laborCost=" + laborCost + ", tax=" + tax 
+                + ", total=" + total + ", minOrderNumber=" + minOrderNumber 
+                + ", maxOrderNumber=" + maxOrderNumber + '}';
+    }
+    
+}
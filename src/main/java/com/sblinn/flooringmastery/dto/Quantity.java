@@ -0,0 +1,213 @@
+package com.sblinn.flooringmastery.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * An exact decimal held as a long unscaled value and a scale, value = 
+ * unscaledValue / 10^scale, such as an area or a cost per square foot. Used
+ * by the pricing arithmetic in place of BigDecimal, so it never allocates.
+ * Quantities are immutable.
+ *
+ * @author sarablinn
+ */
+public final class Quantity {
+    
+    // the largest scale whose power of ten fits a long
+    public static final int MAX_SCALE = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+        }
+    }
+    
+    private final long unscaledValue;
+    private final int scale;
+    
+    
+    private Quantity(long unscaledValue, int scale) {
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+    }
+    
+    /**
+     * Returns the quantity unscaledValue / 10^scale.
+     * 
+     * @param unscaledValue long
+     * @param scale 0 to MAX_SCALE
+     * @return Quantity
+     */
+    private static Quantity ofUnscaled(long unscaledValue, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("Scale out of range: " + scale);
+        }
+        return new Quantity(unscaledValue, scale);
+    }
+    
+    /**
+     * Returns the quantity with the exact value of the decimal.
+     * 
+     * @param decimal BigDecimal
+     * @return Quantity
+     * @throws ArithmeticException if the decimal has more than MAX_SCALE 
+     *         decimal places or is too large for a long unscaled value
+     */
+    public static Quantity of(BigDecimal decimal) {
+        if (decimal.scale() < 0) {
+            decimal = decimal.setScale(0);
+        }
+        return ofUnscaled(decimal.unscaledValue().longValueExact(), 
+                decimal.scale());
+    }
+    
+    
+    /**
+     * Returns this quantity rounded HALF_UP to newScale decimal places, as 
+     * BigDecimal.setScale(newScale, RoundingMode.HALF_UP) would.
+     * 
+     * @param newScale 0 to MAX_SCALE
+     * @return Quantity
+     * @throws ArithmeticException if the result does not fit a long
+     */
+    public Quantity roundHalfUp(int newScale) {
+        if (newScale >= scale) {
+            return ofUnscaled(Math.multiplyExact(unscaledValue, 
+                    powerOfTen(newScale - scale)), newScale);
+        }
+        return ofUnscaled(divideHalfUp(unscaledValue, 
+                powerOfTen(scale - newScale)), newScale);
+    }
+    
+    /**
+     * Returns this quantity divided by 10^places, exactly.
+     * 
+     * @param places int
+     * @return Quantity
+     */
+    public Quantity movePointLeft(int places) {
+        return ofUnscaled(unscaledValue, scale + places);
+    }
+
+    public long getUnscaledValue() {
+        return unscaledValue;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+    
+    /**
+     * Returns the quantity as a BigDecimal of the same scale.
+     * 
+     * @return BigDecimal
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaledValue, scale);
+    }
+    
+    
+    /**
+     * Returns (a / 10^aScale) * (b / 10^bScale) rounded HALF_UP to newScale 
+     * decimal places, as an unscaled value, without allocating.
+     * 
+     * @param a unscaled value of the first factor
+     * @param aScale its scale
+     * @param b unscaled value of the second factor
+     * @param bScale its scale
+     * @param newScale scale of the result
+     * @return long
+     * @throws ArithmeticException if the product overflows a long
+     */
+    public static long unscaledProduct(long a, int aScale, long b, int bScale, 
+            int newScale) {
+        long product = Math.multiplyExact(a, b);
+        int productScale = aScale + bScale;
+        if (productScale <= newScale) {
+            return Math.multiplyExact(product, 
+                    powerOfTen(newScale - productScale));
+        }
+        return divideHalfUp(product, powerOfTen(productScale - newScale));
+    }
+    
+    /**
+     * Returns 10^exponent.
+     * 
+     * @param exponent 0 to MAX_SCALE
+     * @return long
+     */
+    private static long powerOfTen(int exponent) {
+        if (exponent < 0 || exponent > MAX_SCALE) {
+            throw new ArithmeticException("Scale out of range: " + exponent);
+        }
+        return POWERS_OF_TEN[exponent];
+    }
+    
+    /**
+     * Returns dividend / divisor rounded HALF_UP, ties away from zero, as 
+     * RoundingMode.HALF_UP rounds.
+     * 
+     * @param dividend long
+     * @param divisor long, positive
+     * @return long
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // |remainder| >= divisor / 2, without overflowing
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    /**
+     * Quantities are equal if their values are, whatever their scale.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Quantity)) {
+            return false;
+        }
+        Quantity other = (Quantity) obj;
+        return strippedUnscaledValue() == other.strippedUnscaledValue()
+                && strippedScale() == other.strippedScale();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(strippedUnscaledValue()) + strippedScale();
+    }
+    
+    // the unscaled value and scale with trailing zeros stripped, the same 
+    // for every scale of one value (zero has scale 0)
+    private long strippedUnscaledValue() {
+        long stripped = unscaledValue;
+        while (stripped != 0 && stripped % 10 == 0) {
+            stripped /= 10;
+        }
+        return stripped;
+    }
+    
+    private int strippedScale() {
+        if (unscaledValue == 0) {
+            return 0;
+        }
+        long stripped = unscaledValue;
+        int strippedScale = scale;
+        while (stripped % 10 == 0) {
+            stripped /= 10;
+            strippedScale--;
+        }
+        return strippedScale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+    
+}
@@ -2,8 +2,6 @@
 package com.sblinn.flooringmastery.dto;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -32,28 +30,9 @@ public class TaxInfo {
     public TaxInfo(String stateAbbreviation) {
         this.stateAbbr = stateAbbreviation;
         
-        String[] stateNames = {"Alabama", "Alaska", "Arizona", "Arkansas", 
-            "California", "Colorado", "Connecticut", "Delaware", "Florida", 
-            "Georgia", "Hawaii", "Idaho", "Illinois", "Indiana", "Iowa", 
-            "Kansas", "Kentucky", "Louisiana", "Maine", "Maryland", 
-            "Massachusetts", "Michigan", "Minnesota", "Mississippi", 
-            "Missouri", "Montana", "Nebraska", "Nevada", "New Hampshire", 
-            "New Jersey", "New Mexico", "New York", "North Carolina", 
-            "North Dakota", "Ohio", "Oklahoma", "Oregon", "Pennsylvania", 
-            "Rhode Island", "South Carolina", "South Dakota", "Tennessee", 
-            "Texas", "Utah", "Vermont", "Virginia", "Washington", 
-            "West Virginia", "Wisconsin", "Wyoming"};
-        
-        String[] stateAbbrs = {"AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", 
-            "FL", "GA", "HI", "ID", "IL", "IN", "IA", "KS", "KY", "LA", "ME", 
-            "MD", "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ", 
-            "NM", "NY", "NC", "ND", "OH", "OK", "OR", "PA", "RI", "SC", "SD", 
-            "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"};
-        
-        List<String> stateAbbrsList = Arrays.asList(stateAbbrs);
-        if (stateAbbrsList.contains(stateAbbreviation)) {
-            this.stateName = 
-                    stateNames[stateAbbrsList.indexOf(stateAbbreviation)];
+        UsState state = UsState.of(stateAbbreviation);
+        if (state != null) {
+            this.stateName = state.getStateName();
         }
     }
     
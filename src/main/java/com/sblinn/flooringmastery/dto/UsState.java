@@ -0,0 +1,140 @@
+package com.sblinn.flooringmastery.dto;
+
+/**
+ * The 50 U.S. states, by their two letter abbreviation.
+ *
+ * An abbreviation is resolved with one array lookup: its two letters index a
+ * table of 26 * 26 slots built once when the class loads, so lookups neither
+ * allocate nor search. Abbreviations are matched in upper case only, as 
+ * TaxInfo(String) always has.
+ *
+ * @author sarablinn
+ */
+public enum UsState {
+
+    AL("Alabama"),
+    AK("Alaska"),
+    AZ("Arizona"),
+    AR("Arkansas"),
+    CA("California"),
+    CO("Colorado"),
+    CT("Connecticut"),
+    DE("Delaware"),
+    FL("Florida"),
+    GA("Georgia"),
+    HI("Hawaii"),
+    ID("Idaho"),
+    IL("Illinois"),
+    IN("Indiana"),
+    IA("Iowa"),
+    KS("Kansas"),
+    KY("Kentucky"),
+    LA("Louisiana"),
+    ME("Maine"),
+    MD("Maryland"),
+    MA("Massachusetts"),
+    MI("Michigan"),
+    MN("Minnesota"),
+    MS("Mississippi"),
+    MO("Missouri"),
+    MT("Montana"),
+    NE("Nebraska"),
+    NV("Nevada"),
+    NH("New Hampshire"),
+    NJ("New Jersey"),
+    NM("New Mexico"),
+    NY("New York"),
+    NC("North Carolina"),
+    ND("North Dakota"),
+    OH("Ohio"),
+    OK("Oklahoma"),
+    OR("Oregon"),
+    PA("Pennsylvania"),
+    RI("Rhode Island"),
+    SC("South Carolina"),
+    SD("South Dakota"),
+    TN("Tennessee"),
+    TX("Texas"),
+    UT("Utah"),
+    VT("Vermont"),
+    VA("Virginia"),
+    WA("Washington"),
+    WV("West Virginia"),
+    WI("Wisconsin"),
+    WY("Wyoming");
+
+    private static final int LETTERS = 26;
+    // (first letter * 26 + second letter) -> state, null where there is none
+    private static final UsState[] BY_LETTERS = new UsState[LETTERS * LETTERS];
+
+    static {
+        for (UsState state : values()) {
+            BY_LETTERS[slot(state.name().charAt(0), state.name().charAt(1))] =
+                    state;
+        }
+    }
+
+    private final String stateName;
+
+
+    private UsState(String stateName) {
+        this.stateName = stateName;
+    }
+
+
+    /**
+     * Returns the state with the given abbreviation, or null if it is not
+     * the upper case abbreviation of a U.S. state.
+     *
+     * @param stateAbbr String
+     * @return UsState or null
+     */
+    public static UsState of(String stateAbbr) {
+        if (stateAbbr == null || stateAbbr.length() != 2) {
+            return null;
+        }
+        return of(stateAbbr.charAt(0), stateAbbr.charAt(1));
+    }
+
+    /**
+     * Returns the state abbreviated by the chars in [start, end), or null if
+     * they are not the upper case abbreviation of a U.S. state.
+     *
+     * @param chars char[]
+     * @param start int
+     * @param end int
+     * @return UsState or null
+     */
+    public static UsState of(char[] chars, int start, int end) {
+        if (end - start != 2) {
+            return null;
+        }
+        return of(chars[start], chars[start + 1]);
+    }
+
+    /**
+     * Returns the abbreviation, the same String instance every time.
+     *
+     * @return String
+     */
+    public String getStateAbbr() {
+        return name();
+    }
+
+    public String getStateName() {
+        return stateName;
+    }
+
+
+    private static UsState of(char first, char second) {
+        if (first < 'A' || first > 'Z' || second < 'A' || second > 'Z') {
+            return null;
+        }
+        return BY_LETTERS[slot(first, second)];
+    }
+
+    private static int slot(char first, char second) {
+        return (first - 'A') * LETTERS + (second - 'A');
+    }
+
+}
@@ -5,8 +5,10 @@ import com.sblinn.flooringmastery.dao.PersistenceException;
 import com.sblinn.flooringmastery.dto.Order;
 import com.sblinn.flooringmastery.dto.Product;
 import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -23,10 +25,19 @@ public interface FlooringService {
             PersistenceException,
             DataNotFoundException;
     
+    Order getOrder(int orderNumber) throws
+            PersistenceException,
+            DataNotFoundException;
+    
     List<Order> getAllOrdersOnDate(LocalDate orderDate) throws 
             PersistenceException,
             DataNotFoundException;
     
+    List<Order> findOrdersByCustomer(String customerNameQuery) throws 
+            PersistenceException,
+            DataNotFoundException,
+            InvalidDataException;
+    
     Order updateOrder(Order updatedOrder) throws
             PersistenceException,
             DataNotFoundException,
@@ -43,6 +54,22 @@ public interface FlooringService {
     
     void exportBackupDataToFile(String filename) throws PersistenceException;
     
+    OrderImportReport importOrders(Path importFile) throws 
+            PersistenceException;
+    
+    OrderImportReport importOrders(Stream<Order> newOrders) throws 
+            PersistenceException;
+    
+    RepricingReport repriceOrdersInState(String stateAbbr, 
+            RepricingReport.ProgressListener progressListener) throws 
+            PersistenceException,
+            DataNotFoundException;
+    
+    RepricingReport repriceOrdersOfProduct(String productType, 
+            RepricingReport.ProgressListener progressListener) throws 
+            PersistenceException,
+            DataNotFoundException;
+    
     
     Product getProduct(String productType) throws
             PersistenceException,
@@ -2,17 +2,33 @@
 package com.sblinn.flooringmastery.service;
 
 import com.sblinn.flooringmastery.dao.OrderDao;
+import com.sblinn.flooringmastery.dao.OrderNumberSequence;
 import com.sblinn.flooringmastery.dao.PersistenceException;
 import com.sblinn.flooringmastery.dao.ProductDao;
 import com.sblinn.flooringmastery.dao.TaxInfoDao;
+import com.sblinn.flooringmastery.dao.UncheckedPersistenceException;
 import com.sblinn.flooringmastery.dto.Order;
 import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.Quantity;
 import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  *
@@ -23,33 +39,72 @@ public class FlooringServiceImpl implements FlooringService {
     private OrderDao orderDao;
     private ProductDao productDao;
     private TaxInfoDao taxInfoDao;
+    private OrderNumberSequence orderNumberSequence;
+    // rates of the current products and tax info, rebuilt when they change
+    private volatile PricingTable pricingTable;
+    // number of threads repricing dates in a repricing job
+    private volatile int repricingParallelism = 
+            Runtime.getRuntime().availableProcessors();
+    // max orders an import holds in memory and saves in one batch
+    private volatile int importChunkSize = 1000;
+    // times an order changed by someone else while it is being repriced is 
+    // read and repriced again before it is skipped
+    private static final int REPRICE_ATTEMPTS = 3;
     
-    private int maxOrderNumber; 
     private final String DATA_EXPORT_DIR;
     
     
     public FlooringServiceImpl(OrderDao orderDao, ProductDao productDao, 
-            TaxInfoDao taxInfoDao) {
+            TaxInfoDao taxInfoDao, OrderNumberSequence orderNumberSequence) {
         
         this.productDao = productDao;
         this.taxInfoDao = taxInfoDao;
         this.orderDao = orderDao;
+        this.orderNumberSequence = orderNumberSequence;
         
         this.DATA_EXPORT_DIR = "../FlooringMastery/Backup";
-        
-        setMaxOrderNumber();
     }
     
     public FlooringServiceImpl(String dataExportDirName, OrderDao orderDao,
-            ProductDao productDao, TaxInfoDao taxInfoDao) {
+            ProductDao productDao, TaxInfoDao taxInfoDao, 
+            OrderNumberSequence orderNumberSequence) {
         
         this.productDao = productDao;
         this.taxInfoDao = taxInfoDao;
         this.orderDao = orderDao;
+        this.orderNumberSequence = orderNumberSequence;
         
         this.DATA_EXPORT_DIR = dataExportDirName;
-     
-        setMaxOrderNumber();
+    }
+    
+    
+    /**
+     * Sets how many threads reprice dates in repriceOrdersInState and 
+     * repriceOrdersOfProduct; by default, one per processor.
+     * 
+     * @param repricingParallelism int
+     */
+    public void setRepricingParallelism(int repricingParallelism) {
+        if (repricingParallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Repricing parallelism must be at least 1.");
+        }
+        this.repricingParallelism = repricingParallelism;
+    }
+    
+    /**
+     * Sets how many accepted orders an import collects before it numbers and
+     * saves them as one batch; by default, 1000. Memory use and the size of 
+     * each write are bounded by it, however large the import.
+     * 
+     * @param importChunkSize int
+     */
+    public void setImportChunkSize(int importChunkSize) {
+        if (importChunkSize < 1) {
+            throw new IllegalArgumentException(
+                    "Import chunk size must be at least 1.");
+        }
+        this.importChunkSize = importChunkSize;
     }
             
     
@@ -69,10 +124,12 @@ public class FlooringServiceImpl implements FlooringService {
                     "Error: Order date must be a future date.");
         }
         
-        newOrder.setOrderNumber(maxOrderNumber); 
         newOrder = calculateOrder(order); 
+        // the number shown by calculateOrder is only a preview, the new order
+        // gets the next number from the sequence
+        newOrder.setOrderNumber(orderNumberSequence.nextOrderNumber());
+        
         orderDao.createOrder(newOrder);
-        setMaxOrderNumber();
         
         return newOrder;
     }
@@ -103,6 +160,28 @@ public class FlooringServiceImpl implements FlooringService {
         return order;
     }
 
+    /**
+     * Returns the Order with the given order number, whatever its date.
+     * 
+     * @param orderNumber int
+     * @return Order
+     * @throws PersistenceException
+     * @throws DataNotFoundException if there is no such order
+     */
+    @Override
+    public Order getOrder(int orderNumber) throws 
+            PersistenceException,
+            DataNotFoundException {
+        
+        Order order = orderDao.getOrder(orderNumber);
+        if (order == null) {
+            throw new DataNotFoundException(
+                    "Error: No Order #" + orderNumber + " found.");
+        }
+
+        return order;
+    }
+
     @Override
     public List<Order> getAllOrdersOnDate(LocalDate orderDate) throws 
             PersistenceException,
@@ -120,6 +199,38 @@ public class FlooringServiceImpl implements FlooringService {
         return ordersOnDate;
     }
 
+    /**
+     * Returns the Orders of every customer whose name starts with the query,
+     * ignoring case, sorted by order number.
+     * 
+     * @param customerNameQuery whole or beginning of a customer name
+     * @return List of Orders
+     * @throws PersistenceException
+     * @throws DataNotFoundException if no customer name matches
+     * @throws InvalidDataException if the query is blank
+     */
+    @Override
+    public List<Order> findOrdersByCustomer(String customerNameQuery) throws 
+            PersistenceException,
+            DataNotFoundException,
+            InvalidDataException {
+        
+        if (customerNameQuery == null || customerNameQuery.trim().isEmpty()) {
+            throw new InvalidDataException(
+                    "Error: Customer name to search for cannot be blank.");
+        }
+        
+        List<Order> foundOrders = 
+                orderDao.findOrdersByCustomer(customerNameQuery);
+        if (foundOrders.isEmpty()) {
+            throw new DataNotFoundException(
+                    "No orders found for customer: " 
+                    + customerNameQuery.trim() + ".");
+        }
+        
+        return foundOrders;
+    }
+
     @Override
     public Order updateOrder(Order updatedOrder) throws 
             PersistenceException,
@@ -161,6 +272,7 @@ public class FlooringServiceImpl implements FlooringService {
         }
 
         updatedOrder = calculateOrder(updatedOrder);
+        
         orderDao.updateOrder(updatedOrder);
 
         return updatedOrder;
@@ -199,13 +311,17 @@ public class FlooringServiceImpl implements FlooringService {
         Order calculatedOrder = new Order(order.getOrderDate());
         
         if (order.getOrderNumber() == 0) {
-            calculatedOrder.setOrderNumber(maxOrderNumber);
+            calculatedOrder.setOrderNumber(
+                    orderNumberSequence.peekNextOrderNumber());
         } else {
             calculatedOrder.setOrderNumber(order.getOrderNumber());
         }
         // make sure that state name is set since marshallOrder doesn't set it.
         String stateAbbr = order.getTaxInfo().getStateAbbr();
-        TaxInfo taxInfo = taxInfoDao.getTaxInfo(stateAbbr);
+        PricingTable currentPricingTable = getPricingTable();
+        int stateIndex = currentPricingTable.indexOfState(stateAbbr);
+        TaxInfo taxInfo = stateIndex < 0 
+                ? null : currentPricingTable.getTaxInfo(stateIndex);
         
         calculatedOrder.setCustomerName(order.getCustomerName());
         calculatedOrder.setProduct(order.getProduct());
@@ -215,33 +331,35 @@ public class FlooringServiceImpl implements FlooringService {
         validateRequiredOrderData(calculatedOrder); 
         
         try {
-            BigDecimal area = order.getArea();
-            BigDecimal costPerSqFt = order.getProduct().getCostPerSqFoot();
-            BigDecimal laborCostPerSqFt = order.getProduct().getLaborCostPerSqFoot();
-
-            BigDecimal hundredPercent = new BigDecimal("100.00");
-            BigDecimal taxRatePercentage = order.getTaxInfo().getTaxRate()
-                    .divide(hundredPercent, 2, RoundingMode.HALF_UP);
-
-            BigDecimal materialCost = area.multiply(costPerSqFt);
-                materialCost = materialCost.setScale(2, RoundingMode.HALF_UP);
-            BigDecimal laborCost = area.multiply(laborCostPerSqFt);
-                laborCost = laborCost.setScale(2, RoundingMode.HALF_UP);
-            BigDecimal totalCost = materialCost.add(laborCost);
-                totalCost = totalCost.setScale(2, RoundingMode.HALF_UP);
-            BigDecimal tax = totalCost.multiply(taxRatePercentage);
-                tax = tax.setScale(2, RoundingMode.HALF_UP);
-            BigDecimal total = totalCost.add(tax);
-                total = total.setScale(2, RoundingMode.HALF_UP);
-
-            calculatedOrder.setMaterialCost(materialCost);
-            calculatedOrder.setLaborCost(laborCost);
-            calculatedOrder.setTax(tax);
-            calculatedOrder.setTotal(total);
+            // priced at the tax rate the order was given, from the table 
+            // when it has the order's product and rate
+            long[] pricesInCents = new long[OrderPricing.PRICE_COUNT];
+            Quantity area = Quantity.of(order.getArea());
+            int productIndex = 
+                    currentPricingTable.indexOfProduct(order.getProduct());
+            if (productIndex >= 0 && currentPricingTable.hasTaxRate(
+                    stateIndex, order.getTaxInfo().getTaxRate())) {
+                currentPricingTable.priceInCents(productIndex, stateIndex, 
+                        area, pricesInCents);
+            } else {
+                OrderPricing.priceInCents(area, 
+                        Quantity.of(order.getProduct().getCostPerSqFoot()), 
+                        Quantity.of(order.getProduct().getLaborCostPerSqFoot()), 
+                        OrderPricing.taxMultiplier(
+                                order.getTaxInfo().getTaxRate()), 
+                        pricesInCents);
+            }
+            OrderPricing.setPrices(calculatedOrder, pricesInCents);
         } catch (NullPointerException e) {
             throw new DataNotFoundException(
                     "ERROR: Required order data is missing. Unable to "
                             + "calculate order information.");
+        } catch (ArithmeticException e) {
+            // too many digits for fixed point, priced as it always was
+            OrderPricing.setExactPrices(calculatedOrder, order.getArea(), 
+                    order.getProduct().getCostPerSqFoot(), 
+                    order.getProduct().getLaborCostPerSqFoot(), 
+                    order.getTaxInfo().getTaxRate());
         }
         
         return calculatedOrder;
@@ -252,12 +370,163 @@ public class FlooringServiceImpl implements FlooringService {
             PersistenceException {   
         String filepath = DATA_EXPORT_DIR + "/" + filename;
         if (!filename.contains(".txt")) {
-            filepath += ".txt";
+            // a .gz backup is still a text file, once decompressed
+            if (filename.endsWith(".gz")) {
+                filepath = filepath.substring(0, filepath.length() - 3) 
+                        + ".txt.gz";
+            } else {
+                filepath += ".txt";
+            }
         }
 
         orderDao.exportBackupDataToFile(filepath);
     }
 
+
+    /**
+     * Imports new orders from a comma delimited file with a header line and
+     * one order per line:
+     * 
+     * OrderDate,CustomerName,State,ProductType,Area
+     * 
+     * with dates as MM-dd-yyyy. The customer name may be put between single
+     * quotes. See importOrders(Stream) for how the orders are checked and 
+     * saved; rejected rows are reported with their line number.
+     * 
+     * @param importFile Path
+     * @return OrderImportReport
+     * @throws PersistenceException if the file cannot be read or the orders
+     *         cannot be saved; chunks saved before then stay saved
+     */
+    @Override
+    public OrderImportReport importOrders(Path importFile) throws 
+            PersistenceException {
+        
+        OrderImportReport report = new OrderImportReport();
+        List<Order> importedOrders = new ArrayList<>();
+        int chunkSize = importChunkSize;
+        LocalDate today = LocalDate.now();
+        
+        try (BufferedReader in = Files.newBufferedReader(importFile)) {
+            in.readLine(); // header -- ignore
+            
+            int rowNumber = 1;
+            String row;
+            while ((row = in.readLine()) != null) {
+                rowNumber++;
+                if (row.isBlank()) {
+                    continue;
+                }
+                
+                try {
+                    importedOrders.add(
+                            priceImportedOrder(parseImportRow(row), today));
+                } catch (DataNotFoundException | InvalidDataException e) {
+                    report.reject(rowNumber, row, e.getMessage());
+                }
+                if (importedOrders.size() >= chunkSize) {
+                    saveImportedOrders(importedOrders, report);
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(
+                    "Unable to read import file " + importFile + ".", e);
+        }
+        
+        saveImportedOrders(importedOrders, report);
+        return report;
+    }
+
+    /**
+     * Imports new orders. Each order is checked and priced as it is read, 
+     * the same way as createOrder: it must have a future date, and its 
+     * product costs and tax rate are taken from the current product and tax
+     * data, not from the order. Orders which fail are rejected and reported
+     * with their position in the stream.
+     * 
+     * The accepted orders are saved in chunks of up to importChunkSize as 
+     * they are read, so memory use does not grow with the import. Each chunk
+     * gets a consecutive block of order numbers and is saved as one batch, 
+     * writing each date file it falls on once.
+     * 
+     * @param newOrders Stream of Orders
+     * @return OrderImportReport
+     * @throws PersistenceException if the orders cannot be saved; chunks 
+     *         saved before then stay saved
+     */
+    @Override
+    public OrderImportReport importOrders(Stream<Order> newOrders) throws 
+            PersistenceException {
+        
+        OrderImportReport report = new OrderImportReport();
+        List<Order> importedOrders = new ArrayList<>();
+        int chunkSize = importChunkSize;
+        LocalDate today = LocalDate.now();
+        
+        int rowNumber = 0;
+        Iterator<Order> orderIterator = newOrders.iterator();
+        while (orderIterator.hasNext()) {
+            Order newOrder = orderIterator.next();
+            rowNumber++;
+            
+            try {
+                importedOrders.add(priceImportedOrder(newOrder, today));
+            } catch (DataNotFoundException | InvalidDataException e) {
+                report.reject(rowNumber, describeImportedOrder(newOrder), 
+                        e.getMessage());
+            }
+            if (importedOrders.size() >= chunkSize) {
+                saveImportedOrders(importedOrders, report);
+            }
+        }
+        
+        saveImportedOrders(importedOrders, report);
+        return report;
+    }
+
+    /**
+     * Reprices every order dated after today in the state with the state's
+     * current tax rate and the current costs of each order's product, after
+     * the tax rate has changed. See repriceOrders.
+     * 
+     * @param stateAbbr String
+     * @param progressListener RepricingReport.ProgressListener or null
+     * @return RepricingReport
+     * @throws PersistenceException
+     * @throws DataNotFoundException if there is no tax info for the state
+     */
+    @Override
+    public RepricingReport repriceOrdersInState(String stateAbbr, 
+            RepricingReport.ProgressListener progressListener) throws 
+            PersistenceException,
+            DataNotFoundException {
+        
+        getTaxInfo(stateAbbr);
+        return repriceOrders(orderDao.findOrdersByState(stateAbbr, 
+                LocalDate.now().plusDays(1)), progressListener);
+    }
+    
+    /**
+     * Reprices every order dated after today of the product type with the 
+     * product's current costs and the current tax rate of each order's 
+     * state, after the costs have changed. See repriceOrders.
+     * 
+     * @param productType String
+     * @param progressListener RepricingReport.ProgressListener or null
+     * @return RepricingReport
+     * @throws PersistenceException
+     * @throws DataNotFoundException if there is no such product
+     */
+    @Override
+    public RepricingReport repriceOrdersOfProduct(String productType, 
+            RepricingReport.ProgressListener progressListener) throws 
+            PersistenceException,
+            DataNotFoundException {
+        
+        getProduct(productType);
+        return repriceOrders(orderDao.findOrdersByProduct(productType, 
+                LocalDate.now().plusDays(1)), progressListener);
+    }
     
     @Override
     public Product getProduct(String productType) throws 
@@ -312,6 +581,373 @@ public class FlooringServiceImpl implements FlooringService {
     }
     
     
+    /**
+     * Returns a new, priced copy of an imported order, with the product and
+     * tax data looked up from its product type and state.
+     * 
+     * @param order Order
+     * @param today LocalDate the import started
+     * @return Order
+     * @throws PersistenceException
+     * @throws DataNotFoundException
+     * @throws InvalidDataException 
+     */
+    private Order priceImportedOrder(Order order, LocalDate today) throws 
+            PersistenceException,
+            DataNotFoundException, 
+            InvalidDataException {
+        
+        if (order == null || order.getOrderDate() == null
+                || order.getCustomerName() == null
+                || order.getProduct() == null
+                || order.getProduct().getProductType() == null
+                || order.getTaxInfo() == null
+                || order.getTaxInfo().getStateAbbr() == null) {
+            throw new DataNotFoundException(
+                    "Error: Order is missing required data.");
+        }
+        
+        if (order.getOrderDate().compareTo(today) <= 0) {
+            throw new InvalidDataException(
+                    "Error: Order date must be a future date.");
+        }
+        
+        Order importedOrder = new Order(order.getOrderDate());
+        importedOrder.setCustomerName(order.getCustomerName());
+        importedOrder.setProduct(getProduct(order.getProduct().getProductType()));
+        importedOrder.setTaxInfo(getTaxInfo(order.getTaxInfo().getStateAbbr()));
+        importedOrder.setArea(order.getArea());
+        
+        return calculateOrder(importedOrder);
+    }
+    
+    /**
+     * Numbers and saves a chunk of imported orders, records them in the 
+     * report and empties the chunk.
+     * 
+     * @param importedOrders List of priced Orders
+     * @param report OrderImportReport
+     * @throws PersistenceException 
+     */
+    private void saveImportedOrders(List<Order> importedOrders, 
+            OrderImportReport report) throws PersistenceException {
+        
+        if (importedOrders.isEmpty()) {
+            return;
+        }
+        
+        int firstOrderNumber = 
+                orderNumberSequence.reserveOrderNumbers(importedOrders.size());
+        int orderNumber = firstOrderNumber;
+        for (Order order : importedOrders) {
+            order.setOrderNumber(orderNumber++);
+        }
+        
+        orderDao.createOrders(importedOrders);
+        report.addImported(importedOrders.size(), firstOrderNumber);
+        importedOrders.clear();
+    }
+    
+    /**
+     * Returns an Order from a row of an import file:
+     * OrderDate,CustomerName,State,ProductType,Area
+     * 
+     * The customer name is everything between the first and the third to 
+     * last comma, so it may contain commas.
+     * 
+     * @param row String
+     * @return unpriced Order
+     * @throws InvalidDataException if the row cannot be read
+     */
+    private Order parseImportRow(String row) throws InvalidDataException {
+        int nameStart = row.indexOf(',');
+        int areaStart = row.lastIndexOf(',');
+        int productStart = areaStart > 0 ? row.lastIndexOf(',', areaStart - 1) : -1;
+        int stateStart = productStart > 0 ? row.lastIndexOf(',', productStart - 1) : -1;
+        if (nameStart < 0 || stateStart <= nameStart) {
+            throw new InvalidDataException("Error: Expected "
+                    + "OrderDate,CustomerName,State,ProductType,Area.");
+        }
+        
+        Order order;
+        String orderDate = row.substring(0, nameStart).trim();
+        try {
+            order = new Order(LocalDate.parse(orderDate, 
+                    DateTimeFormatter.ofPattern("MM-dd-yyyy")));
+        } catch (DateTimeParseException e) {
+            throw new InvalidDataException(
+                    "Error: Invalid order date " + orderDate + ".", e);
+        }
+        
+        String customerName = row.substring(nameStart + 1, stateStart).trim();
+        if (customerName.length() >= 2 && customerName.startsWith("'")
+                && customerName.endsWith("'")) {
+            customerName = customerName.substring(1, customerName.length() - 1);
+        }
+        order.setCustomerName(customerName);
+        
+        order.setTaxInfo(new TaxInfo(
+                row.substring(stateStart + 1, productStart).trim().toUpperCase()));
+        
+        Product product = new Product();
+        product.setProductType(row.substring(productStart + 1, areaStart).trim());
+        order.setProduct(product);
+        
+        String area = row.substring(areaStart + 1).trim();
+        try {
+            order.setArea(new BigDecimal(area));
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException("Error: Invalid area " + area + ".", e);
+        }
+        
+        return order;
+    }
+    
+    /**
+     * Returns an imported Order's fields for the report, in the import file's
+     * column order.
+     */
+    private String describeImportedOrder(Order order) {
+        if (order == null) {
+            return "null";
+        }
+        return (order.getOrderDate() == null ? "" : order.getOrderDate()
+                        .format(DateTimeFormatter.ofPattern("MM-dd-yyyy")))
+                + ",'" + order.getCustomerName() + "',"
+                + (order.getTaxInfo() == null 
+                        ? "" : order.getTaxInfo().getStateAbbr()) + ","
+                + (order.getProduct() == null 
+                        ? "" : order.getProduct().getProductType()) + ","
+                + order.getArea();
+    }
+    
+    /**
+     * Reprices the orders from the current pricing table, the dates on up to
+     * repricingParallelism threads. The orders of each date which changed 
+     * are saved together, with one write of the date, before the listener 
+     * is told the date is done. Orders whose product or state is no longer 
+     * in the catalog, or has costs or a rate the pricing table cannot hold, 
+     * are skipped, as are orders deleted by someone else while their date 
+     * is being repriced; those are not saved again. An order is only saved
+     * if it is still the order that was repriced, so one changed by someone
+     * else in that time is read and repriced again with the change, up to 
+     * REPRICE_ATTEMPTS times before it is skipped.
+     * 
+     * If saving a date fails, the dates saved before it stay repriced.
+     * 
+     * @param affectedOrders List of Orders, in date order
+     * @param progressListener RepricingReport.ProgressListener or null
+     * @return RepricingReport
+     * @throws PersistenceException 
+     */
+    private RepricingReport repriceOrders(List<Order> affectedOrders, 
+            RepricingReport.ProgressListener progressListener) throws 
+            PersistenceException {
+        
+        TreeMap<LocalDate, List<Order>> ordersByDate = affectedOrders.stream()
+                .collect(Collectors.groupingBy((order) -> order.getOrderDate(), 
+                        TreeMap::new, Collectors.toList()));
+        RepricingReport report = new RepricingReport();
+        report.setFound(affectedOrders.size(), ordersByDate.size());
+        
+        PricingTable currentPricingTable = getPricingTable();
+        AtomicInteger repricedDateCount = new AtomicInteger();
+        Function<List<Order>, RepricedDate> repriceDate = (ordersOnDate) -> {
+            RepricedDate repricedDate = 
+                    repriceOrdersOnDate(currentPricingTable, ordersOnDate);
+            try {
+                saveRepricedDate(currentPricingTable, repricedDate);
+            } catch (PersistenceException e) {
+                throw new UncheckedPersistenceException(e);
+            }
+            if (progressListener != null) {
+                progressListener.datesRepriced(
+                        repricedDateCount.incrementAndGet(), 
+                        ordersByDate.size());
+            }
+            return repricedDate;
+        };
+        
+        // a parallel stream runs in the pool it is collected from, so the 
+        // dates are split across this pool's threads
+        ForkJoinPool repricingPool = new ForkJoinPool(repricingParallelism);
+        try {
+            for (RepricedDate repricedDate : repricingPool.submit(
+                    () -> ordersByDate.values().parallelStream()
+                            .map(repriceDate)
+                            .collect(Collectors.toList())).get()) {
+                report.addRepriced(repricedDate.savedCount, 
+                        repricedDate.changedTotalCount, 
+                        repricedDate.skippedCount);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedPersistenceException) {
+                throw ((UncheckedPersistenceException) e.getCause()).getCause();
+            }
+            throw new PersistenceException(
+                    "Unable to reprice the orders.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(
+                    "Interrupted while repricing the orders.", e);
+        } finally {
+            repricingPool.shutdownNow();
+        }
+        
+        return report;
+    }
+    
+    /**
+     * Prices each order of one date again from the pricing table, with the
+     * table's product of its type and tax info of its state, keeping the 
+     * orders which changed along with the orders they were priced from.
+     * 
+     * @param currentPricingTable PricingTable
+     * @param ordersOnDate List of Orders on one date
+     * @return RepricedDate
+     */
+    private RepricedDate repriceOrdersOnDate(PricingTable currentPricingTable, 
+            List<Order> ordersOnDate) {
+        
+        RepricedDate repricedDate = new RepricedDate();
+        long[] pricesInCents = new long[OrderPricing.PRICE_COUNT];
+        for (Order order : ordersOnDate) {
+            int productIndex = currentPricingTable.indexOfProductType(
+                    order.getProduct().getProductType());
+            int stateIndex = currentPricingTable.indexOfState(
+                    order.getTaxInfo().getStateAbbr());
+            if (productIndex < 0 || stateIndex < 0 
+                    || !currentPricingTable.canPriceState(stateIndex)) {
+                repricedDate.skippedCount++;
+                continue;
+            }
+            
+            Order repricedOrder = 
+                    new Order(order.getOrderDate(), order.getOrderNumber());
+            repricedOrder.setCustomerName(order.getCustomerName());
+            repricedOrder.setProduct(
+                    currentPricingTable.getProduct(productIndex));
+            repricedOrder.setTaxInfo(
+                    currentPricingTable.getTaxInfo(stateIndex));
+            repricedOrder.setArea(order.getArea());
+            try {
+                currentPricingTable.priceInCents(productIndex, stateIndex, 
+                        Quantity.of(order.getArea()), pricesInCents);
+                OrderPricing.setPrices(repricedOrder, pricesInCents);
+            } catch (ArithmeticException e) {
+                OrderPricing.setExactPrices(repricedOrder, order.getArea(), 
+                        repricedOrder.getProduct().getCostPerSqFoot(), 
+                        repricedOrder.getProduct().getLaborCostPerSqFoot(), 
+                        repricedOrder.getTaxInfo().getTaxRate());
+            }
+            
+            if (!repricedOrder.equals(order)) {
+                repricedDate.readOrders.add(copyOf(order));
+                repricedDate.repricedOrders.add(repricedOrder);
+            }
+        }
+        return repricedDate;
+    }
+    
+    /**
+     * Saves the repriced orders of one date with a single write of the date,
+     * each only if the stored order is still the one it was repriced from.
+     * The orders which were not are read again and repriced from the same 
+     * pricing table, so a change made meanwhile is kept, and saved with 
+     * another write; after REPRICE_ATTEMPTS writes, or once deleted, they 
+     * are counted as skipped. The count of changed totals is taken from the
+     * orders the DAO actually replaced.
+     * 
+     * @param currentPricingTable PricingTable the date was repriced from
+     * @param repricedDate RepricedDate
+     * @throws PersistenceException 
+     */
+    private void saveRepricedDate(PricingTable currentPricingTable, 
+            RepricedDate repricedDate) throws PersistenceException {
+        
+        List<Order> readOrders = repricedDate.readOrders;
+        List<Order> repricedOrders = repricedDate.repricedOrders;
+        for (int attempt = 1; !repricedOrders.isEmpty(); attempt++) {
+            List<Order> replacedOrders = 
+                    orderDao.updateOrdersIfUnchanged(readOrders, 
+                            repricedOrders);
+            List<Order> changedOrders = new ArrayList<>();
+            for (int i = 0; i < replacedOrders.size(); i++) {
+                Order replacedOrder = replacedOrders.get(i);
+                Order repricedOrder = repricedOrders.get(i);
+                if (replacedOrder == null) {
+                    Order changedOrder = attempt < REPRICE_ATTEMPTS 
+                            ? orderDao.getOrder(repricedOrder.getOrderNumber())
+                            : null;
+                    if (changedOrder == null) {
+                        repricedDate.skippedCount++;
+                    } else {
+                        changedOrders.add(changedOrder);
+                    }
+                    continue;
+                }
+                repricedDate.savedCount++;
+                if (repricedOrder.getTotal()
+                        .compareTo(replacedOrder.getTotal()) != 0) {
+                    repricedDate.changedTotalCount++;
+                }
+            }
+            
+            RepricedDate repricedAgain = 
+                    repriceOrdersOnDate(currentPricingTable, changedOrders);
+            repricedDate.skippedCount += repricedAgain.skippedCount;
+            readOrders = repricedAgain.readOrders;
+            repricedOrders = repricedAgain.repricedOrders;
+        }
+    }
+    
+    /**
+     * Returns a copy of the order as it is now, so a change later made to 
+     * the order the DAO handed out does not change the copy too.
+     * 
+     * @param order Order with a product and tax info
+     * @return Order
+     */
+    private static Order copyOf(Order order) {
+        Order copy = new Order(order.getOrderDate(), order.getOrderNumber());
+        copy.setCustomerName(order.getCustomerName());
+        copy.setProduct(new Product(order.getProduct().getProductType(), 
+                order.getProduct().getCostPerSqFoot(), 
+                order.getProduct().getLaborCostPerSqFoot()));
+        copy.setTaxInfo(new TaxInfo(order.getTaxInfo().getStateAbbr(), 
+                order.getTaxInfo().getStateName(), 
+                order.getTaxInfo().getTaxRate()));
+        copy.setArea(order.getArea());
+        copy.setMaterialCost(order.getMaterialCost());
+        copy.setLaborCost(order.getLaborCost());
+        copy.setTax(order.getTax());
+        copy.setTotal(order.getTotal());
+        return copy;
+    }
+    
+    /**
+     * Returns the pricing table of the current products and tax info, 
+     * building a new one first if either has changed since the last was 
+     * built. The versions are read before the data, so a table built from 
+     * data which changed in between is rebuilt on the next call.
+     * 
+     * @return PricingTable
+     * @throws PersistenceException 
+     */
+    private PricingTable getPricingTable() throws PersistenceException {
+        PricingTable currentPricingTable = pricingTable;
+        long productVersion = productDao.getDataVersion();
+        long taxInfoVersion = taxInfoDao.getDataVersion();
+        if (currentPricingTable == null || !currentPricingTable
+                .isBuiltFrom(productVersion, taxInfoVersion)) {
+            currentPricingTable = new PricingTable(
+                    productVersion, productDao.getAllProducts(), 
+                    taxInfoVersion, taxInfoDao.getAllTaxInfo());
+            pricingTable = currentPricingTable;
+        }
+        return currentPricingTable;
+    }
+    
     private void validateRequiredOrderData(Order order) 
             throws DataNotFoundException, 
             InvalidDataException {
@@ -366,19 +1002,19 @@ public class FlooringServiceImpl implements FlooringService {
         } 
     }
     
-    private void setMaxOrderNumber() {
-        try {
-            List<Order> ordersList = orderDao.getAllOrders();
-            if (!ordersList.isEmpty()) { // prevent NoSuchElementException
-                this.maxOrderNumber = ordersList.stream()
-                        .mapToInt((i) -> i.getOrderNumber())
-                        .max().getAsInt() + 1;
-            } else {
-                this.maxOrderNumber = 1;
-            }
-        } catch (PersistenceException e) {
-            System.out.println(e.getMessage());
-        }
+    
+    /**
+     * The orders of one date changed by repricing, with the orders they 
+     * were repriced from.
+     */
+    private static class RepricedDate {
+        
+        private final List<Order> readOrders = new ArrayList<>();
+        private final List<Order> repricedOrders = new ArrayList<>();
+        private int savedCount;
+        private int changedTotalCount;
+        private int skippedCount;
+        
     }
     
 }
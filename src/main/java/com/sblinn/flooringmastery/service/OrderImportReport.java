@@ -0,0 +1,117 @@
+package com.sblinn.flooringmastery.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of an order import: how many orders were created, the range of
+ * order numbers they were given and every row that was rejected, with why.
+ *
+ * @author sarablinn
+ */
+public class OrderImportReport {
+    
+    private int importedCount;
+    private int firstOrderNumber;
+    private int lastOrderNumber;
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+    
+    
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * Returns the order number of the first imported order, or 0 if no orders
+     * were imported. Imported orders are numbered in the order they were 
+     * read, consecutively within each chunk saved; orders created while the
+     * import ran may have numbers between two chunks'.
+     * 
+     * @return int
+     */
+    public int getFirstOrderNumber() {
+        return firstOrderNumber;
+    }
+
+    /**
+     * Returns the order number of the last imported order, or 0 if no orders
+     * were imported.
+     * 
+     * @return int
+     */
+    public int getLastOrderNumber() {
+        return lastOrderNumber;
+    }
+    
+    public List<RejectedRow> getRejectedRows() {
+        return Collections.unmodifiableList(rejectedRows);
+    }
+    
+    public int getRejectedCount() {
+        return rejectedRows.size();
+    }
+    
+    
+    /**
+     * Records a chunk of importedCount orders numbered from firstOrderNumber.
+     * 
+     * @param importedCount int, at least 1
+     * @param firstOrderNumber int
+     */
+    void addImported(int importedCount, int firstOrderNumber) {
+        if (this.importedCount == 0) {
+            this.firstOrderNumber = firstOrderNumber;
+        }
+        this.importedCount += importedCount;
+        this.lastOrderNumber = firstOrderNumber + importedCount - 1;
+    }
+    
+    void reject(int rowNumber, String row, String reason) {
+        rejectedRows.add(new RejectedRow(rowNumber, row, reason));
+    }
+    
+    
+    /**
+     * A row of an import which was not turned into an order.
+     */
+    public static class RejectedRow {
+        
+        private final int rowNumber;
+        private final String row;
+        private final String reason;
+        
+        
+        public RejectedRow(int rowNumber, String row, String reason) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+            this.reason = reason;
+        }
+        
+        
+        /**
+         * Returns the line number of the row in the import file, or the 
+         * position (from 1) of the order in an imported stream.
+         * 
+         * @return int
+         */
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        public String getRow() {
+            return row;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + rowNumber + ": " + reason + " [" + row + "]";
+        }
+        
+    }
+    
+}
@@ -0,0 +1,155 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Quantity;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices orders in fixed point, with long cents, to exactly the amounts the
+ * BigDecimal pricing gave:
+ *
+ * materialCost = area * costPerSqFoot, rounded HALF_UP to the cent
+ * laborCost = area * laborCostPerSqFoot, rounded HALF_UP to the cent
+ * tax = (materialCost + laborCost) * taxMultiplier, rounded HALF_UP
+ * total = materialCost + laborCost + tax
+ *
+ * where the taxMultiplier is the tax rate / 100 rounded HALF_UP to 2 decimal
+ * places, as it always has been (a rate of 4.45 taxes 4%).
+ *
+ * priceInCents writes into an array the caller reuses, so pricing many 
+ * orders allocates nothing. Amounts too large for a long throw an 
+ * ArithmeticException; setExactPrices prices those orders with BigDecimal,
+ * the way they were always priced.
+ *
+ * @author sarablinn
+ */
+final class OrderPricing {
+    
+    // indexes of the amounts written by priceInCents
+    static final int MATERIAL_COST = 0;
+    static final int LABOR_COST = 1;
+    static final int TAX = 2;
+    static final int TOTAL = 3;
+    static final int PRICE_COUNT = 4;
+    
+    private static final int CENTS_SCALE = 2;
+    
+    
+    private OrderPricing() {
+    }
+    
+    
+    /**
+     * Returns the tax rate, a percentage, as the multiplier priced orders 
+     * are taxed with: rate / 100 rounded HALF_UP to 2 decimal places.
+     * 
+     * @param taxRate BigDecimal percentage
+     * @return Quantity
+     */
+    static Quantity taxMultiplier(BigDecimal taxRate) {
+        return Quantity.of(taxRate).movePointLeft(2).roundHalfUp(CENTS_SCALE);
+    }
+    
+    /**
+     * Writes the material cost, labor cost, tax and total of an order, in 
+     * cents, to pricesInCents at MATERIAL_COST, LABOR_COST, TAX and TOTAL.
+     * 
+     * @param area Quantity in square feet
+     * @param costPerSqFoot Quantity
+     * @param laborCostPerSqFoot Quantity
+     * @param taxMultiplier Quantity from taxMultiplier
+     * @param pricesInCents long[PRICE_COUNT]
+     * @throws ArithmeticException if an amount overflows a long
+     */
+    static void priceInCents(Quantity area, Quantity costPerSqFoot, 
+            Quantity laborCostPerSqFoot, Quantity taxMultiplier, 
+            long[] pricesInCents) {
+        
+        long materialCost = centsOfProduct(
+                area.getUnscaledValue(), area.getScale(), 
+                costPerSqFoot.getUnscaledValue(), costPerSqFoot.getScale());
+        long laborCost = centsOfProduct(
+                area.getUnscaledValue(), area.getScale(), 
+                laborCostPerSqFoot.getUnscaledValue(), 
+                laborCostPerSqFoot.getScale());
+        long totalCost = Math.addExact(materialCost, laborCost);
+        long tax = centsOfProduct(totalCost, CENTS_SCALE, 
+                taxMultiplier.getUnscaledValue(), taxMultiplier.getScale());
+        
+        pricesInCents[MATERIAL_COST] = materialCost;
+        pricesInCents[LABOR_COST] = laborCost;
+        pricesInCents[TAX] = tax;
+        pricesInCents[TOTAL] = Math.addExact(totalCost, tax);
+    }
+    
+    /**
+     * Sets the order's amounts from prices written by priceInCents.
+     * 
+     * @param order Order
+     * @param pricesInCents long[PRICE_COUNT]
+     */
+    static void setPrices(Order order, long[] pricesInCents) {
+        order.setMaterialCost(toBigDecimal(pricesInCents[MATERIAL_COST]));
+        order.setLaborCost(toBigDecimal(pricesInCents[LABOR_COST]));
+        order.setTax(toBigDecimal(pricesInCents[TAX]));
+        order.setTotal(toBigDecimal(pricesInCents[TOTAL]));
+    }
+    
+    /**
+     * Returns (a / 10^aScale) * (b / 10^bScale) in cents, rounded HALF_UP,
+     * without allocating.
+     *
+     * @param a unscaled value of the first factor
+     * @param aScale its scale
+     * @param b unscaled value of the second factor
+     * @param bScale its scale
+     * @return cents
+     * @throws ArithmeticException if the product overflows a long
+     */
+    static long centsOfProduct(long a, int aScale, long b, int bScale) {
+        return Quantity.unscaledProduct(a, aScale, b, bScale, CENTS_SCALE);
+    }
+    
+    /**
+     * Returns the amount in cents as a BigDecimal with 2 decimal places.
+     *
+     * @param cents long
+     * @return BigDecimal
+     */
+    static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+    
+    /**
+     * Sets the order's amounts with BigDecimal arithmetic, for areas, costs
+     * and rates with too many digits for priceInCents. The amounts are the
+     * same priceInCents gives whenever it can price them.
+     * 
+     * @param order Order
+     * @param area BigDecimal in square feet
+     * @param costPerSqFoot BigDecimal
+     * @param laborCostPerSqFoot BigDecimal
+     * @param taxRate BigDecimal percentage
+     */
+    static void setExactPrices(Order order, BigDecimal area, 
+            BigDecimal costPerSqFoot, BigDecimal laborCostPerSqFoot, 
+            BigDecimal taxRate) {
+        
+        BigDecimal taxMultiplier = taxRate.divide(new BigDecimal("100.00"), 
+                CENTS_SCALE, RoundingMode.HALF_UP);
+        BigDecimal materialCost = area.multiply(costPerSqFoot)
+                .setScale(CENTS_SCALE, RoundingMode.HALF_UP);
+        BigDecimal laborCost = area.multiply(laborCostPerSqFoot)
+                .setScale(CENTS_SCALE, RoundingMode.HALF_UP);
+        BigDecimal totalCost = materialCost.add(laborCost);
+        BigDecimal tax = totalCost.multiply(taxMultiplier)
+                .setScale(CENTS_SCALE, RoundingMode.HALF_UP);
+        
+        order.setMaterialCost(materialCost);
+        order.setLaborCost(laborCost);
+        order.setTax(tax);
+        order.setTotal(totalCost.add(tax));
+    }
+    
+}
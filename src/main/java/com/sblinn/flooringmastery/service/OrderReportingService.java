@@ -0,0 +1,30 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dao.PersistenceException;
+import java.time.LocalDate;
+
+/**
+ *
+ * @author sarablinn
+ */
+public interface OrderReportingService {
+    
+    // computed from the orders, in one pass over the dates in range
+    SalesReport getSalesReport(LocalDate fromDate, LocalDate toDate, 
+            ReportPeriod period) throws 
+            PersistenceException,
+            InvalidDataException;
+    
+    // from the running totals kept per date, without reading any orders once
+    // the totals have been built
+    SalesReport getRunningSalesReport(LocalDate fromDate, LocalDate toDate, 
+            ReportPeriod period) throws 
+            PersistenceException,
+            InvalidDataException;
+    
+    // the running totals follow every change the order DAO makes or sees;
+    // call this to pick up order files changed by others which the DAO has
+    // not read since
+    void rebuildRunningTotals() throws PersistenceException;
+    
+}
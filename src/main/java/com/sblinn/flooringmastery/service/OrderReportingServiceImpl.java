@@ -0,0 +1,309 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dao.OrderDao;
+import com.sblinn.flooringmastery.dao.PersistenceException;
+import com.sblinn.flooringmastery.dao.UncheckedPersistenceException;
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Totals orders by period, state and product.
+ *
+ * A SalesReport is computed in one streaming pass over the orders in range,
+ * read date by date from the OrderDao; with a reportParallelism above 1 the
+ * dates are totalled on that many threads and the partial totals merged.
+ *
+ * Running totals of each state and product on each date are also kept, built
+ * from every order the first time they are read, so running reports never
+ * read the orders. After that the OrderDao tells this service of every date
+ * whose orders change (see OrderChangeListener): each write through it, 
+ * whoever makes it, a replay of its journal, and a date it rereads because
+ * the order file was changed by another process or by OrderFileConverter. 
+ * The totals of that date are then recomputed from its orders. Each date's
+ * totals carry the tick of the totalsClock they were computed at, and a 
+ * rebuild leaves alone the dates recomputed since it started, so a change 
+ * racing the build is never lost.
+ *
+ * An order file changed by others is only counted once the OrderDao reads
+ * that date again, or after rebuildRunningTotals. getSalesReport always 
+ * reads the orders, and so always checks the order files in range.
+ *
+ * @author sarablinn
+ */
+public class OrderReportingServiceImpl implements OrderReportingService {
+
+    private final OrderDao orderDao;
+    // number of threads totalling dates for a SalesReport
+    private volatile int reportParallelism = 1;
+
+    // date -> totals of its states and products, null until first built
+    private volatile ConcurrentSkipListMap<LocalDate, DateTotals> 
+            runningTotals;
+    private volatile boolean isBuilt = false;
+    // ticks each time a date's totals are computed
+    private final AtomicLong totalsClock = new AtomicLong();
+    // one build of the running totals at a time
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+
+    public OrderReportingServiceImpl(OrderDao orderDao) {
+        this.orderDao = orderDao;
+        orderDao.addOrderChangeListener(this::ordersChanged);
+    }
+
+
+    /**
+     * Sets how many threads total the dates of a SalesReport; 1, the
+     * default, totals them on the calling thread.
+     *
+     * @param reportParallelism int
+     */
+    public void setReportParallelism(int reportParallelism) {
+        if (reportParallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Report parallelism must be at least 1.");
+        }
+        this.reportParallelism = reportParallelism;
+    }
+
+    /**
+     * Returns the totals of the orders dated fromDate through toDate,
+     * computed from the orders themselves.
+     *
+     * @param fromDate first LocalDate, inclusive
+     * @param toDate last LocalDate, inclusive
+     * @param period ReportPeriod the lines are totalled over
+     * @return SalesReport
+     * @throws PersistenceException
+     * @throws InvalidDataException if fromDate is after toDate
+     */
+    @Override
+    public SalesReport getSalesReport(LocalDate fromDate, LocalDate toDate,
+            ReportPeriod period) throws
+            PersistenceException,
+            InvalidDataException {
+
+        validateDates(fromDate, toDate);
+
+        return new SalesReport(fromDate, toDate, period,
+                totalOrders(orderDao.getOrdersBetween(fromDate, toDate),
+                        period));
+    }
+
+    /**
+     * Returns the totals of the orders dated fromDate through toDate from
+     * the running totals, building them first if they have not been.
+     *
+     * @param fromDate first LocalDate, inclusive
+     * @param toDate last LocalDate, inclusive
+     * @param period ReportPeriod the lines are totalled over
+     * @return SalesReport
+     * @throws PersistenceException if the running totals cannot be built
+     * @throws InvalidDataException if fromDate is after toDate
+     */
+    @Override
+    public SalesReport getRunningSalesReport(LocalDate fromDate,
+            LocalDate toDate, ReportPeriod period) throws
+            PersistenceException,
+            InvalidDataException {
+
+        validateDates(fromDate, toDate);
+
+        SortedMap<SalesReport.Key, OrderTotals> lines = new TreeMap<>();
+        for (DateTotals dateTotals : getRunningTotals()
+                .subMap(fromDate, true, toDate, true).values()) {
+            for (Map.Entry<SalesReport.Key, OrderTotals> dayLine
+                    : dateTotals.lines.entrySet()) {
+                lines.merge(dayLine.getKey().inPeriod(period),
+                        dayLine.getValue(), OrderTotals::plus);
+            }
+        }
+
+        return new SalesReport(fromDate, toDate, period, lines);
+    }
+
+    /**
+     * Recomputes the running totals from every order, picking up order 
+     * files changed by others which the OrderDao has not read since. Dates
+     * whose totals are recomputed from a change while it runs keep those.
+     *
+     * @throws PersistenceException
+     */
+    @Override
+    public void rebuildRunningTotals() throws PersistenceException {
+        buildLock.lock();
+        try {
+            ConcurrentSkipListMap<LocalDate, DateTotals> totals = 
+                    runningTotals;
+            if (totals == null) {
+                // published first, so changes during the build are kept
+                totals = new ConcurrentSkipListMap<>();
+                runningTotals = totals;
+            }
+            long buildTick = totalsClock.incrementAndGet();
+            
+            Map<LocalDate, SortedMap<SalesReport.Key, OrderTotals>> 
+                    linesByDate = new HashMap<>();
+            for (Map.Entry<SalesReport.Key, OrderTotals> dayLine 
+                    : totalOrders(orderDao.getOrdersBetween(LocalDate.MIN, 
+                            LocalDate.MAX), ReportPeriod.DAY).entrySet()) {
+                linesByDate.computeIfAbsent(dayLine.getKey().getPeriodStart(),
+                        (date) -> new TreeMap<>())
+                        .put(dayLine.getKey(), dayLine.getValue());
+            }
+            
+            Set<LocalDate> dates = new HashSet<>(totals.keySet());
+            dates.addAll(linesByDate.keySet());
+            for (LocalDate date : dates) {
+                SortedMap<SalesReport.Key, OrderTotals> lines = 
+                        linesByDate.get(date);
+                totals.compute(date, (key, current) -> {
+                    if (current != null && current.tick > buildTick) {
+                        return current;
+                    }
+                    return lines == null 
+                            ? null : new DateTotals(lines, buildTick);
+                });
+            }
+            isBuilt = true;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+
+    private ConcurrentSkipListMap<LocalDate, DateTotals> getRunningTotals() 
+            throws PersistenceException {
+
+        if (!isBuilt) {
+            buildLock.lock();
+            try {
+                if (!isBuilt) {
+                    rebuildRunningTotals();
+                }
+            } finally {
+                buildLock.unlock();
+            }
+        }
+        return runningTotals;
+    }
+    
+    /**
+     * Recomputes the running totals of a date from its orders, as the 
+     * OrderDao tells of each change. Before the totals are first built 
+     * there is nothing to update; the build counts the change.
+     * 
+     * @param orderDate LocalDate
+     * @param ordersOnDate Collection of every Order now on the date
+     */
+    private void ordersChanged(LocalDate orderDate, 
+            Collection<Order> ordersOnDate) {
+        
+        ConcurrentSkipListMap<LocalDate, DateTotals> totals = runningTotals;
+        if (totals == null) {
+            return;
+        }
+        SortedMap<SalesReport.Key, OrderTotals> lines = new TreeMap<>();
+        for (Order order : ordersOnDate) {
+            lines.merge(SalesReport.Key.of(order, ReportPeriod.DAY),
+                    OrderTotals.of(order), OrderTotals::plus);
+        }
+        // kept even with no lines, so a build in progress does not bring 
+        // back the date's old totals
+        totals.compute(orderDate, (date, current) -> 
+                new DateTotals(lines, totalsClock.incrementAndGet()));
+    }
+
+    /**
+     * Totals the orders by period, state and product in one pass, on up to
+     * reportParallelism threads.
+     *
+     * @param orders Stream of Orders
+     * @param period ReportPeriod
+     * @return SortedMap of Keys to OrderTotals
+     * @throws PersistenceException if the orders could not be read
+     */
+    private SortedMap<SalesReport.Key, OrderTotals> totalOrders(
+            Stream<Order> orders, ReportPeriod period)
+            throws PersistenceException {
+
+        Collector<Order, ?, TreeMap<SalesReport.Key, OrderTotals>> byLine =
+                Collectors.toMap((order) -> SalesReport.Key.of(order, period),
+                        OrderTotals::of, OrderTotals::plus, TreeMap::new);
+
+        try {
+            if (reportParallelism <= 1) {
+                return orders.collect(byLine);
+            }
+
+            // a parallel stream runs in the pool it is collected from, so
+            // the dates are split across this pool's threads
+            ForkJoinPool reportPool = new ForkJoinPool(reportParallelism);
+            try {
+                return reportPool.submit(
+                        () -> orders.parallel().collect(byLine)).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedPersistenceException) {
+                    throw (UncheckedPersistenceException) e.getCause();
+                }
+                throw new PersistenceException(
+                        "Unable to total the orders.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException(
+                        "Interrupted while totalling the orders.", e);
+            } finally {
+                reportPool.shutdownNow();
+            }
+        } catch (UncheckedPersistenceException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void validateDates(LocalDate fromDate, LocalDate toDate)
+            throws InvalidDataException {
+
+        if (fromDate == null || toDate == null) {
+            throw new InvalidDataException(
+                    "Error: Report dates cannot be blank.");
+        }
+        if (fromDate.isAfter(toDate)) {
+            throw new InvalidDataException(
+                    "Error: Report start date must not be after its end date.");
+        }
+    }
+
+
+    /**
+     * The running totals of one date's states and products, with the tick
+     * of the totalsClock they were computed at.
+     */
+    private static final class DateTotals {
+
+        private final SortedMap<SalesReport.Key, OrderTotals> lines;
+        private final long tick;
+
+        private DateTotals(SortedMap<SalesReport.Key, OrderTotals> lines,
+                long tick) {
+            this.lines = lines;
+            this.tick = tick;
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * The number of orders and the sums of their material cost, labor cost, tax 
+ * and total (the revenue). OrderTotals are immutable; adding or taking away
+ * orders returns new totals.
+ *
+ * @author sarablinn
+ */
+public final class OrderTotals {
+    
+    public static final OrderTotals NONE = new OrderTotals(0, BigDecimal.ZERO,
+            BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    
+    private final long orderCount;
+    private final BigDecimal materialCost;
+    private final BigDecimal laborCost;
+    private final BigDecimal tax;
+    private final BigDecimal total;
+    
+    
+    private OrderTotals(long orderCount, BigDecimal materialCost, 
+            BigDecimal laborCost, BigDecimal tax, BigDecimal total) {
+        
+        this.orderCount = orderCount;
+        this.materialCost = materialCost;
+        this.laborCost = laborCost;
+        this.tax = tax;
+        this.total = total;
+    }
+    
+    /**
+     * Returns the totals of a single order.
+     * 
+     * @param order Order
+     * @return OrderTotals
+     */
+    public static OrderTotals of(Order order) {
+        return new OrderTotals(1, order.getMaterialCost(), 
+                order.getLaborCost(), order.getTax(), order.getTotal());
+    }
+    
+    
+    public OrderTotals plus(OrderTotals other) {
+        return new OrderTotals(orderCount + other.orderCount, 
+                materialCost.add(other.materialCost), 
+                laborCost.add(other.laborCost), 
+                tax.add(other.tax), 
+                total.add(other.total));
+    }
+    
+    public OrderTotals minus(OrderTotals other) {
+        return new OrderTotals(orderCount - other.orderCount, 
+                materialCost.subtract(other.materialCost), 
+                laborCost.subtract(other.laborCost), 
+                tax.subtract(other.tax), 
+                total.subtract(other.total));
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getMaterialCost() {
+        return materialCost;
+    }
+
+    public BigDecimal getLaborCost() {
+        return laborCost;
+    }
+
+    public BigDecimal getTax() {
+        return tax;
+    }
+
+    /**
+     * Returns the sum of the orders' totals, the revenue.
+     * 
+     * @return BigDecimal
+     */
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    /**
+     * Totals are equal if their amounts are, whatever their scale.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OrderTotals)) {
+            return false;
+        }
+        final OrderTotals other = (OrderTotals) obj;
+        return orderCount == other.orderCount
+                && materialCost.compareTo(other.materialCost) == 0
+                && laborCost.compareTo(other.laborCost) == 0
+                && tax.compareTo(other.tax) == 0
+                && total.compareTo(other.total) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderCount, materialCost.stripTrailingZeros(),
+                laborCost.stripTrailingZeros(), tax.stripTrailingZeros(),
+                total.stripTrailingZeros());
+    }
+
+    @Override
+    public String toString() {
+        return "OrderTotals{" + "orderCount=" + orderCount 
+                + ", materialCost=" + materialCost 
+                + ", laborCost=" + laborCost + ", tax=" + tax 
+                + ", total=" + total + '}';
+    }
+    
+}
@@ -0,0 +1,224 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.Quantity;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The pricing rates of every product and state, built once from one version
+ * of the products and the tax info, so pricing an order is an index lookup
+ * and a few long multiplications.
+ *
+ * Each product's material and labor cost per square foot and each state's
+ * tax multiplier are kept in fixed point, in arrays indexed by product and
+ * by state. The tax multiplier depends only on the state, so the rates of a
+ * product/state pair are one entry of each array rather than a cell of a
+ * product by state matrix.
+ *
+ * A PricingTable is immutable; FlooringServiceImpl replaces its table with
+ * a new one when either version changes.
+ *
+ * @author sarablinn
+ */
+final class PricingTable {
+
+    private final long productVersion;
+    private final long taxInfoVersion;
+
+    private final HashMap<String, Integer> productIndexes = new HashMap<>();
+    private final Product[] products;
+    private final BigDecimal[] costsPerSqFoot;
+    private final BigDecimal[] laborCostsPerSqFoot;
+    private final Quantity[] materialRates;
+    private final Quantity[] laborRates;
+
+    // keyed by the uppercase state abbreviation
+    private final HashMap<String, Integer> stateIndexes = new HashMap<>();
+    private final TaxInfo[] taxInfos;
+    private final BigDecimal[] taxRates;
+    private final Quantity[] taxMultipliers;
+
+
+    /**
+     * Builds the table from the products and tax info read at the given
+     * versions.
+     *
+     * @param productVersion long from ProductDao.getDataVersion
+     * @param products List of Products
+     * @param taxInfoVersion long from TaxInfoDao.getDataVersion
+     * @param taxInfoList List of TaxInfo
+     */
+    PricingTable(long productVersion, List<Product> products,
+            long taxInfoVersion, List<TaxInfo> taxInfoList) {
+
+        this.productVersion = productVersion;
+        this.taxInfoVersion = taxInfoVersion;
+
+        int productCount = products.size();
+        this.products = new Product[productCount];
+        costsPerSqFoot = new BigDecimal[productCount];
+        laborCostsPerSqFoot = new BigDecimal[productCount];
+        materialRates = new Quantity[productCount];
+        laborRates = new Quantity[productCount];
+        for (int i = 0; i < productCount; i++) {
+            Product product = products.get(i);
+            this.products[i] = product;
+            costsPerSqFoot[i] = product.getCostPerSqFoot();
+            laborCostsPerSqFoot[i] = product.getLaborCostPerSqFoot();
+            try {
+                materialRates[i] = Quantity.of(costsPerSqFoot[i]);
+                laborRates[i] = Quantity.of(laborCostsPerSqFoot[i]);
+            } catch (ArithmeticException e) {
+                continue; // left out, its orders are priced without the table
+            }
+            productIndexes.put(product.getProductType(), i);
+        }
+
+        int stateCount = taxInfoList.size();
+        taxInfos = new TaxInfo[stateCount];
+        taxRates = new BigDecimal[stateCount];
+        taxMultipliers = new Quantity[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            TaxInfo taxInfo = taxInfoList.get(i);
+            stateIndexes.put(taxInfo.getStateAbbr().toUpperCase(), i);
+            taxInfos[i] = taxInfo;
+            taxRates[i] = taxInfo.getTaxRate();
+            try {
+                taxMultipliers[i] = OrderPricing.taxMultiplier(taxRates[i]);
+            } catch (ArithmeticException e) {
+                // left null, orders in the state are priced without the table
+            }
+        }
+    }
+
+
+    /**
+     * Returns true if the table was built from these versions of the
+     * products and tax info.
+     *
+     * @param productVersion long
+     * @param taxInfoVersion long
+     * @return boolean
+     */
+    boolean isBuiltFrom(long productVersion, long taxInfoVersion) {
+        return this.productVersion == productVersion
+                && this.taxInfoVersion == taxInfoVersion;
+    }
+
+    /**
+     * Returns the index of the product if the table has a product of its
+     * type with the same costs, else -1. Products whose costs have too many
+     * digits to price in fixed point are never in the table.
+     *
+     * @param product Product
+     * @return int index or -1
+     */
+    int indexOfProduct(Product product) {
+        Integer index = productIndexes.get(product.getProductType());
+        if (index == null
+                || costsPerSqFoot[index]
+                        .compareTo(product.getCostPerSqFoot()) != 0
+                || laborCostsPerSqFoot[index]
+                        .compareTo(product.getLaborCostPerSqFoot()) != 0) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the product type, or -1 if the table has no 
+     * product of that type it can price.
+     *
+     * @param productType String
+     * @return int index or -1
+     */
+    int indexOfProductType(String productType) {
+        Integer index = productIndexes.get(productType);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns a copy of the Product at productIndex, so the orders it is set
+     * on never share an instance with the table or with each other.
+     *
+     * @param productIndex int from indexOfProduct or indexOfProductType
+     * @return Product
+     */
+    Product getProduct(int productIndex) {
+        Product product = products[productIndex];
+        return new Product(product.getProductType(), 
+                product.getCostPerSqFoot(), product.getLaborCostPerSqFoot());
+    }
+
+    /**
+     * Returns the index of the state, in any case, or -1 if the table has
+     * no tax info for it.
+     *
+     * @param stateAbbr String
+     * @return int index or -1
+     */
+    int indexOfState(String stateAbbr) {
+        Integer index = stateIndexes.get(stateAbbr.toUpperCase());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns a copy of the TaxInfo of the state at stateIndex, so the 
+     * orders it is set on never share an instance with the table or with 
+     * each other.
+     *
+     * @param stateIndex int from indexOfState
+     * @return TaxInfo
+     */
+    TaxInfo getTaxInfo(int stateIndex) {
+        TaxInfo taxInfo = taxInfos[stateIndex];
+        return new TaxInfo(taxInfo.getStateAbbr(), taxInfo.getStateName(), 
+                taxInfo.getTaxRate());
+    }
+
+    /**
+     * Returns true if orders in the state at stateIndex can be priced from
+     * the table, which they can unless its tax rate has too many digits.
+     *
+     * @param stateIndex int from indexOfState
+     * @return boolean
+     */
+    boolean canPriceState(int stateIndex) {
+        return taxMultipliers[stateIndex] != null;
+    }
+
+    /**
+     * Returns true if the state at stateIndex has this tax rate and it can
+     * be priced from the table.
+     *
+     * @param stateIndex int from indexOfState
+     * @param taxRate BigDecimal
+     * @return boolean
+     */
+    boolean hasTaxRate(int stateIndex, BigDecimal taxRate) {
+        return canPriceState(stateIndex)
+                && taxRates[stateIndex].compareTo(taxRate) == 0;
+    }
+
+    /**
+     * Writes the prices of an order of area square feet of the product in
+     * the state to pricesInCents, as OrderPricing.priceInCents does.
+     *
+     * @param productIndex int from indexOfProduct or indexOfProductType
+     * @param stateIndex int from indexOfState, of a state canPriceState
+     * @param area Quantity in square feet
+     * @param pricesInCents long[OrderPricing.PRICE_COUNT]
+     * @throws ArithmeticException if an amount overflows a long
+     */
+    void priceInCents(int productIndex, int stateIndex, Quantity area,
+            long[] pricesInCents) {
+
+        OrderPricing.priceInCents(area, materialRates[productIndex],
+                laborRates[productIndex], taxMultipliers[stateIndex],
+                pricesInCents);
+    }
+
+}
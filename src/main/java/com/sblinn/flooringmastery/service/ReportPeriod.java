@@ -0,0 +1,26 @@
+package com.sblinn.flooringmastery.service;
+
+import java.time.LocalDate;
+
+/**
+ * The period a SalesReport totals orders over.
+ *
+ * @author sarablinn
+ */
+public enum ReportPeriod {
+    
+    DAY,
+    MONTH;
+    
+    
+    /**
+     * Returns the first day of the period the date falls in.
+     * 
+     * @param date LocalDate
+     * @return LocalDate
+     */
+    public LocalDate startOf(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+    
+}
@@ -0,0 +1,81 @@
+package com.sblinn.flooringmastery.service;
+
+/**
+ * The outcome of repricing the future orders of a state or product: how many
+ * orders were found, how many were saved with new prices and how many of
+ * those have a new total, and how many could not be priced from the current
+ * products and tax info and were left as they were.
+ *
+ * @author sarablinn
+ */
+public class RepricingReport {
+
+    private int foundCount;
+    private int dateCount;
+    private int repricedCount;
+    private int changedTotalCount;
+    private int skippedCount;
+
+
+    public int getFoundCount() {
+        return foundCount;
+    }
+
+    /**
+     * Returns the number of dates the found orders fall on; each date with
+     * repriced orders is saved once.
+     *
+     * @return int
+     */
+    public int getDateCount() {
+        return dateCount;
+    }
+
+    /**
+     * Returns the number of orders saved because their product, tax info or
+     * any amount changed.
+     *
+     * @return int
+     */
+    public int getRepricedCount() {
+        return repricedCount;
+    }
+
+    public int getChangedTotalCount() {
+        return changedTotalCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+
+    void setFound(int foundCount, int dateCount) {
+        this.foundCount = foundCount;
+        this.dateCount = dateCount;
+    }
+
+    void addRepriced(int repricedCount, int changedTotalCount,
+            int skippedCount) {
+        this.repricedCount += repricedCount;
+        this.changedTotalCount += changedTotalCount;
+        this.skippedCount += skippedCount;
+    }
+
+
+    /**
+     * Told each time the orders of a date have been repriced and saved. It
+     * may be called from several threads at once.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * @param repricedDateCount dates done so far
+         * @param dateCount dates to do in all
+         */
+        void datesRepriced(int repricedDateCount, int dateCount);
+
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Order totals from fromDate through toDate, broken down by period (day or 
+ * month), state and product. Each line of the report is the totals of one 
+ * state and product in one period; the other totals are sums of the lines.
+ *
+ * @author sarablinn
+ */
+public class SalesReport {
+    
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final ReportPeriod period;
+    private final SortedMap<Key, OrderTotals> lines;
+    
+    
+    public SalesReport(LocalDate fromDate, LocalDate toDate, 
+            ReportPeriod period, SortedMap<Key, OrderTotals> lines) {
+        
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.period = period;
+        this.lines = Collections.unmodifiableSortedMap(lines);
+    }
+    
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public ReportPeriod getPeriod() {
+        return period;
+    }
+    
+    /**
+     * Returns the totals of each state and product in each period, sorted by
+     * period, then state, then product. Combinations without orders are left
+     * out.
+     * 
+     * @return SortedMap of Keys to OrderTotals
+     */
+    public SortedMap<Key, OrderTotals> getLines() {
+        return lines;
+    }
+    
+    /**
+     * Returns the totals of all the orders in the report.
+     * 
+     * @return OrderTotals
+     */
+    public OrderTotals getTotals() {
+        OrderTotals totals = OrderTotals.NONE;
+        for (OrderTotals lineTotals : lines.values()) {
+            totals = totals.plus(lineTotals);
+        }
+        return totals;
+    }
+    
+    /**
+     * Returns the totals of each period, by the first day of the period.
+     * 
+     * @return SortedMap of LocalDates to OrderTotals
+     */
+    public SortedMap<LocalDate, OrderTotals> getTotalsByPeriod() {
+        return sumLinesBy(Key::getPeriodStart);
+    }
+    
+    /**
+     * Returns the totals of each state, by state abbreviation.
+     * 
+     * @return SortedMap of state abbreviations to OrderTotals
+     */
+    public SortedMap<String, OrderTotals> getTotalsByState() {
+        return sumLinesBy(Key::getStateAbbr);
+    }
+    
+    /**
+     * Returns the totals of each product, by product type.
+     * 
+     * @return SortedMap of product types to OrderTotals
+     */
+    public SortedMap<String, OrderTotals> getTotalsByProduct() {
+        return sumLinesBy(Key::getProductType);
+    }
+    
+    
+    private <T extends Comparable<? super T>> SortedMap<T, OrderTotals> 
+            sumLinesBy(Function<Key, T> groupOf) {
+        
+        SortedMap<T, OrderTotals> totals = new TreeMap<>();
+        for (Map.Entry<Key, OrderTotals> line : lines.entrySet()) {
+            totals.merge(groupOf.apply(line.getKey()), line.getValue(), 
+                    OrderTotals::plus);
+        }
+        return Collections.unmodifiableSortedMap(totals);
+    }
+    
+    
+    /**
+     * The period, state and product of a line of a SalesReport.
+     */
+    public static final class Key implements Comparable<Key> {
+        
+        private static final Comparator<Key> ORDER = Comparator
+                .comparing(Key::getPeriodStart)
+                .thenComparing(Key::getStateAbbr)
+                .thenComparing(Key::getProductType);
+        
+        private final LocalDate periodStart;
+        private final String stateAbbr;
+        private final String productType;
+        
+        
+        public Key(LocalDate periodStart, String stateAbbr, 
+                String productType) {
+            
+            this.periodStart = periodStart;
+            this.stateAbbr = stateAbbr;
+            this.productType = productType;
+        }
+        
+        /**
+         * Returns the key of the line an order is totalled in.
+         * 
+         * @param order Order
+         * @param period ReportPeriod
+         * @return Key
+         */
+        public static Key of(Order order, ReportPeriod period) {
+            return new Key(period.startOf(order.getOrderDate()), 
+                    order.getTaxInfo().getStateAbbr(), 
+                    order.getProduct().getProductType());
+        }
+        
+        
+        /**
+         * Returns the same state and product in the period the date of this
+         * key falls in.
+         * 
+         * @param period ReportPeriod
+         * @return Key
+         */
+        public Key inPeriod(ReportPeriod period) {
+            LocalDate start = period.startOf(periodStart);
+            return start.equals(periodStart) 
+                    ? this : new Key(start, stateAbbr, productType);
+        }
+
+        /**
+         * Returns the first day of the period.
+         * 
+         * @return LocalDate
+         */
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+
+        public String getStateAbbr() {
+            return stateAbbr;
+        }
+
+        public String getProductType() {
+            return productType;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return periodStart.equals(other.periodStart)
+                    && stateAbbr.equals(other.stateAbbr)
+                    && productType.equals(other.productType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(periodStart, stateAbbr, productType);
+        }
+
+        @Override
+        public String toString() {
+            return periodStart + " " + stateAbbr + " " + productType;
+        }
+        
+    }
+    
+}
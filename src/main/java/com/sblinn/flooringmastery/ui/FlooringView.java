@@ -30,9 +30,10 @@ public class FlooringView {
         io.print("3. Edit an Order");
         io.print("4. Remove an Order");
         io.print("5. Export All Data");
-        io.print("6. Quit");
+        io.print("6. Search Orders by Customer");
+        io.print("7. Quit");
         
-        return io.readInt("Please select from the above options.", 1, 6);
+        return io.readInt("Please select from the above options.", 1, 7);
     }
  
     public void displayOrdersList(List<Order> ordersList) {
@@ -279,6 +280,17 @@ public class FlooringView {
         return customerName;
     }
     
+    /**
+     * Returns the user input customer name, or the beginning of one, to 
+     * search for.
+     * 
+     * @return String
+     */
+    public String getInputCustomerNameQuery() {
+        return io.readString("Enter customer name, or the start of one:")
+                .trim();
+    }
+    
     /**
      * Returns user input customer name from console--allows empty string.
      * 
@@ -403,6 +415,11 @@ public class FlooringView {
                 + " ===");
     }
     
+    public void displayCustomerOrdersBanner(String customerNameQuery) {
+        io.print("=== ALL ORDERS FOR CUSTOMER " 
+                + customerNameQuery.toUpperCase() + " ===");
+    }
+    
     public void displayUpdateOrderBanner() {
         io.print("=== UPDATE ORDER ===");
     }
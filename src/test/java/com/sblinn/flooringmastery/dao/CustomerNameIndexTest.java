@@ -0,0 +1,91 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class CustomerNameIndexTest {
+
+    private final LocalDate orderDate = LocalDate.of(2022, 6, 22);
+
+
+    @Test
+    public void testNormalize() {
+        assertEquals("joe, inc.", CustomerNameIndex.normalize("  Joe,  INC. "));
+        assertEquals("", CustomerNameIndex.normalize(" \t "));
+    }
+
+    @Test
+    public void testPrefixSearchAndRemoval() {
+        CustomerNameIndex customerNameIndex = new CustomerNameIndex();
+        Order joe = new Order(orderDate, 1);
+        joe.setCustomerName("Joe");
+        customerNameIndex.put(joe);
+        Order joey = new Order(orderDate, 2);
+        joey.setCustomerName("Joey");
+        customerNameIndex.put(joey);
+        Order joan = new Order(orderDate.plusDays(1), 3);
+        joan.setCustomerName("Joan");
+        customerNameIndex.put(joan);
+        Order target = new Order(orderDate, 4);
+        target.setCustomerName("Target");
+        customerNameIndex.put(target);
+
+        assertEquals(List.of("joan", "joe", "joey"),
+                customerNameIndex.findCustomerNames("jo", 10));
+        assertEquals(List.of("joan", "joe"),
+                customerNameIndex.findCustomerNames("JO", 2));
+        assertEquals(Map.of(1, orderDate, 2, orderDate),
+                customerNameIndex.findOrders("joe"));
+        assertEquals(4, customerNameIndex.size());
+
+        // removing joe keeps joey, which goes through the same nodes
+        customerNameIndex.remove(orderDate, 1);
+        assertEquals(List.of("joan", "joey"),
+                customerNameIndex.findCustomerNames("jo", 10));
+        assertEquals(Map.of(2, orderDate), customerNameIndex.findOrders("joe"));
+
+        // an order renamed on the same date replaces its old entry
+        Order ada = new Order(orderDate, 2);
+        ada.setCustomerName("Ada");
+        customerNameIndex.put(ada);
+        assertTrue(customerNameIndex.findOrders("joe").isEmpty());
+        assertEquals(List.of("joan"),
+                customerNameIndex.findCustomerNames("jo", 10));
+
+        // a reread date replaces all of that date's entries
+        Order joeAgain = new Order(orderDate, 5);
+        joeAgain.setCustomerName("Joe");
+        customerNameIndex.replaceOrdersOnDate(orderDate, List.of(joeAgain));
+        assertEquals(List.of("joan", "joe"),
+                customerNameIndex.findCustomerNames("", 10));
+        customerNameIndex.replaceOrdersOnDate(orderDate, null);
+        assertFalse(customerNameIndex.containsDate(orderDate));
+        assertEquals(1, customerNameIndex.size());
+    }
+
+    @Test
+    public void testSearchEmptyIndex() {
+        CustomerNameIndex customerNameIndex = new CustomerNameIndex();
+        assertTrue(customerNameIndex.findOrders("").isEmpty());
+        assertTrue(customerNameIndex.findOrders("  ").isEmpty());
+        assertTrue(customerNameIndex.findCustomerNames("", 10).isEmpty());
+
+        // emptied again after its last order is removed
+        Order joe = new Order(orderDate, 1);
+        joe.setCustomerName("Joe");
+        customerNameIndex.put(joe);
+        assertEquals(Map.of(1, orderDate), customerNameIndex.findOrders(""));
+        customerNameIndex.remove(orderDate, 1);
+        assertTrue(customerNameIndex.findOrders("").isEmpty());
+        assertTrue(customerNameIndex.findOrders("joe").isEmpty());
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class GroupCommitOrderDaoTest {
+
+    private final String TEST_ORDERS_DIR;
+    private OrderDaoFileImpl orderDao;
+    private GroupCommitOrderDao testOrderDao;
+
+
+    public GroupCommitOrderDaoTest() {
+        ApplicationContext appContext
+                = new ClassPathXmlApplicationContext("testApplicationContext.xml");
+        TEST_ORDERS_DIR = appContext.getBean("testOrdersDir", String.class);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // start each test with no orders
+        File ordersDir = new File(TEST_ORDERS_DIR);
+        for (File orderFile : ordersDir.listFiles()) {
+            orderFile.delete();
+        }
+
+        orderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        orderDao.setJournalCompactionInterval(0);
+        orderDao.setJournaling(true);
+        // wait up to 5ms for each batch to fill
+        testOrderDao = new GroupCommitOrderDao(orderDao, 64, 5);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        testOrderDao.close();
+        orderDao.close();
+        for (File orderFile : new File(TEST_ORDERS_DIR).listFiles()) {
+            orderFile.delete();
+        }
+    }
+
+
+    @Test
+    public void testConcurrentCreatesAreCommittedInBatches() throws Exception {
+        LocalDate firstDate = LocalDate.of(2022, 6, 22);
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California",
+                new BigDecimal("25.00"));
+        int threads = 8;
+        int ordersPerThread = 25;
+
+        ExecutorService clerks = Executors.newFixedThreadPool(threads);
+        List<Future<List<Order>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int firstOrderNumber = t * ordersPerThread + 1;
+            results.add(clerks.submit(() -> {
+                List<Order> created = new ArrayList<>();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    int orderNumber = firstOrderNumber + i;
+                    Order testOrder = new Order(
+                            firstDate.plusDays(orderNumber % 3), orderNumber);
+                    testOrder.setCustomerName("Joe, Inc.");
+                    testOrder.setProduct(product);
+                    testOrder.setTaxInfo(taxInfo);
+                    testOrder.setArea(new BigDecimal("249.00"));
+                    testOrder.setMaterialCost(new BigDecimal("871.50"));
+                    testOrder.setLaborCost(new BigDecimal("1033.35"));
+                    testOrder.setTax(new BigDecimal("476.21"));
+                    testOrder.setTotal(new BigDecimal("2381.06"));
+                    created.add(testOrderDao.createOrder(testOrder));
+                }
+                return created;
+            }));
+        }
+        clerks.shutdown();
+
+        for (Future<List<Order>> result : results) {
+            for (Order created : result.get()) {
+                assertNotNull(created, "Every order number is new.");
+            }
+        }
+
+        assertEquals(threads * ordersPerThread,
+                testOrderDao.getCommittedMutationCount());
+        assertTrue(testOrderDao.getCommittedBatchCount()
+                < threads * ordersPerThread,
+                "Concurrent creates should share batches.");
+
+        // a DAO reading the order files after compaction sees every order
+        orderDao.compactJournal();
+        assertEquals(threads * ordersPerThread,
+                new OrderDaoFileImpl(TEST_ORDERS_DIR).getAllOrders().size());
+    }
+
+    @Test
+    public void testFuturesCompleteWithEachMutationsResult() throws Exception {
+        LocalDate orderDate = LocalDate.of(2022, 6, 22);
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California",
+                new BigDecimal("25.00"));
+        
+        Order firstOrder = new Order(orderDate, 1);
+        firstOrder.setCustomerName("Joe, Inc.");
+        firstOrder.setProduct(product);
+        firstOrder.setTaxInfo(taxInfo);
+        firstOrder.setArea(new BigDecimal("249.00"));
+        firstOrder.setMaterialCost(new BigDecimal("871.50"));
+        firstOrder.setLaborCost(new BigDecimal("1033.35"));
+        firstOrder.setTax(new BigDecimal("476.21"));
+        firstOrder.setTotal(new BigDecimal("2381.06"));
+        
+        Order secondOrder = new Order(orderDate, 2);
+        secondOrder.setCustomerName("Joe, Inc.");
+        secondOrder.setProduct(product);
+        secondOrder.setTaxInfo(taxInfo);
+        secondOrder.setArea(new BigDecimal("100.00"));
+        secondOrder.setMaterialCost(new BigDecimal("350.00"));
+        secondOrder.setLaborCost(new BigDecimal("415.00"));
+        secondOrder.setTax(new BigDecimal("191.25"));
+        secondOrder.setTotal(new BigDecimal("956.25"));
+
+        CompletableFuture<Order> firstCreate =
+                testOrderDao.submitCreateOrder(firstOrder);
+        CompletableFuture<Order> secondCreate =
+                testOrderDao.submitCreateOrder(secondOrder);
+        assertEquals(firstOrder, firstCreate.get());
+        assertEquals(secondOrder, secondCreate.get());
+
+        Order updatedOrder = new Order(orderDate, 1);
+        updatedOrder.setCustomerName("Ada Lovelace");
+        updatedOrder.setProduct(product);
+        updatedOrder.setTaxInfo(taxInfo);
+        updatedOrder.setArea(new BigDecimal("249.00"));
+        updatedOrder.setMaterialCost(new BigDecimal("871.50"));
+        updatedOrder.setLaborCost(new BigDecimal("1033.35"));
+        updatedOrder.setTax(new BigDecimal("476.21"));
+        updatedOrder.setTotal(new BigDecimal("2381.06"));
+        CompletableFuture<Order> update =
+                testOrderDao.submitUpdateOrder(updatedOrder);
+        CompletableFuture<Order> delete =
+                testOrderDao.submitDeleteOrder(orderDate, 2);
+        CompletableFuture<Order> missingDelete =
+                testOrderDao.submitDeleteOrder(orderDate, 3);
+
+        assertEquals(firstOrder, update.get());
+        assertEquals(secondOrder, delete.get());
+        assertNull(missingDelete.get());
+
+        assertEquals("Ada Lovelace",
+                testOrderDao.getOrder(orderDate, 1).getCustomerName());
+        assertEquals(1, testOrderDao.getAllOrdersOnDate(orderDate).size());
+
+        // once closed, mutations are refused
+        testOrderDao.close();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> testOrderDao.submitDeleteOrder(orderDate, 1).get());
+        assertTrue(e.getCause() instanceof PersistenceException);
+        assertThrows(PersistenceException.class,
+                () -> testOrderDao.deleteOrder(orderDate, 1));
+    }
+
+    @Test
+    public void testMutationsOfMissingOrdersWriteNothing() throws Exception {
+        LocalDate orderDate = LocalDate.of(2022, 6, 22);
+        Order testOrder = new Order(orderDate, 1);
+        testOrder.setCustomerName("Joe, Inc.");
+        testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        testOrder.setTaxInfo(new TaxInfo("CA", "California",
+                new BigDecimal("25.00")));
+        testOrder.setArea(new BigDecimal("249.00"));
+        testOrder.setMaterialCost(new BigDecimal("871.50"));
+        testOrder.setLaborCost(new BigDecimal("1033.35"));
+        testOrder.setTax(new BigDecimal("476.21"));
+        testOrder.setTotal(new BigDecimal("2381.06"));
+        testOrderDao.createOrder(testOrder);
+        File journalFile = new File(TEST_ORDERS_DIR, "OrderJournal.log");
+        long journalLength = journalFile.length();
+        long committedMutations = testOrderDao.getCommittedMutationCount();
+
+        // not queued at all; only the date and number of a missing order
+        // are looked at
+        assertNull(testOrderDao.updateOrder(new Order(orderDate, 2)));
+        assertNull(testOrderDao.deleteOrder(orderDate, 2));
+        assertEquals(committedMutations,
+                testOrderDao.getCommittedMutationCount());
+
+        // queued, then skipped when their order is gone by the commit
+        assertNull(testOrderDao.submitUpdateOrder(
+                new Order(orderDate, 3)).get());
+        assertNotNull(testOrderDao.submitDeleteOrder(orderDate, 1).get());
+        long lengthAfterDelete = journalFile.length();
+        assertTrue(lengthAfterDelete > journalLength);
+        assertNull(testOrderDao.submitUpdateOrder(testOrder).get());
+        assertNull(testOrderDao.submitDeleteOrder(orderDate, 1).get());
+
+        assertEquals(lengthAfterDelete, journalFile.length(),
+                "Skipped mutations should not be journaled.");
+        assertNull(testOrderDao.getOrder(1));
+        assertNull(testOrderDao.getOrder(3));
+        orderDao.compactJournal();
+        assertTrue(new OrderDaoFileImpl(TEST_ORDERS_DIR).getAllOrders()
+                .isEmpty());
+    }
+
+}
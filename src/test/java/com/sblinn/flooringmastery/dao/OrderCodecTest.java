@@ -0,0 +1,206 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import com.sblinn.flooringmastery.dto.UsState;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderCodecTest {
+
+    private static final String[] STATE_ABBRS = {"AL", "AK", "AZ", "AR", "CA",
+        "CO", "CT", "DE", "FL", "GA", "HI", "ID", "IL", "IN", "IA", "KS", "KY",
+        "LA", "ME", "MD", "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH",
+        "NJ", "NM", "NY", "NC", "ND", "OH", "OK", "OR", "PA", "RI", "SC", "SD",
+        "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"};
+    private static final String[] PRODUCT_TYPES =
+        {"Carpet", "Laminate", "Tile", "Wood"};
+    // characters a customer name may contain
+    private static final String NAME_CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789,. ";
+
+    private OrderCodec orderCodec = new OrderCodec();
+
+
+    @Test
+    public void testDecodeOrderFromText() throws Exception {
+        Order order = orderCodec.decode("1,'Joe, Inc.',CA,25.00,Tile,249.00,"
+                + "3.50,4.15,871.50,1033.35,476.21,2381.06,06-22-2022");
+
+        assertEquals(LocalDate.of(2022, 6, 22), order.getOrderDate());
+        assertEquals(1, order.getOrderNumber());
+        assertEquals("Joe, Inc.", order.getCustomerName());
+        assertEquals("CA", order.getTaxInfo().getStateAbbr());
+        assertEquals("California", order.getTaxInfo().getStateName());
+        assertEquals(new BigDecimal("25.00"), order.getTaxInfo().getTaxRate());
+        assertEquals(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")), order.getProduct());
+        assertEquals(new BigDecimal("249.00"), order.getArea());
+        assertEquals(new BigDecimal("871.50"), order.getMaterialCost());
+        assertEquals(new BigDecimal("1033.35"), order.getLaborCost());
+        assertEquals(new BigDecimal("476.21"), order.getTax());
+        assertEquals(new BigDecimal("2381.06"), order.getTotal());
+    }
+
+    @Test
+    public void testDecodeUnquotedCustomerName() throws Exception {
+        LocalDate orderDate = LocalDate.of(2013, 6, 1);
+        Order order = orderCodec.decode("1,Ada Lovelace,CA,25.00,Tile,249.00,"
+                + "3.50,4.15,871.50,1033.35,476.21,2381.06", orderDate);
+
+        assertEquals(orderDate, order.getOrderDate());
+        assertEquals("Ada Lovelace", order.getCustomerName());
+        assertEquals(new BigDecimal("2381.06"), order.getTotal());
+    }
+
+    @Test
+    public void testDecodedOrdersShareProductsAndTaxInfo() throws Exception {
+        LocalDate orderDate = LocalDate.of(2013, 6, 1);
+        Order first = orderCodec.decode("1,Ada Lovelace,CA,25.00,Tile,249.00,"
+                + "3.50,4.15,871.50,1033.35,476.21,2381.06", orderDate);
+        Order second = orderCodec.decode("2,Joe,CA,25.00,Tile,100.00,"
+                + "3.50,4.15,350.00,415.00,191.25,956.25", orderDate);
+        assertSame(first.getTaxInfo(), second.getTaxInfo());
+        assertSame(first.getProduct(), second.getProduct());
+
+        // a different rate or cost, even only in scale, is not shared
+        Order other = orderCodec.decode("3,Joe,CA,25.0,Tile,100.00,"
+                + "3.5,4.15,350.00,415.00,191.25,956.25", orderDate);
+        assertNotSame(first.getTaxInfo(), other.getTaxInfo());
+        assertNotSame(first.getProduct(), other.getProduct());
+        assertEquals(new BigDecimal("3.5"), 
+                other.getProduct().getCostPerSqFoot());
+
+        // past the max entries, instances are returned as they are
+        CatalogInterner fullInterner = new CatalogInterner(1);
+        Product tile = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        assertSame(tile, fullInterner.intern(tile));
+        assertSame(tile, fullInterner.intern(new Product("Tile", 
+                new BigDecimal("3.50"), new BigDecimal("4.15"))));
+        Product wood = new Product("Wood", new BigDecimal("5.15"),
+                new BigDecimal("4.75"));
+        assertSame(wood, fullInterner.intern(wood));
+        assertNotSame(wood, fullInterner.intern(new Product("Wood", 
+                new BigDecimal("5.15"), new BigDecimal("4.75"))));
+    }
+
+    @Test
+    public void testDecodeStateNames() throws Exception {
+        LocalDate orderDate = LocalDate.of(2013, 6, 1);
+        for (UsState state : UsState.values()) {
+            Order order = orderCodec.decode("1,Joe," + state.getStateAbbr()
+                    + ",25.00,Tile,100.00,3.50,4.15,350.00,415.00,191.25,"
+                    + "956.25", orderDate);
+            assertSame(state.getStateAbbr(), order.getTaxInfo().getStateAbbr());
+            assertSame(state.getStateName(), order.getTaxInfo().getStateName());
+            assertEquals(state.getStateName(),
+                    new TaxInfo(state.getStateAbbr()).getStateName());
+        }
+        assertEquals("New Hampshire", new TaxInfo("NH").getStateName());
+
+        // not a state, or not in upper case: no name, as before
+        for (String stateAbbr : new String[] {"ZZ", "ny", "Ca", "NYC", "@A"}) {
+            Order order = orderCodec.decode("1,Joe," + stateAbbr
+                    + ",25.00,Tile,100.00,3.50,4.15,350.00,415.00,191.25,"
+                    + "956.25", orderDate);
+            assertEquals(stateAbbr, order.getTaxInfo().getStateAbbr());
+            assertNull(order.getTaxInfo().getStateName());
+            assertNull(UsState.of(stateAbbr));
+        }
+        assertNull(UsState.of((String) null));
+    }
+
+    @Test
+    public void testDecodeInvalidText() {
+        String[] invalidLines = {
+            "",
+            "1,'Joe, Inc.',CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21",
+            "1,'Joe, Inc.',CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,"
+                + "2381.06,06-22-2022,extra",
+            "x,'Joe, Inc.',CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,"
+                + "2381.06,06-22-2022",
+            "1,'Joe, Inc.,CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,"
+                + "2381.06,06-22-2022",
+            "1,'Joe, Inc.',CA,abc,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,"
+                + "2381.06,06-22-2022",
+            "1,'Joe, Inc.',CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,"
+                + "2381.06,13-45-2022"
+        };
+
+        for (String invalidLine : invalidLines) {
+            assertThrows(PersistenceException.class,
+                    () -> orderCodec.decode(invalidLine),
+                    "Invalid order text should not decode: " + invalidLine);
+        }
+    }
+
+    @Test
+    public void testEncodeDecodeRoundTrip() throws Exception {
+        for (long seed = 0; seed < 2000; seed++) {
+            Order order = randomOrder(new Random(seed));
+
+            String withOrderDate = orderCodec.encode(order, true);
+            assertEquals(order, orderCodec.decode(withOrderDate),
+                    "Round trip with order date, seed " + seed);
+
+            StringWriter out = new StringWriter();
+            orderCodec.write(order, false, out);
+            assertEquals(order, orderCodec.decode(out.toString(),
+                    order.getOrderDate()),
+                    "Round trip without order date, seed " + seed);
+        }
+    }
+
+
+    /**
+     * Returns an Order with random, valid field values.
+     */
+    private Order randomOrder(Random random) {
+        Order order = new Order(
+                LocalDate.ofEpochDay(random.nextInt(50 * 365)),
+                1 + random.nextInt(Integer.MAX_VALUE - 1));
+
+        StringBuilder customerName = new StringBuilder();
+        int nameLength = random.nextInt(30);
+        for (int i = 0; i < nameLength; i++) {
+            customerName.append(
+                    NAME_CHARS.charAt(random.nextInt(NAME_CHARS.length())));
+        }
+        order.setCustomerName(customerName.toString());
+
+        TaxInfo taxInfo = new TaxInfo(
+                STATE_ABBRS[random.nextInt(STATE_ABBRS.length)]);
+        taxInfo.setTaxRate(randomDecimal(random));
+        order.setTaxInfo(taxInfo);
+
+        order.setProduct(new Product(
+                PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)],
+                randomDecimal(random), randomDecimal(random)));
+
+        order.setArea(randomDecimal(random));
+        order.setMaterialCost(randomDecimal(random));
+        order.setLaborCost(randomDecimal(random));
+        order.setTax(randomDecimal(random));
+        order.setTotal(randomDecimal(random));
+
+        return order;
+    }
+
+    /**
+     * Returns a non-negative BigDecimal with a random scale of 0 to 4.
+     */
+    private BigDecimal randomDecimal(Random random) {
+        return BigDecimal.valueOf(random.nextInt(10_000_000), random.nextInt(5));
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderDaoBinaryFileImplTest {
+
+    private final String TEST_ORDERS_DIR;
+    private Path binaryOrdersDir;
+
+
+    public OrderDaoBinaryFileImplTest() {
+        ApplicationContext appContext
+                = new ClassPathXmlApplicationContext("testApplicationContext.xml");
+        TEST_ORDERS_DIR = appContext.getBean("testOrdersDir", String.class);
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // start each test with no orders
+        for (File orderFile : new File(TEST_ORDERS_DIR).listFiles()) {
+            orderFile.delete();
+        }
+        binaryOrdersDir = Files.createTempDirectory("binaryOrders");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (File orderFile : new File(TEST_ORDERS_DIR).listFiles()) {
+            orderFile.delete();
+        }
+        for (File orderFile : binaryOrdersDir.toFile().listFiles()) {
+            orderFile.delete();
+        }
+        Files.delete(binaryOrdersDir);
+    }
+
+
+    @Test
+    public void testCreateGetUpdateDeleteOrders() throws Exception {
+        LocalDate orderDate = LocalDate.of(2022, 6, 22);
+        OrderDaoBinaryFileImpl testOrderDao =
+                new OrderDaoBinaryFileImpl(binaryOrdersDir.toString());
+
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California",
+                new BigDecimal("25.00"));
+
+        // decimals of any scale and size keep their exact value and scale
+        Order oddOrder = new Order(orderDate, 1);
+        oddOrder.setCustomerName("Zoë's Café, Ltd.");
+        oddOrder.setProduct(product);
+        oddOrder.setTaxInfo(new TaxInfo("CA", "California",
+                new BigDecimal("6.5")));
+        oddOrder.setArea(new BigDecimal("100"));
+        oddOrder.setMaterialCost(new BigDecimal("871.50"));
+        oddOrder.setLaborCost(new BigDecimal("1033.35"));
+        oddOrder.setTax(new BigDecimal("-0.125"));
+        oddOrder.setTotal(new BigDecimal("123456789012345678901234.56"));
+
+        Order secondOrder = new Order(orderDate, 2);
+        secondOrder.setCustomerName("Joe, Inc.");
+        secondOrder.setProduct(product);
+        secondOrder.setTaxInfo(taxInfo);
+        secondOrder.setArea(new BigDecimal("249.00"));
+        secondOrder.setMaterialCost(new BigDecimal("871.50"));
+        secondOrder.setLaborCost(new BigDecimal("1033.35"));
+        secondOrder.setTax(new BigDecimal("476.21"));
+        secondOrder.setTotal(new BigDecimal("2381.06"));
+
+        Order thousandthOrder = new Order(orderDate, 1000);
+        thousandthOrder.setCustomerName("Ada Lovelace");
+        thousandthOrder.setProduct(product);
+        thousandthOrder.setTaxInfo(taxInfo);
+        thousandthOrder.setArea(new BigDecimal("249.00"));
+        thousandthOrder.setMaterialCost(new BigDecimal("871.50"));
+        thousandthOrder.setLaborCost(new BigDecimal("1033.35"));
+        thousandthOrder.setTax(new BigDecimal("476.21"));
+        thousandthOrder.setTotal(new BigDecimal("2381.06"));
+
+        Order nextDayOrder = new Order(orderDate.plusDays(1), 3);
+        nextDayOrder.setCustomerName("Joe, Inc.");
+        nextDayOrder.setProduct(product);
+        nextDayOrder.setTaxInfo(taxInfo);
+        nextDayOrder.setArea(new BigDecimal("249.00"));
+        nextDayOrder.setMaterialCost(new BigDecimal("871.50"));
+        nextDayOrder.setLaborCost(new BigDecimal("1033.35"));
+        nextDayOrder.setTax(new BigDecimal("476.21"));
+        nextDayOrder.setTotal(new BigDecimal("2381.06"));
+
+        List<Order> newOrders = new ArrayList<>(List.of(oddOrder, secondOrder,
+                thousandthOrder, nextDayOrder));
+        assertEquals(4, testOrderDao.createOrders(newOrders));
+
+        Order updatedOrder = new Order(orderDate, 2);
+        updatedOrder.setCustomerName("Grace Hopper");
+        updatedOrder.setProduct(product);
+        updatedOrder.setTaxInfo(taxInfo);
+        updatedOrder.setArea(new BigDecimal("249.00"));
+        updatedOrder.setMaterialCost(new BigDecimal("871.50"));
+        updatedOrder.setLaborCost(new BigDecimal("1033.35"));
+        updatedOrder.setTax(new BigDecimal("476.21"));
+        updatedOrder.setTotal(new BigDecimal("2381.06"));
+        assertNotNull(testOrderDao.updateOrder(updatedOrder));
+        assertNotNull(testOrderDao.deleteOrder(orderDate.plusDays(1), 3));
+
+        assertTrue(Files.exists(binaryOrdersDir.resolve("Orders_06222022.ord")));
+        assertFalse(Files.exists(binaryOrdersDir.resolve("Orders_06232022.ord")));
+
+        // a new DAO reads the same orders back
+        OrderDao reloadedOrderDao =
+                new OrderDaoBinaryFileImpl(binaryOrdersDir.toString());
+        assertEquals(oddOrder, reloadedOrderDao.getOrder(orderDate, 1));
+        assertEquals(updatedOrder, reloadedOrderDao.getOrder(orderDate, 2));
+        assertEquals(newOrders.get(2), reloadedOrderDao.getOrder(1000));
+        assertEquals(3, reloadedOrderDao.getAllOrders().size());
+        assertEquals("California", reloadedOrderDao.getOrder(orderDate, 1000)
+                .getTaxInfo().getStateName());
+
+        // mapped reads decode the same orders
+        OrderDaoBinaryFileImpl mappedOrderDao =
+                new OrderDaoBinaryFileImpl(binaryOrdersDir.toString());
+        mappedOrderDao.setMemoryMappedReads(true);
+        assertEquals(reloadedOrderDao.getAllOrdersOnDate(orderDate),
+                mappedOrderDao.getAllOrdersOnDate(orderDate));
+
+        // a damaged order file is reported, not read as fewer orders
+        Path orderFile = binaryOrdersDir.resolve("Orders_06222022.ord");
+        byte[] orderFileBytes = Files.readAllBytes(orderFile);
+        Files.write(orderFile, Arrays.copyOf(orderFileBytes,
+                orderFileBytes.length - 3));
+        assertThrows(PersistenceException.class, () ->
+                new OrderDaoBinaryFileImpl(binaryOrdersDir.toString())
+                        .getAllOrdersOnDate(orderDate));
+    }
+
+    @Test
+    public void testConvertTextToBinaryAndBack() throws Exception {
+        LocalDate firstDate = LocalDate.of(2022, 6, 20);
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California",
+                new BigDecimal("25.00"));
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNumber = 1; orderNumber <= 30; orderNumber++) {
+            Order testOrder = new Order(firstDate.plusDays(orderNumber % 3),
+                    orderNumber);
+            testOrder.setCustomerName("Customer " + orderNumber);
+            testOrder.setProduct(product);
+            testOrder.setTaxInfo(taxInfo);
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50"));
+            testOrder.setLaborCost(new BigDecimal("1033.35"));
+            testOrder.setTax(new BigDecimal("476.21"));
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            newOrders.add(testOrder);
+        }
+        new OrderDaoFileImpl(TEST_ORDERS_DIR).createOrders(newOrders);
+        List<String> textLines = Files.readAllLines(
+                Paths.get(TEST_ORDERS_DIR, "Orders_06202022.txt"));
+
+        assertEquals(30, OrderFileConverter.textToBinary(TEST_ORDERS_DIR,
+                binaryOrdersDir.toString()));
+        OrderDao binaryOrderDao =
+                new OrderDaoBinaryFileImpl(binaryOrdersDir.toString());
+        assertEquals(new OrderDaoFileImpl(TEST_ORDERS_DIR).getAllOrders(),
+                binaryOrderDao.getAllOrders());
+
+        long textSize = Files.size(
+                Paths.get(TEST_ORDERS_DIR, "Orders_06202022.txt"));
+        long binarySize = Files.size(
+                binaryOrdersDir.resolve("Orders_06202022.ord"));
+        assertTrue(binarySize * 2 < textSize,
+                "Binary order files should be well under half the size.");
+
+        // back to text, the order files come out the same
+        for (File orderFile : new File(TEST_ORDERS_DIR).listFiles()) {
+            orderFile.delete();
+        }
+        assertEquals(30, OrderFileConverter.binaryToText(
+                binaryOrdersDir.toString(), TEST_ORDERS_DIR));
+        assertEquals(textLines, Files.readAllLines(
+                Paths.get(TEST_ORDERS_DIR, "Orders_06202022.txt")));
+        assertEquals(binaryOrderDao.getAllOrders(),
+                new OrderDaoFileImpl(TEST_ORDERS_DIR).getAllOrders());
+    }
+
+}
@@ -1,17 +1,31 @@
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.OrderSummary;
 import com.sblinn.flooringmastery.dto.Product;
 import com.sblinn.flooringmastery.dto.TaxInfo;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -364,4 +378,877 @@ public class OrderDaoFileImplTest {
                 "Expected partial backup date text found.");
     }
 
+    @Test
+    public void testWriteOnlyRewritesChangedDateFile() throws Exception {
+        // create two orders on different dates
+        Order testOrder = new Order();
+        testOrder.setOrderDate(LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy")));
+        testOrder.setOrderNumber(1);
+        testOrder.setCustomerName("Joe, Inc.");
+
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        testOrder.setProduct(product);
+        TaxInfo taxInfo = new TaxInfo("CA", "California", 
+                new BigDecimal("25.00"));        
+        testOrder.setTaxInfo(taxInfo);
+
+        testOrder.setArea(new BigDecimal("249.00"));
+        testOrder.setMaterialCost(new BigDecimal("871.50")); 
+        testOrder.setLaborCost(new BigDecimal("1033.35")); 
+        testOrder.setTax(new BigDecimal("476.21")); 
+        testOrder.setTotal(new BigDecimal("2381.06"));
+
+        Order testOrderTwo = new Order();
+        testOrderTwo.setOrderDate(LocalDate.parse("07-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy")));
+        testOrderTwo.setOrderNumber(2);
+        testOrderTwo.setCustomerName("Joe, Inc.");
+        testOrderTwo.setProduct(product);
+        testOrderTwo.setTaxInfo(taxInfo);
+        testOrderTwo.setArea(new BigDecimal("249.00"));
+        testOrderTwo.setMaterialCost(new BigDecimal("871.50")); 
+        testOrderTwo.setLaborCost(new BigDecimal("1033.35")); 
+        testOrderTwo.setTax(new BigDecimal("476.21")); 
+        testOrderTwo.setTotal(new BigDecimal("2381.06"));
+
+        testOrderDao.createOrder(testOrder);
+        testOrderDao.createOrder(testOrderTwo);
+
+        // mark the first date's file so we can tell if it gets rewritten
+        File firstOrderFile = new File(TEST_ORDERS_DIR, "Orders_06222022.txt");
+        File secondOrderFile = new File(TEST_ORDERS_DIR, "Orders_07222022.txt");
+        assertTrue(firstOrderFile.setLastModified(0L));
+
+        // update the order on the second date only
+        testOrderTwo.setCustomerName("Target");
+        testOrderDao.updateOrder(testOrderTwo);
+
+        assertEquals(0L, firstOrderFile.lastModified(),
+                "Order file of an unchanged date should not be rewritten.");
+        assertTrue(secondOrderFile.exists());
+        assertEquals("Target", testOrderDao.getOrder(
+                testOrderTwo.getOrderDate(), 2).getCustomerName());
+
+        // deleting the only order on a date removes that date's file
+        testOrderDao.deleteOrder(testOrderTwo.getOrderDate(), 2);
+        assertFalse(secondOrderFile.exists(),
+                "Order file of a date with no orders should be deleted.");
+        assertTrue(firstOrderFile.exists());
+        
+        // no temp files should be left behind
+        File[] tempFiles = new File(TEST_ORDERS_DIR).listFiles(
+                (dir, name) -> name.endsWith(".tmp"));
+        assertEquals(0, tempFiles.length, "No temp files should remain.");
+    }
+
+    @Test
+    public void testReloadsOrderFileChangedOnDisk() throws Exception {
+        LocalDate orderDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        
+        Order testOrder = new Order(orderDate, 1);
+        testOrder.setCustomerName("Joe, Inc.");
+        testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                new BigDecimal("25.00")));
+        testOrder.setArea(new BigDecimal("249.00"));
+        testOrder.setMaterialCost(new BigDecimal("871.50")); 
+        testOrder.setLaborCost(new BigDecimal("1033.35")); 
+        testOrder.setTax(new BigDecimal("476.21")); 
+        testOrder.setTotal(new BigDecimal("2381.06"));
+        
+        testOrderDao.createOrder(testOrder);
+        assertNotNull(testOrderDao.getOrder(orderDate, 1));
+        
+        // another process rewrites the order file with a different order
+        File orderFile = new File(TEST_ORDERS_DIR, "Orders_06222022.txt");
+        try (PrintWriter out = new PrintWriter(new FileWriter(orderFile))) {
+            out.println("OrderNumber,CustomerName,State,TaxRate,ProductType,"
+                    + "Area,CostPerSquareFoot,LaborCostPerSquareFoot,"
+                    + "MaterialCost,LaborCost,Tax,Total");
+            out.println("7,'Target',CA,25.00,Tile,249.00,3.50,4.15,871.50,"
+                    + "1033.35,476.21,2381.06");
+        }
+        assertTrue(orderFile.setLastModified(
+                orderFile.lastModified() + 2000));
+        
+        assertNull(testOrderDao.getOrder(orderDate, 1),
+                "Order removed from the file on disk should be gone.");
+        assertEquals("Target", testOrderDao.getOrder(orderDate, 7)
+                .getCustomerName(), "Order added on disk should be loaded.");
+        
+        // another process deletes the order file
+        assertTrue(orderFile.delete());
+        assertTrue(testOrderDao.getAllOrders().isEmpty(),
+                "Orders of a deleted order file should be dropped.");
+    }
+
+    @Test
+    public void testBoundedPartitionCacheLoadsOnlyRequestedDates() 
+            throws Exception {
+        
+        OrderDaoFileImpl lazyOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        lazyOrderDao.setPartitionCacheSize(1);
+        
+        // create orders on three dates, more than the cache can hold
+        for (int orderNumber = 1; orderNumber <= 3; orderNumber++) {
+            Order testOrder = new Order(LocalDate.of(2022, 6, 20 + orderNumber),
+                    orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                    new BigDecimal("4.15")));
+            testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                    new BigDecimal("25.00")));
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50")); 
+            testOrder.setLaborCost(new BigDecimal("1033.35")); 
+            testOrder.setTax(new BigDecimal("476.21")); 
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            lazyOrderDao.createOrder(testOrder);
+        }
+        
+        // an unreadable order file on another date is never parsed
+        File brokenOrderFile = new File(TEST_ORDERS_DIR, "Orders_01012020.txt");
+        try (PrintWriter out = new PrintWriter(new FileWriter(brokenOrderFile))) {
+            out.println("OrderNumber,CustomerName,State,TaxRate,ProductType");
+            out.println("not an order");
+        }
+        
+        for (int orderNumber = 1; orderNumber <= 3; orderNumber++) {
+            Order retrievedOrder = lazyOrderDao.getOrder(
+                    LocalDate.of(2022, 6, 20 + orderNumber), orderNumber);
+            assertNotNull(retrievedOrder, "Evicted dates should be reloaded.");
+            assertEquals(orderNumber, retrievedOrder.getOrderNumber());
+        }
+        assertEquals(1, lazyOrderDao.getAllOrdersOnDate(
+                LocalDate.of(2022, 6, 22)).size());
+        
+        assertTrue(brokenOrderFile.delete());
+        assertEquals(3, lazyOrderDao.getAllOrders().size(),
+                "All orders should be found even if not all fit in memory.");
+    }
+
+    @Test
+    public void testCreateOrdersWritesEachDateOnce() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        LocalDate secondDate = firstDate.plusDays(1);
+        
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California", 
+                new BigDecimal("25.00"));
+        
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNumber = 1; orderNumber <= 10; orderNumber++) {
+            Order testOrder = new Order(orderNumber % 2 == 0 
+                    ? firstDate : secondDate, orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(product);
+            testOrder.setTaxInfo(taxInfo);
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50")); 
+            testOrder.setLaborCost(new BigDecimal("1033.35")); 
+            testOrder.setTax(new BigDecimal("476.21")); 
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            newOrders.add(testOrder);
+        }
+        
+        assertEquals(10, testOrderDao.createOrders(newOrders));
+        assertEquals(5, testOrderDao.getAllOrdersOnDate(firstDate).size());
+        assertEquals(5, testOrderDao.getAllOrdersOnDate(secondDate).size());
+        assertEquals(10, testOrderDao.getMaxOrderNumber());
+        
+        // a new DAO reads the same orders back from the two files
+        OrderDao reloadedOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        assertEquals(newOrders.get(0), reloadedOrderDao.getOrder(secondDate, 1));
+        assertEquals(10, reloadedOrderDao.getAllOrders().size());
+        assertEquals(2, new File(TEST_ORDERS_DIR).listFiles(
+                (dir, name) -> name.endsWith(".txt")).length,
+                "Only one order file per date should be written.");
+        
+        // orders replacing existing order numbers are not counted as created
+        assertEquals(0, testOrderDao.createOrders(newOrders.subList(0, 3)));
+    }
+    
+    @Test
+    public void testExportMergesDatesInOrderNumberOrder() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California", 
+                new BigDecimal("25.00"));
+        
+        // spread order numbers 1 to 30 across three dates
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNumber = 30; orderNumber >= 1; orderNumber--) {
+            Order testOrder = new Order(
+                    firstDate.plusDays(orderNumber % 3), orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(product);
+            testOrder.setTaxInfo(taxInfo);
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50")); 
+            testOrder.setLaborCost(new BigDecimal("1033.35")); 
+            testOrder.setTax(new BigDecimal("476.21")); 
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            newOrders.add(testOrder);
+        }
+        testOrderDao.createOrders(newOrders);
+        
+        String filePath = TEST_ORDERS_DIR + "/testBackupFile.txt";
+        String gzipFilePath = TEST_ORDERS_DIR + "/testBackupFile.txt.gz";
+        testOrderDao.exportBackupDataToFile(filePath);
+        testOrderDao.exportBackupDataToFile(gzipFilePath);
+        
+        List<String> lines = Files.readAllLines(Paths.get(filePath));
+        List<String> gzipLines;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(
+                        Paths.get(gzipFilePath)))))) {
+            gzipLines = in.lines().collect(Collectors.toList());
+        }
+        assertEquals(lines, gzipLines, 
+                "Gzip backup should hold the same text as the plain backup.");
+        
+        // header, 30 orders, blank line, backup date
+        assertEquals(33, lines.size());
+        OrderCodec orderCodec = new OrderCodec();
+        for (int orderNumber = 1; orderNumber <= 30; orderNumber++) {
+            Order exportedOrder = orderCodec.decode(lines.get(orderNumber));
+            assertEquals(orderNumber, exportedOrder.getOrderNumber(),
+                    "Orders should be exported in order number order.");
+            assertEquals(firstDate.plusDays(orderNumber % 3), 
+                    exportedOrder.getOrderDate());
+        }
+        
+        // a bounded cache exports the dates it does not hold as well
+        OrderDaoFileImpl boundedOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        boundedOrderDao.setPartitionCacheSize(1);
+        boundedOrderDao.getOrder(firstDate, 3);
+        boundedOrderDao.exportBackupDataToFile(filePath);
+        assertEquals(lines.subList(0, 32),
+                Files.readAllLines(Paths.get(filePath)).subList(0, 32));
+        // every date's order number range overlaps the others
+        assertEquals(3, boundedOrderDao.getLastExportMaxOpenDates());
+    }
+
+    @Test
+    public void testExportReadsOneDateAtATime() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California",
+                new BigDecimal("25.00"));
+
+        // order numbers 1 to 10 on the last date, 11 to 20 on the one
+        // before, and so on
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNumber = 1; orderNumber <= 50; orderNumber++) {
+            Order testOrder = new Order(
+                    firstDate.plusDays(4 - (orderNumber - 1) / 10),
+                    orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(product);
+            testOrder.setTaxInfo(taxInfo);
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50"));
+            testOrder.setLaborCost(new BigDecimal("1033.35"));
+            testOrder.setTax(new BigDecimal("476.21"));
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            newOrders.add(testOrder);
+        }
+        testOrderDao.createOrders(newOrders);
+
+        OrderDaoFileImpl boundedOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        boundedOrderDao.setPartitionCacheSize(1);
+        String filePath = TEST_ORDERS_DIR + "/testBackupFile.txt";
+        boundedOrderDao.exportBackupDataToFile(filePath);
+
+        assertEquals(1, boundedOrderDao.getLastExportMaxOpenDates(),
+                "Only one date should be in memory at a time.");
+        List<String> lines = Files.readAllLines(Paths.get(filePath));
+        OrderCodec orderCodec = new OrderCodec();
+        for (int orderNumber = 1; orderNumber <= 50; orderNumber++) {
+            assertEquals(orderNumber, orderCodec.decode(
+                    lines.get(orderNumber)).getOrderNumber());
+        }
+    }
+    
+    @Test
+    public void testParallelLoadMatchesSerialLoad() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California", 
+                new BigDecimal("25.00"));
+        
+        // 20 order files of 5 orders each
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNumber = 1; orderNumber <= 100; orderNumber++) {
+            Order testOrder = new Order(
+                    firstDate.plusDays(orderNumber % 20), orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(product);
+            testOrder.setTaxInfo(taxInfo);
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50")); 
+            testOrder.setLaborCost(new BigDecimal("1033.35")); 
+            testOrder.setTax(new BigDecimal("476.21")); 
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            newOrders.add(testOrder);
+        }
+        testOrderDao.createOrders(newOrders);
+        
+        OrderDaoFileImpl serialOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        OrderDaoFileImpl parallelOrderDao = 
+                new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        parallelOrderDao.setLoadParallelism(4);
+        
+        List<Order> parallelOrders = parallelOrderDao.getAllOrders();
+        assertEquals(20, parallelOrderDao.getLastLoadFileCount());
+        assertEquals(serialOrderDao.getAllOrders(), parallelOrders);
+        assertEquals(newOrders.size(), parallelOrders.size());
+        
+        // unchanged files are not parsed again
+        parallelOrderDao.getAllOrders();
+        assertEquals(0, parallelOrderDao.getLastLoadFileCount());
+        
+        assertThrows(IllegalArgumentException.class, 
+                () -> parallelOrderDao.setLoadParallelism(0));
+    }
+    
+    @Test
+    public void testMemoryMappedReadsMatchReaderReads() throws Exception {
+        LocalDate orderDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        
+        // windows line endings, a blank line and a non-ASCII customer name
+        Files.write(Paths.get(TEST_ORDERS_DIR, "Orders_06222022.txt"), 
+                ("OrderNumber,CustomerName,State,TaxRate,ProductType,Area,"
+                + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,"
+                + "LaborCost,Tax,Total\r\n"
+                + "1,'Joe, Inc.',CA,25.00,Tile,249.00,3.50,4.15,871.50,"
+                + "1033.35,476.21,2381.06\r\n"
+                + "\r\n"
+                + "2,'Caf\u00e9 Ren\u00e9e',CA,25.00,Tile,249.00,3.50,4.15,"
+                + "871.50,1033.35,476.21,2381.06")
+                .getBytes(StandardCharsets.UTF_8));
+        
+        OrderDaoFileImpl readerOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        OrderDaoFileImpl mappedOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        mappedOrderDao.setMemoryMappedReads(true);
+        
+        List<Order> mappedOrders = mappedOrderDao.getAllOrdersOnDate(orderDate);
+        assertEquals(2, mappedOrders.size());
+        assertEquals(readerOrderDao.getAllOrdersOnDate(orderDate), mappedOrders);
+        assertEquals("Caf\u00e9 Ren\u00e9e", 
+                mappedOrderDao.getOrder(orderDate, 2).getCustomerName());
+        assertEquals(new BigDecimal("2381.06"), 
+                mappedOrderDao.getOrder(orderDate, 1).getTotal());
+    }
+    
+    @Test
+    public void testJournaledMutationsReplayAfterRestart() throws Exception {
+        LocalDate orderDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        Product product = new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15"));
+        TaxInfo taxInfo = new TaxInfo("CA", "California", 
+                new BigDecimal("25.00"));
+        
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNumber = 1; orderNumber <= 3; orderNumber++) {
+            Order testOrder = new Order(orderDate, orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(product);
+            testOrder.setTaxInfo(taxInfo);
+            testOrder.setArea(new BigDecimal("249.00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50")); 
+            testOrder.setLaborCost(new BigDecimal("1033.35")); 
+            testOrder.setTax(new BigDecimal("476.21")); 
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            newOrders.add(testOrder);
+        }
+        
+        OrderDaoFileImpl journaledOrderDao = 
+                new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        journaledOrderDao.setJournalCompactionInterval(0);
+        journaledOrderDao.setJournaling(true);
+        journaledOrderDao.createOrders(newOrders);
+        
+        Order updatedOrder = newOrders.get(1);
+        updatedOrder.setCustomerName("Ada Lovelace");
+        journaledOrderDao.updateOrder(updatedOrder);
+        journaledOrderDao.deleteOrder(orderDate, 3);
+        
+        // nothing has reached the order files yet
+        File journalFile = new File(TEST_ORDERS_DIR, "OrderJournal.log");
+        assertFalse(new File(TEST_ORDERS_DIR, "Orders_06222022.txt").exists());
+        assertTrue(journalFile.length() > 0);
+        
+        // a batch torn by a crash is not replayed
+        try (FileWriter out = new FileWriter(journalFile, true)) {
+            out.write("DELETE,1,06-22-2022\n");
+        }
+        
+        // a new DAO, as after a restart, replays the committed mutations
+        OrderDaoFileImpl restartedOrderDao = 
+                new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        restartedOrderDao.setJournalCompactionInterval(0);
+        restartedOrderDao.setJournaling(true);
+        List<Order> replayedOrders = 
+                restartedOrderDao.getAllOrdersOnDate(orderDate);
+        assertEquals(2, replayedOrders.size());
+        assertEquals(newOrders.get(0), restartedOrderDao.getOrder(orderDate, 1));
+        assertEquals("Ada Lovelace", 
+                restartedOrderDao.getOrder(orderDate, 2).getCustomerName());
+        assertNull(restartedOrderDao.getOrder(orderDate, 3));
+        
+        // the replay was compacted into the order file
+        assertEquals(0, journalFile.length());
+        OrderDao unjournaledOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        assertEquals(replayedOrders, 
+                unjournaledOrderDao.getAllOrdersOnDate(orderDate));
+        
+        // close compacts whatever is still journaled
+        restartedOrderDao.deleteOrder(orderDate, 1);
+        assertTrue(journalFile.length() > 0);
+        restartedOrderDao.close();
+        assertEquals(0, journalFile.length());
+        assertNull(new OrderDaoFileImpl(TEST_ORDERS_DIR)
+                .getOrder(orderDate, 1));
+        journaledOrderDao.close();
+    }
+    
+    @Test
+    public void testConcurrentWritesAreNotLost() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        int writers = 8;
+        int ordersPerWriter = 60;
+        
+        // unbounded, then with fewer dates in memory than are being written
+        for (int partitionCacheSize : new int[] {0, 2}) {
+            setUp();
+            OrderDaoFileImpl concurrentOrderDao = 
+                    new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            concurrentOrderDao.setPartitionCacheSize(partitionCacheSize);
+            
+            ExecutorService clerks = Executors.newFixedThreadPool(writers + 2);
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int firstOrderNumber = w * ordersPerWriter + 1;
+                // every writer writes to all five dates, keeping the odd 
+                // order numbers and deleting the even ones again
+                results.add(clerks.submit(() -> {
+                    for (int i = 0; i < ordersPerWriter; i++) {
+                        int orderNumber = firstOrderNumber + i;
+                        LocalDate orderDate = firstDate.plusDays(orderNumber % 5);
+                        Order testOrder = new Order(orderDate, orderNumber);
+                        testOrder.setCustomerName("Joe, Inc.");
+                        testOrder.setProduct(new Product("Tile", 
+                                new BigDecimal("3.50"), new BigDecimal("4.15")));
+                        testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                                new BigDecimal("25.00")));
+                        testOrder.setArea(new BigDecimal("249.00"));
+                        testOrder.setMaterialCost(new BigDecimal("871.50")); 
+                        testOrder.setLaborCost(new BigDecimal("1033.35")); 
+                        testOrder.setTax(new BigDecimal("476.21")); 
+                        testOrder.setTotal(new BigDecimal("2381.06"));
+                        assertNotNull(concurrentOrderDao.createOrder(testOrder));
+                        if (orderNumber % 2 == 0) {
+                            assertNotNull(concurrentOrderDao.deleteOrder(
+                                    orderDate, orderNumber));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // readers run against the writers without failing
+            for (int r = 0; r < 2; r++) {
+                results.add(clerks.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        concurrentOrderDao.getAllOrders();
+                        concurrentOrderDao.getMaxOrderNumber();
+                    }
+                    return null;
+                }));
+            }
+            clerks.shutdown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            
+            int expectedOrders = writers * ordersPerWriter / 2;
+            assertEquals(expectedOrders, 
+                    concurrentOrderDao.getAllOrders().size(),
+                    "No order should be lost, partition cache size "
+                            + partitionCacheSize);
+            assertEquals(expectedOrders, new OrderDaoFileImpl(TEST_ORDERS_DIR)
+                    .getAllOrders().size(),
+                    "Every order should reach its order file, partition "
+                            + "cache size " + partitionCacheSize);
+        }
+    }
+    
+    @Test
+    public void testFindOrdersByCustomer() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        String[] customerNames = {"Joe, Inc.", "Joe  Smith", "Target", 
+            "joe, inc."};
+        
+        // with every date in memory, then with only one
+        for (int partitionCacheSize : new int[] {0, 1}) {
+            setUp();
+            OrderDaoFileImpl searchOrderDao = 
+                    new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            searchOrderDao.setPartitionCacheSize(partitionCacheSize);
+            
+            for (int orderNumber = 1; orderNumber <= 4; orderNumber++) {
+                Order testOrder = new Order(firstDate.plusDays(orderNumber % 2),
+                        orderNumber);
+                testOrder.setCustomerName(customerNames[orderNumber - 1]);
+                testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                        new BigDecimal("4.15")));
+                testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                        new BigDecimal("25.00")));
+                testOrder.setArea(new BigDecimal("249.00"));
+                testOrder.setMaterialCost(new BigDecimal("871.50")); 
+                testOrder.setLaborCost(new BigDecimal("1033.35")); 
+                testOrder.setTax(new BigDecimal("476.21")); 
+                testOrder.setTotal(new BigDecimal("2381.06"));
+                searchOrderDao.createOrder(testOrder);
+            }
+            
+            // case and extra whitespace are ignored, results are sorted
+            List<Order> foundOrders = 
+                    searchOrderDao.findOrdersByCustomer("  JOE ");
+            assertEquals(List.of(1, 2, 4), foundOrders.stream()
+                    .map((o) -> o.getOrderNumber())
+                    .collect(Collectors.toList()));
+            assertEquals(1, searchOrderDao.findOrdersByCustomer("joe smith")
+                    .size());
+            assertEquals(2, searchOrderDao.findOrdersByCustomer("Joe, Inc.")
+                    .size());
+            assertTrue(searchOrderDao.findOrdersByCustomer("Walmart")
+                    .isEmpty());
+            
+            // updates and deletes move orders in and out of the results
+            Order renamedOrder = searchOrderDao.getOrder(
+                    firstDate.plusDays(1), 3);
+            renamedOrder.setCustomerName("Joey");
+            searchOrderDao.updateOrder(renamedOrder);
+            searchOrderDao.deleteOrder(firstDate, 2);
+            assertEquals(List.of(1, 3, 4), searchOrderDao
+                    .findOrdersByCustomer("joe").stream()
+                    .map((o) -> o.getOrderNumber())
+                    .collect(Collectors.toList()));
+            assertTrue(searchOrderDao.findOrdersByCustomer("Target")
+                    .isEmpty());
+            
+            // another DAO finds orders in order files it has never read
+            OrderDaoFileImpl newOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            newOrderDao.setPartitionCacheSize(partitionCacheSize);
+            assertEquals(3, newOrderDao.findOrdersByCustomer("jo").size());
+            
+            // another process rewrites an order file
+            File orderFile = new File(TEST_ORDERS_DIR, "Orders_06222022.txt");
+            try (PrintWriter out = new PrintWriter(new FileWriter(orderFile))) {
+                out.println("OrderNumber,CustomerName,State,TaxRate,"
+                        + "ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,"
+                        + "Tax,Total");
+                out.println("4,'Ada Lovelace',CA,25.00,Tile,249.00,3.50,4.15,"
+                        + "871.50,1033.35,476.21,2381.06");
+            }
+            assertTrue(orderFile.setLastModified(
+                    orderFile.lastModified() + 2000));
+            assertEquals(2, newOrderDao.findOrdersByCustomer("jo").size(),
+                    "Order renamed on disk should no longer be found, "
+                            + "partition cache size " + partitionCacheSize);
+            assertEquals(4, newOrderDao.findOrdersByCustomer("ada")
+                    .get(0).getOrderNumber());
+
+            // searches do not list the directory again, so an order file
+            // another process adds is only found once its date is read
+            try (PrintWriter out = new PrintWriter(new FileWriter(
+                    new File(TEST_ORDERS_DIR, "Orders_07012022.txt")))) {
+                out.println("OrderNumber,CustomerName,State,TaxRate,"
+                        + "ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,"
+                        + "Tax,Total");
+                out.println("5,'Joe Blow',CA,25.00,Tile,249.00,3.50,4.15,"
+                        + "871.50,1033.35,476.21,2381.06");
+            }
+            assertEquals(2, newOrderDao.findOrdersByCustomer("jo").size());
+            newOrderDao.getAllOrdersOnDate(LocalDate.of(2022, 7, 1));
+            assertEquals(3, newOrderDao.findOrdersByCustomer("jo").size());
+        }
+    }
+    
+    @Test
+    public void testFindOrdersByStateAndProduct() throws Exception {
+        LocalDate firstDate = LocalDate.of(2022, 6, 22);
+        String[] states = {"CA", "TX", "CA", "WA"};
+        String[] productTypes = {"Tile", "Wood", "Wood", "Tile"};
+        
+        // with every date in memory, then with only one
+        for (int partitionCacheSize : new int[] {0, 1}) {
+            setUp();
+            OrderDaoFileImpl searchOrderDao = 
+                    new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            searchOrderDao.setPartitionCacheSize(partitionCacheSize);
+            
+            for (int orderNumber = 1; orderNumber <= 4; orderNumber++) {
+                Order testOrder = new Order(firstDate.plusDays(orderNumber),
+                        orderNumber);
+                testOrder.setCustomerName("Joe, Inc.");
+                testOrder.setProduct(new Product(
+                        productTypes[orderNumber - 1], new BigDecimal("3.50"),
+                        new BigDecimal("4.15")));
+                testOrder.setTaxInfo(new TaxInfo(states[orderNumber - 1], 
+                        "", new BigDecimal("25.00")));
+                testOrder.setArea(new BigDecimal("249.00"));
+                testOrder.setMaterialCost(new BigDecimal("871.50")); 
+                testOrder.setLaborCost(new BigDecimal("1033.35")); 
+                testOrder.setTax(new BigDecimal("476.21")); 
+                testOrder.setTotal(new BigDecimal("2381.06"));
+                searchOrderDao.createOrder(testOrder);
+            }
+            
+            assertEquals(List.of(1, 3), orderNumbers(
+                    searchOrderDao.findOrdersByState("ca", firstDate)));
+            assertEquals(List.of(3), orderNumbers(searchOrderDao
+                    .findOrdersByState("CA", firstDate.plusDays(2))));
+            assertEquals(List.of(2, 3), orderNumbers(
+                    searchOrderDao.findOrdersByProduct("Wood", firstDate)));
+            assertTrue(searchOrderDao.findOrdersByProduct("Carpet", firstDate)
+                    .isEmpty());
+            
+            // updates and deletes move orders in and out of the results
+            Order movedOrder = searchOrderDao.getOrder(
+                    firstDate.plusDays(2), 2);
+            movedOrder.setTaxInfo(new TaxInfo("CA", "", 
+                    new BigDecimal("25.00")));
+            searchOrderDao.updateOrder(movedOrder);
+            searchOrderDao.deleteOrder(firstDate.plusDays(3), 3);
+            assertEquals(List.of(1, 2), orderNumbers(
+                    searchOrderDao.findOrdersByState("CA", firstDate)));
+            assertEquals(List.of(2), orderNumbers(
+                    searchOrderDao.findOrdersByProduct("Wood", firstDate)));
+            
+            // another DAO finds orders in order files it has never read
+            OrderDaoFileImpl newOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            newOrderDao.setPartitionCacheSize(partitionCacheSize);
+            assertEquals(List.of(1, 4), orderNumbers(
+                    newOrderDao.findOrdersByProduct("Tile", firstDate)));
+        }
+    }
+    
+    @Test
+    public void testGetOrderByNumberOnly() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        
+        // with every date in memory, then with only one
+        for (int partitionCacheSize : new int[] {0, 1}) {
+            setUp();
+            OrderDaoFileImpl numberOrderDao = 
+                    new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            numberOrderDao.setPartitionCacheSize(partitionCacheSize);
+            
+            for (int orderNumber = 1; orderNumber <= 6; orderNumber++) {
+                Order testOrder = new Order(firstDate.plusDays(orderNumber % 3),
+                        orderNumber);
+                testOrder.setCustomerName("Joe, Inc.");
+                testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                        new BigDecimal("4.15")));
+                testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                        new BigDecimal("25.00")));
+                testOrder.setArea(new BigDecimal("249.00"));
+                testOrder.setMaterialCost(new BigDecimal("871.50")); 
+                testOrder.setLaborCost(new BigDecimal("1033.35")); 
+                testOrder.setTax(new BigDecimal("476.21")); 
+                testOrder.setTotal(new BigDecimal("2381.06"));
+                numberOrderDao.createOrder(testOrder);
+            }
+            
+            for (int orderNumber = 1; orderNumber <= 6; orderNumber++) {
+                Order retrievedOrder = numberOrderDao.getOrder(orderNumber);
+                assertEquals(firstDate.plusDays(orderNumber % 3), 
+                        retrievedOrder.getOrderDate());
+            }
+            numberOrderDao.deleteOrder(firstDate, 3);
+            assertNull(numberOrderDao.getOrder(3));
+            assertNull(numberOrderDao.getOrder(7));
+            
+            // another DAO finds orders in order files it has never read
+            OrderDaoFileImpl newOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            newOrderDao.setPartitionCacheSize(partitionCacheSize);
+            assertEquals(firstDate.plusDays(2), 
+                    newOrderDao.getOrder(5).getOrderDate());
+            
+            // another process moves order #6 to a new date's order file
+            File orderFile = new File(TEST_ORDERS_DIR, "Orders_06222022.txt");
+            assertTrue(orderFile.delete());
+            try (PrintWriter out = new PrintWriter(new FileWriter(
+                    new File(TEST_ORDERS_DIR, "Orders_07012022.txt")))) {
+                out.println("OrderNumber,CustomerName,State,TaxRate,"
+                        + "ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,"
+                        + "Tax,Total");
+                out.println("6,'Target',CA,25.00,Tile,249.00,3.50,4.15,"
+                        + "871.50,1033.35,476.21,2381.06");
+            }
+            assertEquals(LocalDate.of(2022, 7, 1), 
+                    newOrderDao.getOrder(6).getOrderDate(),
+                    "Order moved on disk should be found on its new date, "
+                            + "partition cache size " + partitionCacheSize);
+        }
+    }
+    
+    @Test
+    public void testGetOrdersBetweenReadsOnlyDatesInRange() throws Exception {
+        LocalDate firstDate = LocalDate.parse("06-20-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        
+        // with every date in memory, then with only one
+        for (int partitionCacheSize : new int[] {0, 1}) {
+            setUp();
+            OrderDaoFileImpl rangeOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            rangeOrderDao.setPartitionCacheSize(partitionCacheSize);
+            
+            // order numbers run backwards against the dates
+            for (int orderNumber = 1; orderNumber <= 10; orderNumber++) {
+                Order testOrder = new Order(
+                        firstDate.plusDays((10 - orderNumber) / 2), orderNumber);
+                testOrder.setCustomerName("Joe, Inc.");
+                testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                        new BigDecimal("4.15")));
+                testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                        new BigDecimal("25.00")));
+                testOrder.setArea(new BigDecimal("249.00"));
+                testOrder.setMaterialCost(new BigDecimal("871.50")); 
+                testOrder.setLaborCost(new BigDecimal("1033.35")); 
+                testOrder.setTax(new BigDecimal("476.21")); 
+                testOrder.setTotal(new BigDecimal("2381.06"));
+                rangeOrderDao.createOrder(testOrder);
+            }
+            
+            // 06-21 holds #7 and #8, 06-22 #5 and #6
+            assertEquals(List.of(7, 8, 5, 6), rangeOrderDao.getOrdersBetween(
+                    firstDate.plusDays(1), firstDate.plusDays(2))
+                    .map((o) -> o.getOrderNumber())
+                    .collect(Collectors.toList()));
+            assertEquals(10, rangeOrderDao.getOrdersBetween(
+                    firstDate.minusDays(30), firstDate.plusDays(30)).count());
+            assertEquals(0, rangeOrderDao.getOrdersBetween(
+                    firstDate.plusDays(2), firstDate.plusDays(1)).count());
+            
+            // an unreadable order file outside the range is never parsed
+            File brokenOrderFile = new File(TEST_ORDERS_DIR, 
+                    "Orders_07012022.txt");
+            try (PrintWriter out = new PrintWriter(
+                    new FileWriter(brokenOrderFile))) {
+                out.println("OrderNumber,CustomerName,State,TaxRate");
+                out.println("not an order");
+            }
+            OrderDaoFileImpl newOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+            newOrderDao.setPartitionCacheSize(1);
+            assertEquals(10, newOrderDao.getOrdersBetween(
+                    firstDate, firstDate.plusDays(10)).count());
+            UncheckedPersistenceException e = assertThrows(
+                    UncheckedPersistenceException.class, 
+                    () -> newOrderDao.getOrdersBetween(firstDate, 
+                            firstDate.plusDays(11)).count());
+            assertNotNull(e.getCause());
+            assertTrue(brokenOrderFile.delete());
+        }
+    }
+    
+    @Test
+    public void testOrderSummariesAreKeptOnWriteAndStored() throws Exception {
+        LocalDate orderDate = LocalDate.parse("06-22-2022",
+                DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        OrderDaoFileImpl summaryOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        summaryOrderDao.setPartitionCacheSize(1);
+        
+        for (int orderNumber = 3; orderNumber <= 7; orderNumber++) {
+            Order testOrder = new Order(orderDate, orderNumber);
+            testOrder.setCustomerName("Joe, Inc.");
+            testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                    new BigDecimal("4.15")));
+            testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                    new BigDecimal("25.00")));
+            testOrder.setArea(new BigDecimal(orderNumber * 100 + ".00"));
+            testOrder.setMaterialCost(new BigDecimal("871.50")); 
+            testOrder.setLaborCost(new BigDecimal("1033.35")); 
+            testOrder.setTax(new BigDecimal("476.21")); 
+            testOrder.setTotal(new BigDecimal("2381.06"));
+            summaryOrderDao.createOrder(testOrder);
+        }
+        Order updatedOrder = summaryOrderDao.getOrder(orderDate, 5);
+        updatedOrder.setTotal(new BigDecimal("1000.00"));
+        summaryOrderDao.updateOrder(updatedOrder);
+        summaryOrderDao.deleteOrder(orderDate, 4);
+        summaryOrderDao.deleteOrder(orderDate, 7);
+        
+        // kept on each write, the summary matches one summed from scratch
+        OrderSummary summary = summaryOrderDao.getOrderSummary(orderDate);
+        assertEquals(OrderSummary.of(orderDate, 
+                summaryOrderDao.getAllOrdersOnDate(orderDate)), summary);
+        assertEquals(3, summary.getOrderCount());
+        assertEquals(0, new BigDecimal("1400").compareTo(summary.getArea()));
+        assertEquals(0, new BigDecimal("5762.12").compareTo(summary.getTotal()));
+        assertEquals(3, summary.getMinOrderNumber());
+        assertEquals(6, summary.getMaxOrderNumber());
+        assertNull(summaryOrderDao.getOrderSummary(orderDate.plusDays(1)));
+        assertEquals(List.of(summary), summaryOrderDao.getOrderSummariesBetween(
+                orderDate.minusDays(1), orderDate.plusDays(1)));
+        
+        // a new DAO answers from the summary file, without parsing orders
+        Path summaryFile = Paths.get(TEST_ORDERS_DIR, "Orders_06222022.sum");
+        List<String> summaryLines = Files.readAllLines(summaryFile);
+        Files.write(summaryFile, List.of(summaryLines.get(0), 
+                summaryLines.get(1).replaceFirst("^3,", "30,")));
+        OrderDao newOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        assertEquals(30, newOrderDao.getOrderSummary(orderDate).getOrderCount());
+        assertEquals(6, newOrderDao.getMaxOrderNumber());
+        
+        // once the order file is changed by hand, it is summed up again
+        try (PrintWriter out = new PrintWriter(new FileWriter(
+                Paths.get(TEST_ORDERS_DIR, "Orders_06222022.txt").toFile(), 
+                true))) {
+            out.println("9,Ada Lovelace,CA,25.00,Tile,100.00,3.50,4.15,"
+                    + "350.00,415.00,191.25,956.25");
+        }
+        newOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        OrderSummary changedSummary = newOrderDao.getOrderSummary(orderDate);
+        assertEquals(4, changedSummary.getOrderCount());
+        assertEquals(9, changedSummary.getMaxOrderNumber());
+        assertEquals(9, newOrderDao.getMaxOrderNumber());
+        
+        // deleting the last order on the date removes the summary file
+        for (int orderNumber : new int[] {3, 5, 6, 9}) {
+            newOrderDao.deleteOrder(orderDate, orderNumber);
+        }
+        assertNull(newOrderDao.getOrderSummary(orderDate));
+        assertFalse(Files.exists(summaryFile));
+    }
+    
+    
+    private List<Integer> orderNumbers(List<Order> orders) {
+        return orders.stream()
+                .map((o) -> o.getOrderNumber())
+                .collect(Collectors.toList());
+    }
+    
 }
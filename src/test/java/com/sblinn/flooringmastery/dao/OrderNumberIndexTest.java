@@ -0,0 +1,69 @@
+package com.sblinn.flooringmastery.dao;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderNumberIndexTest {
+
+    private final LocalDate orderDate = LocalDate.of(2022, 6, 22);
+
+
+    @Test
+    public void testPutGetAndRemove() {
+        OrderNumberIndex orderNumberIndex = new OrderNumberIndex();
+        orderNumberIndex.put(1, orderDate);
+        orderNumberIndex.put(0, orderDate);
+        orderNumberIndex.put(1, orderDate.plusDays(1));
+
+        assertEquals(orderDate.plusDays(1), orderNumberIndex.get(1));
+        assertEquals(orderDate, orderNumberIndex.get(0));
+        assertNull(orderNumberIndex.get(2));
+        assertEquals(2, orderNumberIndex.size());
+
+        // only removed when recorded on the given date
+        orderNumberIndex.remove(1, orderDate);
+        assertEquals(orderDate.plusDays(1), orderNumberIndex.get(1));
+        orderNumberIndex.remove(1, orderDate.plusDays(1));
+        orderNumberIndex.remove(0, orderDate);
+        assertNull(orderNumberIndex.get(1));
+        assertEquals(0, orderNumberIndex.size());
+    }
+
+    @Test
+    public void testMatchesHashMapThroughResizesAndRemovals() {
+        OrderNumberIndex orderNumberIndex = new OrderNumberIndex();
+        Map<Integer, LocalDate> expected = new HashMap<>();
+        Random random = new Random(42L);
+
+        for (int i = 0; i < 100_000; i++) {
+            int orderNumber = 1 + random.nextInt(20_000);
+            LocalDate date = orderDate.plusDays(random.nextInt(30));
+            if (random.nextInt(3) == 0) {
+                LocalDate expectedDate = expected.get(orderNumber);
+                if (expectedDate != null) {
+                    orderNumberIndex.remove(orderNumber, expectedDate);
+                    expected.remove(orderNumber);
+                }
+            } else {
+                orderNumberIndex.put(orderNumber, date);
+                expected.put(orderNumber, date);
+            }
+        }
+
+        assertEquals(expected.size(), orderNumberIndex.size());
+        for (int orderNumber = 1; orderNumber <= 20_000; orderNumber++) {
+            assertEquals(expected.get(orderNumber),
+                    orderNumberIndex.get(orderNumber),
+                    "Order #" + orderNumber);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.sblinn.flooringmastery.dao;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderNumberSequenceFileImplTest {
+    
+    private OrderNumberSequence testOrderNumberSequence;
+    private OrderDao testOrderDao;
+    private final String TEST_ORDERS_DIR;
+    private final String TEST_FILE;
+    
+    
+    public OrderNumberSequenceFileImplTest() {
+        ApplicationContext appContext
+                = new ClassPathXmlApplicationContext("testApplicationContext.xml");
+        testOrderNumberSequence = appContext.getBean("orderNumberSequence", 
+                OrderNumberSequence.class);
+        testOrderDao = appContext.getBean("orderDao", OrderDao.class);
+        TEST_ORDERS_DIR = appContext.getBean("testOrdersDir", String.class);
+        TEST_FILE = appContext.getBean("testOrderNumberFile", String.class);
+    }
+    
+    @BeforeEach
+    public void setUp() {
+        // start each test with no orders and no saved high-water mark
+        File ordersDir = new File(TEST_ORDERS_DIR);
+        for (File orderFile : ordersDir.listFiles()) {
+            orderFile.delete();
+        }
+        new File(TEST_FILE).delete();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        setUp();
+    }
+    
+    
+    @Test
+    public void testRecoversNextOrderNumberFromOrders() throws Exception {
+        Order testOrder = new Order(LocalDate.of(2022, 6, 22), 41);
+        testOrder.setCustomerName("Joe, Inc.");
+        testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        testOrder.setTaxInfo(new TaxInfo("CA", "California", 
+                new BigDecimal("25.00")));
+        testOrder.setArea(new BigDecimal("249.00"));
+        testOrder.setMaterialCost(new BigDecimal("871.50")); 
+        testOrder.setLaborCost(new BigDecimal("1033.35")); 
+        testOrder.setTax(new BigDecimal("476.21")); 
+        testOrder.setTotal(new BigDecimal("2381.06"));
+        testOrderDao.createOrder(testOrder);
+        
+        assertEquals(42, testOrderNumberSequence.peekNextOrderNumber(),
+                "Peeking should not use up the next order number.");
+        assertEquals(42, testOrderNumberSequence.nextOrderNumber());
+        assertEquals(43, testOrderNumberSequence.nextOrderNumber());
+        assertEquals(44, testOrderNumberSequence.reserveOrderNumbers(10));
+        assertEquals(54, testOrderNumberSequence.nextOrderNumber());
+    }
+    
+    @Test
+    public void testNumbersAreNotReusedAfterRestart() throws Exception {
+        int lastOrderNumber = 0;
+        for (int i = 0; i < 3; i++) {
+            lastOrderNumber = testOrderNumberSequence.nextOrderNumber();
+        }
+        
+        // a new sequence over the same (still empty) order store
+        OrderNumberSequence restartedSequence = 
+                new OrderNumberSequenceFileImpl(TEST_FILE, testOrderDao);
+        
+        assertTrue(restartedSequence.nextOrderNumber() > lastOrderNumber,
+                "Order numbers handed out before a restart must not be "
+                + "handed out again.");
+    }
+    
+    @Test
+    public void testConcurrentNumbersAreUnique() throws Exception {
+        int threads = 8;
+        int numbersPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        
+        List<Future<List<Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                List<Integer> orderNumbers = new ArrayList<>();
+                for (int n = 0; n < numbersPerThread; n++) {
+                    orderNumbers.add(testOrderNumberSequence.nextOrderNumber());
+                }
+                return orderNumbers;
+            }));
+        }
+        
+        Set<Integer> allOrderNumbers = new HashSet<>();
+        for (Future<List<Integer>> result : results) {
+            allOrderNumbers.addAll(result.get());
+        }
+        executor.shutdown();
+        
+        assertEquals(threads * numbersPerThread, allOrderNumbers.size(),
+                "Every order number handed out should be unique.");
+    }
+    
+}
@@ -2,9 +2,11 @@
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.Product;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.math.BigDecimal;
 import java.util.List;
 import org.junit.jupiter.api.AfterEach;
@@ -154,4 +156,45 @@ public class ProductDaoFileImplTest {
                 "Checking that list of Products is empty."); 
     }
     
+    @Test
+    public void testCachesProductsUntilFileChangesOnDisk() throws Exception {
+        ProductDaoFileImpl productDao = (ProductDaoFileImpl) testProductDao;
+        productDao.setRevalidationInterval(0);
+        
+        Product testProduct = new Product("Tile", new BigDecimal("3.50"), 
+                new BigDecimal("4.15"));
+        productDao.createProduct("Tile", testProduct);
+        
+        long dataVersion = productDao.getDataVersion();
+        assertEquals(testProduct, productDao.getProduct("Tile"));
+        assertEquals(dataVersion, productDao.getDataVersion(),
+                "Unchanged products file should not be read again.");
+        
+        // neither the created nor a retrieved instance is the cached one
+        testProduct.setCostPerSqFoot(new BigDecimal("9.99"));
+        productDao.getProduct("Tile").setCostPerSqFoot(new BigDecimal("8.88"));
+        productDao.getAllProducts().get(0)
+                .setLaborCostPerSqFoot(new BigDecimal("7.77"));
+        assertEquals(new Product("Tile", new BigDecimal("3.50"), 
+                new BigDecimal("4.15")), productDao.getProduct("Tile"),
+                "Changing a Product should not change the cached one.");
+        
+        // another process rewrites the products file
+        File productsFile = new File(TEST_FILE);
+        try (PrintWriter out = new PrintWriter(new FileWriter(productsFile))) {
+            out.println("ProductType,CostPerSquareFoot,LaborCostPerSquareFoot");
+            out.println("Wood,5.15,4.75");
+        }
+        assertTrue(productsFile.setLastModified(
+                productsFile.lastModified() + 2000));
+        
+        assertNull(productDao.getProduct("Tile"),
+                "Product removed from the file on disk should be gone.");
+        assertEquals(new Product("Wood", new BigDecimal("5.15"), 
+                new BigDecimal("4.75")), productDao.getProduct("Wood"),
+                "Product added on disk should be loaded.");
+        assertTrue(productDao.getDataVersion() > dataVersion,
+                "Products read again should have a new version.");
+    }
+    
 }
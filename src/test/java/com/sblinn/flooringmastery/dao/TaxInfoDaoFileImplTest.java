@@ -2,7 +2,9 @@
 package com.sblinn.flooringmastery.dao;
 
 import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.File;
 import java.io.FileWriter;
+import java.io.PrintWriter;
 import java.math.BigDecimal;
 import java.util.List;
 import org.junit.jupiter.api.AfterEach;
@@ -129,4 +131,40 @@ public class TaxInfoDaoFileImplTest {
         assertTrue(taxInfoList.isEmpty(), "Checking that list of TaxInfo is empty.");      
     }
     
+    @Test
+    public void testCachesTaxInfoUntilFileChangesOnDisk() throws Exception {
+        TaxInfoDaoFileImpl taxInfoDao = (TaxInfoDaoFileImpl) testTaxInfoDao;
+        taxInfoDao.setRevalidationInterval(0);
+        
+        TaxInfo taxInfo = new TaxInfo("MN", "Minnesota", new BigDecimal("6.875"));
+        taxInfoDao.createTaxInfo("MN", taxInfo);
+        
+        long dataVersion = taxInfoDao.getDataVersion();
+        assertEquals(taxInfo, taxInfoDao.getTaxInfo("mn"));
+        assertEquals(dataVersion, taxInfoDao.getDataVersion(),
+                "Unchanged state taxes file should not be read again.");
+        
+        // neither the created nor a retrieved instance is the cached one
+        taxInfo.setTaxRate(new BigDecimal("9.99"));
+        taxInfoDao.getTaxInfo("MN").setTaxRate(new BigDecimal("8.88"));
+        taxInfoDao.getAllTaxInfo().get(0).setStateName("Minn.");
+        assertEquals(new TaxInfo("MN", "Minnesota", new BigDecimal("6.875")),
+                taxInfoDao.getTaxInfo("MN"),
+                "Changing a TaxInfo should not change the cached one.");
+        
+        // another process rewrites the state taxes file
+        File taxesFile = new File(TEST_FILE);
+        try (PrintWriter out = new PrintWriter(new FileWriter(taxesFile))) {
+            out.println("State,StateName,TaxRate");
+            out.println("ND,North Dakota,5.0");
+        }
+        assertTrue(taxesFile.setLastModified(taxesFile.lastModified() + 2000));
+        
+        assertNull(taxInfoDao.getTaxInfo("MN"),
+                "TaxInfo removed from the file on disk should be gone.");
+        assertEquals(new TaxInfo("ND", "North Dakota", new BigDecimal("5.0")),
+                taxInfoDao.getTaxInfo("ND"),
+                "TaxInfo added on disk should be loaded.");
+    }
+    
 }
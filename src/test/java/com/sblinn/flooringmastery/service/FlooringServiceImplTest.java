@@ -2,6 +2,7 @@
 package com.sblinn.flooringmastery.service;
 
 import com.sblinn.flooringmastery.dao.OrderDao;
+import com.sblinn.flooringmastery.dao.OrderDaoFileImpl;
 import com.sblinn.flooringmastery.dao.PersistenceException;
 import com.sblinn.flooringmastery.dao.ProductDao;
 import com.sblinn.flooringmastery.dao.TaxInfoDao;
@@ -10,8 +11,15 @@ import com.sblinn.flooringmastery.dto.Product;
 import com.sblinn.flooringmastery.dto.TaxInfo;
 import java.io.File;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -236,6 +244,262 @@ public class FlooringServiceImplTest {
         }
     }
     
+    @Test
+    public void testWritesUpdateRunningTotals() throws 
+            PersistenceException,
+            DataNotFoundException,
+            InvalidDataException {
+        
+        // a reporting service over the DAO the service writes through
+        OrderDaoStubImpl orderDao = new OrderDaoStubImpl();
+        FlooringServiceImpl trackedService = new FlooringServiceImpl(
+                TEST_DATA_EXPORT_DIR, orderDao, new ProductDaoStubImpl(), 
+                new TaxInfoDaoStubImpl(), new OrderNumberSequenceStubImpl());
+        OrderReportingServiceImpl reportingService = 
+                new OrderReportingServiceImpl(orderDao);
+        
+        LocalDate orderDate = orderDao.onlyOrder.getOrderDate();
+        assertEquals(1, reportingService.getRunningSalesReport(orderDate, 
+                orderDate, ReportPeriod.DAY).getTotals().getOrderCount());
+        
+        trackedService.deleteOrder(orderDate, 1);
+        assertEquals(OrderTotals.NONE, reportingService.getRunningSalesReport(
+                orderDate, orderDate, ReportPeriod.DAY).getTotals());
+    }
+    
+    @Test
+    public void testRepriceOrdersInState() throws Exception {
+        // a service saving orders to files, with one product and state
+        OrderDaoFileImpl orderDao = new OrderDaoFileImpl(TEST_DATA_EXPORT_DIR);
+        TaxInfoDaoStubImpl taxInfoDao = new TaxInfoDaoStubImpl();
+        FlooringServiceImpl repricingService = new FlooringServiceImpl(
+                TEST_DATA_EXPORT_DIR, orderDao, new ProductDaoStubImpl(), 
+                taxInfoDao, new OrderNumberSequenceStubImpl());
+        repricingService.setRepricingParallelism(2);
+        
+        LocalDate today = LocalDate.now();
+        for (int orderNumber = 1; orderNumber <= 4; orderNumber++) {
+            Order order = new Order(today.plusDays(orderNumber - 1), 
+                    orderNumber);
+            order.setCustomerName("Joe, Inc.");
+            order.setTaxInfo(taxInfoDao.onlyTax);
+            order.setArea(new BigDecimal("249.00"));
+            order.setProduct(new ProductDaoStubImpl().onlyProduct);
+            orderDao.createOrder(repricingService.calculateOrder(order));
+        }
+        
+        // the state's tax rate goes from 25% to 10%
+        taxInfoDao.onlyTax = new TaxInfo("CA", "California", 
+                new BigDecimal("10.00"));
+        List<Integer> progress = new ArrayList<>();
+        RepricingReport report = repricingService.repriceOrdersInState("ca",
+                (repricedDateCount, dateCount) -> {
+                    synchronized (progress) {
+                        progress.add(repricedDateCount);
+                    }
+                    assertEquals(3, dateCount);
+                });
+        
+        // today's order is left alone, the future ones are repriced
+        assertEquals(3, report.getFoundCount());
+        assertEquals(3, report.getDateCount());
+        assertEquals(3, report.getRepricedCount());
+        assertEquals(3, report.getChangedTotalCount());
+        assertEquals(0, report.getSkippedCount());
+        progress.sort(null);
+        assertEquals(List.of(1, 2, 3), progress);
+        
+        OrderDaoFileImpl reloadedOrderDao = 
+                new OrderDaoFileImpl(TEST_DATA_EXPORT_DIR);
+        assertEquals(new BigDecimal("2381.06"), 
+                reloadedOrderDao.getOrder(1).getTotal());
+        for (int orderNumber = 2; orderNumber <= 4; orderNumber++) {
+            Order repricedOrder = reloadedOrderDao.getOrder(orderNumber);
+            assertEquals(new BigDecimal("190.49"), repricedOrder.getTax());
+            assertEquals(new BigDecimal("2095.34"), repricedOrder.getTotal());
+            assertEquals(0, new BigDecimal("10.00").compareTo(
+                    repricedOrder.getTaxInfo().getTaxRate()));
+        }
+        
+        // repricing again changes nothing
+        report = repricingService.repriceOrdersInState("CA", null);
+        assertEquals(3, report.getFoundCount());
+        assertEquals(0, report.getRepricedCount());
+        assertEquals(0, report.getChangedTotalCount());
+        
+        try {
+            repricingService.repriceOrdersInState("TX", null);
+            fail("DataNotFoundException should have been thrown for a "
+                    + "state with no tax info.");
+        } catch (DataNotFoundException e) {
+            // pass
+        }
+    }
+    
+    @Test
+    public void testRepriceSkipsOrdersDeletedMeanwhile() throws Exception {
+        // a DAO on which order 2 is deleted just before the repricing saves
+        OrderDaoFileImpl orderDao = new OrderDaoFileImpl(TEST_DATA_EXPORT_DIR) {
+            @Override
+            public List<Order> updateOrdersIfUnchanged(List<Order> readOrders,
+                    List<Order> updatedOrders) throws PersistenceException {
+                Order deletedOrder = getOrder(2);
+                if (deletedOrder != null) {
+                    deleteOrder(deletedOrder.getOrderDate(), 2);
+                }
+                return super.updateOrdersIfUnchanged(readOrders, 
+                        updatedOrders);
+            }
+        };
+        TaxInfoDaoStubImpl taxInfoDao = new TaxInfoDaoStubImpl();
+        FlooringServiceImpl repricingService = new FlooringServiceImpl(
+                TEST_DATA_EXPORT_DIR, orderDao, new ProductDaoStubImpl(), 
+                taxInfoDao, new OrderNumberSequenceStubImpl());
+        OrderReportingServiceImpl reportingService = 
+                new OrderReportingServiceImpl(orderDao);
+        
+        LocalDate orderDate = LocalDate.now().plusDays(1);
+        for (int orderNumber = 1; orderNumber <= 3; orderNumber++) {
+            Order order = new Order(orderDate, orderNumber);
+            order.setCustomerName("Joe, Inc.");
+            order.setTaxInfo(taxInfoDao.onlyTax);
+            order.setArea(new BigDecimal("249.00"));
+            order.setProduct(new ProductDaoStubImpl().onlyProduct);
+            repricingService.createOrder(repricingService.calculateOrder(order));
+        }
+        
+        taxInfoDao.onlyTax = new TaxInfo("CA", "California", 
+                new BigDecimal("10.00"));
+        RepricingReport report = repricingService.repriceOrdersInState("CA", 
+                null);
+        
+        assertEquals(3, report.getFoundCount());
+        assertEquals(2, report.getRepricedCount());
+        assertEquals(2, report.getChangedTotalCount());
+        assertEquals(1, report.getSkippedCount());
+        
+        // the deleted order stays deleted, and the running totals took it
+        // out once, when it was deleted
+        OrderDaoFileImpl reloadedOrderDao = 
+                new OrderDaoFileImpl(TEST_DATA_EXPORT_DIR);
+        assertNull(reloadedOrderDao.getOrder(2));
+        assertEquals(2, reloadedOrderDao.getAllOrdersOnDate(orderDate).size());
+        assertEquals(reportingService.getSalesReport(orderDate, orderDate, 
+                ReportPeriod.DAY).getTotals(), 
+                reportingService.getRunningSalesReport(orderDate, orderDate, 
+                ReportPeriod.DAY).getTotals());
+    }
+    
+    @Test
+    public void testRepriceKeepsOrdersEditedMeanwhile() throws Exception {
+        // a DAO on which order 2 is edited just before the repricing first 
+        // saves, by someone who does not price it
+        OrderDaoFileImpl orderDao = new OrderDaoFileImpl(TEST_DATA_EXPORT_DIR) {
+            private boolean isEdited;
+            
+            @Override
+            public List<Order> updateOrdersIfUnchanged(List<Order> readOrders,
+                    List<Order> updatedOrders) throws PersistenceException {
+                if (!isEdited) {
+                    isEdited = true;
+                    Order editedOrder = getOrder(2);
+                    editedOrder.setCustomerName("Edited, Inc.");
+                    editedOrder.setArea(new BigDecimal("300.00"));
+                    updateOrder(editedOrder);
+                }
+                return super.updateOrdersIfUnchanged(readOrders, 
+                        updatedOrders);
+            }
+        };
+        TaxInfoDaoStubImpl taxInfoDao = new TaxInfoDaoStubImpl();
+        FlooringServiceImpl repricingService = new FlooringServiceImpl(
+                TEST_DATA_EXPORT_DIR, orderDao, new ProductDaoStubImpl(), 
+                taxInfoDao, new OrderNumberSequenceStubImpl());
+        
+        LocalDate orderDate = LocalDate.now().plusDays(1);
+        for (int orderNumber = 1; orderNumber <= 3; orderNumber++) {
+            Order order = new Order(orderDate, orderNumber);
+            order.setCustomerName("Joe, Inc.");
+            order.setTaxInfo(taxInfoDao.onlyTax);
+            order.setArea(new BigDecimal("249.00"));
+            order.setProduct(new ProductDaoStubImpl().onlyProduct);
+            repricingService.createOrder(repricingService.calculateOrder(order));
+        }
+        
+        taxInfoDao.onlyTax = new TaxInfo("CA", "California", 
+                new BigDecimal("10.00"));
+        RepricingReport report = repricingService.repriceOrdersInState("CA", 
+                null);
+        
+        assertEquals(3, report.getFoundCount());
+        assertEquals(3, report.getRepricedCount());
+        assertEquals(3, report.getChangedTotalCount());
+        assertEquals(0, report.getSkippedCount());
+        
+        // the edit survives, and the edited order was repriced with it
+        OrderDaoFileImpl reloadedOrderDao = 
+                new OrderDaoFileImpl(TEST_DATA_EXPORT_DIR);
+        Order editedOrder = reloadedOrderDao.getOrder(2);
+        assertEquals("Edited, Inc.", editedOrder.getCustomerName());
+        assertEquals(new BigDecimal("300.00"), editedOrder.getArea());
+        assertEquals(new BigDecimal("229.50"), editedOrder.getTax());
+        assertEquals(new BigDecimal("2524.50"), editedOrder.getTotal());
+        for (Order repricedOrder : 
+                reloadedOrderDao.getAllOrdersOnDate(orderDate)) {
+            if (repricedOrder.getOrderNumber() != 2) {
+                assertEquals("Joe, Inc.", repricedOrder.getCustomerName());
+                assertEquals(new BigDecimal("2095.34"), 
+                        repricedOrder.getTotal());
+            }
+        }
+    }
+    
+    @Test
+    public void testGetOrderByNumberOnly() throws 
+            PersistenceException,
+            DataNotFoundException {
+        
+        // the orderDaoStub's only order is #1
+        Order retrievedOrder = service.getOrder(1);
+        assertEquals("Joe, Inc.", retrievedOrder.getCustomerName());
+        
+        try {
+            service.getOrder(2);
+            fail("DataNotFoundException should have been thrown for an "
+                    + "order number that does not exist.");
+        } catch (DataNotFoundException e) {
+            // pass
+        }
+    }
+    
+    @Test
+    public void testFindOrdersByCustomer() throws 
+            PersistenceException,
+            DataNotFoundException,
+            InvalidDataException {
+        
+        // the orderDaoStub's only order is for Joe, Inc.
+        List<Order> foundOrders = service.findOrdersByCustomer("joe");
+        assertEquals(1, foundOrders.size());
+        assertEquals("Joe, Inc.", foundOrders.get(0).getCustomerName());
+        
+        try {
+            service.findOrdersByCustomer("Target");
+            fail("DataNotFoundException should have been thrown for a "
+                    + "customer with no orders.");
+        } catch (DataNotFoundException e) {
+            // pass
+        }
+        
+        try {
+            service.findOrdersByCustomer("  ");
+            fail("InvalidDataException should have been thrown for a "
+                    + "blank customer name.");
+        } catch (InvalidDataException e) {
+            // pass
+        }
+    }
+    
     @Test
     public void testUpdateOrder() throws 
             PersistenceException, 
@@ -465,6 +729,36 @@ public class FlooringServiceImplTest {
         }
     }
     
+    @Test
+    public void testCalculateOrderBeyondFixedPoint() throws Exception {
+        Order testOrder = new Order(LocalDate.now().plusDays(1), 1);
+        testOrder.setCustomerName("Joe, Inc.");
+        testOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        testOrder.setTaxInfo(new TaxInfo("CA", "California",
+                new BigDecimal("25.00")));
+
+        // more decimal places than a long can scale
+        testOrder.setArea(new BigDecimal("249.0000000000000000001"));
+        Order calculatedOrder = service.calculateOrder(testOrder);
+        assertEquals(new BigDecimal("871.50"), calculatedOrder.getMaterialCost());
+        assertEquals(new BigDecimal("1033.35"), calculatedOrder.getLaborCost());
+        assertEquals(new BigDecimal("476.21"), calculatedOrder.getTax());
+        assertEquals(new BigDecimal("2381.06"), calculatedOrder.getTotal());
+
+        // more cents than a long holds
+        testOrder.setArea(new BigDecimal("10000000000000000000000.00"));
+        calculatedOrder = service.calculateOrder(testOrder);
+        assertEquals(new BigDecimal("35000000000000000000000.00"),
+                calculatedOrder.getMaterialCost());
+        assertEquals(new BigDecimal("41500000000000000000000.00"),
+                calculatedOrder.getLaborCost());
+        assertEquals(new BigDecimal("19125000000000000000000.00"),
+                calculatedOrder.getTax());
+        assertEquals(new BigDecimal("95625000000000000000000.00"),
+                calculatedOrder.getTotal());
+    }
+
     @Test
     public void testCalculateOrderInvalidArea() throws 
             PersistenceException, 
@@ -617,6 +911,110 @@ public class FlooringServiceImplTest {
         }        
     }
     
+    @Test
+    public void testImportOrdersFromFile() throws Exception {
+        String futureDate = LocalDate.now().plusDays(1)
+                .format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        String pastDate = LocalDate.now().minusDays(1)
+                .format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        
+        Path importFile = Paths.get(TEST_DATA_EXPORT_DIR, "testImport.txt");
+        Files.write(importFile, List.of(
+                "OrderDate,CustomerName,State,ProductType,Area",
+                futureDate + ",'Joe, Inc.',CA,Tile,249.00",
+                futureDate + ",Target,ca,Tile,100",
+                pastDate + ",Target,CA,Tile,249.00",
+                futureDate + ",Target,CA,Marble,249.00",
+                futureDate + ",Target,CA,Tile,99.99",
+                futureDate + ",Target,CA,Tile,lots",
+                "",
+                "not an order"));
+        
+        OrderImportReport report = service.importOrders(importFile);
+        
+        // the OrderNumberSequenceStub starts at 2
+        assertEquals(2, report.getImportedCount());
+        assertEquals(2, report.getFirstOrderNumber());
+        assertEquals(3, report.getLastOrderNumber());
+        
+        assertEquals(5, report.getRejectedCount());
+        int[] expectedRowNumbers = {4, 5, 6, 7, 9};
+        for (int i = 0; i < expectedRowNumbers.length; i++) {
+            assertEquals(expectedRowNumbers[i], 
+                    report.getRejectedRows().get(i).getRowNumber());
+        }
+        assertEquals(pastDate + ",Target,CA,Tile,249.00",
+                report.getRejectedRows().get(0).getRow());
+    }
+    
+    @Test
+    public void testImportOrdersFromStream() throws Exception {
+        LocalDate futureDate = LocalDate.now().plusDays(1);
+        
+        Order validOrder = new Order(futureDate);
+        validOrder.setCustomerName("Joe, Inc.");
+        validOrder.setTaxInfo(new TaxInfo("CA"));
+        // imported costs are replaced with the product data's costs
+        validOrder.setProduct(new Product("Tile", BigDecimal.ONE, BigDecimal.ONE));
+        validOrder.setArea(new BigDecimal("249.00"));
+        
+        Order invalidName = new Order(futureDate);
+        invalidName.setCustomerName("Joe & Sons");
+        invalidName.setTaxInfo(new TaxInfo("CA"));
+        invalidName.setProduct(new Product("Tile", null, null));
+        invalidName.setArea(new BigDecimal("249.00"));
+        
+        Order missingData = new Order(futureDate);
+        
+        OrderImportReport report = service.importOrders(
+                Stream.of(validOrder, invalidName, missingData, validOrder));
+        
+        assertEquals(2, report.getImportedCount());
+        assertEquals(2, report.getRejectedCount());
+        assertEquals(2, report.getRejectedRows().get(0).getRowNumber());
+        assertEquals(3, report.getRejectedRows().get(1).getRowNumber());
+        
+        OrderImportReport emptyReport = service.importOrders(Stream.empty());
+        assertEquals(0, emptyReport.getImportedCount());
+        assertEquals(0, emptyReport.getFirstOrderNumber());
+    }
+
+    @Test
+    public void testImportOrdersInChunks() throws Exception {
+        // a DAO which records the size of each batch it is given
+        List<Integer> batchSizes = new ArrayList<>();
+        OrderDao batchRecordingDao = new OrderDaoStubImpl() {
+            @Override
+            public int createOrders(Collection<Order> newOrders) {
+                batchSizes.add(newOrders.size());
+                return newOrders.size();
+            }
+        };
+        FlooringServiceImpl importService = new FlooringServiceImpl(
+                TEST_DATA_EXPORT_DIR, batchRecordingDao,
+                new ProductDaoStubImpl(), new TaxInfoDaoStubImpl(),
+                new OrderNumberSequenceStubImpl());
+        importService.setImportChunkSize(2);
+
+        Order validOrder = new Order(LocalDate.now().plusDays(1));
+        validOrder.setCustomerName("Joe, Inc.");
+        validOrder.setTaxInfo(new TaxInfo("CA"));
+        validOrder.setProduct(new Product("Tile", null, null));
+        validOrder.setArea(new BigDecimal("249.00"));
+        Order missingData = new Order(LocalDate.now().plusDays(1));
+
+        OrderImportReport report = importService.importOrders(Stream.of(
+                validOrder, validOrder, missingData, validOrder, validOrder,
+                validOrder));
+
+        // saved two at a time as they are read, the last one on its own
+        assertEquals(List.of(2, 2, 1), batchSizes);
+        assertEquals(5, report.getImportedCount());
+        assertEquals(1, report.getRejectedCount());
+        assertEquals(2, report.getFirstOrderNumber());
+        assertEquals(6, report.getLastOrderNumber());
+    }
+    
     @Test
     public void testGetProduct() throws 
             PersistenceException, 
@@ -1,9 +1,11 @@
 
 package com.sblinn.flooringmastery.service;
 
+import com.sblinn.flooringmastery.dao.OrderChangeListener;
 import com.sblinn.flooringmastery.dao.OrderDao;
 import com.sblinn.flooringmastery.dao.PersistenceException;
 import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.OrderSummary;
 import com.sblinn.flooringmastery.dto.Product;
 import com.sblinn.flooringmastery.dto.TaxInfo;
 import java.io.File;
@@ -13,7 +15,9 @@ import java.io.PrintWriter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -22,6 +26,8 @@ import java.util.List;
 public class OrderDaoStubImpl implements OrderDao {
     
     public Order onlyOrder;
+    private final List<OrderChangeListener> orderChangeListeners = 
+            new ArrayList<>();
     
     
     /**
@@ -71,6 +77,13 @@ public class OrderDaoStubImpl implements OrderDao {
         }
     }
 
+    @Override
+    public int createOrders(Collection<Order> newOrders) 
+            throws PersistenceException {
+        
+        return newOrders.size();
+    }
+
     @Override
     public Order getOrder(LocalDate orderDate, int orderNumber) throws 
             PersistenceException {
@@ -86,6 +99,15 @@ public class OrderDaoStubImpl implements OrderDao {
         }
     }
 
+    @Override
+    public Order getOrder(int orderNumber) throws PersistenceException {
+        if (onlyOrder != null && orderNumber == onlyOrder.getOrderNumber()) {
+            return onlyOrder;
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public List<Order> getAllOrdersOnDate(LocalDate orderDate) throws 
             PersistenceException {
@@ -100,6 +122,17 @@ public class OrderDaoStubImpl implements OrderDao {
         }
     }
 
+    @Override
+    public Stream<Order> getOrdersBetween(LocalDate fromDate, 
+            LocalDate toDate) throws PersistenceException {
+        
+        if (onlyOrder == null || onlyOrder.getOrderDate().isBefore(fromDate)
+                || onlyOrder.getOrderDate().isAfter(toDate)) {
+            return Stream.empty();
+        }
+        return Stream.of(onlyOrder);
+    }
+
     @Override
     public List<Order> getAllOrders() throws PersistenceException {
         List<Order> orders = new ArrayList<>();
@@ -107,12 +140,80 @@ public class OrderDaoStubImpl implements OrderDao {
         return orders;
     }
 
+    @Override
+    public int getMaxOrderNumber() throws PersistenceException {
+        if (onlyOrder == null) {
+            return 0;
+        }
+        return onlyOrder.getOrderNumber();
+    }
+
+    @Override
+    public OrderSummary getOrderSummary(LocalDate orderDate) 
+            throws PersistenceException {
+        
+        if (onlyOrder == null || !onlyOrder.getOrderDate().equals(orderDate)) {
+            return null;
+        }
+        return OrderSummary.of(onlyOrder);
+    }
+
+    @Override
+    public List<OrderSummary> getOrderSummariesBetween(LocalDate fromDate, 
+            LocalDate toDate) throws PersistenceException {
+        
+        List<OrderSummary> summaries = new ArrayList<>();
+        if (onlyOrder != null && !onlyOrder.getOrderDate().isBefore(fromDate)
+                && !onlyOrder.getOrderDate().isAfter(toDate)) {
+            summaries.add(OrderSummary.of(onlyOrder));
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<Order> findOrdersByCustomer(String customerNamePrefix)
+            throws PersistenceException {
+        
+        List<Order> orders = new ArrayList<>();
+        if (onlyOrder != null && onlyOrder.getCustomerName().toLowerCase()
+                .startsWith(customerNamePrefix.trim().toLowerCase())) {
+            orders.add(onlyOrder);
+        }
+        return orders;
+    }
+    
+    @Override
+    public List<Order> findOrdersByState(String stateAbbr, LocalDate fromDate)
+            throws PersistenceException {
+        
+        List<Order> orders = new ArrayList<>();
+        if (onlyOrder != null && !onlyOrder.getOrderDate().isBefore(fromDate)
+                && onlyOrder.getTaxInfo().getStateAbbr()
+                        .equalsIgnoreCase(stateAbbr)) {
+            orders.add(onlyOrder);
+        }
+        return orders;
+    }
+    
+    @Override
+    public List<Order> findOrdersByProduct(String productType, 
+            LocalDate fromDate) throws PersistenceException {
+        
+        List<Order> orders = new ArrayList<>();
+        if (onlyOrder != null && !onlyOrder.getOrderDate().isBefore(fromDate)
+                && onlyOrder.getProduct().getProductType().equals(productType)) {
+            orders.add(onlyOrder);
+        }
+        return orders;
+    }
+
     @Override
     public Order updateOrder(Order updatedOrder) throws PersistenceException {
 
         if (updatedOrder.getOrderDate().compareTo(onlyOrder.getOrderDate()) == 0) {
             if (updatedOrder.getOrderNumber() == onlyOrder.getOrderNumber()) {  
                 this.onlyOrder = updatedOrder;
+                fireOrdersChanged(onlyOrder.getOrderDate(), List.of(onlyOrder));
                 return onlyOrder;
             } else {
                 return null;
@@ -122,6 +223,41 @@ public class OrderDaoStubImpl implements OrderDao {
         }
     }
 
+    @Override
+    public List<Order> updateOrders(Collection<Order> updatedOrders) 
+            throws PersistenceException {
+        
+        List<Order> replacedOrders = new ArrayList<>();
+        for (Order updatedOrder : updatedOrders) {
+            if (updatedOrder.getOrderDate().compareTo(onlyOrder.getOrderDate()) == 0
+                    && updatedOrder.getOrderNumber() == onlyOrder.getOrderNumber()) {
+                replacedOrders.add(onlyOrder);
+                this.onlyOrder = updatedOrder;
+                fireOrdersChanged(onlyOrder.getOrderDate(), List.of(onlyOrder));
+            } else {
+                replacedOrders.add(null);
+            }
+        }
+        return replacedOrders;
+    }
+
+    @Override
+    public List<Order> updateOrdersIfUnchanged(List<Order> readOrders, 
+            List<Order> updatedOrders) throws PersistenceException {
+        
+        List<Order> replacedOrders = new ArrayList<>();
+        for (int i = 0; i < updatedOrders.size(); i++) {
+            if (readOrders.get(i).equals(onlyOrder)) {
+                replacedOrders.add(onlyOrder);
+                this.onlyOrder = updatedOrders.get(i);
+                fireOrdersChanged(onlyOrder.getOrderDate(), List.of(onlyOrder));
+            } else {
+                replacedOrders.add(null);
+            }
+        }
+        return replacedOrders;
+    }
+
     @Override
     public Order deleteOrder(LocalDate orderDate, int orderNumber) throws 
             PersistenceException {
@@ -130,6 +266,7 @@ public class OrderDaoStubImpl implements OrderDao {
             if (orderNumber == onlyOrder.getOrderNumber()) {
                 Order deletedOnlyOrder = this.onlyOrder;
                 this.onlyOrder = null;
+                fireOrdersChanged(orderDate, List.of());
                 return deletedOnlyOrder;
             } else {
                 return null;
@@ -153,5 +290,17 @@ public class OrderDaoStubImpl implements OrderDao {
                     "ERROR WHILE TRYING TO WRITE TO BACKUP FILE.");
         }
     }
+
+    @Override
+    public void addOrderChangeListener(OrderChangeListener listener) {
+        orderChangeListeners.add(listener);
+    }
+    
+    private void fireOrdersChanged(LocalDate orderDate, 
+            Collection<Order> ordersOnDate) {
+        for (OrderChangeListener listener : orderChangeListeners) {
+            listener.ordersChanged(orderDate, ordersOnDate);
+        }
+    }
     
 }
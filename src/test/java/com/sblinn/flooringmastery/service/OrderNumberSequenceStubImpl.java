@@ -0,0 +1,49 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dao.OrderNumberSequence;
+import com.sblinn.flooringmastery.dao.PersistenceException;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderNumberSequenceStubImpl implements OrderNumberSequence {
+    
+    public int nextOrderNumber;
+    
+    
+    /**
+     * Starts the stub after the OrderDaoStubImpl's only order, #1.
+     */
+    public OrderNumberSequenceStubImpl() {
+        this.nextOrderNumber = 2;
+    }
+    
+    /**
+     * Uses a test next order number injected by another class.
+     * 
+     * @param testNextOrderNumber 
+     */
+    public OrderNumberSequenceStubImpl(int testNextOrderNumber) {
+        this.nextOrderNumber = testNextOrderNumber;
+    }
+    
+    
+    @Override
+    public int peekNextOrderNumber() throws PersistenceException {
+        return nextOrderNumber;
+    }
+
+    @Override
+    public int nextOrderNumber() throws PersistenceException {
+        return nextOrderNumber++;
+    }
+
+    @Override
+    public int reserveOrderNumbers(int count) throws PersistenceException {
+        int firstOrderNumber = nextOrderNumber;
+        nextOrderNumber += count;
+        return firstOrderNumber;
+    }
+    
+}
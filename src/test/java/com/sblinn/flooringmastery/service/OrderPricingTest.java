@@ -0,0 +1,120 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Quantity;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderPricingTest {
+
+    /**
+     * orderPricingGolden.csv holds the amounts the BigDecimal pricing gave
+     * for every product and state in Data, plus costs and rates of other 
+     * scales, over a range of areas.
+     */
+    @Test
+    public void testPricesMatchGoldenFile() throws Exception {
+        int pricedOrders = 0;
+        long[] pricesInCents = new long[OrderPricing.PRICE_COUNT];
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/orderPricingGolden.csv"),
+                StandardCharsets.UTF_8))) {
+            in.readLine(); // header
+            String line;
+            while ((line = in.readLine()) != null) {
+                // ProductType,CostPerSquareFoot,LaborCostPerSquareFoot,
+                // State,TaxRate,Area,MaterialCost,LaborCost,Tax,Total
+                String[] fields = line.split(",");
+                OrderPricing.priceInCents(
+                        Quantity.of(new BigDecimal(fields[5])),
+                        Quantity.of(new BigDecimal(fields[1])),
+                        Quantity.of(new BigDecimal(fields[2])),
+                        OrderPricing.taxMultiplier(new BigDecimal(fields[4])),
+                        pricesInCents);
+                
+                Order pricedOrder = new Order();
+                OrderPricing.setPrices(pricedOrder, pricesInCents);
+                // equal in value and in scale
+                assertEquals(new BigDecimal(fields[6]), 
+                        pricedOrder.getMaterialCost(), line);
+                assertEquals(new BigDecimal(fields[7]), 
+                        pricedOrder.getLaborCost(), line);
+                assertEquals(new BigDecimal(fields[8]), 
+                        pricedOrder.getTax(), line);
+                assertEquals(new BigDecimal(fields[9]), 
+                        pricedOrder.getTotal(), line);
+                pricedOrders++;
+            }
+        }
+        assertEquals(660, pricedOrders);
+    }
+
+    @Test
+    public void testRoundingAndOverflow() {
+        // ties round away from zero, as RoundingMode.HALF_UP does
+        assertEquals(3, OrderPricing.centsOfProduct(5, 1, 5, 2));
+        assertEquals(-3, OrderPricing.centsOfProduct(-5, 1, 5, 2));
+        assertEquals(new BigDecimal("-0.03"), OrderPricing.toBigDecimal(-3));
+        assertEquals(new BigDecimal("0.25"), Quantity.of(
+                new BigDecimal("0.245")).roundHalfUp(2).toBigDecimal());
+        // quantities are equal whatever their scale
+        Quantity rate = Quantity.of(new BigDecimal("1.50"));
+        assertEquals(Quantity.of(new BigDecimal("1.5")), rate);
+        assertEquals(Quantity.of(new BigDecimal("1.5")).hashCode(), 
+                rate.hashCode());
+        assertEquals(Quantity.of(new BigDecimal("100")), 
+                Quantity.of(new BigDecimal("1E+2")));
+        assertEquals(Quantity.of(BigDecimal.ZERO), 
+                Quantity.of(new BigDecimal("0.000")));
+        assertNotEquals(Quantity.of(new BigDecimal("15")), rate);
+        assertEquals(new BigDecimal("4.45"), OrderPricing.taxMultiplier(
+                new BigDecimal("445")).toBigDecimal());
+        
+        assertThrows(ArithmeticException.class, () -> OrderPricing.priceInCents(
+                Quantity.of(new BigDecimal("99999999999999.99")),
+                Quantity.of(new BigDecimal("999999.99")),
+                Quantity.of(BigDecimal.ONE), 
+                OrderPricing.taxMultiplier(BigDecimal.TEN),
+                new long[OrderPricing.PRICE_COUNT]));
+        assertThrows(ArithmeticException.class, 
+                () -> Quantity.of(new BigDecimal("1E-19")));
+    }
+
+    @Test
+    public void testExactPricesMatchFixedPointPrices() {
+        String[][] pricings = {
+            // area, cost, labor cost, tax rate
+            {"249.00", "3.50", "4.15", "25.00"},
+            {"0.5", "0.05", "0.05", "4.45"},
+            {"1234.567", "5.15", "4.75", "6.25"},
+            {"100", "2.25", "2.10", "5.75"}
+        };
+        long[] pricesInCents = new long[OrderPricing.PRICE_COUNT];
+        for (String[] pricing : pricings) {
+            OrderPricing.priceInCents(
+                    Quantity.of(new BigDecimal(pricing[0])),
+                    Quantity.of(new BigDecimal(pricing[1])),
+                    Quantity.of(new BigDecimal(pricing[2])),
+                    OrderPricing.taxMultiplier(new BigDecimal(pricing[3])),
+                    pricesInCents);
+            Order fixedPointOrder = new Order();
+            OrderPricing.setPrices(fixedPointOrder, pricesInCents);
+            
+            Order exactOrder = new Order();
+            OrderPricing.setExactPrices(exactOrder, 
+                    new BigDecimal(pricing[0]), new BigDecimal(pricing[1]), 
+                    new BigDecimal(pricing[2]), new BigDecimal(pricing[3]));
+            assertEquals(fixedPointOrder, exactOrder, 
+                    String.join(",", pricing));
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dao.OrderDaoFileImpl;
+import com.sblinn.flooringmastery.dao.PersistenceException;
+import com.sblinn.flooringmastery.dto.Order;
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class OrderReportingServiceImplTest {
+    
+    private final String TEST_ORDERS_DIR;
+    private OrderDaoFileImpl orderDao;
+    private OrderReportingServiceImpl reportingService;
+    
+    private final LocalDate firstDate = LocalDate.of(2022, 6, 29);
+    
+    
+    public OrderReportingServiceImplTest() {
+        ApplicationContext appContext = 
+                new ClassPathXmlApplicationContext("testApplicationContext.xml");
+        TEST_ORDERS_DIR = appContext.getBean("testOrdersDir", String.class);
+    }
+    
+    @BeforeEach
+    public void setUp() throws PersistenceException {
+        // start each test with orders over three days, across a month end
+        File ordersDir = new File(TEST_ORDERS_DIR);
+        for (File orderFile : ordersDir.listFiles()) {
+            orderFile.delete();
+        }
+        
+        // only the totals matter here, the costs need not add up to them
+        Order firstOrder = new Order(firstDate, 1);
+        firstOrder.setCustomerName("Joe, Inc.");
+        firstOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        firstOrder.setTaxInfo(new TaxInfo("CA", "CA", 
+                new BigDecimal("25.00")));
+        firstOrder.setArea(new BigDecimal("100.00"));
+        firstOrder.setMaterialCost(new BigDecimal("1.00")); 
+        firstOrder.setLaborCost(new BigDecimal("2.00")); 
+        firstOrder.setTax(new BigDecimal("3.00")); 
+        firstOrder.setTotal(new BigDecimal("100.00"));
+        
+        Order secondOrder = new Order(firstDate, 2);
+        secondOrder.setCustomerName("Joe, Inc.");
+        secondOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        secondOrder.setTaxInfo(new TaxInfo("CA", "CA", 
+                new BigDecimal("25.00")));
+        secondOrder.setArea(new BigDecimal("100.00"));
+        secondOrder.setMaterialCost(new BigDecimal("1.00")); 
+        secondOrder.setLaborCost(new BigDecimal("2.00")); 
+        secondOrder.setTax(new BigDecimal("3.00")); 
+        secondOrder.setTotal(new BigDecimal("50.00"));
+        
+        Order thirdOrder = new Order(firstDate, 3);
+        thirdOrder.setCustomerName("Joe, Inc.");
+        thirdOrder.setProduct(new Product("Wood", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        thirdOrder.setTaxInfo(new TaxInfo("TX", "TX", 
+                new BigDecimal("25.00")));
+        thirdOrder.setArea(new BigDecimal("100.00"));
+        thirdOrder.setMaterialCost(new BigDecimal("1.00")); 
+        thirdOrder.setLaborCost(new BigDecimal("2.00")); 
+        thirdOrder.setTax(new BigDecimal("3.00")); 
+        thirdOrder.setTotal(new BigDecimal("10.00"));
+        
+        Order fourthOrder = new Order(firstDate.plusDays(1), 4);
+        fourthOrder.setCustomerName("Joe, Inc.");
+        fourthOrder.setProduct(new Product("Wood", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        fourthOrder.setTaxInfo(new TaxInfo("CA", "CA", 
+                new BigDecimal("25.00")));
+        fourthOrder.setArea(new BigDecimal("100.00"));
+        fourthOrder.setMaterialCost(new BigDecimal("1.00")); 
+        fourthOrder.setLaborCost(new BigDecimal("2.00")); 
+        fourthOrder.setTax(new BigDecimal("3.00")); 
+        fourthOrder.setTotal(new BigDecimal("20.00"));
+        
+        Order fifthOrder = new Order(firstDate.plusDays(2), 5);
+        fifthOrder.setCustomerName("Joe, Inc.");
+        fifthOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        fifthOrder.setTaxInfo(new TaxInfo("TX", "TX", 
+                new BigDecimal("25.00")));
+        fifthOrder.setArea(new BigDecimal("100.00"));
+        fifthOrder.setMaterialCost(new BigDecimal("1.00")); 
+        fifthOrder.setLaborCost(new BigDecimal("2.00")); 
+        fifthOrder.setTax(new BigDecimal("3.00")); 
+        fifthOrder.setTotal(new BigDecimal("5.00"));
+        
+        orderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        orderDao.createOrders(List.of(firstOrder, secondOrder, thirdOrder, 
+                fourthOrder, fifthOrder));
+        
+        reportingService = new OrderReportingServiceImpl(orderDao);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        for (File orderFile : new File(TEST_ORDERS_DIR).listFiles()) {
+            orderFile.delete();
+        }
+    }
+    
+    
+    @Test
+    public void testSalesReportByDayAndMonth() throws Exception {
+        SalesReport dailyReport = reportingService.getSalesReport(
+                firstDate, firstDate.plusDays(1), ReportPeriod.DAY);
+        
+        // 06-29 CA Tile, 06-29 TX Wood, 06-30 CA Wood
+        assertEquals(3, dailyReport.getLines().size());
+        OrderTotals caTile = dailyReport.getLines().get(
+                new SalesReport.Key(firstDate, "CA", "Tile"));
+        assertEquals(2, caTile.getOrderCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(caTile.getTotal()));
+        assertEquals(0, new BigDecimal("180.00").compareTo(
+                dailyReport.getTotals().getTotal()));
+        assertEquals(0, new BigDecimal("170.00").compareTo(
+                dailyReport.getTotalsByState().get("CA").getTotal()));
+        assertEquals(2, dailyReport.getTotalsByPeriod().size());
+        
+        SalesReport monthlyReport = reportingService.getSalesReport(
+                firstDate, firstDate.plusDays(30), ReportPeriod.MONTH);
+        assertEquals(List.of(firstDate.withDayOfMonth(1), 
+                LocalDate.of(2022, 7, 1)), 
+                List.copyOf(monthlyReport.getTotalsByPeriod().keySet()));
+        assertEquals(5, monthlyReport.getTotals().getOrderCount());
+        assertEquals(0, new BigDecimal("155.00").compareTo(monthlyReport
+                .getTotalsByProduct().get("Tile").getTotal()));
+        
+        // totalled on several threads, the report is the same
+        reportingService.setReportParallelism(4);
+        assertEquals(monthlyReport.getLines(), reportingService.getSalesReport(
+                firstDate, firstDate.plusDays(30), ReportPeriod.MONTH)
+                .getLines());
+        
+        assertThrows(InvalidDataException.class, 
+                () -> reportingService.getSalesReport(firstDate.plusDays(1), 
+                        firstDate, ReportPeriod.DAY));
+    }
+    
+    @Test
+    public void testRunningTotalsFollowOrderChanges() throws Exception {
+        LocalDate lastDate = firstDate.plusDays(2);
+        assertEquals(reportingService.getSalesReport(firstDate, lastDate, 
+                ReportPeriod.MONTH).getLines(), 
+                reportingService.getRunningSalesReport(firstDate, lastDate, 
+                        ReportPeriod.MONTH).getLines());
+        
+        // create, update and delete an order straight through the DAO
+        Order newOrder = new Order(lastDate, 6);
+        newOrder.setCustomerName("Joe, Inc.");
+        newOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        newOrder.setTaxInfo(new TaxInfo("WA", "WA", 
+                new BigDecimal("25.00")));
+        newOrder.setArea(new BigDecimal("100.00"));
+        newOrder.setMaterialCost(new BigDecimal("1.00")); 
+        newOrder.setLaborCost(new BigDecimal("2.00")); 
+        newOrder.setTax(new BigDecimal("3.00")); 
+        newOrder.setTotal(new BigDecimal("40.00"));
+        orderDao.createOrder(newOrder);
+        
+        Order updatedOrder = new Order(firstDate, 1);
+        updatedOrder.setCustomerName("Joe, Inc.");
+        updatedOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        updatedOrder.setTaxInfo(new TaxInfo("CA", "CA", 
+                new BigDecimal("25.00")));
+        updatedOrder.setArea(new BigDecimal("100.00"));
+        updatedOrder.setMaterialCost(new BigDecimal("1.00")); 
+        updatedOrder.setLaborCost(new BigDecimal("2.00")); 
+        updatedOrder.setTax(new BigDecimal("3.00")); 
+        updatedOrder.setTotal(new BigDecimal("70.00"));
+        orderDao.updateOrder(updatedOrder);
+        
+        orderDao.deleteOrder(firstDate, 3);
+        
+        for (ReportPeriod period : ReportPeriod.values()) {
+            assertEquals(reportingService.getSalesReport(firstDate, lastDate, 
+                    period).getLines(), 
+                    reportingService.getRunningSalesReport(firstDate, 
+                            lastDate, period).getLines(),
+                    "Running totals should match the orders by " + period);
+        }
+        SalesReport runningReport = reportingService.getRunningSalesReport(
+                firstDate, firstDate, ReportPeriod.DAY);
+        assertNull(runningReport.getLines().get(
+                new SalesReport.Key(firstDate, "TX", "Wood")),
+                "A line with no orders left should be dropped.");
+        assertEquals(0, new BigDecimal("120.00").compareTo(
+                runningReport.getTotals().getTotal()));
+    }
+    
+    @Test
+    public void testRunningTotalsFollowOrderFilesChangedOnDisk() 
+            throws Exception {
+        
+        SalesReport builtReport = reportingService.getRunningSalesReport(
+                firstDate, firstDate.plusDays(1), ReportPeriod.DAY);
+        
+        // written by another process, through its own DAO
+        OrderDaoFileImpl otherOrderDao = new OrderDaoFileImpl(TEST_ORDERS_DIR);
+        Order newOrder = new Order(firstDate, 6);
+        newOrder.setCustomerName("Joe, Inc.");
+        newOrder.setProduct(new Product("Tile", new BigDecimal("3.50"),
+                new BigDecimal("4.15")));
+        newOrder.setTaxInfo(new TaxInfo("WA", "WA", 
+                new BigDecimal("25.00")));
+        newOrder.setArea(new BigDecimal("100.00"));
+        newOrder.setMaterialCost(new BigDecimal("1.00")); 
+        newOrder.setLaborCost(new BigDecimal("2.00")); 
+        newOrder.setTax(new BigDecimal("3.00")); 
+        newOrder.setTotal(new BigDecimal("40.00"));
+        otherOrderDao.createOrder(newOrder);
+        otherOrderDao.deleteOrder(firstDate, 3);
+        otherOrderDao.deleteOrder(firstDate.plusDays(1), 4);
+        
+        // counted as soon as this DAO reads the changed date
+        assertEquals(builtReport.getLines(), reportingService
+                .getRunningSalesReport(firstDate, firstDate.plusDays(1), 
+                        ReportPeriod.DAY).getLines());
+        orderDao.getAllOrdersOnDate(firstDate);
+        SalesReport runningReport = reportingService.getRunningSalesReport(
+                firstDate, firstDate, ReportPeriod.DAY);
+        assertEquals(reportingService.getSalesReport(firstDate, firstDate, 
+                ReportPeriod.DAY).getLines(), runningReport.getLines());
+        assertNull(runningReport.getLines().get(
+                new SalesReport.Key(firstDate, "TX", "Wood")));
+        
+        // getSalesReport reads the other date too
+        SalesReport currentReport = reportingService.getSalesReport(
+                firstDate, firstDate.plusDays(1), ReportPeriod.DAY);
+        assertEquals(currentReport.getLines(), reportingService
+                .getRunningSalesReport(firstDate, firstDate.plusDays(1), 
+                        ReportPeriod.DAY).getLines());
+        assertEquals(0, new BigDecimal("190.00").compareTo(
+                currentReport.getTotals().getTotal()));
+    }
+    
+}
@@ -0,0 +1,106 @@
+package com.sblinn.flooringmastery.service;
+
+import com.sblinn.flooringmastery.dto.Product;
+import com.sblinn.flooringmastery.dto.Quantity;
+import com.sblinn.flooringmastery.dto.TaxInfo;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author sarablinn
+ */
+public class PricingTableTest {
+
+    @Test
+    public void testPricesMatchOrderPricing() throws Exception {
+        long[] tablePrices = new long[OrderPricing.PRICE_COUNT];
+        long[] expectedPrices = new long[OrderPricing.PRICE_COUNT];
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/orderPricingGolden.csv"),
+                StandardCharsets.UTF_8))) {
+            in.readLine(); // header
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",");
+                Product product = new Product(fields[0], 
+                        new BigDecimal(fields[1]), new BigDecimal(fields[2]));
+                TaxInfo taxInfo = new TaxInfo(fields[3], "", 
+                        new BigDecimal(fields[4]));
+                PricingTable pricingTable = new PricingTable(1, List.of(
+                        new Product("Other", BigDecimal.ONE, BigDecimal.ONE),
+                        product), 1, List.of(taxInfo));
+                Quantity area = Quantity.of(new BigDecimal(fields[5]));
+
+                int productIndex = pricingTable.indexOfProduct(product);
+                int stateIndex = pricingTable.indexOfState(fields[3]);
+                assertEquals(1, productIndex, line);
+                assertTrue(pricingTable.hasTaxRate(stateIndex, 
+                        taxInfo.getTaxRate()), line);
+                pricingTable.priceInCents(productIndex, stateIndex, area,
+                        tablePrices);
+                OrderPricing.priceInCents(area, 
+                        Quantity.of(product.getCostPerSqFoot()),
+                        Quantity.of(product.getLaborCostPerSqFoot()),
+                        OrderPricing.taxMultiplier(taxInfo.getTaxRate()),
+                        expectedPrices);
+                assertArrayEquals(expectedPrices, tablePrices, line);
+            }
+        }
+    }
+
+    @Test
+    public void testLookups() {
+        Product tile = new Product("Tile", new BigDecimal("3.50"), 
+                new BigDecimal("4.15"));
+        TaxInfo texas = new TaxInfo("TX", "Texas", new BigDecimal("4.45"));
+        PricingTable pricingTable = new PricingTable(3, List.of(tile), 
+                7, List.of(texas));
+
+        assertTrue(pricingTable.isBuiltFrom(3, 7));
+        assertFalse(pricingTable.isBuiltFrom(3, 8));
+        assertFalse(pricingTable.isBuiltFrom(4, 7));
+
+        // states are found in any case
+        assertEquals(0, pricingTable.indexOfState("tx"));
+        assertEquals(texas, pricingTable.getTaxInfo(0));
+        assertEquals(tile, pricingTable.getProduct(0));
+
+        // every order gets its own product and tax info
+        assertNotSame(pricingTable.getTaxInfo(0), pricingTable.getTaxInfo(0));
+        assertNotSame(pricingTable.getProduct(0), pricingTable.getProduct(0));
+        pricingTable.getTaxInfo(0).setTaxRate(BigDecimal.ZERO);
+        pricingTable.getProduct(0).setCostPerSqFoot(BigDecimal.ZERO);
+        assertEquals(texas, pricingTable.getTaxInfo(0));
+        assertEquals(tile, pricingTable.getProduct(0));
+        assertEquals(-1, pricingTable.indexOfState("CA"));
+
+        // costs equal in value match whatever their scale
+        assertEquals(0, pricingTable.indexOfProduct(new Product("Tile", 
+                new BigDecimal("3.5"), new BigDecimal("4.150"))));
+        assertEquals(-1, pricingTable.indexOfProduct(new Product("Tile", 
+                new BigDecimal("3.25"), new BigDecimal("4.15"))));
+        assertEquals(-1, pricingTable.indexOfProduct(new Product("Wood", 
+                new BigDecimal("3.50"), new BigDecimal("4.15"))));
+
+        assertTrue(pricingTable.hasTaxRate(0, new BigDecimal("4.450")));
+        assertFalse(pricingTable.hasTaxRate(0, new BigDecimal("6.25")));
+
+        // rates too precise for fixed point are left to OrderPricing
+        PricingTable precisePricingTable = new PricingTable(1, List.of(
+                new Product("Tile", new BigDecimal("0.0000000000000000001"),
+                        BigDecimal.ONE)), 1, List.of(new TaxInfo("TX", 
+                        "Texas", new BigDecimal("1E+30"))));
+        assertEquals(-1, precisePricingTable.indexOfProduct(new Product(
+                "Tile", new BigDecimal("0.0000000000000000001"), 
+                BigDecimal.ONE)));
+        assertFalse(precisePricingTable.hasTaxRate(0, 
+                new BigDecimal("1E+30")));
+    }
+
+}
@@ -93,4 +93,13 @@ public class ProductDaoStubImpl implements ProductDao {
         }
     }
     
+    /**
+     * Returns a version which changes whenever onlyProduct is replaced or its 
+     * values change.
+     */
+    @Override
+    public long getDataVersion() throws PersistenceException {
+        return onlyProduct.hashCode();
+    }
+    
 }
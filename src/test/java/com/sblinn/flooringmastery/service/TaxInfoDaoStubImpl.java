@@ -80,4 +80,13 @@ public class TaxInfoDaoStubImpl implements TaxInfoDao {
         }
     }
     
+    /**
+     * Returns a version which changes whenever onlyTax is replaced or its 
+     * values change.
+     */
+    @Override
+    public long getDataVersion() throws PersistenceException {
+        return onlyTax.hashCode();
+    }
+    
 }